@@ -0,0 +1,33 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Producer profiles are ordered from lowest latency to highest throughput; unset profile values fall back to
+ * kafka-producer-config.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "adaptive-producer-config")
+public class AdaptiveProducerConfigData {
+    private Boolean enabled = false;
+    private Long latencySloMs = 100L;
+    private Long evaluationIntervalSeconds = 15L;
+    private Double headroomRatio = 0.5;
+    private Integer stableIntervals = 4;
+    private Integer initialProfile = 0;
+    private List<ProducerProfile> profiles = new ArrayList<>();
+
+    @Data
+    public static class ProducerProfile {
+        private String name;
+        private Integer lingerMs;
+        private Integer batchSize;
+        private String compressionType;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Records are buffered and committed in one transaction per flush interval, or earlier once
+ * max-records-per-transaction is reached. The transactional id prefix has to be unique per service instance.
+ * Needs the default producer factory, adaptive-producer-config and producer-pool-config must stay disabled.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "exactly-once-producer-config")
+public class ExactlyOnceProducerConfigData {
+    private Boolean enabled = false;
+    private String transactionIdPrefix = "twitter-to-kafka-tx-";
+    private Long flushIntervalMs = 200L;
+    private Integer maxRecordsPerTransaction = 50_000;
+    private Integer maxBufferedRecords = 500_000;
+    private Integer transactionTimeoutMs = 60_000;
+}
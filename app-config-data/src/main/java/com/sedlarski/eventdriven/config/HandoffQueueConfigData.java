@@ -0,0 +1,16 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "handoff-queue-config")
+public class HandoffQueueConfigData {
+    private Boolean enabled = false;
+    private Integer capacity = 65536;
+    private String overflowPolicy = "BLOCK";
+    private Integer drainWorkers = 2;
+    private Integer drainBatchSize = 256;
+}
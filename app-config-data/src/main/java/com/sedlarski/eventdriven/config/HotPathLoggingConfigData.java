@@ -0,0 +1,29 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sampling settings for hot-path loggers. Per logger overrides are keyed by logger name; in yaml use the
+ * bracket notation to keep the dots, e.g. {@code "[com.sedlarski.kafka.producer.config.service.impl.TwitterKafkaProducer]"}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "hot-path-logging-config")
+public class HotPathLoggingConfigData {
+    private Long summaryIntervalSeconds = 30L;
+    private Integer defaultSampleRate = 1000;
+    private Integer defaultMaxPerSecond = 5;
+    private Map<String, LoggerSettings> loggers = new HashMap<>();
+
+    @Data
+    public static class LoggerSettings {
+        private Integer sampleRate;
+        private Integer maxPerSecond;
+        private Boolean summaryEnabled = true;
+    }
+}
@@ -0,0 +1,14 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "in-memory-kafka-config")
+public class InMemoryKafkaConfigData {
+    private Long reportIntervalSeconds = 5L;
+    private Long warmupSeconds = 10L;
+    private Long durationSeconds = 0L;
+}
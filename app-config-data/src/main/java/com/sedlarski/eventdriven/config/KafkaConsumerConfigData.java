@@ -0,0 +1,42 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The parallel-* settings only apply to the parallel consumer: records are fanned out to parallel-workers by key,
+ * and partitions are paused while more than max-uncommitted-records wait behind the lowest unfinished offset or a
+ * worker has worker-queue-capacity batches queued. Records it cannot process go to the topic name plus
+ * dead-letter-topic-suffix, which has to exist unless the brokers create topics automatically.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kafka-consumer-config")
+public class KafkaConsumerConfigData {
+    private String keyDeserializer = "org.apache.kafka.common.serialization.LongDeserializer";
+    private String valueDeserializer = "io.confluent.kafka.serializers.KafkaAvroDeserializer";
+    private String consumerGroupId = "twitter-topic-consumer";
+    private String autoOffsetReset = "earliest";
+    private String isolationLevel = "read_committed";
+    private String specificAvroReaderKey = "specific.avro.reader";
+    private String specificAvroReader = "true";
+    private Boolean compactDeserializerRegistryHeader = false;
+    private Boolean batchListener = true;
+    private Boolean autoStartup = true;
+    private Integer concurrencyLevel = 3;
+    private Integer sessionTimeoutMs = 10000;
+    private Integer heartbeatIntervalMs = 3000;
+    private Integer maxPollIntervalMs = 300000;
+    private Integer maxPollRecords = 5000;
+    private Integer maxPartitionFetchBytesDefault = 1048576;
+    private Integer maxPartitionFetchBytesBoostFactor = 1;
+    private Long pollTimeoutMs = 150L;
+    private Boolean parallelEnabled = false;
+    private Integer parallelWorkers = 8;
+    private Integer workerQueueCapacity = 16;
+    private Integer maxUncommittedRecords = 200_000;
+    private Long commitIntervalMs = 1000L;
+    private String deadLetterTopicSuffix = "-dlt";
+    private Long deadLetterRetryBackoffMs = 1000L;
+}
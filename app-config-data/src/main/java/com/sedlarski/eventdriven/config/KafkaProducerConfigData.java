@@ -17,6 +17,8 @@ public class KafkaProducerConfigData {
     private Integer lingerMs;
     private Integer requestTimeoutMs;
     private Integer retryCount;
+    private Boolean compactSerializerRegistryHeader = false;
+    private Boolean enableIdempotence = false;
 
     public String getKeySerializerClass() {
         return keySerializerClass;
@@ -90,6 +92,22 @@ public class KafkaProducerConfigData {
         this.retryCount = retryCount;
     }
 
+    public Boolean getCompactSerializerRegistryHeader() {
+        return compactSerializerRegistryHeader;
+    }
+
+    public void setCompactSerializerRegistryHeader(Boolean compactSerializerRegistryHeader) {
+        this.compactSerializerRegistryHeader = compactSerializerRegistryHeader;
+    }
+
+    public Boolean getEnableIdempotence() {
+        return enableIdempotence;
+    }
+
+    public void setEnableIdempotence(Boolean enableIdempotence) {
+        this.enableIdempotence = enableIdempotence;
+    }
+
     public KafkaProducerConfigData() {
     }
 
@@ -0,0 +1,16 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ignored when adaptive-producer-config is enabled, the adaptive factory takes precedence.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "producer-pool-config")
+public class ProducerPoolConfigData {
+    private Boolean enabled = false;
+    private Integer size = 4;
+}
@@ -0,0 +1,13 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "reactive-stream-config")
+public class ReactiveStreamConfigData {
+    private Integer batchSize = 256;
+    private Integer maxInFlightBatches = 4;
+}
@@ -0,0 +1,14 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "schema-cache-config")
+public class SchemaCacheConfigData {
+    private Boolean enabled = false;
+    private String cacheFile = "schema-cache/schema-ids.tsv";
+    private Integer identityMapCapacity = 100;
+}
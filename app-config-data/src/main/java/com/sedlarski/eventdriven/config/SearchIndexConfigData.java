@@ -0,0 +1,22 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One Lucene index per partition-minutes of tweet creation time, deleted as a whole once it is older than
+ * retention-hours. Searches see new tweets after at most refresh-interval-ms. The index is committed whenever the
+ * consumer commits offsets, every kafka-consumer-config.commit-interval-ms.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "search-index-config")
+public class SearchIndexConfigData {
+    private String indexDirectory = "search-index";
+    private Long partitionMinutes = 60L;
+    private Long retentionHours = 24L;
+    private Long refreshIntervalMs = 1000L;
+    private Double ramBufferSizeMb = 64.0;
+    private Integer maxResults = 100;
+}
@@ -0,0 +1,26 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * A key is a heavy hitter when its estimated count in the current window is at least minHeavyHitterCount and
+ * heavyHitterRatio of all keyed records. With salting on, heavy hitters are spread over saltPartitions partitions
+ * starting at their usual one, which gives up ordering for those keys. The producer pool calls the partitioner
+ * before the value is serialized, so with the pool the partition byte counts of keyed records cover keys only.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "skew-partitioner-config")
+public class SkewPartitionerConfigData {
+    private Boolean enabled = false;
+    private Boolean saltingEnabled = false;
+    private Integer saltPartitions = 4;
+    private Integer sketchWidth = 4096;
+    private Integer sketchDepth = 4;
+    private Double heavyHitterRatio = 0.01;
+    private Long minHeavyHitterCount = 1000L;
+    private Long decayIntervalSeconds = 60L;
+    private Long reportIntervalSeconds = 60L;
+}
@@ -0,0 +1,21 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Disk usage of the spill log is bounded by segmentSizeBytes * maxSegments.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "spill-log-config")
+public class SpillLogConfigData {
+    private Boolean enabled = false;
+    private String directory = "spill-log";
+    private Integer segmentSizeBytes = 64 * 1024 * 1024;
+    private Integer maxSegments = 16;
+    private Integer replayBatchSize = 500;
+    private Long replayIntervalMs = 1000L;
+    private Long replayTimeoutMs = 60000L;
+}
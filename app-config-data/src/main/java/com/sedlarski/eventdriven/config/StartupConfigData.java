@@ -0,0 +1,22 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Deferred infrastructure checks start the stream right away and create topics and check the schema registry in
+ * the background, only use them where the topics already exist. The time from JVM start to the first
+ * acknowledged record is reported against first-ack-target-ms; exit-after-first-ack is meant for the CDS
+ * training and verification runs of the fast-startup build profile.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "startup-config")
+public class StartupConfigData {
+    private Boolean deferInfrastructureChecks = false;
+    private Long firstAckTargetMs = 3000L;
+    private Integer slowestBeansToReport = 10;
+    private Boolean exitAfterFirstAck = false;
+    private Boolean failOverTarget = false;
+}
@@ -0,0 +1,28 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A tweet goes to the topic of every rule it matches by keyword or user id. Tweets matching no rule go to
+ * kafka-config.topic-name, with copy-to-default-topic on every tweet goes there as well.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "topic-router-config")
+public class TopicRouterConfigData {
+    private Boolean enabled = false;
+    private Boolean copyToDefaultTopic = true;
+    private List<RouteRule> rules = new ArrayList<>();
+
+    @Data
+    public static class RouteRule {
+        private String topic;
+        private List<String> keywords = new ArrayList<>();
+        private List<Long> userIds = new ArrayList<>();
+    }
+}
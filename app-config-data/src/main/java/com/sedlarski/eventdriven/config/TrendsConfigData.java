@@ -0,0 +1,23 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Counts are kept per pane of gcd(tumbling-window-seconds, hop-seconds) and merged into windows on emit.
+ * Memory is bounded by counters-per-pane per worker thread and pane.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "trends-config")
+public class TrendsConfigData {
+    private String trendsTopicName = "twitter-trends-topic";
+    private Integer topK = 20;
+    private Integer countersPerPane = 2000;
+    private Long tumblingWindowSeconds = 60L;
+    private Long hoppingWindowSeconds = 300L;
+    private Long hopSeconds = 60L;
+    private Long allowedLatenessSeconds = 10L;
+    private Long emitIntervalMs = 1000L;
+}
@@ -0,0 +1,16 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "tweet-filter-config")
+public class TweetFilterConfigData {
+    private Boolean keywordFilterEnabled = false;
+    private Boolean dedupEnabled = false;
+    private Long dedupWindowSeconds = 600L;
+    private Long expectedTweetsPerWindow = 1_000_000L;
+    private Double falsePositiveRate = 0.001;
+}
@@ -13,7 +13,13 @@ public class TwitterToKafkaServiceConfigData {
     private String welcomeMessage;
     private String bearerToken;
     private Boolean enableMockTweets;
+    private Boolean enableV2Tweets = false;
+    private String twitterV2BaseUrl = "https://api.twitter.com/2/";
     private Integer mockMinTweetLength;
     private Integer mockMaxTweetLength;
     private Long mockSleepMs;
+    private Boolean mockSynthetic;
+    private Long mockTargetTweetsPerSec;
+    private Integer mockGeneratorThreads;
+    private String executionMode = "EXECUTOR";
 }
@@ -0,0 +1,18 @@
+package com.sedlarski.eventdriven.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Values are compressed one by one with the current dictionary from dictionaryDirectory, so the producer's own
+ * compression-type is best set to none when this is enabled.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zstd-dictionary-config")
+public class ZstdDictionaryConfigData {
+    private Boolean enabled = false;
+    private String dictionaryDirectory = "zstd-dictionaries";
+    private Integer compressionLevel = 3;
+}
@@ -0,0 +1,101 @@
+package com.sedlarski.eventdriven.benchmarks;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.serializer.TwitterAvroModelSerializer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvroSerializationBenchmark {
+
+    private static final int TWEET_COUNT = 1024;
+
+    @Param({"64", "140", "280"})
+    public int textLength;
+
+    private List<TwitterAvroModel> tweets;
+
+    private int index;
+
+    private SpecificDatumWriter<TwitterAvroModel> datumWriter;
+
+    private ByteArrayOutputStream outputStream;
+
+    private BinaryEncoder encoder;
+
+    private KafkaAvroSerializer kafkaAvroSerializer;
+
+    private TwitterAvroModelSerializer compactSerializer;
+
+    private TwitterAvroModelSerializer compactSerializerWithHeader;
+
+    @Setup
+    public void setUp() {
+        tweets = BenchmarkData.tweets(TWEET_COUNT, textLength);
+        datumWriter = new SpecificDatumWriter<>(TwitterAvroModel.getClassSchema());
+        outputStream = new ByteArrayOutputStream(512);
+        kafkaAvroSerializer = new KafkaAvroSerializer(new MockSchemaRegistryClient(),
+                Map.of("schema.registry.url", "mock://benchmark"));
+        compactSerializer = new TwitterAvroModelSerializer();
+        compactSerializerWithHeader = new TwitterAvroModelSerializer(new MockSchemaRegistryClient());
+    }
+
+    @Benchmark
+    public int specificDatumWriterReusedEncoder() throws IOException {
+        outputStream.reset();
+        encoder = EncoderFactory.get().binaryEncoder(outputStream, encoder);
+        datumWriter.write(nextTweet(), encoder);
+        encoder.flush();
+        return outputStream.size();
+    }
+
+    @Benchmark
+    public ByteBuffer generatedToByteBuffer() throws IOException {
+        return nextTweet().toByteBuffer();
+    }
+
+    @Benchmark
+    public byte[] confluentKafkaAvroSerializer() {
+        return kafkaAvroSerializer.serialize(BenchmarkData.TOPIC, nextTweet());
+    }
+
+    @Benchmark
+    public byte[] compactSerializer() {
+        return compactSerializer.serialize(BenchmarkData.TOPIC, nextTweet());
+    }
+
+    @Benchmark
+    public byte[] compactSerializerWithRegistryHeader() {
+        return compactSerializerWithHeader.serialize(BenchmarkData.TOPIC, nextTweet());
+    }
+
+    private TwitterAvroModel nextTweet() {
+        return tweets.get(index++ & (TWEET_COUNT - 1));
+    }
+}
@@ -0,0 +1,82 @@
+package com.sedlarski.eventdriven.benchmarks;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.inmemory.InMemoryKafkaProducer;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkData {
+
+    static final String TOPIC = "twitter-topic";
+
+    static final int PARTITIONS = 3;
+
+    static final String TWEET_JSON = "{\n" +
+            "  \"created_at\": \"Wed Oct 10 20:19:24 +0000 2018\",\n" +
+            "  \"id\": 1050118621198921728,\n" +
+            "  \"text\": \"Lorem ipsum dolor sit amet consectetur adipiscing Java elit sed do eiusmod tempor\",\n" +
+            "  \"user\": {\n" +
+            "    \"id\": 6253282\n }" +
+            "}";
+
+    private static final String[] WORDS = new String[] {
+            "Lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do", "eiusmod",
+            "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "Java", "Kafka", "Microservices"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<TwitterAvroModel> tweets(int count, int textLength) {
+        return tweets(count, textLength, 42);
+    }
+
+    static List<TwitterAvroModel> tweets(int count, int textLength, long seed) {
+        Random random = new Random(seed);
+        List<TwitterAvroModel> tweets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tweets.add(new TwitterAvroModel(
+                    (long) random.nextInt(100_000),
+                    random.nextLong() & Long.MAX_VALUE,
+                    text(random, textLength),
+                    System.currentTimeMillis()));
+        }
+        return tweets;
+    }
+
+    /**
+     * The in-memory producer of the in-memory-kafka profile, it survives the template closing it after every send.
+     */
+    static <K, V> InMemoryKafkaProducer<K, V> mockProducer(Serializer<K> keySerializer,
+                                                           Serializer<V> valueSerializer) {
+        return new InMemoryKafkaProducer<>(cluster(), keySerializer, valueSerializer);
+    }
+
+    private static String text(Random random, int textLength) {
+        StringBuilder text = new StringBuilder(textLength + 16);
+        while (text.length() < textLength) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.substring(0, textLength);
+    }
+
+    /**
+     * MockProducer only runs the serializers and the partitioner when the cluster knows the topic.
+     */
+    private static Cluster cluster() {
+        Node node = new Node(0, "localhost", 9092);
+        Node[] nodes = new Node[] {node};
+        List<PartitionInfo> partitions = new ArrayList<>(PARTITIONS);
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            partitions.add(new PartitionInfo(TOPIC, partition, node, nodes, nodes));
+        }
+        return new Cluster("benchmark", List.of(node), partitions, Collections.emptySet(), Collections.emptySet());
+    }
+}
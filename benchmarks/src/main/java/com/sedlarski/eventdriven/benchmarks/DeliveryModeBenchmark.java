@@ -0,0 +1,142 @@
+package com.sedlarski.eventdriven.benchmarks;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
+import com.sedlarski.eventdriven.config.ExactlyOnceProducerConfigData;
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.impl.TransactionalBatchSender;
+import com.sedlarski.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per second through {@link TwitterKafkaProducer} in at-least-once and exactly-once mode, against an
+ * auto-completing MockProducer. Only the client side is measured: buffering, the transaction calls and the
+ * callbacks. Broker round trips for transaction markers come on top and shrink with larger transactions the same
+ * way. recordsPerTransaction is ignored in at-least-once mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryModeBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    private static final int BATCHES_PER_INVOCATION = 64;
+
+    private static final int RECORDS_PER_INVOCATION = BATCH_SIZE * BATCHES_PER_INVOCATION;
+
+    @Param({"AT_LEAST_ONCE", "EXACTLY_ONCE"})
+    public String deliveryMode;
+
+    @Param({"256", "4096", "16384"})
+    public int recordsPerTransaction;
+
+    private TwitterKafkaProducer twitterKafkaProducer;
+
+    private TransactionalBatchSender transactionalBatchSender;
+
+    private List<List<Pair<Long, TwitterAvroModel>>> batches;
+
+    private final List<CompletableFuture<BatchSendResult>> futures = new ArrayList<>(BATCHES_PER_INVOCATION);
+
+    @Setup
+    public void setUp() {
+        boolean exactlyOnce = "EXACTLY_ONCE".equals(deliveryMode);
+        KafkaAvroSerializer valueSerializer = new KafkaAvroSerializer(new MockSchemaRegistryClient(),
+                Map.of("schema.registry.url", "mock://benchmark"));
+        MockProducer<Long, TwitterAvroModel> mockProducer =
+                BenchmarkData.mockProducer(new LongSerializer(), (topic, data) -> valueSerializer.serialize(topic, data));
+        if (exactlyOnce) {
+            mockProducer.initTransactions();
+        }
+        KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = new KafkaTemplate<>(new ProducerFactory<>() {
+            @Override
+            public Producer<Long, TwitterAvroModel> createProducer() {
+                return mockProducer;
+            }
+
+            @Override
+            public boolean transactionCapable() {
+                return exactlyOnce;
+            }
+        });
+        ProducerMetrics producerMetrics = new ProducerMetrics(new SimpleMeterRegistry());
+        HotPathLoggerFactory hotPathLoggerFactory = new HotPathLoggerFactory(new HotPathLoggingConfigData());
+        if (exactlyOnce) {
+            ExactlyOnceProducerConfigData config = new ExactlyOnceProducerConfigData();
+            config.setMaxRecordsPerTransaction(recordsPerTransaction);
+            config.setFlushIntervalMs(1000L);
+            transactionalBatchSender = new TransactionalBatchSender(kafkaTemplate, config, producerMetrics,
+                    hotPathLoggerFactory, new SimpleMeterRegistry());
+            transactionalBatchSender.start();
+        }
+        twitterKafkaProducer = new TwitterKafkaProducer(kafkaTemplate, producerMetrics, hotPathLoggerFactory,
+                Optional.empty(), Optional.ofNullable(transactionalBatchSender));
+        List<TwitterAvroModel> tweets = BenchmarkData.tweets(RECORDS_PER_INVOCATION, 140);
+        batches = new ArrayList<>(BATCHES_PER_INVOCATION);
+        for (int i = 0; i < BATCHES_PER_INVOCATION; i++) {
+            List<Pair<Long, TwitterAvroModel>> batch = new ArrayList<>(BATCH_SIZE);
+            for (TwitterAvroModel tweet : tweets.subList(i * BATCH_SIZE, (i + 1) * BATCH_SIZE)) {
+                batch.add(Pair.of(tweet.getUserId(), tweet));
+            }
+            batches.add(batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (transactionalBatchSender != null) {
+            transactionalBatchSender.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_INVOCATION)
+    public int sendBatches() {
+        futures.clear();
+        for (List<Pair<Long, TwitterAvroModel>> batch : batches) {
+            futures.add(twitterKafkaProducer.sendBatch(BenchmarkData.TOPIC, batch));
+        }
+        if (transactionalBatchSender != null) {
+            transactionalBatchSender.flush();
+        }
+        int failed = 0;
+        for (CompletableFuture<BatchSendResult> future : futures) {
+            failed += future.join().getFailedCount();
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,116 @@
+package com.sedlarski.eventdriven.benchmarks;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds one producer record batch the way the Kafka sender does, for every combination of codec, batch size
+ * and key type. Time is per batch; bytesOnWire / records gives the average wire size of one tweet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordBatchCompressionBenchmark {
+
+    public enum KeyType { LONG, STRING, NONE }
+
+    @Param({"none", "gzip", "snappy", "lz4", "zstd"})
+    public String compressionType;
+
+    @Param({"16", "128", "1024"})
+    public int batchSize;
+
+    @Param({"LONG", "STRING", "NONE"})
+    public KeyType keyType;
+
+    private CompressionType codec;
+
+    private byte[][] keys;
+
+    private byte[][] values;
+
+    private ByteBuffer buffer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireCounters {
+        public long bytesOnWire;
+        public long records;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesOnWire = 0;
+            records = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        codec = CompressionType.forName(compressionType);
+        KafkaAvroSerializer valueSerializer = new KafkaAvroSerializer(new MockSchemaRegistryClient(),
+                Map.of("schema.registry.url", "mock://benchmark"));
+        LongSerializer longSerializer = new LongSerializer();
+        List<TwitterAvroModel> tweets = BenchmarkData.tweets(batchSize, 140);
+        keys = new byte[batchSize][];
+        values = new byte[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            TwitterAvroModel tweet = tweets.get(i);
+            keys[i] = serializeKey(longSerializer, tweet.getUserId());
+            values[i] = valueSerializer.serialize(BenchmarkData.TOPIC, tweet);
+        }
+        buffer = ByteBuffer.allocate(batchSize * 512);
+    }
+
+    @Benchmark
+    public MemoryRecords buildBatch(WireCounters counters) {
+        buffer.clear();
+        MemoryRecordsBuilder builder = MemoryRecords.builder(buffer, codec, TimestampType.CREATE_TIME, 0L);
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < batchSize; i++) {
+            builder.append(timestamp, keys[i], values[i]);
+        }
+        MemoryRecords records = builder.build();
+        counters.bytesOnWire += records.sizeInBytes();
+        counters.records += batchSize;
+        return records;
+    }
+
+    private byte[] serializeKey(LongSerializer longSerializer, Long userId) {
+        switch (keyType) {
+            case LONG:
+                return longSerializer.serialize(BenchmarkData.TOPIC, userId);
+            case STRING:
+                return String.valueOf(userId).getBytes(StandardCharsets.UTF_8);
+            default:
+                return null;
+        }
+    }
+}
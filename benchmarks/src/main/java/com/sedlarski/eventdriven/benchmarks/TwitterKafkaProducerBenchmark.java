@@ -0,0 +1,93 @@
+package com.sedlarski.eventdriven.benchmarks;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the client side of {@link TwitterKafkaProducer}: template, serialization, partitioning and callbacks,
+ * against an auto-completing MockProducer. Results are per record for both single and batched sends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwitterKafkaProducerBenchmark {
+
+    private static final int TWEET_COUNT = 1024;
+
+    @Param({"1", "64", "512"})
+    public int batchSize;
+
+    private TwitterKafkaProducer twitterKafkaProducer;
+
+    private List<TwitterAvroModel> tweets;
+
+    private List<Pair<Long, TwitterAvroModel>> batch;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        KafkaAvroSerializer valueSerializer = new KafkaAvroSerializer(new MockSchemaRegistryClient(),
+                Map.of("schema.registry.url", "mock://benchmark"));
+        MockProducer<Long, TwitterAvroModel> mockProducer =
+                BenchmarkData.mockProducer(new LongSerializer(), (topic, data) -> valueSerializer.serialize(topic, data));
+        twitterKafkaProducer = new TwitterKafkaProducer(new KafkaTemplate<>(() -> mockProducer),
+                new ProducerMetrics(new SimpleMeterRegistry()), new HotPathLoggerFactory(new HotPathLoggingConfigData()),
+                Optional.empty(), Optional.empty());
+        tweets = BenchmarkData.tweets(TWEET_COUNT, 140);
+        batch = new ArrayList<>(batchSize);
+    }
+
+    @Benchmark
+    public void send() {
+        for (int i = 0; i < batchSize; i++) {
+            TwitterAvroModel tweet = nextTweet();
+            twitterKafkaProducer.send(BenchmarkData.TOPIC, tweet.getUserId(), tweet);
+        }
+    }
+
+    @Benchmark
+    public BatchSendResult sendBatch() {
+        batch.clear();
+        for (int i = 0; i < batchSize; i++) {
+            TwitterAvroModel tweet = nextTweet();
+            batch.add(Pair.of(tweet.getUserId(), tweet));
+        }
+        return twitterKafkaProducer.sendBatch(BenchmarkData.TOPIC, batch).join();
+    }
+
+    private TwitterAvroModel nextTweet() {
+        return tweets.get(index++ & (TWEET_COUNT - 1));
+    }
+}
@@ -0,0 +1,70 @@
+package com.sedlarski.eventdriven.benchmarks;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterJsonToAvroTransformer;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterStatusToAvroTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwitterStatusToAvroTransformerBenchmark {
+
+    private TwitterStatusToAvroTransformer transformer;
+
+    private TwitterJsonToAvroTransformer jsonTransformer;
+
+    private Status status;
+
+    private byte[] tweetJson;
+
+    private TwitterAvroModel reusedModel;
+
+    @Setup
+    public void setUp() throws TwitterException {
+        transformer = new TwitterStatusToAvroTransformer();
+        jsonTransformer = new TwitterJsonToAvroTransformer();
+        status = TwitterObjectFactory.createStatus(BenchmarkData.TWEET_JSON);
+        tweetJson = BenchmarkData.TWEET_JSON.getBytes(StandardCharsets.UTF_8);
+        reusedModel = new TwitterAvroModel();
+    }
+
+    @Benchmark
+    public TwitterAvroModel transform() {
+        return transformer.getTwitterAvroModelFromStatus(status);
+    }
+
+    @Benchmark
+    public TwitterAvroModel parseAndTransform() throws TwitterException {
+        return transformer.getTwitterAvroModelFromStatus(TwitterObjectFactory.createStatus(BenchmarkData.TWEET_JSON));
+    }
+
+    @Benchmark
+    public TwitterAvroModel parseRawJson() {
+        return jsonTransformer.getTwitterAvroModelFromJson(tweetJson);
+    }
+
+    @Benchmark
+    public TwitterAvroModel parseRawJsonIntoReusedRecord() {
+        jsonTransformer.fill(tweetJson, tweetJson.length, reusedModel);
+        return reusedModel;
+    }
+}
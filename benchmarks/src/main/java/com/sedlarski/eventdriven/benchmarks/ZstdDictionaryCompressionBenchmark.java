@@ -0,0 +1,121 @@
+package com.sedlarski.eventdriven.benchmarks;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.zstd.ZstdDictionarySerializer;
+import com.sedlarski.kafka.producer.config.zstd.ZstdDictionaryTrainer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes and builds one record batch per invocation, so the time includes the per-record dictionary
+ * compression. PLAIN values rely on the batch codec alone; ZSTD_DICTIONARY values are compressed with a
+ * dictionary trained on a different sample of tweets and are usually best paired with the none codec.
+ * bytesOnWire / records gives the average wire size of one tweet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZstdDictionaryCompressionBenchmark {
+
+    public enum ValueEncoding { PLAIN, ZSTD_DICTIONARY }
+
+    private static final int TRAINING_SAMPLES = 10_000;
+
+    private static final int DICTIONARY_BYTES = 16 * 1024;
+
+    @Param({"none", "gzip", "snappy", "lz4", "zstd"})
+    public String compressionType;
+
+    @Param({"16", "128", "1024"})
+    public int batchSize;
+
+    @Param({"PLAIN", "ZSTD_DICTIONARY"})
+    public ValueEncoding valueEncoding;
+
+    private CompressionType codec;
+
+    private List<TwitterAvroModel> tweets;
+
+    private Serializer<TwitterAvroModel> valueSerializer;
+
+    private LongSerializer keySerializer;
+
+    private ByteBuffer buffer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireCounters {
+        public long bytesOnWire;
+        public long records;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesOnWire = 0;
+            records = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        codec = CompressionType.forName(compressionType);
+        KafkaAvroSerializer avroSerializer = new KafkaAvroSerializer(new MockSchemaRegistryClient(),
+                Map.of("schema.registry.url", "mock://benchmark"));
+        Serializer<TwitterAvroModel> plainSerializer = avroSerializer::serialize;
+        if (valueEncoding == ValueEncoding.ZSTD_DICTIONARY) {
+            List<byte[]> samples = new ArrayList<>(TRAINING_SAMPLES);
+            for (TwitterAvroModel tweet : BenchmarkData.tweets(TRAINING_SAMPLES, 140, 7)) {
+                samples.add(plainSerializer.serialize(BenchmarkData.TOPIC, tweet));
+            }
+            byte[] dictionary = ZstdDictionaryTrainer.train(samples, DICTIONARY_BYTES);
+            valueSerializer = new ZstdDictionarySerializer<>(plainSerializer, new ZstdDictCompress(dictionary, 3));
+        } else {
+            valueSerializer = plainSerializer;
+        }
+        keySerializer = new LongSerializer();
+        tweets = BenchmarkData.tweets(batchSize, 140);
+        buffer = ByteBuffer.allocate(batchSize * 512);
+    }
+
+    @Benchmark
+    public MemoryRecords serializeAndBuildBatch(WireCounters counters) {
+        buffer.clear();
+        MemoryRecordsBuilder builder = MemoryRecords.builder(buffer, codec, TimestampType.CREATE_TIME, 0L);
+        for (TwitterAvroModel tweet : tweets) {
+            builder.append(tweet.getCreatedAt(), keySerializer.serialize(BenchmarkData.TOPIC, tweet.getUserId()),
+                    valueSerializer.serialize(BenchmarkData.TOPIC, tweet));
+        }
+        MemoryRecords records = builder.build();
+        counters.bytesOnWire += records.sizeInBytes();
+        counters.records += batchSize;
+        return records;
+    }
+}
@@ -0,0 +1,147 @@
+package com.sedlarski.eventdriven.common.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Logger for per-record code paths. Lines are emitted for roughly one in {@code sampleRate} calls and at most
+ * {@code maxPerSecond} times a second; arguments are only rendered for emitted lines. Callers report every
+ * record through {@link #recordMessage(long)} and {@link #recordError()} so that a periodic summary line can
+ * replace per-record logging.
+ */
+public final class HotPathLogger {
+
+    private final Logger logger;
+
+    private final int sampleRate;
+
+    private final int maxPerSecond;
+
+    private final boolean summaryEnabled;
+
+    private final LongAdder messageCount = new LongAdder();
+
+    private final LongAdder byteCount = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder suppressedCount = new LongAdder();
+
+    private final AtomicLong rateWindowSecond = new AtomicLong();
+
+    private final AtomicInteger rateWindowCount = new AtomicInteger();
+
+    HotPathLogger(Logger logger, int sampleRate, int maxPerSecond, boolean summaryEnabled) {
+        this.logger = logger;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.maxPerSecond = maxPerSecond;
+        this.summaryEnabled = summaryEnabled;
+    }
+
+    /**
+     * Wraps a computed argument so that it is only evaluated when the line is actually written.
+     */
+    public static Object lazy(Supplier<?> supplier) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return String.valueOf(supplier.get());
+            }
+        };
+    }
+
+    public void recordMessage(long bytes) {
+        messageCount.increment();
+        byteCount.add(bytes);
+    }
+
+    public void recordError() {
+        errorCount.increment();
+    }
+
+    public void debug(String format, Object argument) {
+        if (logger.isDebugEnabled() && sample()) {
+            logger.debug(format, argument);
+        }
+    }
+
+    public void debug(String format, Object first, Object second) {
+        if (logger.isDebugEnabled() && sample()) {
+            logger.debug(format, first, second);
+        }
+    }
+
+    public void debug(String format, Object... arguments) {
+        if (logger.isDebugEnabled() && sample()) {
+            logger.debug(format, arguments);
+        }
+    }
+
+    public void info(String format, Object argument) {
+        if (logger.isInfoEnabled() && sample()) {
+            logger.info(format, argument);
+        }
+    }
+
+    public void info(String format, Object first, Object second) {
+        if (logger.isInfoEnabled() && sample()) {
+            logger.info(format, first, second);
+        }
+    }
+
+    public void info(String format, Object... arguments) {
+        if (logger.isInfoEnabled() && sample()) {
+            logger.info(format, arguments);
+        }
+    }
+
+    /**
+     * Errors are not sampled, only rate limited.
+     */
+    public void error(String format, Object... arguments) {
+        if (logger.isErrorEnabled() && withinRateLimit()) {
+            logger.error(format, arguments);
+        }
+    }
+
+    void logSummary(long intervalSeconds) {
+        long messages = messageCount.sumThenReset();
+        long bytes = byteCount.sumThenReset();
+        long errors = errorCount.sumThenReset();
+        long suppressed = suppressedCount.sumThenReset();
+        if (!summaryEnabled || (messages == 0 && errors == 0)) {
+            return;
+        }
+        logger.info("Last {}s: {} msgs/sec, {} bytes/sec, {} error(s), {} log line(s) suppressed",
+                intervalSeconds, messages / intervalSeconds, bytes / intervalSeconds, errors, suppressed);
+    }
+
+    private boolean sample() {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            suppressedCount.increment();
+            return false;
+        }
+        return withinRateLimit();
+    }
+
+    private boolean withinRateLimit() {
+        if (maxPerSecond <= 0) {
+            return true;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long windowSecond = rateWindowSecond.get();
+        if (windowSecond != second && rateWindowSecond.compareAndSet(windowSecond, second)) {
+            rateWindowCount.set(0);
+        }
+        if (rateWindowCount.incrementAndGet() <= maxPerSecond) {
+            return true;
+        }
+        suppressedCount.increment();
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.sedlarski.eventdriven.common.logging;
+
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class HotPathLoggerFactory {
+
+    private final HotPathLoggingConfigData hotPathLoggingConfigData;
+
+    private final Map<String, HotPathLogger> loggers = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService summaryScheduler;
+
+    public HotPathLoggerFactory(HotPathLoggingConfigData hotPathLoggingConfigData) {
+        Long summaryIntervalSeconds = hotPathLoggingConfigData.getSummaryIntervalSeconds();
+        if (summaryIntervalSeconds == null || summaryIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("hot-path-logging-config.summary-interval-seconds must be positive!");
+        }
+        this.hotPathLoggingConfigData = hotPathLoggingConfigData;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("hot-path-log-summary-");
+        threadFactory.setDaemon(true);
+        this.summaryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long intervalSeconds = summaryIntervalSeconds;
+        summaryScheduler.scheduleAtFixedRate(
+                () -> loggers.values().forEach(logger -> logger.logSummary(intervalSeconds)),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public HotPathLogger getLogger(Class<?> type) {
+        return loggers.computeIfAbsent(type.getName(), this::createLogger);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        summaryScheduler.shutdownNow();
+    }
+
+    private HotPathLogger createLogger(String name) {
+        HotPathLoggingConfigData.LoggerSettings settings = hotPathLoggingConfigData.getLoggers().get(name);
+        int sampleRate = hotPathLoggingConfigData.getDefaultSampleRate();
+        int maxPerSecond = hotPathLoggingConfigData.getDefaultMaxPerSecond();
+        boolean summaryEnabled = true;
+        if (settings != null) {
+            sampleRate = settings.getSampleRate() != null ? settings.getSampleRate() : sampleRate;
+            maxPerSecond = settings.getMaxPerSecond() != null ? settings.getMaxPerSecond() : maxPerSecond;
+            summaryEnabled = !Boolean.FALSE.equals(settings.getSummaryEnabled());
+        }
+        return new HotPathLogger(LoggerFactory.getLogger(name), sampleRate, maxPerSecond, summaryEnabled);
+    }
+}
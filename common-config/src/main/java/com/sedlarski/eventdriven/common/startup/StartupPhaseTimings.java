@@ -0,0 +1,62 @@
+package com.sedlarski.eventdriven.common.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock duration of each named startup phase, in the order the phases finished. Phases may run
+ * concurrently, so the durations do not add up to the total startup time. Milestones recorded with
+ * {@link #recordSinceJvmStart} are measured from JVM start instead.
+ */
+@Component
+public class StartupPhaseTimings {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StartupPhaseTimings.class);
+
+    private static volatile long mainUptimeMillis = -1;
+
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+
+    public StartupPhaseTimings() {
+        if (mainUptimeMillis >= 0) {
+            phaseMillis.put("jvm-start-to-main", mainUptimeMillis);
+        }
+    }
+
+    /**
+     * Called first thing in main, so the time the JVM needed before any application code ran is reported too.
+     */
+    public static void markMain() {
+        mainUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    public void record(String phase, long startNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        synchronized (phaseMillis) {
+            phaseMillis.put(phase, millis);
+        }
+        LOG.info("Startup phase {} took {} ms", phase, millis);
+    }
+
+    public long recordSinceJvmStart(String milestone) {
+        long millis = ManagementFactory.getRuntimeMXBean().getUptime();
+        synchronized (phaseMillis) {
+            phaseMillis.put(milestone, millis);
+        }
+        LOG.info("Startup milestone {} reached {} ms after JVM start", milestone, millis);
+        return millis;
+    }
+
+    public Map<String, Long> getPhaseMillis() {
+        synchronized (phaseMillis) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(phaseMillis));
+        }
+    }
+}
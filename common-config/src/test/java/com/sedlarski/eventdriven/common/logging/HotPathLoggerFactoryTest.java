@@ -0,0 +1,31 @@
+package com.sedlarski.eventdriven.common.logging;
+
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HotPathLoggerFactoryTest {
+
+    @Test
+    public void rejectsASummaryIntervalThatIsNotPositive() {
+        HotPathLoggingConfigData config = new HotPathLoggingConfigData();
+
+        config.setSummaryIntervalSeconds(0L);
+        assertThrows(IllegalArgumentException.class, () -> new HotPathLoggerFactory(config));
+        config.setSummaryIntervalSeconds(-30L);
+        assertThrows(IllegalArgumentException.class, () -> new HotPathLoggerFactory(config));
+    }
+
+    @Test
+    public void sharesOneLoggerPerClass() {
+        HotPathLoggerFactory factory = new HotPathLoggerFactory(new HotPathLoggingConfigData());
+        try {
+            assertSame(factory.getLogger(HotPathLoggerFactoryTest.class),
+                    factory.getLogger(HotPathLoggerFactoryTest.class));
+        } finally {
+            factory.shutdown();
+        }
+    }
+}
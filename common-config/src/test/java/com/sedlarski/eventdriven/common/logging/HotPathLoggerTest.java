@@ -0,0 +1,94 @@
+package com.sedlarski.eventdriven.common.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HotPathLoggerTest {
+
+    private final List<List<Object>> lines = new ArrayList<>();
+
+    private final Logger logger = (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(),
+            new Class<?>[]{Logger.class}, (proxy, method, arguments) -> {
+                if (method.getName().startsWith("is")) {
+                    return true;
+                }
+                List<Object> line = new ArrayList<>(Arrays.asList(arguments));
+                if (line.get(line.size() - 1) instanceof Object[]) {
+                    line.addAll(Arrays.asList((Object[]) line.remove(line.size() - 1)));
+                }
+                lines.add(line);
+                return null;
+            });
+
+    @Test
+    public void writesEveryLineWithoutSamplingOrRateLimit() {
+        HotPathLogger hotPathLogger = new HotPathLogger(logger, 1, 0, true);
+
+        for (int i = 0; i < 100; i++) {
+            hotPathLogger.debug("Sending {}", i);
+        }
+
+        assertEquals(100, lines.size());
+        assertEquals(List.of("Sending {}", 99), lines.get(99));
+    }
+
+    @Test
+    public void writesAboutOneLineInSampleRateAndCountsTheRest() {
+        HotPathLogger hotPathLogger = new HotPathLogger(logger, 10, 0, true);
+
+        for (int i = 0; i < 10_000; i++) {
+            hotPathLogger.debug("Sending {}", i);
+        }
+        int written = lines.size();
+        hotPathLogger.recordMessage(1);
+        hotPathLogger.logSummary(1);
+
+        assertTrue(written > 800 && written < 1200, written + " lines written");
+        assertEquals(10_000L - written, lines.get(written).get(5));
+    }
+
+    @Test
+    public void rateLimitsErrorsWithoutSamplingThem() {
+        HotPathLogger hotPathLogger = new HotPathLogger(logger, 1000, 5, true);
+
+        for (int i = 0; i < 20; i++) {
+            hotPathLogger.error("Error while sending {}", i);
+        }
+
+        // the loop may cross into the next second, which opens a second window
+        assertTrue(lines.size() >= 5 && lines.size() <= 10, lines.size() + " lines written");
+    }
+
+    @Test
+    public void summarizesRatesPerSecondAndResetsTheCounts() {
+        HotPathLogger hotPathLogger = new HotPathLogger(logger, 1, 0, true);
+        for (int i = 0; i < 60; i++) {
+            hotPathLogger.recordMessage(100);
+        }
+        hotPathLogger.recordError();
+
+        hotPathLogger.logSummary(30);
+        hotPathLogger.logSummary(30);
+
+        assertEquals(1, lines.size());
+        assertEquals(List.of(30L, 2L, 200L, 1L, 0L), lines.get(0).subList(1, 6));
+    }
+
+    @Test
+    public void skipsTheSummaryOfADisabledLogger() {
+        HotPathLogger hotPathLogger = new HotPathLogger(logger, 1, 0, false);
+        hotPathLogger.recordMessage(100);
+
+        hotPathLogger.logSummary(30);
+
+        assertTrue(lines.isEmpty());
+    }
+}
@@ -1,26 +1,46 @@
 package com.sedlarski.eventdriven.kafka.admin.client;
 
+import com.sedlarski.eventdriven.common.startup.StartupPhaseTimings;
 import com.sedlarski.eventdriven.config.KafkaConfigData;
 import com.sedlarski.eventdriven.config.RetryConfigData;
 import com.sedlarski.eventdriven.kafka.admin.exception.KafkaClientException;
 import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.CreateTopicsResult;
 import org.apache.kafka.clients.admin.NewTopic;
-import org.apache.kafka.clients.admin.TopicListing;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
-import org.springframework.retry.RetryContext;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.util.retry.Retry;
 
-import java.util.Collection;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * Creates the configured topics and waits for them and the schema registry without blocking a thread per
+ * check: topics are polled with {@code describeTopics} on just the configured names and the registry with a
+ * non-blocking WebClient request, both with exponential backoff, and bootstrap completes as soon as both are
+ * ready.
+ */
 @Component
+@Profile("!in-memory-kafka")
 public class KafkaAdminClient {
     private static final Logger LOG = LoggerFactory.getLogger(KafkaAdminClient.class);
 
@@ -30,122 +50,205 @@ public class KafkaAdminClient {
 
     private final AdminClient adminClient;
 
-    private final RetryTemplate retryTemplate;
     private final WebClient webClient;
 
+    private final StartupPhaseTimings startupPhaseTimings;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(daemonThreadFactory());
+
     public KafkaAdminClient(KafkaConfigData kafkaConfigData,
                             RetryConfigData retryConfigData,
                             AdminClient adminClient,
-                            RetryTemplate retryTemplate,
-                            WebClient webClient) {
+                            WebClient webClient,
+                            StartupPhaseTimings startupPhaseTimings) {
         this.kafkaConfigData = kafkaConfigData;
         this.retryConfigData = retryConfigData;
         this.adminClient = adminClient;
-        this.retryTemplate = retryTemplate;
         this.webClient = webClient;
+        this.startupPhaseTimings = startupPhaseTimings;
     }
 
-    public void createTopics() {
-        CreateTopicsResult createTopicsResult;
-        try {
-            createTopicsResult = retryTemplate.execute(retryContext -> this.doCreateTopics(retryContext));
-        } catch (Throwable t) {
-            throw new RuntimeException("Reached max number of retry for creating kafka topic(s)", t);
-        }
-        checkTopicsCreated();
-    }
-
-    private void checkTopicsCreated() {
-        Collection<TopicListing> topics = getTopics();
-        int retryCount = 1;
-        Long maxRetry = retryConfigData.getMaxAttempts();
-        Integer multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTime = retryConfigData.getSleepTimeMs();
-        for(String topic : kafkaConfigData.getTopicNamesToCreate()) {
-            while(!isTopicsCreated(topics, topic)) {
-                checkMaxRetry(retryCount++, maxRetry);
-                sleep(sleepTime);
-                sleepTime *= multiplier;
-                topics = getTopics();
-            }
-        }
+    /**
+     * Creates the topics and checks the schema registry concurrently, blocking until both are ready.
+     */
+    public void bootstrap(boolean checkSchemaRegistry) {
+        join(bootstrapAsync(checkSchemaRegistry));
     }
 
-    private void sleep(Long sleepTime) {
-        try {
-            Thread.sleep(sleepTime);
-        } catch (InterruptedException e) {
-            throw new KafkaClientException("Interrupted while sleeping", e);
-        }
+    public CompletableFuture<Void> bootstrapAsync(boolean checkSchemaRegistry) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<Void> topics = createTopicsAsync();
+        CompletableFuture<Void> schemaRegistry = checkSchemaRegistry ? checkSchemaRegistryAsync()
+                : CompletableFuture.completedFuture(null);
+        return CompletableFuture.allOf(topics, schemaRegistry).whenComplete((ignored, throwable) -> {
+            if (throwable == null) {
+                startupPhaseTimings.record("kafka-bootstrap", startNanos);
+            }
+        });
     }
 
-    private HttpStatus getSchemaRegistryStatus() {
-        try {
-            return webClient.get()
-                    .uri(kafkaConfigData.getSchemaRegistryUrl())
-                    .retrieve()
-                    .toEntity(String.class)
-                    .block()
-                    .getStatusCode();
-        } catch (Exception e) {
-            return HttpStatus.SERVICE_UNAVAILABLE;
-        }
+    public void createTopics() {
+        join(createTopicsAsync());
     }
 
     public void checkSchemaRegistry() {
-        int retryCount = 1;
-        Long maxRetry = retryConfigData.getMaxAttempts();
-        Integer multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTime = retryConfigData.getSleepTimeMs();
-        while(getSchemaRegistryStatus().is2xxSuccessful()) {
-            checkMaxRetry(retryCount++, maxRetry);
-            sleep(sleepTime);
-            sleepTime *= multiplier;
-        }
+        join(checkSchemaRegistryAsync());
     }
 
-    private void checkMaxRetry(int retry, Long maxRetry) {
-        if(retry > maxRetry) {
-            throw new KafkaClientException("Reached max number of retry for checking if topic was created");
-        }
+    public CompletableFuture<Void> createTopicsAsync() {
+        long startNanos = System.nanoTime();
+        List<String> topicNames = kafkaConfigData.getTopicNamesToCreate().stream()
+                .map(String::trim)
+                .collect(Collectors.toList());
+        LOG.info("Creating {} topic(s): {}", topicNames.size(), topicNames);
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        pending.addAll(topicNames);
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        doCreateTopics(topicNames).whenComplete((ignored, throwable) -> pollTopics(pending, 1, ready));
+        return ready.whenComplete((ignored, throwable) -> {
+            if (throwable == null) {
+                startupPhaseTimings.record("kafka-topics", startNanos);
+            }
+        });
     }
 
-    private boolean isTopicsCreated(Collection<TopicListing> topics, String topicName) {
-        if(topics == null) {
-            return false;
-        }
-        return topics.stream().anyMatch(topic -> topic.name().equals(topicName));
+    public CompletableFuture<Void> checkSchemaRegistryAsync() {
+        long startNanos = System.nanoTime();
+        Duration firstBackoff = Duration.ofMillis(retryConfigData.getSleepTimeMs());
+        Duration maxBackoff = Duration.ofMillis(retryConfigData.getMaxIntervalMs());
+        return webClient.get()
+                .uri(kafkaConfigData.getSchemaRegistryUrl())
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(maxBackoff)
+                .doOnError(e -> LOG.info("Schema registry not available yet: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(retryConfigData.getMaxAttempts() - 1, firstBackoff)
+                        .maxBackoff(maxBackoff)
+                        .onRetryExhaustedThrow((spec, signal) -> new KafkaClientException(
+                                "Reached max number of retry for checking schema registry", signal.failure())))
+                .toFuture()
+                .thenAccept(response -> startupPhaseTimings.record("schema-registry", startNanos));
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
     }
 
-    private CreateTopicsResult doCreateTopics(RetryContext retryContext) {
-        List<String> topicNames = kafkaConfigData.getTopicNamesToCreate();
-        LOG.info("Creating {}  topics, attempt {}", topicNames.size(), retryContext.getRetryCount());
+    /**
+     * Issues the create request; topics that already exist are fine, and any other failure is left for the
+     * readiness poll to retry.
+     */
+    private CompletableFuture<Void> doCreateTopics(List<String> topicNames) {
         List<NewTopic> kafkaTopics = topicNames.stream().map(topic -> new NewTopic(
-                topic.trim(),
+                topic,
                 kafkaConfigData.getNumOfPartitions(),
                 kafkaConfigData.getReplicationFactor()
         )).collect(Collectors.toList());
-        return adminClient.createTopics(kafkaTopics);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        adminClient.createTopics(kafkaTopics).values().forEach((topic, future) ->
+                results.add(toCompletableFuture(future).handle((ignored, throwable) -> {
+                    Throwable cause = unwrap(throwable);
+                    if (cause != null && !(cause instanceof TopicExistsException)) {
+                        LOG.warn("Could not create topic {}: {}", topic, cause.getMessage());
+                    }
+                    return null;
+                })));
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]));
     }
-    
-    private Collection<TopicListing> getTopics() {
-        Collection<TopicListing> topics;
+
+    private void pollTopics(Set<String> pending, int attempt, CompletableFuture<Void> ready) {
+        Map<String, KafkaFuture<TopicDescription>> descriptions;
         try {
-            topics = retryTemplate.execute(this::doGetTopics);
-        } catch (Throwable t) {
-            throw new KafkaClientException("Reached max number of retry for getting kafka topics", t);
+            descriptions = adminClient.describeTopics(pending).values();
+        } catch (Exception e) {
+            retryTopics(pending, attempt, ready, e);
+            return;
         }
-        return topics;
+        List<CompletableFuture<Void>> checks = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        descriptions.forEach((topic, future) -> checks.add(toCompletableFuture(future).handle((description, throwable) -> {
+            if (throwable == null && description.partitions().stream().allMatch(p -> p.leader() != null)) {
+                pending.remove(topic);
+            } else if (unwrap(throwable) instanceof UnknownTopicOrPartitionException) {
+                synchronized (missing) {
+                    missing.add(topic);
+                }
+            }
+            return null;
+        })));
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).whenComplete((ignored, throwable) -> {
+            if (pending.isEmpty()) {
+                LOG.info("Topic(s) {} ready after {} attempt(s)", kafkaConfigData.getTopicNamesToCreate(), attempt);
+                ready.complete(null);
+            } else {
+                if (!missing.isEmpty()) {
+                    doCreateTopics(missing);
+                }
+                retryTopics(pending, attempt, ready, null);
+            }
+        });
     }
 
-    private Collection<TopicListing> doGetTopics(RetryContext retryContext) throws ExecutionException, InterruptedException {
-        LOG.info("Reading tiopic {}, attempt {}", kafkaConfigData.getTopicName(), retryContext.getRetryCount());
-        Collection<TopicListing>  topics = adminClient.listTopics().listings().get();
-        if(topics != null) {
-            topics.forEach(topic -> LOG.debug("Topic: {}", topic.name()));
+    private void retryTopics(Set<String> pending, int attempt, CompletableFuture<Void> ready, Throwable cause) {
+        if (attempt >= retryConfigData.getMaxAttempts()) {
+            ready.completeExceptionally(new KafkaClientException(
+                    "Reached max number of retry for checking if topic(s) " + pending + " were created", cause));
+            return;
+        }
+        long backoffMs = backoffMs(attempt);
+        LOG.info("Topic(s) {} not ready yet, attempt {}, retrying in {} ms", pending, attempt, backoffMs);
+        try {
+            scheduler.schedule(() -> pollTopics(pending, attempt + 1, ready), backoffMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            ready.completeExceptionally(e);
         }
-        return topics;
     }
 
+    private long backoffMs(int attempt) {
+        double backoff = retryConfigData.getSleepTimeMs() * Math.pow(retryConfigData.getMultiplier(), attempt - 1);
+        return (long) Math.min(backoff, retryConfigData.getMaxIntervalMs());
+    }
 
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaClientException("Interrupted while waiting for kafka bootstrap", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof KafkaClientException) {
+                throw (KafkaClientException) cause;
+            }
+            throw new KafkaClientException("Kafka bootstrap failed", cause);
+        }
+    }
+
+    private static <T> CompletableFuture<T> toCompletableFuture(KafkaFuture<T> kafkaFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        kafkaFuture.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kafka-admin-bootstrap-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
 }
@@ -6,12 +6,14 @@ import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.retry.annotation.EnableRetry;
 
 import java.util.Map;
 
 @EnableRetry
 @Configuration
+@Profile("!in-memory-kafka")
 public class KafkaAdminConfig {
 
     private final KafkaConfigData kafkaConfigData;
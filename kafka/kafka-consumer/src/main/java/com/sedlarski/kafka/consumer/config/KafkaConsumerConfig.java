@@ -0,0 +1,87 @@
+package com.sedlarski.kafka.consumer.config;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.KafkaConsumerConfigData;
+import com.sedlarski.eventdriven.config.ZstdDictionaryConfigData;
+import com.sedlarski.kafka.consumer.config.serializer.TwitterAvroModelDeserializer;
+import com.sedlarski.kafka.consumer.config.serializer.ZstdDictionaryDeserializer;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+@EnableKafka
+@Configuration
+public class KafkaConsumerConfig<K extends Serializable, V extends SpecificRecordBase> {
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final KafkaConsumerConfigData kafkaConsumerConfigData;
+
+    private final ZstdDictionaryConfigData zstdDictionaryConfigData;
+
+    public KafkaConsumerConfig(KafkaConfigData kafkaConfigData, KafkaConsumerConfigData kafkaConsumerConfigData,
+                               ZstdDictionaryConfigData zstdDictionaryConfigData) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.kafkaConsumerConfigData = kafkaConsumerConfigData;
+        this.zstdDictionaryConfigData = zstdDictionaryConfigData;
+    }
+
+    @Bean
+    public Map<String, Object> consumerConfigs() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers());
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, kafkaConsumerConfigData.getKeyDeserializer());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, kafkaConsumerConfigData.getValueDeserializer());
+        if (Boolean.TRUE.equals(zstdDictionaryConfigData.getEnabled())) {
+            props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ZstdDictionaryDeserializer.class.getName());
+            props.put(ZstdDictionaryDeserializer.DELEGATE_CONFIG, kafkaConsumerConfigData.getValueDeserializer());
+            props.put(ZstdDictionaryDeserializer.DIRECTORY_CONFIG, zstdDictionaryConfigData.getDictionaryDirectory());
+        }
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, kafkaConsumerConfigData.getConsumerGroupId());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, kafkaConsumerConfigData.getAutoOffsetReset());
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, kafkaConsumerConfigData.getIsolationLevel());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl());
+        props.put(kafkaConsumerConfigData.getSpecificAvroReaderKey(), kafkaConsumerConfigData.getSpecificAvroReader());
+        props.put(TwitterAvroModelDeserializer.REGISTRY_HEADER_CONFIG,
+                kafkaConsumerConfigData.getCompactDeserializerRegistryHeader());
+        props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, kafkaConsumerConfigData.getSessionTimeoutMs());
+        props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, kafkaConsumerConfigData.getHeartbeatIntervalMs());
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, kafkaConsumerConfigData.getMaxPollIntervalMs());
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG,
+                kafkaConsumerConfigData.getMaxPartitionFetchBytesDefault() *
+                        kafkaConsumerConfigData.getMaxPartitionFetchBytesBoostFactor());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, kafkaConsumerConfigData.getMaxPollRecords());
+        return props;
+    }
+
+    @Bean
+    public ConsumerFactory<K, V> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerConfigs());
+    }
+
+    /**
+     * Batch listeners get every record of a poll at once, already deserialized by the consumer.
+     */
+    @Bean
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<K, V>> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<K, V> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(kafkaConsumerConfigData.getBatchListener());
+        factory.setConcurrency(kafkaConsumerConfigData.getConcurrencyLevel());
+        factory.setAutoStartup(kafkaConsumerConfigData.getAutoStartup());
+        factory.getContainerProperties().setPollTimeout(kafkaConsumerConfigData.getPollTimeoutMs());
+        return factory;
+    }
+}
@@ -0,0 +1,89 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Publishes records that could not be deserialized or that the listener rejected, with their key and value bytes
+ * as consumed, to their topic name plus the dead-letter suffix. The source partition, offset and failure go into
+ * headers. The consumer only commits past a record once this acknowledged it, so a failed publish is retried until
+ * the consumer stops, and the record is consumed again after a restart.
+ */
+public class DeadLetterPublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeadLetterPublisher.class);
+
+    static final String ORIGINAL_PARTITION = "dlt-original-partition";
+    static final String ORIGINAL_OFFSET = "dlt-original-offset";
+    static final String EXCEPTION_MESSAGE = "dlt-exception-message";
+
+    private final Producer<Long, byte[]> producer;
+
+    private final String topicSuffix;
+
+    private final long retryBackoffMs;
+
+    private volatile boolean running = true;
+
+    public DeadLetterPublisher(Producer<Long, byte[]> producer, String topicSuffix, long retryBackoffMs) {
+        this.producer = producer;
+        this.topicSuffix = topicSuffix;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    /**
+     * Blocks until the record is acknowledged. False if the publisher was stopped or interrupted before.
+     */
+    public boolean publish(ConsumerRecord<Long, byte[]> record, Exception failure) {
+        ProducerRecord<Long, byte[]> deadLetter = new ProducerRecord<Long, byte[]>(record.topic() + topicSuffix,
+                null, record.key(), record.value(), headers(record, failure));
+        while (true) {
+            try {
+                producer.send(deadLetter).get();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException | KafkaException e) {
+                LOG.warn("Could not dead-letter the record of partition {} at offset {}, retrying in {} ms",
+                        record.partition(), record.offset(), retryBackoffMs, e);
+            }
+            if (!running) {
+                return false;
+            }
+            try {
+                Thread.sleep(retryBackoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Publishes still in progress give up after their current attempt.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public void close() {
+        producer.close();
+    }
+
+    private static RecordHeaders headers(ConsumerRecord<Long, byte[]> record, Exception failure) {
+        RecordHeaders headers = new RecordHeaders(record.headers().toArray());
+        headers.add(ORIGINAL_PARTITION, Integer.toString(record.partition()).getBytes(StandardCharsets.UTF_8));
+        headers.add(ORIGINAL_OFFSET, Long.toString(record.offset()).getBytes(StandardCharsets.UTF_8));
+        headers.add(EXCEPTION_MESSAGE, String.valueOf(failure).getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed workers with one queue each. Tasks for the same key always go to the same worker and run in submission
+ * order. Submitting never blocks, the queue capacity is only reported through {@link #isSaturated()} so the poll
+ * loop can pause its partitions and keep polling.
+ */
+public class KeyOrderedExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeyOrderedExecutor.class);
+
+    private static final Runnable STOP = () -> {
+    };
+
+    private final BlockingQueue<Runnable>[] queues;
+
+    private final Thread[] workers;
+
+    private final int queueCapacity;
+
+    @SuppressWarnings("unchecked")
+    public KeyOrderedExecutor(int workerCount, int queueCapacity, String threadNamePrefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        this.queueCapacity = queueCapacity;
+        queues = new BlockingQueue[workerCount];
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+            queues[i] = queue;
+            workers[i] = threadFactory.newThread(() -> run(queue));
+            workers[i].start();
+        }
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    public int workerFor(int hash) {
+        int spread = hash ^ (hash >>> 16);
+        return Math.floorMod(spread * 0x9E3779B9, workers.length);
+    }
+
+    public void execute(int worker, Runnable task) {
+        queues[worker].add(task);
+    }
+
+    /**
+     * True while any queue holds queue-capacity tasks or more.
+     */
+    public boolean isSaturated() {
+        return getMaxQueued() >= queueCapacity;
+    }
+
+    /**
+     * True once every queue is down to half of the queue capacity.
+     */
+    public boolean isRelieved() {
+        return getMaxQueued() <= queueCapacity / 2;
+    }
+
+    private int getMaxQueued() {
+        int maxQueued = 0;
+        for (BlockingQueue<Runnable> queue : queues) {
+            maxQueued = Math.max(maxQueued, queue.size());
+        }
+        return maxQueued;
+    }
+
+    /**
+     * Lets the workers finish what is queued, then interrupts the ones still running after the timeout.
+     */
+    public void shutdown(long timeoutMs) throws InterruptedException {
+        for (BlockingQueue<Runnable> queue : queues) {
+            queue.add(STOP);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private void run(BlockingQueue<Runnable> queue) {
+        while (true) {
+            Runnable task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == STOP) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.error("Worker task failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lowest completed offset per partition, so commits never skip a record that is still being processed.
+ */
+public class OffsetTracker {
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+    public PartitionOffsets partition(TopicPartition topicPartition) {
+        return partitions.computeIfAbsent(topicPartition, tp -> new PartitionOffsets());
+    }
+
+    /**
+     * Offsets that moved since the last call, for the periodic async commit.
+     */
+    public Map<TopicPartition, OffsetAndMetadata> takeCommittable() {
+        Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+        partitions.forEach((topicPartition, partitionOffsets) -> {
+            long offset = partitionOffsets.takeCommittable();
+            if (offset >= 0) {
+                committable.put(topicPartition, new OffsetAndMetadata(offset));
+            }
+        });
+        return committable;
+    }
+
+    /**
+     * Current offsets whether or not they were taken before, for the final sync commit on revoke or shutdown.
+     */
+    public Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> topicPartitions) {
+        Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+        for (TopicPartition topicPartition : topicPartitions) {
+            PartitionOffsets partitionOffsets = partitions.get(topicPartition);
+            long offset = partitionOffsets != null ? partitionOffsets.getCommittable() : -1;
+            if (offset >= 0) {
+                committable.put(topicPartition, new OffsetAndMetadata(offset));
+            }
+        }
+        return committable;
+    }
+
+    /**
+     * Offers the offsets of these partitions again on the next takeCommittable, after their commit failed.
+     */
+    public void retryCommit(Collection<TopicPartition> topicPartitions) {
+        for (TopicPartition topicPartition : topicPartitions) {
+            PartitionOffsets partitionOffsets = partitions.get(topicPartition);
+            if (partitionOffsets != null) {
+                partitionOffsets.retryCommit();
+            }
+        }
+    }
+
+    public long getPendingCount() {
+        long pending = 0;
+        for (PartitionOffsets partitionOffsets : partitions.values()) {
+            pending += partitionOffsets.getPendingCount();
+        }
+        return pending;
+    }
+
+    public void remove(Collection<TopicPartition> topicPartitions) {
+        topicPartitions.forEach(partitions::remove);
+    }
+}
@@ -0,0 +1,399 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.KafkaConsumerConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.consumer.config.KafkaConsumerConfig;
+import com.sedlarski.kafka.consumer.config.service.KafkaConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.LongDeserializer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumes the tweets topic on one poll thread and fans each poll out to key-ordered workers, so processing
+ * scales past the partition count while records of one userId keep their order. Values are deserialized on the
+ * workers, a whole sub-batch at a time, and handed to the {@link KafkaConsumer} bean as one batch per worker.
+ * Offsets are committed up to the lowest record not yet completed in each partition, after
+ * {@link KafkaConsumer#flush()} made everything the listener received durable. Records that fail to deserialize
+ * or make the listener throw are handed to the {@link DeadLetterPublisher} and only committed past once it
+ * published them; when a whole sub-batch fails, its records are retried one by one to find the failing ones.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-consumer-config.parallel-enabled", havingValue = "true")
+public class ParallelKafkaConsumer implements ConsumerRebalanceListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelKafkaConsumer.class);
+
+    private static final String CONSUMED = "twitter.consumer.records";
+    private static final String FAILED = "twitter.consumer.failed";
+    private static final String UNCOMMITTED = "twitter.consumer.uncommitted";
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final KafkaConsumerConfigData kafkaConsumerConfigData;
+
+    private final Map<String, Object> consumerConfigs;
+
+    private final KafkaConsumer<Long, TwitterAvroModel> kafkaConsumer;
+
+    private final OffsetTracker offsetTracker = new OffsetTracker();
+
+    private final ThreadLocal<Deserializer<TwitterAvroModel>> valueDeserializer =
+            ThreadLocal.withInitial(this::configuredValueDeserializer);
+
+    private final Counter consumedRecords;
+
+    private final Counter failedRecords;
+
+    private KeyOrderedExecutor keyOrderedExecutor;
+
+    private DeadLetterPublisher deadLetterPublisher;
+
+    private Consumer<Long, byte[]> consumer;
+
+    private Thread pollThread;
+
+    private volatile boolean running;
+
+    private boolean paused;
+
+    public ParallelKafkaConsumer(KafkaConfigData kafkaConfigData,
+                                 KafkaConsumerConfigData kafkaConsumerConfigData,
+                                 KafkaConsumerConfig<?, ?> kafkaConsumerConfig,
+                                 KafkaConsumer<Long, TwitterAvroModel> kafkaConsumer,
+                                 MeterRegistry meterRegistry) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.kafkaConsumerConfigData = kafkaConsumerConfigData;
+        this.consumerConfigs = kafkaConsumerConfig.consumerConfigs();
+        this.kafkaConsumer = kafkaConsumer;
+        this.consumedRecords = Counter.builder(CONSUMED).register(meterRegistry);
+        this.failedRecords = Counter.builder(FAILED).register(meterRegistry);
+        Gauge.builder(UNCOMMITTED, offsetTracker, OffsetTracker::getPendingCount)
+                .description("Records dispatched to the workers and not yet committable")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        Map<String, Object> props = new HashMap<>(consumerConfigs);
+        props.remove(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG);
+        props.remove(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+        consumer = createConsumer(props);
+        deadLetterPublisher = new DeadLetterPublisher(createDeadLetterProducer(),
+                kafkaConsumerConfigData.getDeadLetterTopicSuffix(),
+                kafkaConsumerConfigData.getDeadLetterRetryBackoffMs());
+        keyOrderedExecutor = new KeyOrderedExecutor(kafkaConsumerConfigData.getParallelWorkers(),
+                kafkaConsumerConfigData.getWorkerQueueCapacity(), "kafka-consumer-worker-");
+        running = true;
+        pollThread = new CustomizableThreadFactory("kafka-consumer-poll-").newThread(this::pollSafely);
+        pollThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+        if (pollThread != null) {
+            pollThread.join(kafkaConsumerConfigData.getMaxPollIntervalMs());
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        commitSync(partitions);
+        offsetTracker.remove(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        if (paused) {
+            consumer.pause(partitions);
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (WakeupException e) {
+            if (running) {
+                LOG.error("Unexpected wakeup of the kafka consumer", e);
+            }
+        } catch (Exception e) {
+            LOG.error("Kafka consumer stopped", e);
+        } finally {
+            close();
+        }
+    }
+
+    Consumer<Long, byte[]> createConsumer(Map<String, Object> props) {
+        return new org.apache.kafka.clients.consumer.KafkaConsumer<>(props, new LongDeserializer(),
+                new ByteArrayDeserializer());
+    }
+
+    Producer<Long, byte[]> createDeadLetterProducer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                consumerConfigs.get(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG));
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new org.apache.kafka.clients.producer.KafkaProducer<>(props, new LongSerializer(),
+                new ByteArraySerializer());
+    }
+
+    private void poll() {
+        consumer.subscribe(List.of(kafkaConfigData.getTopicName()), this);
+        Duration pollTimeout = Duration.ofMillis(kafkaConsumerConfigData.getPollTimeoutMs());
+        long nextCommitMillis = System.currentTimeMillis() + kafkaConsumerConfigData.getCommitIntervalMs();
+        while (running) {
+            ConsumerRecords<Long, byte[]> records = consumer.poll(pollTimeout);
+            if (!records.isEmpty()) {
+                dispatch(records);
+            }
+            applyBackpressure();
+            if (System.currentTimeMillis() >= nextCommitMillis) {
+                commitAsync();
+                nextCommitMillis = System.currentTimeMillis() + kafkaConsumerConfigData.getCommitIntervalMs();
+            }
+        }
+    }
+
+    /**
+     * Splits the poll into one sub-batch per worker, keyless records are spread by partition.
+     */
+    private void dispatch(ConsumerRecords<Long, byte[]> records) {
+        WorkBatch[] batches = new WorkBatch[keyOrderedExecutor.getWorkerCount()];
+        for (TopicPartition topicPartition : records.partitions()) {
+            PartitionOffsets partitionOffsets = offsetTracker.partition(topicPartition);
+            for (ConsumerRecord<Long, byte[]> record : records.records(topicPartition)) {
+                int worker = keyOrderedExecutor.workerFor(record.key() != null ? Long.hashCode(record.key())
+                        : record.partition());
+                if (batches[worker] == null) {
+                    batches[worker] = new WorkBatch();
+                }
+                batches[worker].add(record, partitionOffsets, partitionOffsets.track(record.offset()));
+            }
+        }
+        for (int worker = 0; worker < batches.length; worker++) {
+            WorkBatch batch = batches[worker];
+            if (batch != null) {
+                keyOrderedExecutor.execute(worker, () -> process(batch));
+            }
+        }
+    }
+
+    private void process(WorkBatch batch) {
+        Deserializer<TwitterAvroModel> deserializer = valueDeserializer.get();
+        int size = batch.records.size();
+        List<TwitterAvroModel> messages = new ArrayList<>(size);
+        List<Long> keys = new ArrayList<>(size);
+        List<Integer> partitions = new ArrayList<>(size);
+        List<Long> offsets = new ArrayList<>(size);
+        List<Integer> received = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ConsumerRecord<Long, byte[]> record = batch.records.get(i);
+            TwitterAvroModel message;
+            try {
+                message = deserializer.deserialize(record.topic(), record.headers(), record.value());
+            } catch (Exception e) {
+                failedRecords.increment();
+                LOG.error("Record of partition {} at offset {} could not be deserialized", record.partition(),
+                        record.offset(), e);
+                deadLetter(batch, i, e);
+                continue;
+            }
+            if (message == null) {
+                batch.complete(i);
+                continue;
+            }
+            messages.add(message);
+            keys.add(record.key());
+            partitions.add(record.partition());
+            offsets.add(record.offset());
+            received.add(i);
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            kafkaConsumer.receive(messages, keys, partitions, offsets);
+        } catch (Exception e) {
+            LOG.warn("Kafka consumer listener failed on {} record(s), retrying them one by one", messages.size(), e);
+            for (int i = 0; i < messages.size(); i++) {
+                receiveOne(batch, received.get(i), messages.get(i));
+            }
+            return;
+        }
+        consumedRecords.increment(messages.size());
+        for (int i : received) {
+            batch.complete(i);
+        }
+    }
+
+    private void receiveOne(WorkBatch batch, int index, TwitterAvroModel message) {
+        ConsumerRecord<Long, byte[]> record = batch.records.get(index);
+        try {
+            kafkaConsumer.receive(List.of(message), Collections.singletonList(record.key()),
+                    List.of(record.partition()), List.of(record.offset()));
+        } catch (Exception e) {
+            failedRecords.increment();
+            LOG.error("Kafka consumer listener failed on the record of partition {} at offset {}",
+                    record.partition(), record.offset(), e);
+            deadLetter(batch, index, e);
+            return;
+        }
+        consumedRecords.increment();
+        batch.complete(index);
+    }
+
+    /**
+     * A record that could not be dead-lettered stays incomplete, so no commit goes past it.
+     */
+    private void deadLetter(WorkBatch batch, int index, Exception failure) {
+        if (deadLetterPublisher.publish(batch.records.get(index), failure)) {
+            batch.complete(index);
+        }
+    }
+
+    /**
+     * Pauses every assigned partition while too many records wait behind a slow key or a worker queue is full,
+     * resumes once both are down to half of that. The poll thread never blocks on the workers, so it keeps
+     * polling within max.poll.interval.ms while paused.
+     */
+    private void applyBackpressure() {
+        long pending = offsetTracker.getPendingCount();
+        if (!paused && (pending > kafkaConsumerConfigData.getMaxUncommittedRecords() ||
+                keyOrderedExecutor.isSaturated())) {
+            consumer.pause(consumer.assignment());
+            paused = true;
+            LOG.info("Paused kafka consumer with {} uncommitted record(s)", pending);
+        } else if (paused && pending <= kafkaConsumerConfigData.getMaxUncommittedRecords() / 2 &&
+                keyOrderedExecutor.isRelieved()) {
+            consumer.resume(consumer.paused());
+            paused = false;
+            LOG.info("Resumed kafka consumer with {} uncommitted record(s)", pending);
+        }
+    }
+
+    /**
+     * The offsets are taken before the flush, so they never cover a record the listener received after it.
+     */
+    private void commitAsync() {
+        Map<TopicPartition, OffsetAndMetadata> committable = offsetTracker.takeCommittable();
+        if (committable.isEmpty()) {
+            return;
+        }
+        if (!flushSafely()) {
+            offsetTracker.retryCommit(committable.keySet());
+            return;
+        }
+        consumer.commitAsync(committable, (offsets, exception) -> {
+            if (exception != null) {
+                offsetTracker.retryCommit(offsets.keySet());
+                LOG.warn("Could not commit offsets {}", offsets, exception);
+            }
+        });
+    }
+
+    private void commitSync(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> committable = offsetTracker.committable(partitions);
+        if (!committable.isEmpty() && flushSafely()) {
+            try {
+                consumer.commitSync(committable);
+            } catch (KafkaException e) {
+                LOG.warn("Could not commit offsets {}", committable, e);
+            }
+        }
+    }
+
+    private boolean flushSafely() {
+        try {
+            kafkaConsumer.flush();
+            return true;
+        } catch (Exception e) {
+            LOG.warn("Kafka consumer listener could not flush, offsets are not committed", e);
+            return false;
+        }
+    }
+
+    private void close() {
+        deadLetterPublisher.stop();
+        try {
+            keyOrderedExecutor.shutdown(kafkaConsumerConfigData.getMaxPollIntervalMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commitSync(consumer.assignment());
+        consumer.close();
+        deadLetterPublisher.close();
+        LOG.info("Kafka consumer closed");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Deserializer<TwitterAvroModel> configuredValueDeserializer() {
+        String className = String.valueOf(consumerConfigs.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+        try {
+            Deserializer<TwitterAvroModel> deserializer = Utils.newInstance(className, Deserializer.class);
+            deserializer.configure(consumerConfigs, false);
+            return deserializer;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown value deserializer " + className, e);
+        }
+    }
+
+    private static final class WorkBatch {
+
+        private final List<ConsumerRecord<Long, byte[]>> records = new ArrayList<>();
+
+        private final List<PartitionOffsets> owners = new ArrayList<>();
+
+        private long[] sequences = new long[64];
+
+        private void add(ConsumerRecord<Long, byte[]> record, PartitionOffsets owner, long sequence) {
+            if (records.size() == sequences.length) {
+                sequences = Arrays.copyOf(sequences, sequences.length * 2);
+            }
+            sequences[records.size()] = sequence;
+            records.add(record);
+            owners.add(owner);
+        }
+
+        private void complete(int index) {
+            owners.get(index).complete(sequences[index]);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+/**
+ * Offsets of one partition in dispatch order, with a completion flag each. Records complete out of order on
+ * the workers; the committable offset only moves past a record once it and everything before it completed.
+ * Offsets are tracked explicitly rather than assumed contiguous, transaction markers and compaction leave gaps.
+ */
+public final class PartitionOffsets {
+
+    private long[] offsets = new long[1024];
+
+    private boolean[] completed = new boolean[1024];
+
+    private long head;
+
+    private long tail;
+
+    private long committable = -1;
+
+    private long lastTaken = -1;
+
+    /**
+     * Called from the poll thread in offset order. Returns the sequence to complete the record with.
+     */
+    public synchronized long track(long offset) {
+        if (tail - head == offsets.length) {
+            grow();
+        }
+        int index = index(tail);
+        offsets[index] = offset;
+        completed[index] = false;
+        return tail++;
+    }
+
+    public synchronized void complete(long sequence) {
+        completed[index(sequence)] = true;
+        while (head < tail && completed[index(head)]) {
+            committable = offsets[index(head)] + 1;
+            head++;
+        }
+    }
+
+    /**
+     * Offset to commit if it moved since the last call, otherwise -1.
+     */
+    public synchronized long takeCommittable() {
+        if (committable > lastTaken) {
+            lastTaken = committable;
+            return committable;
+        }
+        return -1;
+    }
+
+    public synchronized void retryCommit() {
+        lastTaken = -1;
+    }
+
+    /**
+     * Next offset to commit, -1 before the first record completed.
+     */
+    public synchronized long getCommittable() {
+        return committable;
+    }
+
+    public synchronized long getPendingCount() {
+        return tail - head;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & (offsets.length - 1));
+    }
+
+    private void grow() {
+        long[] grownOffsets = new long[offsets.length * 2];
+        boolean[] grownCompleted = new boolean[offsets.length * 2];
+        int mask = grownOffsets.length - 1;
+        for (long sequence = head; sequence < tail; sequence++) {
+            grownOffsets[(int) (sequence & mask)] = offsets[index(sequence)];
+            grownCompleted[(int) (sequence & mask)] = completed[index(sequence)];
+        }
+        offsets = grownOffsets;
+        completed = grownCompleted;
+    }
+}
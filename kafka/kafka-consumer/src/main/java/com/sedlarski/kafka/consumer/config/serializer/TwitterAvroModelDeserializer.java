@@ -0,0 +1,95 @@
+package com.sedlarski.kafka.consumer.config.serializer;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Reads what the compact TwitterAvroModelSerializer of kafka-producer writes. It lives with the consumers that
+ * select it through value-deserializer, so they do not depend on the producer module. Whether a registry header
+ * precedes the body has to be configured the same way as on the producer, with the same config key, since an
+ * Avro body may also start with a zero byte. The schema id in the header is not checked, the record is always
+ * read with the current schema.
+ */
+public class TwitterAvroModelDeserializer implements Deserializer<TwitterAvroModel> {
+
+    public static final String REGISTRY_HEADER_CONFIG = "twitter.avro.registry.header";
+
+    private static final byte MAGIC_BYTE = 0;
+
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+
+    private boolean registryHeader;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        registryHeader = Boolean.parseBoolean(String.valueOf(configs.get(REGISTRY_HEADER_CONFIG)));
+    }
+
+    @Override
+    public TwitterAvroModel deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Reader reader = new Reader(data);
+        if (registryHeader) {
+            if (data.length < HEADER_BYTES || data[0] != MAGIC_BYTE) {
+                throw new SerializationException("Unknown magic byte in record from topic " + topic);
+            }
+            reader.position = HEADER_BYTES;
+        }
+        try {
+            long userId = reader.readLong();
+            long id = reader.readLong();
+            String text = reader.readUnionBranch() ? reader.readString() : null;
+            Long createdAt = reader.readUnionBranch() ? reader.readLong() : null;
+            return new TwitterAvroModel(userId, id, text, createdAt);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated record from topic " + topic, e);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private boolean readUnionBranch() {
+            long branch = readLong();
+            if (branch != 0 && branch != 1) {
+                throw new SerializationException("Invalid union branch " + branch);
+            }
+            return branch == 1;
+        }
+
+        private String readString() {
+            long length = readLong();
+            if (length < 0 || position + length > data.length) {
+                throw new SerializationException("Invalid text length " + length);
+            }
+            String text = new String(data, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return text;
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (value >>> 1) ^ -(value & 1);
+                }
+            }
+            throw new SerializationException("Invalid varint");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.sedlarski.kafka.consumer.config.serializer;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reads what the ZstdDictionarySerializer of kafka-producer writes. Values that are not zstd frames are handed to
+ * the delegate as they are, so a topic can be read across the switch to dictionary compression. Selected through
+ * value-deserializer, it builds the delegate from {@link #DELEGATE_CONFIG} and loads every
+ * {@code dictionary-<id>.zdict} the trainer stored in {@link #DIRECTORY_CONFIG}.
+ */
+public class ZstdDictionaryDeserializer<T> implements Deserializer<T> {
+
+    public static final String DELEGATE_CONFIG = "zstd.dictionary.delegate";
+
+    public static final String DIRECTORY_CONFIG = "zstd.dictionary.directory";
+
+    private static final int ZSTD_MAGIC = 0xFD2FB528;
+
+    private static final String PREFIX = "dictionary-";
+
+    private static final String SUFFIX = ".zdict";
+
+    private Deserializer<T> delegate;
+
+    private Map<Long, ZstdDictDecompress> dictionaries;
+
+    public ZstdDictionaryDeserializer() {
+    }
+
+    public ZstdDictionaryDeserializer(Deserializer<T> delegate, Map<Long, ZstdDictDecompress> dictionaries) {
+        this.delegate = delegate;
+        this.dictionaries = dictionaries;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (delegate == null) {
+            try {
+                delegate = Utils.newInstance(String.valueOf(configs.get(DELEGATE_CONFIG)), Deserializer.class);
+            } catch (ClassNotFoundException e) {
+                throw new KafkaException("Unknown delegate deserializer " + configs.get(DELEGATE_CONFIG), e);
+            }
+        }
+        if (dictionaries == null) {
+            dictionaries = loadAll(Path.of(String.valueOf(configs.get(DIRECTORY_CONFIG))));
+        }
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, decompress(data));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private byte[] decompress(byte[] data) {
+        if (!isZstdFrame(data)) {
+            return data;
+        }
+        long dictionaryId = Zstd.getDictIdFromFrame(data);
+        ZstdDictDecompress dictionary = dictionaries.get(dictionaryId);
+        if (dictionary == null) {
+            throw new SerializationException("No zstd dictionary with id " + dictionaryId);
+        }
+        long size = Zstd.decompressedSize(data);
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            throw new SerializationException("Zstd frame without a usable content size: " + size);
+        }
+        return Zstd.decompress(data, dictionary, (int) size);
+    }
+
+    private static boolean isZstdFrame(byte[] data) {
+        return data != null && data.length >= 4 && ((data[0] & 0xFF) | (data[1] & 0xFF) << 8
+                | (data[2] & 0xFF) << 16 | (data[3] & 0xFF) << 24) == ZSTD_MAGIC;
+    }
+
+    /**
+     * A directory the trainer did not write yet yields no dictionaries, values are then only readable while the
+     * producer still sends them uncompressed.
+     */
+    private static Map<Long, ZstdDictDecompress> loadAll(Path directory) {
+        Map<Long, ZstdDictDecompress> dictionaries = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return dictionaries;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(path -> {
+                        byte[] dictionary = read(path);
+                        dictionaries.put(Zstd.getDictIdFromDict(dictionary), new ZstdDictDecompress(dictionary));
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list zstd dictionaries in " + directory, e);
+        }
+        return dictionaries;
+    }
+
+    private static byte[] read(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read zstd dictionary " + path, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.sedlarski.kafka.consumer.config.service;
+
+import org.apache.avro.specific.SpecificRecordBase;
+
+import java.io.Serializable;
+import java.util.List;
+
+public interface KafkaConsumer<K extends Serializable, V extends SpecificRecordBase> {
+    void receive(List<V> messages, List<K> keys, List<Integer> partitions, List<Long> offsets);
+
+    /**
+     * Called by the parallel consumer on its poll thread right before it commits offsets, for listeners that
+     * buffer what they receive: everything received so far has to be durable when this returns. Offsets are not
+     * committed if it throws.
+     */
+    default void flush() throws Exception {
+    }
+}
@@ -0,0 +1,73 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeyOrderedExecutorTest {
+
+    @Test
+    public void runsTasksOfOneWorkerInSubmissionOrder() throws InterruptedException {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(4, 16, "test-worker-");
+        int worker = executor.workerFor(Long.hashCode(42L));
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int task = i;
+            executor.execute(worker, () -> order.add(task));
+        }
+
+        executor.shutdown(10_000);
+
+        assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), order);
+    }
+
+    @Test
+    public void reportsSaturationWithoutBlockingTheSubmitter() throws InterruptedException {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(2, 4, "test-worker-");
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(0, () -> await(blocked));
+        for (int i = 0; i < 10; i++) {
+            executor.execute(0, () -> {
+            });
+        }
+
+        assertTrue(executor.isSaturated());
+        assertFalse(executor.isRelieved());
+
+        blocked.countDown();
+        executor.shutdown(10_000);
+
+        assertFalse(executor.isSaturated());
+        assertTrue(executor.isRelieved());
+    }
+
+    @Test
+    public void keepsWorkingAfterAFailedTask() throws InterruptedException {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(1, 4, "test-worker-");
+        CountDownLatch ran = new CountDownLatch(1);
+        executor.execute(0, () -> {
+            throw new IllegalStateException("listener failed");
+        });
+        executor.execute(0, ran::countDown);
+
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+        executor.shutdown(10_000);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
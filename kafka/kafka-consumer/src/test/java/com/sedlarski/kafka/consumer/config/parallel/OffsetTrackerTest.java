@@ -0,0 +1,69 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffsetTrackerTest {
+
+    private static final TopicPartition FIRST = new TopicPartition("twitter-topic", 0);
+
+    private static final TopicPartition SECOND = new TopicPartition("twitter-topic", 1);
+
+    private final OffsetTracker offsetTracker = new OffsetTracker();
+
+    @Test
+    public void takesOnlyOffsetsThatMoved() {
+        PartitionOffsets first = offsetTracker.partition(FIRST);
+        PartitionOffsets second = offsetTracker.partition(SECOND);
+        first.complete(first.track(0));
+        long pending = second.track(0);
+
+        assertEquals(Map.of(FIRST, new OffsetAndMetadata(1)), offsetTracker.takeCommittable());
+        assertTrue(offsetTracker.takeCommittable().isEmpty());
+        assertEquals(1, offsetTracker.getPendingCount());
+
+        second.complete(pending);
+        assertEquals(Map.of(SECOND, new OffsetAndMetadata(1)), offsetTracker.takeCommittable());
+    }
+
+    @Test
+    public void offersFailedCommitsAgain() {
+        PartitionOffsets first = offsetTracker.partition(FIRST);
+        first.complete(first.track(7));
+        offsetTracker.takeCommittable();
+
+        offsetTracker.retryCommit(List.of(FIRST, SECOND));
+
+        assertEquals(Map.of(FIRST, new OffsetAndMetadata(8)), offsetTracker.takeCommittable());
+    }
+
+    @Test
+    public void commitsRevokedPartitionsWhetherOrNotTheyWereTaken() {
+        PartitionOffsets first = offsetTracker.partition(FIRST);
+        first.complete(first.track(3));
+        offsetTracker.takeCommittable();
+
+        assertEquals(Map.of(FIRST, new OffsetAndMetadata(4)), offsetTracker.committable(List.of(FIRST, SECOND)));
+    }
+
+    @Test
+    public void ignoresCompletionsAfterRevocation() {
+        PartitionOffsets revoked = offsetTracker.partition(FIRST);
+        long inFlight = revoked.track(0);
+        offsetTracker.remove(List.of(FIRST));
+
+        revoked.complete(inFlight);
+
+        assertTrue(offsetTracker.takeCommittable().isEmpty());
+        assertEquals(0, offsetTracker.getPendingCount());
+        PartitionOffsets reassigned = offsetTracker.partition(FIRST);
+        assertEquals(-1, reassigned.getCommittable());
+    }
+}
@@ -0,0 +1,284 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.KafkaConsumerConfigData;
+import com.sedlarski.eventdriven.config.ZstdDictionaryConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.consumer.config.KafkaConsumerConfig;
+import com.sedlarski.kafka.consumer.config.service.KafkaConsumer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelKafkaConsumerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final List<Long> commits = new CopyOnWriteArrayList<>();
+
+    /**
+     * MockConsumer reports offset 0 for every partition not assigned, so commits are recorded as well.
+     */
+    private final MockConsumer<Long, byte[]> consumer = new MockConsumer<Long, byte[]>(OffsetResetStrategy.EARLIEST) {
+        @Override
+        public synchronized void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets,
+                                             OffsetCommitCallback callback) {
+            record(offsets);
+            super.commitAsync(offsets, callback);
+        }
+
+        @Override
+        public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+            record(offsets);
+            super.commitSync(offsets);
+        }
+
+        private void record(Map<TopicPartition, OffsetAndMetadata> offsets) {
+            OffsetAndMetadata offset = offsets.get(PARTITION);
+            if (offset != null) {
+                commits.add(offset.offset());
+            }
+        }
+    };
+
+    private final TextListener listener = new TextListener();
+
+    private MockProducer<Long, byte[]> producer;
+
+    private ParallelKafkaConsumer parallelKafkaConsumer;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        listener.release.countDown();
+        parallelKafkaConsumer.stop();
+    }
+
+    @Test
+    public void deadLettersRecordsThatFailAndCommitsPastThem() {
+        start(true);
+        consumer.schedulePollTask(() -> {
+            assign(PARTITION);
+            addRecords(PARTITION, 0, "a", "poison", "garbage", "b");
+        });
+
+        awaitCommitted(PARTITION, 4);
+
+        assertEquals(List.of("a", "b"), listener.texts());
+        List<ProducerRecord<Long, byte[]>> deadLetters = producer.history();
+        assertEquals(List.of("garbage", "poison"), deadLetters.stream()
+                .map(record -> new String(record.value(), StandardCharsets.UTF_8)).collect(Collectors.toList()));
+        assertEquals(TOPIC + "-dlt", deadLetters.get(0).topic());
+        assertEquals("2", new String(deadLetters.get(0).headers()
+                .lastHeader(DeadLetterPublisher.ORIGINAL_OFFSET).value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void doesNotCommitPastARecordUntilItIsDeadLettered() {
+        start(false);
+        consumer.schedulePollTask(() -> {
+            assign(PARTITION);
+            addRecords(PARTITION, 0, "a", "poison", "b");
+        });
+
+        awaitTrue(() -> producer.history().size() == 1);
+        producer.errorNext(new TimeoutException("dead-letter topic unavailable"));
+        awaitTrue(() -> producer.history().size() == 2);
+        awaitCommitted(PARTITION, 1);
+
+        producer.completeNext();
+
+        awaitCommitted(PARTITION, 3);
+        assertEquals(List.of("a", "b"), listener.texts());
+    }
+
+    @Test
+    public void commitsRevokedPartitionsAndIgnoresTheirLateCompletions() throws InterruptedException {
+        start(true);
+        consumer.schedulePollTask(() -> {
+            assign(PARTITION);
+            addRecords(PARTITION, 0, "a");
+        });
+        awaitCommitted(PARTITION, 1);
+        consumer.schedulePollTask(() -> addRecords(PARTITION, 1, "slow"));
+        assertTrue(listener.slowEntered.await(10, TimeUnit.SECONDS));
+
+        consumer.schedulePollTask(this::revokeAll);
+        awaitTrue(() -> consumer.assignment().isEmpty());
+        assertEquals(1, commits.get(commits.size() - 1).longValue());
+        listener.release.countDown();
+        awaitTrue(() -> listener.texts().contains("slow"));
+        Thread.sleep(50);
+        assertEquals(1, commits.stream().mapToLong(Long::longValue).max().getAsLong());
+
+        consumer.schedulePollTask(() -> {
+            assign(PARTITION);
+            addRecords(PARTITION, 1, "slow", "b");
+        });
+
+        awaitCommitted(PARTITION, 3);
+        assertEquals(List.of("a", "slow", "slow", "b"), listener.texts());
+    }
+
+    private void start(boolean autoCompleteDeadLetters) {
+        producer = new MockProducer<>(autoCompleteDeadLetters, new LongSerializer(), new ByteArraySerializer());
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setBootstrapServers("localhost:9092");
+        kafkaConfigData.setTopicName(TOPIC);
+        KafkaConsumerConfigData kafkaConsumerConfigData = new KafkaConsumerConfigData();
+        kafkaConsumerConfigData.setValueDeserializer(TextDeserializer.class.getName());
+        kafkaConsumerConfigData.setParallelWorkers(2);
+        kafkaConsumerConfigData.setPollTimeoutMs(1L);
+        kafkaConsumerConfigData.setCommitIntervalMs(0L);
+        kafkaConsumerConfigData.setMaxPollIntervalMs(10_000);
+        kafkaConsumerConfigData.setDeadLetterRetryBackoffMs(1L);
+        parallelKafkaConsumer = new ParallelKafkaConsumer(kafkaConfigData, kafkaConsumerConfigData,
+                new KafkaConsumerConfig<Long, TwitterAvroModel>(kafkaConfigData, kafkaConsumerConfigData,
+                        new ZstdDictionaryConfigData()), listener,
+                new SimpleMeterRegistry()) {
+            @Override
+            Consumer<Long, byte[]> createConsumer(Map<String, Object> props) {
+                return consumer;
+            }
+
+            @Override
+            Producer<Long, byte[]> createDeadLetterProducer() {
+                return producer;
+            }
+        };
+        parallelKafkaConsumer.start();
+    }
+
+    /**
+     * MockConsumer does not call the rebalance listener itself.
+     */
+    private void assign(TopicPartition topicPartition) {
+        consumer.rebalance(List.of(topicPartition));
+        consumer.updateBeginningOffsets(Map.of(topicPartition, 0L));
+        parallelKafkaConsumer.onPartitionsAssigned(List.of(topicPartition));
+    }
+
+    private void revokeAll() {
+        parallelKafkaConsumer.onPartitionsRevoked(consumer.assignment());
+        consumer.rebalance(Collections.emptyList());
+    }
+
+    /**
+     * All records get the same key, so they go to one worker in offset order.
+     */
+    private void addRecords(TopicPartition topicPartition, long firstOffset, String... texts) {
+        for (int i = 0; i < texts.length; i++) {
+            consumer.addRecord(new ConsumerRecord<>(topicPartition.topic(), topicPartition.partition(),
+                    firstOffset + i, 7L, texts[i].getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private long committed(TopicPartition topicPartition) {
+        OffsetAndMetadata committed = consumer.committed(Set.of(topicPartition)).get(topicPartition);
+        return committed != null ? committed.offset() : -1;
+    }
+
+    private void awaitCommitted(TopicPartition topicPartition, long offset) {
+        awaitTrue(() -> committed(topicPartition) == offset);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Rejects every batch holding a "poison" tweet and blocks on the first "slow" tweet until released.
+     */
+    private static final class TextListener implements KafkaConsumer<Long, TwitterAvroModel> {
+
+        private final List<String> texts = new ArrayList<>();
+
+        private final CountDownLatch slowEntered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void receive(List<TwitterAvroModel> messages, List<Long> keys, List<Integer> partitions,
+                            List<Long> offsets) {
+            for (TwitterAvroModel message : messages) {
+                if ("poison".equals(message.getText())) {
+                    throw new IllegalStateException("poison tweet");
+                }
+            }
+            for (TwitterAvroModel message : messages) {
+                if ("slow".equals(message.getText()) && slowEntered.getCount() > 0) {
+                    slowEntered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                synchronized (texts) {
+                    texts.add(message.getText());
+                }
+            }
+        }
+
+        private List<String> texts() {
+            synchronized (texts) {
+                return new ArrayList<>(texts);
+            }
+        }
+    }
+
+    /**
+     * Tweet text as plain UTF-8, "garbage" does not deserialize.
+     */
+    public static final class TextDeserializer implements Deserializer<TwitterAvroModel> {
+
+        @Override
+        public TwitterAvroModel deserialize(String topic, byte[] data) {
+            String text = new String(data, StandardCharsets.UTF_8);
+            if ("garbage".equals(text)) {
+                throw new SerializationException("not a tweet");
+            }
+            return new TwitterAvroModel(7L, 1L, text, 0L);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.sedlarski.kafka.consumer.config.parallel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PartitionOffsetsTest {
+
+    private final PartitionOffsets partitionOffsets = new PartitionOffsets();
+
+    @Test
+    public void movesOnlyPastRecordsCompletedInOrder() {
+        long first = partitionOffsets.track(10);
+        long second = partitionOffsets.track(11);
+        long third = partitionOffsets.track(12);
+
+        partitionOffsets.complete(third);
+        partitionOffsets.complete(second);
+        assertEquals(-1, partitionOffsets.getCommittable());
+        assertEquals(3, partitionOffsets.getPendingCount());
+
+        partitionOffsets.complete(first);
+        assertEquals(13, partitionOffsets.getCommittable());
+        assertEquals(0, partitionOffsets.getPendingCount());
+    }
+
+    @Test
+    public void commitsPastOffsetGaps() {
+        long first = partitionOffsets.track(10);
+        long second = partitionOffsets.track(14);
+        partitionOffsets.track(20);
+
+        partitionOffsets.complete(first);
+        assertEquals(11, partitionOffsets.getCommittable());
+
+        partitionOffsets.complete(second);
+        assertEquals(15, partitionOffsets.getCommittable());
+    }
+
+    @Test
+    public void takesEachCommittableOffsetOnce() {
+        partitionOffsets.complete(partitionOffsets.track(5));
+
+        assertEquals(6, partitionOffsets.takeCommittable());
+        assertEquals(-1, partitionOffsets.takeCommittable());
+
+        partitionOffsets.retryCommit();
+        assertEquals(6, partitionOffsets.takeCommittable());
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        long[] sequences = new long[5000];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = partitionOffsets.track(i);
+        }
+        for (int i = sequences.length - 1; i > 0; i--) {
+            partitionOffsets.complete(sequences[i]);
+        }
+        assertEquals(-1, partitionOffsets.getCommittable());
+
+        partitionOffsets.complete(sequences[0]);
+        assertEquals(5000, partitionOffsets.getCommittable());
+    }
+}
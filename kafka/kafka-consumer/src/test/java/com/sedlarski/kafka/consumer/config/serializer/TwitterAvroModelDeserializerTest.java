@@ -0,0 +1,66 @@
+package com.sedlarski.kafka.consumer.config.serializer;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.serializer.TwitterAvroModelSerializer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TwitterAvroModelDeserializerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final List<TwitterAvroModel> TWEETS = List.of(
+            new TwitterAvroModel(42L, 1234567890123L, "Learning #Kafka streams", 1620000000000L),
+            new TwitterAvroModel(Long.MIN_VALUE, Long.MAX_VALUE, "", Long.MIN_VALUE),
+            new TwitterAvroModel(7L, 8L, null, 1620000000000L),
+            new TwitterAvroModel(7L, 8L, "caf\u00e9 \u6771\u4eac \ud83d\ude80", null),
+            new TwitterAvroModel(7L, 8L, null, null));
+
+    @Test
+    public void readsWhatTheCompactSerializerWrites() {
+        TwitterAvroModelSerializer serializer = new TwitterAvroModelSerializer();
+        TwitterAvroModelDeserializer deserializer = deserializer(false);
+
+        for (TwitterAvroModel tweet : TWEETS) {
+            assertEquals(tweet, deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, tweet)));
+        }
+    }
+
+    @Test
+    public void readsPastTheRegistryHeader() {
+        TwitterAvroModelSerializer serializer = new TwitterAvroModelSerializer(new MockSchemaRegistryClient());
+        TwitterAvroModelDeserializer deserializer = deserializer(true);
+
+        assertEquals(TwitterAvroModelSerializer.REGISTRY_HEADER_CONFIG,
+                TwitterAvroModelDeserializer.REGISTRY_HEADER_CONFIG);
+        for (TwitterAvroModel tweet : TWEETS) {
+            assertEquals(tweet, deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, tweet)));
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedAndHeaderlessRecords() {
+        byte[] bytes = new TwitterAvroModelSerializer().serialize(TOPIC, TWEETS.get(0));
+
+        assertThrows(SerializationException.class,
+                () -> deserializer(false).deserialize(TOPIC, Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(SerializationException.class,
+                () -> deserializer(true).deserialize(TOPIC, new byte[]{1, 0, 0, 0, 1, 2}));
+        assertNull(deserializer(false).deserialize(TOPIC, null));
+    }
+
+    private static TwitterAvroModelDeserializer deserializer(boolean registryHeader) {
+        TwitterAvroModelDeserializer deserializer = new TwitterAvroModelDeserializer();
+        deserializer.configure(Map.of(TwitterAvroModelDeserializer.REGISTRY_HEADER_CONFIG, registryHeader), false);
+        return deserializer;
+    }
+}
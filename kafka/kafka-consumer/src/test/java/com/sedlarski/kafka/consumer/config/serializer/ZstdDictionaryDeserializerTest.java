@@ -0,0 +1,126 @@
+package com.sedlarski.kafka.consumer.config.serializer;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.KafkaConsumerConfigData;
+import com.sedlarski.eventdriven.config.ZstdDictionaryConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.consumer.config.KafkaConsumerConfig;
+import com.sedlarski.kafka.producer.config.zstd.ZstdDictionarySerializer;
+import com.sedlarski.kafka.producer.config.zstd.ZstdDictionaryStore;
+import com.sedlarski.kafka.producer.config.zstd.ZstdDictionaryTrainer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ZstdDictionaryDeserializerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final String TWEET = "{\"userId\":42,\"text\":\"Learning #Kafka with a trained dictionary\"}";
+
+    private static final byte[] DICTIONARY = ZstdDictionaryTrainer.train(samples("kafka"), 4096);
+
+    private static final byte[] OTHER_DICTIONARY = ZstdDictionaryTrainer.train(samples("zstd"), 4096);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void readsValuesOfEveryStoredDictionary() throws IOException {
+        ZstdDictionaryStore.save(directory, DICTIONARY);
+        ZstdDictionaryStore.save(directory, OTHER_DICTIONARY);
+        Deserializer<String> deserializer = configured(directory);
+
+        assertEquals(TWEET, deserializer.deserialize(TOPIC, compress(DICTIONARY, TWEET)));
+        assertEquals(TWEET, deserializer.deserialize(TOPIC, compress(OTHER_DICTIONARY, TWEET)));
+    }
+
+    @Test
+    public void rejectsFramesOfAnUnknownDictionary() throws IOException {
+        ZstdDictionaryStore.save(directory, OTHER_DICTIONARY);
+
+        assertThrows(SerializationException.class,
+                () -> configured(directory).deserialize(TOPIC, compress(DICTIONARY, TWEET)));
+        assertThrows(SerializationException.class,
+                () -> configured(directory.resolve("missing")).deserialize(TOPIC, compress(DICTIONARY, TWEET)));
+    }
+
+    @Test
+    public void passesUncompressedValuesThrough() {
+        Deserializer<String> deserializer = configured(directory.resolve("missing"));
+
+        assertEquals(TWEET, deserializer.deserialize(TOPIC, new StringSerializer().serialize(TOPIC, TWEET)));
+        assertEquals("", deserializer.deserialize(TOPIC, new byte[0]));
+        assertNull(deserializer.deserialize(TOPIC, null));
+    }
+
+    @Test
+    public void wrapsTheValueDeserializerOnlyWhenEnabled() {
+        KafkaConsumerConfigData kafkaConsumerConfigData = new KafkaConsumerConfigData();
+        kafkaConsumerConfigData.setValueDeserializer(TwitterAvroModelDeserializer.class.getName());
+        ZstdDictionaryConfigData zstdDictionaryConfigData = new ZstdDictionaryConfigData();
+        zstdDictionaryConfigData.setDictionaryDirectory(directory.toString());
+
+        assertEquals(TwitterAvroModelDeserializer.class.getName(), consumerConfigs(kafkaConsumerConfigData,
+                zstdDictionaryConfigData).get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+
+        zstdDictionaryConfigData.setEnabled(true);
+        Map<String, Object> configs = consumerConfigs(kafkaConsumerConfigData, zstdDictionaryConfigData);
+
+        assertEquals(ZstdDictionaryDeserializer.class.getName(),
+                configs.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+        assertEquals(TwitterAvroModelDeserializer.class.getName(),
+                configs.get(ZstdDictionaryDeserializer.DELEGATE_CONFIG));
+        assertEquals(directory.toString(), configs.get(ZstdDictionaryDeserializer.DIRECTORY_CONFIG));
+    }
+
+    private static Map<String, Object> consumerConfigs(KafkaConsumerConfigData kafkaConsumerConfigData,
+                                                       ZstdDictionaryConfigData zstdDictionaryConfigData) {
+        return new KafkaConsumerConfig<Long, TwitterAvroModel>(new KafkaConfigData(), kafkaConsumerConfigData,
+                zstdDictionaryConfigData).consumerConfigs();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Deserializer<String> configured(Path directory) {
+        Deserializer<String> deserializer;
+        try {
+            deserializer = Utils.newInstance(ZstdDictionaryDeserializer.class.getName(), Deserializer.class);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+        deserializer.configure(Map.of(ZstdDictionaryDeserializer.DELEGATE_CONFIG, StringDeserializer.class.getName(),
+                ZstdDictionaryDeserializer.DIRECTORY_CONFIG, directory.toString()), false);
+        return deserializer;
+    }
+
+    private static byte[] compress(byte[] dictionary, String value) {
+        return new ZstdDictionarySerializer<>(new StringSerializer(), new ZstdDictCompress(dictionary, 3))
+                .serialize(TOPIC, value);
+    }
+
+    private static List<byte[]> samples(String keyword) {
+        return IntStream.range(0, 2000)
+                .mapToObj(i -> "{\"userId\":" + (i % 50) + ",\"text\":\"tweet number " + i + " about #" + keyword
+                        + " and " + (i * 31 % 97) + "\"}")
+                .map(tweet -> tweet.getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,31 +1,95 @@
 package com.sedlarski.kafka.producer.config;
 
+import com.github.luben.zstd.ZstdDictCompress;
+import com.sedlarski.eventdriven.config.AdaptiveProducerConfigData;
+import com.sedlarski.eventdriven.config.ExactlyOnceProducerConfigData;
 import com.sedlarski.eventdriven.config.KafkaConfigData;
 import com.sedlarski.eventdriven.config.KafkaProducerConfigData;
+import com.sedlarski.eventdriven.config.ProducerPoolConfigData;
+import com.sedlarski.eventdriven.config.SchemaCacheConfigData;
+import com.sedlarski.eventdriven.config.TopicRouterConfigData;
+import com.sedlarski.eventdriven.config.ZstdDictionaryConfigData;
+import com.sedlarski.kafka.producer.config.adaptive.AdaptiveProducerFactory;
+import com.sedlarski.kafka.producer.config.partitioner.PartitionSkewTracker;
+import com.sedlarski.kafka.producer.config.partitioner.SkewAwarePartitioner;
+import com.sedlarski.kafka.producer.config.pool.PartitionAffineProducerFactory;
+import com.sedlarski.kafka.producer.config.schema.CachingSchemaRegistryClient;
+import com.sedlarski.kafka.producer.config.schema.SchemaIdCache;
+import com.sedlarski.kafka.producer.config.serializer.FanOutSerializer;
+import com.sedlarski.kafka.producer.config.serializer.TwitterAvroModelSerializer;
+import com.sedlarski.kafka.producer.config.zstd.ZstdDictionarySerializer;
+import com.sedlarski.kafka.producer.config.zstd.ZstdDictionaryStore;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 
 import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Configuration
+@Profile("!in-memory-kafka")
 public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecordBase> {
 
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaProducerConfig.class);
+
     private final com.sedlarski.eventdriven.config.KafkaConfigData kafkaConfigData;
 
     private final KafkaProducerConfigData kafkaProducerConfigData;
 
-    public KafkaProducerConfig(com.sedlarski.eventdriven.config.KafkaConfigData configData, KafkaProducerConfigData producerConfigData) {
+    private final AdaptiveProducerConfigData adaptiveProducerConfigData;
+
+    private final ProducerPoolConfigData producerPoolConfigData;
+
+    private final SchemaCacheConfigData schemaCacheConfigData;
+
+    private final ObjectProvider<CachingSchemaRegistryClient> schemaRegistryClient;
+
+    private final ObjectProvider<PartitionSkewTracker> partitionSkewTracker;
+
+    private final ZstdDictionaryConfigData zstdDictionaryConfigData;
+
+    private final ExactlyOnceProducerConfigData exactlyOnceProducerConfigData;
+
+    private final TopicRouterConfigData topicRouterConfigData;
+
+    public KafkaProducerConfig(com.sedlarski.eventdriven.config.KafkaConfigData configData, KafkaProducerConfigData producerConfigData,
+                               AdaptiveProducerConfigData adaptiveProducerConfigData,
+                               ProducerPoolConfigData producerPoolConfigData,
+                               SchemaCacheConfigData schemaCacheConfigData,
+                               ObjectProvider<CachingSchemaRegistryClient> schemaRegistryClient,
+                               ObjectProvider<PartitionSkewTracker> partitionSkewTracker,
+                               ZstdDictionaryConfigData zstdDictionaryConfigData,
+                               ExactlyOnceProducerConfigData exactlyOnceProducerConfigData,
+                               TopicRouterConfigData topicRouterConfigData) {
         this.kafkaConfigData = configData;
         this.kafkaProducerConfigData = producerConfigData;
+        this.adaptiveProducerConfigData = adaptiveProducerConfigData;
+        this.producerPoolConfigData = producerPoolConfigData;
+        this.schemaCacheConfigData = schemaCacheConfigData;
+        this.schemaRegistryClient = schemaRegistryClient;
+        this.partitionSkewTracker = partitionSkewTracker;
+        this.zstdDictionaryConfigData = zstdDictionaryConfigData;
+        this.exactlyOnceProducerConfigData = exactlyOnceProducerConfigData;
+        this.topicRouterConfigData = topicRouterConfigData;
     }
 
     @Bean
@@ -42,16 +106,144 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         props.put(ProducerConfig.ACKS_CONFIG, kafkaProducerConfigData.getAcks());
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaProducerConfigData.getRequestTimeoutMs());
         props.put(ProducerConfig.RETRIES_CONFIG, kafkaProducerConfigData.getRetryCount());
+        if (isExactlyOnce() || Boolean.TRUE.equals(kafkaProducerConfigData.getEnableIdempotence())) {
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+            props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        }
+        if (isExactlyOnce()) {
+            props.put(ProducerConfig.TRANSACTION_TIMEOUT_CONFIG,
+                    exactlyOnceProducerConfigData.getTransactionTimeoutMs());
+        }
+        if (isCompactSerializer()) {
+            props.put(TwitterAvroModelSerializer.REGISTRY_HEADER_CONFIG,
+                    kafkaProducerConfigData.getCompactSerializerRegistryHeader());
+            CachingSchemaRegistryClient client = schemaRegistryClient.getIfAvailable();
+            if (client != null) {
+                props.put(TwitterAvroModelSerializer.SCHEMA_REGISTRY_CLIENT_CONFIG, client);
+            }
+        }
+        PartitionSkewTracker tracker = partitionSkewTracker.getIfAvailable();
+        if (tracker != null) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, SkewAwarePartitioner.class);
+            props.put(SkewAwarePartitioner.TRACKER_CONFIG, tracker);
+        }
         return props;
     }
 
     @Bean
+    @ConditionalOnProperty(name = "schema-cache-config.enabled", havingValue = "true")
+    public CachingSchemaRegistryClient cachingSchemaRegistryClient() {
+        return new CachingSchemaRegistryClient(kafkaConfigData.getSchemaRegistryUrl(),
+                schemaCacheConfigData.getIdentityMapCapacity(), serializerConfig(),
+                SchemaIdCache.load(Path.of(schemaCacheConfigData.getCacheFile())));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = {"adaptive-producer-config.enabled", "producer-pool-config.enabled"},
+            havingValue = "false", matchIfMissing = true)
     public ProducerFactory<K, V> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfig());
+        DefaultKafkaProducerFactory<K, V> producerFactory =
+                new DefaultKafkaProducerFactory<>(producerConfig(), null, valueSerializerSupplier());
+        if (isExactlyOnce()) {
+            producerFactory.setTransactionIdPrefix(exactlyOnceProducerConfigData.getTransactionIdPrefix());
+        }
+        return producerFactory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "adaptive-producer-config.enabled", havingValue = "true")
+    public AdaptiveProducerFactory<K, V> adaptiveProducerFactory() {
+        return new AdaptiveProducerFactory<>(producerConfig(), valueSerializerSupplier(),
+                adaptiveProducerConfigData.getProfiles(), adaptiveProducerConfigData.getInitialProfile());
+    }
+
+    @Bean
+    @ConditionalOnExpression("${producer-pool-config.enabled:false} and !${adaptive-producer-config.enabled:false}")
+    public PartitionAffineProducerFactory<K, V> partitionAffineProducerFactory() {
+        return new PartitionAffineProducerFactory<>(producerConfig(), valueSerializerSupplier(),
+                producerPoolConfigData.getSize());
     }
 
     @Bean
-    public KafkaTemplate<K, V> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<K, V> kafkaTemplate(ProducerFactory<K, V> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * With the topic router enabled a routed tweet is serialized once for all of its topics.
+     */
+    private Supplier<Serializer<V>> valueSerializerSupplier() {
+        Supplier<Serializer<V>> supplier = compressedValueSerializerSupplier();
+        if (!Boolean.TRUE.equals(topicRouterConfigData.getEnabled())) {
+            return supplier;
+        }
+        Supplier<Serializer<V>> delegate = supplier != null ? supplier : this::configuredValueSerializer;
+        return () -> new FanOutSerializer<>(delegate.get());
+    }
+
+    /**
+     * Wraps the value serializer into dictionary compression when zstd-dictionary-config is enabled. Without a
+     * trained dictionary values go out uncompressed, which the deserializer passes through as well.
+     */
+    private Supplier<Serializer<V>> compressedValueSerializerSupplier() {
+        Supplier<Serializer<V>> supplier = plainValueSerializerSupplier();
+        if (!Boolean.TRUE.equals(zstdDictionaryConfigData.getEnabled())) {
+            return supplier;
+        }
+        Path directory = Path.of(zstdDictionaryConfigData.getDictionaryDirectory());
+        Optional<byte[]> current = ZstdDictionaryStore.findCurrent(directory);
+        if (current.isEmpty()) {
+            LOG.warn("No zstd dictionary in {}, sending values without dictionary compression", directory);
+            return supplier;
+        }
+        ZstdDictCompress dictionary = new ZstdDictCompress(current.get(),
+                zstdDictionaryConfigData.getCompressionLevel());
+        Supplier<Serializer<V>> delegate = supplier != null ? supplier : this::configuredValueSerializer;
+        return () -> new ZstdDictionarySerializer<>(delegate.get(), dictionary);
+    }
+
+    /**
+     * With the schema cache enabled every producer gets an avro serializer backed by the caching registry client,
+     * otherwise the serializer class from the producer config is used. The compact serializer is always created
+     * from the config, it picks up the caching client from there.
+     */
+    private Supplier<Serializer<V>> plainValueSerializerSupplier() {
+        CachingSchemaRegistryClient client = schemaRegistryClient.getIfAvailable();
+        if (client == null || isCompactSerializer()) {
+            return null;
+        }
+        Map<String, Object> serializerConfig = serializerConfig();
+        return () -> {
+            KafkaAvroSerializer avroSerializer = new KafkaAvroSerializer(client, serializerConfig);
+            return avroSerializer::serialize;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Serializer<V> configuredValueSerializer() {
+        try {
+            Serializer<V> serializer = Utils.newInstance(kafkaProducerConfigData.getValueSerializerClass(),
+                    Serializer.class);
+            serializer.configure(producerConfig(), false);
+            return serializer;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown value serializer " +
+                    kafkaProducerConfigData.getValueSerializerClass(), e);
+        }
+    }
+
+    private boolean isExactlyOnce() {
+        return Boolean.TRUE.equals(exactlyOnceProducerConfigData.getEnabled());
+    }
+
+    private boolean isCompactSerializer() {
+        return TwitterAvroModelSerializer.class.getName().equals(kafkaProducerConfigData.getValueSerializerClass());
+    }
+
+    private Map<String, Object> serializerConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl());
+        return config;
     }
 }
@@ -0,0 +1,122 @@
+package com.sedlarski.kafka.producer.config.adaptive;
+
+import com.sedlarski.eventdriven.config.AdaptiveProducerConfigData;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves between producer profiles based on the producer's own metrics. Queue time plus request latency above
+ * the SLO steps down to a lower latency profile at once; staying below {@code headroomRatio * SLO} for
+ * {@code stableIntervals} evaluations steps up to a profile with more lingering and larger batches.
+ */
+@Component
+@Profile("!in-memory-kafka")
+@ConditionalOnProperty(name = "adaptive-producer-config.enabled", havingValue = "true")
+public class AdaptiveProducerController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveProducerController.class);
+
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+    private final AdaptiveProducerFactory<?, ?> adaptiveProducerFactory;
+
+    private final AdaptiveProducerConfigData adaptiveProducerConfigData;
+
+    private ScheduledExecutorService scheduler;
+
+    private int headroomIntervals;
+
+    public AdaptiveProducerController(AdaptiveProducerFactory<?, ?> adaptiveProducerFactory,
+                                      AdaptiveProducerConfigData adaptiveProducerConfigData) {
+        this.adaptiveProducerFactory = adaptiveProducerFactory;
+        this.adaptiveProducerConfigData = adaptiveProducerConfigData;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("adaptive-producer-"));
+        long interval = adaptiveProducerConfigData.getEvaluationIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::evaluateSafely, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void evaluateSafely() {
+        try {
+            evaluate();
+        } catch (Exception e) {
+            LOG.warn("Could not evaluate producer metrics", e);
+        }
+    }
+
+    void evaluate() {
+        Map<MetricName, ? extends Metric> metrics = adaptiveProducerFactory.activeMetrics();
+        double queueTimeMs = metricValue(metrics, "record-queue-time-avg");
+        double requestLatencyMs = metricValue(metrics, "request-latency-avg");
+        if (Double.isNaN(queueTimeMs) || Double.isNaN(requestLatencyMs)) {
+            return;
+        }
+        double latencyMs = queueTimeMs + requestLatencyMs;
+        double sloMs = adaptiveProducerConfigData.getLatencySloMs();
+        int active = adaptiveProducerFactory.getActiveProfile();
+        LOG.debug("Producer profile {}: queue time {} ms, request latency {} ms, batch fill {}",
+                adaptiveProducerFactory.getProfile(active).getName(), queueTimeMs, requestLatencyMs,
+                batchFill(metrics));
+
+        if (latencyMs > sloMs) {
+            headroomIntervals = 0;
+            if (active > 0) {
+                LOG.info("Producer latency {} ms is above the SLO of {} ms, stepping down", latencyMs, sloMs);
+                adaptiveProducerFactory.switchTo(active - 1);
+            }
+        } else if (latencyMs < sloMs * adaptiveProducerConfigData.getHeadroomRatio()
+                && active < adaptiveProducerFactory.getProfileCount() - 1) {
+            if (++headroomIntervals >= adaptiveProducerConfigData.getStableIntervals()) {
+                headroomIntervals = 0;
+                LOG.info("Producer latency {} ms leaves headroom under the SLO of {} ms, stepping up", latencyMs, sloMs);
+                adaptiveProducerFactory.switchTo(active + 1);
+            }
+        } else {
+            headroomIntervals = 0;
+        }
+    }
+
+    private double batchFill(Map<MetricName, ? extends Metric> metrics) {
+        Object batchSize = adaptiveProducerFactory.getConfigurationProperties().get(ProducerConfig.BATCH_SIZE_CONFIG);
+        double batchSizeAvg = metricValue(metrics, "batch-size-avg");
+        if (!(batchSize instanceof Number) || Double.isNaN(batchSizeAvg)) {
+            return Double.NaN;
+        }
+        return batchSizeAvg / ((Number) batchSize).doubleValue();
+    }
+
+    private double metricValue(Map<MetricName, ? extends Metric> metrics, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (name.equals(metricName.name()) && PRODUCER_METRICS_GROUP.equals(metricName.group())) {
+                Object value = entry.getValue().metricValue();
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,207 @@
+package com.sedlarski.kafka.producer.config.adaptive;
+
+import com.sedlarski.eventdriven.config.AdaptiveProducerConfigData.ProducerProfile;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one pre-built producer factory per profile and hands out producers from the active one. Switching
+ * profiles lets new sends go to the new producer; the old one is flushed and closed on a background thread once
+ * every sender that borrowed it gave it back.
+ */
+public class AdaptiveProducerFactory<K, V> implements ProducerFactory<K, V>, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveProducerFactory.class);
+
+    private static final long DRAIN_TIMEOUT_MS = 30_000;
+
+    private final List<ProducerProfile> profiles;
+
+    private final List<DefaultKafkaProducerFactory<K, V>> factories;
+
+    private final AtomicIntegerArray borrowers;
+
+    /** The producer each profile factory handed out last, so metrics can be read without borrowing one. */
+    private final AtomicReferenceArray<Producer<K, V>> producers;
+
+    private final ExecutorService drainExecutor =
+            Executors.newSingleThreadExecutor(daemonThreadFactory("adaptive-producer-drain-"));
+
+    private volatile int activeProfile;
+
+    /**
+     * @param valueSerializerSupplier null to use the serializer class from the config
+     */
+    public AdaptiveProducerFactory(Map<String, Object> baseConfig, Supplier<Serializer<V>> valueSerializerSupplier,
+                                   List<ProducerProfile> profiles, int initialProfile) {
+        this(profiles, initialProfile, profile -> new DefaultKafkaProducerFactory<>(profileConfig(baseConfig, profile),
+                null, valueSerializerSupplier));
+    }
+
+    AdaptiveProducerFactory(List<ProducerProfile> profiles, int initialProfile,
+                            Function<ProducerProfile, DefaultKafkaProducerFactory<K, V>> profileFactory) {
+        if (profiles.isEmpty()) {
+            throw new IllegalArgumentException("At least one producer profile is required!");
+        }
+        this.profiles = List.copyOf(profiles);
+        this.factories = new ArrayList<>(profiles.size());
+        for (ProducerProfile profile : profiles) {
+            factories.add(profileFactory.apply(profile));
+        }
+        this.borrowers = new AtomicIntegerArray(profiles.size());
+        this.producers = new AtomicReferenceArray<>(profiles.size());
+        this.activeProfile = Math.max(0, Math.min(initialProfile, profiles.size() - 1));
+    }
+
+    /**
+     * The borrow is counted before the profile is checked again, so a switch either sees the borrower or the
+     * borrower sees the switch and moves to the new profile.
+     */
+    @Override
+    public Producer<K, V> createProducer() {
+        while (true) {
+            int index = activeProfile;
+            borrowers.incrementAndGet(index);
+            if (index == activeProfile) {
+                try {
+                    Producer<K, V> producer = factories.get(index).createProducer();
+                    producers.set(index, producer);
+                    return new BorrowedProducer<>(producer, () -> borrowers.decrementAndGet(index));
+                } catch (RuntimeException e) {
+                    borrowers.decrementAndGet(index);
+                    throw e;
+                }
+            }
+            borrowers.decrementAndGet(index);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getConfigurationProperties() {
+        return factories.get(activeProfile).getConfigurationProperties();
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (int i = 0; i < factories.size(); i++) {
+            producers.set(i, null);
+            factories.get(i).reset();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        drainExecutor.shutdownNow();
+        factories.forEach(DefaultKafkaProducerFactory::destroy);
+    }
+
+    public int getActiveProfile() {
+        return activeProfile;
+    }
+
+    public int getProfileCount() {
+        return profiles.size();
+    }
+
+    public ProducerProfile getProfile(int index) {
+        return profiles.get(index);
+    }
+
+    /**
+     * Empty until the active profile handed out its first producer.
+     */
+    public Map<MetricName, ? extends Metric> activeMetrics() {
+        Producer<K, V> producer = producers.get(activeProfile);
+        return producer == null ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(producer.metrics()));
+    }
+
+    /**
+     * Must not be called concurrently; the controller is the only caller. Returns at once, the previous producer
+     * is closed in the background after the senders still using it are done, at most
+     * {@value #DRAIN_TIMEOUT_MS} ms later.
+     */
+    public void switchTo(int index) {
+        int previous;
+        synchronized (this) {
+            previous = activeProfile;
+            if (index == previous) {
+                return;
+            }
+            activeProfile = index;
+        }
+        LOG.info("Switched producer profile from {} to {}", profiles.get(previous).getName(),
+                profiles.get(index).getName());
+        drainExecutor.execute(() -> drain(previous));
+    }
+
+    /**
+     * A switch back to the profile before its drain is done keeps the producer; the check runs under the same lock
+     * as the switch.
+     */
+    private void drain(int index) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT_MS);
+        while (borrowers.get(index) > 0 && activeProfile != index) {
+            if (System.nanoTime() - deadline > 0) {
+                LOG.warn("{} sender(s) still use producer profile {}, closing it anyway", borrowers.get(index),
+                        profiles.get(index).getName());
+                break;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        synchronized (this) {
+            if (activeProfile != index) {
+                producers.set(index, null);
+                factories.get(index).reset();
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static Map<String, Object> profileConfig(Map<String, Object> baseConfig, ProducerProfile profile) {
+        Map<String, Object> config = new HashMap<>(baseConfig);
+        if (profile.getLingerMs() != null) {
+            config.put(ProducerConfig.LINGER_MS_CONFIG, profile.getLingerMs());
+        }
+        if (profile.getBatchSize() != null) {
+            config.put(ProducerConfig.BATCH_SIZE_CONFIG, profile.getBatchSize());
+        }
+        if (profile.getCompressionType() != null) {
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, profile.getCompressionType());
+        }
+        return config;
+    }
+}
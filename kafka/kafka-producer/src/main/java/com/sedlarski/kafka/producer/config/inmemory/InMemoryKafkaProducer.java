@@ -0,0 +1,97 @@
+package com.sedlarski.kafka.producer.config.inmemory;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Auto-completing MockProducer used as a broker stand-in. Records still go through the configured serializers
+ * and the default partitioner, acknowledgements are counted and timed, and the send history is dropped
+ * periodically so the producer can run indefinitely.
+ */
+public class InMemoryKafkaProducer<K, V> extends MockProducer<K, V> {
+
+    private static final int HISTORY_LIMIT = 8192;
+
+    private final LatencyRecorder ackLatencyMicros = new LatencyRecorder();
+
+    private final LatencyRecorder endToEndLatencyMillis = new LatencyRecorder();
+
+    private final LongAdder ackedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private int sentSinceClear;
+
+    public InMemoryKafkaProducer(Cluster cluster, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        super(cluster, true, new DefaultPartitioner(), keySerializer, valueSerializer);
+    }
+
+    @Override
+    public synchronized Future<RecordMetadata> send(ProducerRecord<K, V> record, Callback callback) {
+        long sendNanos = System.nanoTime();
+        Long createdAt = record.value() instanceof TwitterAvroModel ?
+                ((TwitterAvroModel) record.value()).getCreatedAt() : null;
+        Future<RecordMetadata> future = super.send(record, (metadata, exception) -> {
+            if (exception == null) {
+                ackedCount.increment();
+                ackLatencyMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendNanos));
+                if (createdAt != null) {
+                    endToEndLatencyMillis.record(System.currentTimeMillis() - createdAt);
+                }
+            } else {
+                failedCount.increment();
+            }
+            if (callback != null) {
+                callback.onCompletion(metadata, exception);
+            }
+        });
+        if (++sentSinceClear >= HISTORY_LIMIT) {
+            clear();
+            sentSinceClear = 0;
+        }
+        return future;
+    }
+
+    /**
+     * KafkaTemplate closes the producer after every send; this one lives as long as the application context.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void close(Duration timeout) {
+    }
+
+    public long getAckedCount() {
+        return ackedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public LatencyRecorder getAckLatencyMicros() {
+        return ackLatencyMicros;
+    }
+
+    public LatencyRecorder getEndToEndLatencyMillis() {
+        return endToEndLatencyMillis;
+    }
+
+    public void resetStatistics() {
+        ackLatencyMicros.reset();
+        endToEndLatencyMillis.reset();
+    }
+}
@@ -0,0 +1,95 @@
+package com.sedlarski.kafka.producer.config.inmemory;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.KafkaProducerConfigData;
+import com.sedlarski.eventdriven.config.TopicRouterConfigData;
+import com.sedlarski.kafka.producer.config.serializer.FanOutSerializer;
+import com.sedlarski.kafka.producer.config.serializer.TwitterAvroModelSerializer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the real producer with {@link InMemoryKafkaProducer} and the schema registry with an in-memory client,
+ * so the service runs on a single box without brokers.
+ */
+@Configuration
+@Profile("in-memory-kafka")
+public class InMemoryKafkaProducerConfig<K extends Serializable, V extends SpecificRecordBase> {
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final KafkaProducerConfigData kafkaProducerConfigData;
+
+    private final TopicRouterConfigData topicRouterConfigData;
+
+    public InMemoryKafkaProducerConfig(KafkaConfigData kafkaConfigData, KafkaProducerConfigData kafkaProducerConfigData,
+                                       TopicRouterConfigData topicRouterConfigData) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.kafkaProducerConfigData = kafkaProducerConfigData;
+        this.topicRouterConfigData = topicRouterConfigData;
+    }
+
+    @Bean
+    public InMemoryKafkaProducer<K, V> inMemoryKafkaProducer() throws ClassNotFoundException {
+        Map<String, Object> serializerConfig = Map.of(kafkaConfigData.getSchemaRegistryUrlKey(),
+                kafkaConfigData.getSchemaRegistryUrl());
+        @SuppressWarnings("unchecked")
+        Serializer<K> keySerializer = Utils.newInstance(kafkaProducerConfigData.getKeySerializerClass(), Serializer.class);
+        keySerializer.configure(serializerConfig, true);
+        Serializer<V> valueSerializer = valueSerializer(serializerConfig);
+        if (Boolean.TRUE.equals(topicRouterConfigData.getEnabled())) {
+            valueSerializer = new FanOutSerializer<>(valueSerializer);
+        }
+        return new InMemoryKafkaProducer<>(cluster(), keySerializer, valueSerializer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Serializer<V> valueSerializer(Map<String, Object> serializerConfig) {
+        if (TwitterAvroModelSerializer.class.getName().equals(kafkaProducerConfigData.getValueSerializerClass())) {
+            boolean registryHeader = Boolean.TRUE.equals(kafkaProducerConfigData.getCompactSerializerRegistryHeader());
+            return (Serializer<V>) new TwitterAvroModelSerializer(registryHeader ? new MockSchemaRegistryClient() : null);
+        }
+        KafkaAvroSerializer avroSerializer = new KafkaAvroSerializer(new MockSchemaRegistryClient(), serializerConfig);
+        return avroSerializer::serialize;
+    }
+
+    @Bean
+    public ProducerFactory<K, V> producerFactory() throws ClassNotFoundException {
+        InMemoryKafkaProducer<K, V> producer = inMemoryKafkaProducer();
+        return () -> producer;
+    }
+
+    @Bean
+    public KafkaTemplate<K, V> kafkaTemplate() throws ClassNotFoundException {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    private Cluster cluster() {
+        Node node = new Node(0, "in-memory", 0);
+        Node[] nodes = new Node[] {node};
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (String topic : kafkaConfigData.getTopicNamesToCreate()) {
+            for (int partition = 0; partition < kafkaConfigData.getNumOfPartitions(); partition++) {
+                partitions.add(new PartitionInfo(topic.trim(), partition, node, nodes, nodes));
+            }
+        }
+        return new Cluster("in-memory", List.of(node), partitions, Collections.emptySet(), Collections.emptySet());
+    }
+}
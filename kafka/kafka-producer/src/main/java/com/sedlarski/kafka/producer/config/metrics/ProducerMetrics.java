@@ -0,0 +1,105 @@
+package com.sedlarski.kafka.producer.config.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Producer side of the pipeline metrics: records handed to the producer, broker acks, failures and sends in flight.
+ * Meters are looked up once per topic/partition and cached, so the ack path does no registry lookups.
+ */
+@Component
+public class ProducerMetrics {
+
+    private static final String SENT = "twitter.producer.sent";
+    private static final String FAILED = "twitter.producer.failed";
+    private static final String ACK_LATENCY = "twitter.producer.ack.latency";
+    private static final String CREATED_TO_ACK_LATENCY = "twitter.producer.created.to.ack.latency";
+    private static final String IN_FLIGHT = "twitter.producer.in.flight";
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private final Map<String, Counter> sentCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> failedCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<Integer, Timer>> ackTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<Integer, Timer>> createdToAckTimers = new ConcurrentHashMap<>();
+
+    private final CompletableFuture<Void> firstAck = new CompletableFuture<>();
+
+    public ProducerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(IN_FLIGHT, inFlight, AtomicLong::get)
+                .description("Records handed to the producer and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    public void recordSent(String topicName, int recordCount) {
+        inFlight.addAndGet(recordCount);
+        sentCounters.computeIfAbsent(topicName, topic -> Counter.builder(SENT)
+                .tag("topic", topic)
+                .register(meterRegistry))
+                .increment(recordCount);
+    }
+
+    /**
+     * @param createdAt creation time of the tweet, the record timestamp is left to the producer
+     */
+    public void recordAck(String topicName, int partition, long sendNanos, Long createdAt) {
+        inFlight.decrementAndGet();
+        if (!firstAck.isDone()) {
+            firstAck.complete(null);
+        }
+        timer(ackTimers, ACK_LATENCY, topicName, partition, Duration.ofNanos(100_000))
+                .record(System.nanoTime() - sendNanos, TimeUnit.NANOSECONDS);
+        if (createdAt != null) {
+            timer(createdToAckTimers, CREATED_TO_ACK_LATENCY, topicName, partition, Duration.ofMillis(1))
+                    .record(Math.max(0, System.currentTimeMillis() - createdAt), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void recordFailure(String topicName) {
+        inFlight.decrementAndGet();
+        failedCounters.computeIfAbsent(topicName, topic -> Counter.builder(FAILED)
+                .tag("topic", topic)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Completes on the producer callback thread when the first record is acknowledged, dependents that do more
+     * than note the time should run async.
+     */
+    public CompletableFuture<Void> firstAck() {
+        return firstAck;
+    }
+
+    private Timer timer(Map<String, Map<Integer, Timer>> timers, String name, String topicName, int partition,
+                        Duration minimumExpectedValue) {
+        return timers.computeIfAbsent(topicName, topic -> new ConcurrentHashMap<>())
+                .computeIfAbsent(partition, p -> Timer.builder(name)
+                        .tag("topic", topicName)
+                        .tag("partition", String.valueOf(p))
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(minimumExpectedValue)
+                        .maximumExpectedValue(Duration.ofMinutes(1))
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,75 @@
+package com.sedlarski.kafka.producer.config.model;
+
+import java.util.List;
+
+/**
+ * Aggregate outcome of a batch send. Completes once every record of the batch is acknowledged or failed.
+ */
+public final class BatchSendResult {
+
+    private final String topicName;
+
+    private final int recordCount;
+
+    private final int failedCount;
+
+    private final Throwable firstError;
+
+    public BatchSendResult(String topicName, int recordCount, int failedCount, Throwable firstError) {
+        this.topicName = topicName;
+        this.recordCount = recordCount;
+        this.failedCount = failedCount;
+        this.firstError = firstError;
+    }
+
+    public static BatchSendResult empty(String topicName) {
+        return new BatchSendResult(topicName, 0, 0, null);
+    }
+
+    /**
+     * Sums up the results of batches that went out together, e.g. one batch fanned out to several topics.
+     */
+    public static BatchSendResult combine(String topicName, List<BatchSendResult> results) {
+        int recordCount = 0;
+        int failedCount = 0;
+        Throwable firstError = null;
+        for (BatchSendResult result : results) {
+            recordCount += result.recordCount;
+            failedCount += result.failedCount;
+            if (firstError == null) {
+                firstError = result.firstError;
+            }
+        }
+        return new BatchSendResult(topicName, recordCount, failedCount, firstError);
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public int getSucceededCount() {
+        return recordCount - failedCount;
+    }
+
+    public Throwable getFirstError() {
+        return firstError;
+    }
+
+    public boolean hasFailures() {
+        return failedCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchSendResult{topicName='" + topicName + "', recordCount=" + recordCount +
+                ", failedCount=" + failedCount + '}';
+    }
+}
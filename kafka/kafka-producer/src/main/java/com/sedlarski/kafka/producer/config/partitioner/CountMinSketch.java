@@ -0,0 +1,65 @@
+package com.sedlarski.kafka.producer.config.partitioner;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over 64 bit hashes, safe for concurrent use. The width is rounded up to a power of two.
+ * Estimates never undercount; {@link #decay()} halves every counter so old traffic fades out.
+ */
+public class CountMinSketch {
+
+    private final int width;
+
+    private final int depth;
+
+    private final AtomicLongArray counts;
+
+    private final AtomicLong total = new AtomicLong();
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Count-min sketch needs a positive width and depth!");
+        }
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.counts = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * @return the estimated count of the hash including this occurrence
+     */
+    public long add(long hash) {
+        total.incrementAndGet();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.incrementAndGet(index(row, hash)));
+        }
+        return estimate;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.get(index(row, hash)));
+        }
+        return estimate;
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public void decay() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.getAndUpdate(i, count -> count >>> 1);
+        }
+        total.getAndUpdate(count -> count >>> 1);
+    }
+
+    private int index(int row, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+}
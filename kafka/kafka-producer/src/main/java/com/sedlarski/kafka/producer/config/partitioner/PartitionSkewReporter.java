@@ -0,0 +1,90 @@
+package com.sedlarski.kafka.producer.config.partitioner;
+
+import com.sedlarski.eventdriven.config.SkewPartitionerConfigData;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs the per-partition byte distribution and current heavy hitters every report interval, and publishes the
+ * skew of the last interval per topic as a gauge.
+ */
+@Component
+@ConditionalOnProperty(name = "skew-partitioner-config.enabled", havingValue = "true")
+public class PartitionSkewReporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionSkewReporter.class);
+
+    private static final String PARTITION_SKEW = "twitter.producer.partition.skew";
+
+    private final PartitionSkewTracker partitionSkewTracker;
+
+    private final SkewPartitionerConfigData skewPartitionerConfigData;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Double> lastSkew = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public PartitionSkewReporter(PartitionSkewTracker partitionSkewTracker,
+                                 SkewPartitionerConfigData skewPartitionerConfigData,
+                                 MeterRegistry meterRegistry) {
+        this.partitionSkewTracker = partitionSkewTracker;
+        this.skewPartitionerConfigData = skewPartitionerConfigData;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("partition-skew-"));
+        long interval = skewPartitionerConfigData.getReportIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::reportSafely, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void reportSafely() {
+        try {
+            report();
+        } catch (Exception e) {
+            LOG.warn("Could not report partition skew", e);
+        }
+    }
+
+    void report() {
+        partitionSkewTracker.drainPartitionBytes().forEach((topic, partitionBytes) -> {
+            double skew = PartitionSkewTracker.skew(partitionBytes);
+            if (lastSkew.put(topic, skew) == null) {
+                Gauge.builder(PARTITION_SKEW, lastSkew, skews -> skews.getOrDefault(topic, 1.0))
+                        .description("Bytes of the busiest partition over the mean, last report interval")
+                        .tag("topic", topic)
+                        .register(meterRegistry);
+            }
+            LOG.info("Topic {} partition byte skew {}, bytes per partition {}", topic, String.format("%.2f", skew),
+                    Arrays.toString(partitionBytes));
+        });
+        Map<String, Long> heavyHitters = partitionSkewTracker.getHeavyHitters();
+        if (!heavyHitters.isEmpty()) {
+            LOG.info("Heavy hitter keys with estimated counts: {}", heavyHitters);
+        }
+    }
+}
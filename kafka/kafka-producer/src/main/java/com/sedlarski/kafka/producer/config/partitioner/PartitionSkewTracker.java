@@ -0,0 +1,144 @@
+package com.sedlarski.kafka.producer.config.partitioner;
+
+import com.sedlarski.eventdriven.config.SkewPartitionerConfigData;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Shared state of every {@link SkewAwarePartitioner} instance: key frequencies in a count-min sketch, the
+ * heavy hitters seen in the current window, and bytes sent per partition since the last report. It is handed to
+ * the partitioners through the producer config, so all producers of the application see the same counts.
+ */
+@Component
+@ConditionalOnProperty(name = "skew-partitioner-config.enabled", havingValue = "true")
+public class PartitionSkewTracker {
+
+    private static final int MAX_TRACKED_HEAVY_HITTERS = 64;
+
+    private final SkewPartitionerConfigData skewPartitionerConfigData;
+
+    private final CountMinSketch sketch;
+
+    private final long decayIntervalNanos;
+
+    private final AtomicLong nextDecayNanos;
+
+    private final Map<String, Long> heavyHitters = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLongArray> bytesByPartition = new ConcurrentHashMap<>();
+
+    public PartitionSkewTracker(SkewPartitionerConfigData skewPartitionerConfigData) {
+        this.skewPartitionerConfigData = skewPartitionerConfigData;
+        this.sketch = new CountMinSketch(skewPartitionerConfigData.getSketchWidth(),
+                skewPartitionerConfigData.getSketchDepth());
+        this.decayIntervalNanos = TimeUnit.SECONDS.toNanos(skewPartitionerConfigData.getDecayIntervalSeconds());
+        this.nextDecayNanos = new AtomicLong(System.nanoTime() + decayIntervalNanos);
+    }
+
+    /**
+     * Normal keys get the same partition as with the default partitioner. Heavy hitters, with salting on, get
+     * one of the {@code saltPartitions} partitions following it.
+     */
+    public int partitionFor(byte[] keyBytes, int numPartitions) {
+        decayIfDue();
+        int hash = Utils.murmur2(keyBytes);
+        int home = Utils.toPositive(hash) % numPartitions;
+        long estimate = sketch.add(mix(hash));
+        if (!isHeavyHitter(estimate)) {
+            return home;
+        }
+        trackHeavyHitter(keyBytes, estimate);
+        int spread = Math.min(skewPartitionerConfigData.getSaltPartitions(), numPartitions);
+        if (!Boolean.TRUE.equals(skewPartitionerConfigData.getSaltingEnabled()) || spread <= 1) {
+            return home;
+        }
+        return (home + ThreadLocalRandom.current().nextInt(spread)) % numPartitions;
+    }
+
+    public void recordBytes(String topic, int partition, int numPartitions, int bytes) {
+        AtomicLongArray partitionBytes = bytesByPartition.get(topic);
+        if (partitionBytes == null || partitionBytes.length() < numPartitions) {
+            partitionBytes = bytesByPartition.compute(topic, (name, current) ->
+                    current != null && current.length() >= numPartitions ? current : new AtomicLongArray(numPartitions));
+        }
+        partitionBytes.addAndGet(partition, bytes);
+    }
+
+    /**
+     * Bytes per partition since the previous call, per topic; the counters start over.
+     */
+    public Map<String, long[]> drainPartitionBytes() {
+        Map<String, long[]> snapshot = new HashMap<>();
+        bytesByPartition.forEach((topic, partitionBytes) -> {
+            long[] bytes = new long[partitionBytes.length()];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = partitionBytes.getAndSet(i, 0);
+            }
+            snapshot.put(topic, bytes);
+        });
+        return snapshot;
+    }
+
+    public Map<String, Long> getHeavyHitters() {
+        return new HashMap<>(heavyHitters);
+    }
+
+    /**
+     * Largest partition over the mean, 1.0 for a perfectly even spread.
+     */
+    public static double skew(long[] partitionBytes) {
+        long max = Arrays.stream(partitionBytes).max().orElse(0);
+        double mean = Arrays.stream(partitionBytes).average().orElse(0);
+        return mean == 0 ? 1.0 : max / mean;
+    }
+
+    private boolean isHeavyHitter(long estimate) {
+        return estimate >= skewPartitionerConfigData.getMinHeavyHitterCount()
+                && estimate >= skewPartitionerConfigData.getHeavyHitterRatio() * sketch.getTotal();
+    }
+
+    private void trackHeavyHitter(byte[] keyBytes, long estimate) {
+        String key = keyBytes.length == Long.BYTES ? Long.toString(ByteBuffer.wrap(keyBytes).getLong())
+                : Utils.toPositive(Utils.murmur2(keyBytes)) + "#";
+        if (heavyHitters.size() < MAX_TRACKED_HEAVY_HITTERS || heavyHitters.containsKey(key)) {
+            heavyHitters.put(key, estimate);
+        }
+    }
+
+    private void decayIfDue() {
+        long now = System.nanoTime();
+        long due = nextDecayNanos.get();
+        if (now - due >= 0 && nextDecayNanos.compareAndSet(due, now + decayIntervalNanos)) {
+            decay();
+        }
+    }
+
+    /**
+     * Halves the key counts and forgets the heavy hitters, a key has to stay hot to stay a heavy hitter.
+     */
+    void decay() {
+        sketch.decay();
+        heavyHitters.clear();
+    }
+
+    private static long mix(int hash) {
+        long value = hash & 0xFFFFFFFFL;
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
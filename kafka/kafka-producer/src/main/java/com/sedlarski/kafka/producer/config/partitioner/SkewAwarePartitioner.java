@@ -0,0 +1,52 @@
+package com.sedlarski.kafka.producer.config.partitioner;
+
+import com.sedlarski.eventdriven.config.SkewPartitionerConfigData;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.Cluster;
+
+import java.util.Map;
+
+/**
+ * Partitions keyed records through the {@link PartitionSkewTracker} passed in the producer config under
+ * {@link #TRACKER_CONFIG}, and records without a key like the default sticky partitioner. Every record's
+ * serialized size is counted against the partition it goes to.
+ */
+public class SkewAwarePartitioner implements Partitioner {
+
+    public static final String TRACKER_CONFIG = "skew.partitioner.tracker";
+
+    private final DefaultPartitioner defaultPartitioner = new DefaultPartitioner();
+
+    private PartitionSkewTracker partitionSkewTracker;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object tracker = configs.get(TRACKER_CONFIG);
+        partitionSkewTracker = tracker instanceof PartitionSkewTracker ? (PartitionSkewTracker) tracker
+                : new PartitionSkewTracker(new SkewPartitionerConfigData());
+        defaultPartitioner.configure(configs);
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+                         Cluster cluster) {
+        int numPartitions = cluster.partitionsForTopic(topic).size();
+        int partition = keyBytes == null
+                ? defaultPartitioner.partition(topic, key, null, value, valueBytes, cluster)
+                : partitionSkewTracker.partitionFor(keyBytes, numPartitions);
+        int bytes = (keyBytes == null ? 0 : keyBytes.length) + (valueBytes == null ? 0 : valueBytes.length);
+        partitionSkewTracker.recordBytes(topic, partition, numPartitions, bytes);
+        return partition;
+    }
+
+    @Override
+    public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
+        defaultPartitioner.onNewBatch(topic, cluster, prevPartition);
+    }
+
+    @Override
+    public void close() {
+        defaultPartitioner.close();
+    }
+}
@@ -0,0 +1,170 @@
+package com.sedlarski.kafka.producer.config.pool;
+
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads sends over several producers by target partition. Keyed records get their partition from the configured
+ * partitioner and are always sent through member {@code partition % size}, so the order per key is kept. The
+ * partitioner runs before the value is serialized and sees no value bytes. Records without a key go round robin
+ * and are partitioned by the member itself. Closing is a no-op, the members are owned by
+ * {@link PartitionAffineProducerFactory}. Like flush, transaction calls go to every member; the factory never
+ * makes the members transactional, so they fail as they would on a plain non-transactional producer.
+ */
+public class PartitionAffineProducer<K, V> implements Producer<K, V> {
+
+    private final List<Producer<K, V>> members;
+
+    private final PoolKeySerializer<K> keySerializer;
+
+    private final Partitioner partitioner;
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    private final Map<String, TopicMetadata> topicMetadata = new ConcurrentHashMap<>();
+
+    PartitionAffineProducer(List<Producer<K, V>> members, PoolKeySerializer<K> keySerializer,
+                            Partitioner partitioner) {
+        this.members = List.copyOf(members);
+        this.keySerializer = keySerializer;
+        this.partitioner = partitioner;
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<K, V> record) {
+        return send(record, null);
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<K, V> record, Callback callback) {
+        if (record.partition() != null) {
+            return members.get(record.partition() % members.size()).send(record, callback);
+        }
+        byte[] keyBytes = record.key() == null ? null
+                : keySerializer.serializeForSend(record.topic(), record.headers(), record.key());
+        try {
+            if (keyBytes == null) {
+                int member = Math.floorMod(roundRobin.getAndIncrement(), members.size());
+                return members.get(member).send(record, callback);
+            }
+            int partition = partitioner.partition(record.topic(), record.key(), keyBytes, record.value(), null,
+                    cluster(record.topic()));
+            ProducerRecord<K, V> partitioned = new ProducerRecord<>(record.topic(), partition, record.timestamp(),
+                    record.key(), record.value(), record.headers());
+            return members.get(partition % members.size()).send(partitioned, callback);
+        } finally {
+            keySerializer.sent();
+        }
+    }
+
+    /**
+     * The members cache the partition list per metadata version, so the cluster view for the partitioner is only
+     * rebuilt after the metadata changed.
+     */
+    private Cluster cluster(String topic) {
+        List<PartitionInfo> partitions = members.get(0).partitionsFor(topic);
+        TopicMetadata metadata = topicMetadata.get(topic);
+        if (metadata == null || metadata.partitions != partitions) {
+            metadata = new TopicMetadata(partitions);
+            topicMetadata.put(topic, metadata);
+        }
+        return metadata.cluster;
+    }
+
+    @Override
+    public void flush() {
+        members.forEach(Producer::flush);
+    }
+
+    @Override
+    public List<PartitionInfo> partitionsFor(String topic) {
+        return members.get(0).partitionsFor(topic);
+    }
+
+    @Override
+    public Map<MetricName, ? extends Metric> metrics() {
+        Map<MetricName, Metric> metrics = new HashMap<>();
+        members.forEach(member -> metrics.putAll(member.metrics()));
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void close(Duration timeout) {
+    }
+
+    @Override
+    public void initTransactions() {
+        members.forEach(Producer::initTransactions);
+    }
+
+    @Override
+    public void beginTransaction() {
+        members.forEach(Producer::beginTransaction);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets, String consumerGroupId) {
+        members.forEach(member -> member.sendOffsetsToTransaction(offsets, consumerGroupId));
+    }
+
+    @Override
+    public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets,
+                                         ConsumerGroupMetadata groupMetadata) {
+        members.forEach(member -> member.sendOffsetsToTransaction(offsets, groupMetadata));
+    }
+
+    @Override
+    public void commitTransaction() {
+        members.forEach(Producer::commitTransaction);
+    }
+
+    @Override
+    public void abortTransaction() {
+        members.forEach(Producer::abortTransaction);
+    }
+
+    private static final class TopicMetadata {
+
+        private final List<PartitionInfo> partitions;
+
+        private final Cluster cluster;
+
+        private TopicMetadata(List<PartitionInfo> partitions) {
+            this.partitions = partitions;
+            Set<Node> leaders = new LinkedHashSet<>();
+            for (PartitionInfo partition : partitions) {
+                if (partition.leader() != null) {
+                    leaders.add(partition.leader());
+                }
+            }
+            this.cluster = new Cluster(null, leaders, partitions, Collections.emptySet(), Collections.emptySet());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.sedlarski.kafka.producer.config.pool;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Pool of producers, each with its own sender thread and buffer memory, exposed to the template as a single
+ * {@link PartitionAffineProducer}. The partitioner from the config is created once for the pool. A transaction
+ * cannot span the members, so a config with a transactional.id is rejected.
+ */
+public class PartitionAffineProducerFactory<K, V> implements ProducerFactory<K, V>, DisposableBean {
+
+    private final Map<String, Object> config;
+
+    private final List<DefaultKafkaProducerFactory<K, V>> memberFactories;
+
+    private final PoolKeySerializer<K> keySerializer;
+
+    private final Partitioner partitioner;
+
+    private volatile PartitionAffineProducer<K, V> producer;
+
+    /**
+     * @param valueSerializerSupplier null to use the serializer class from the config
+     */
+    public PartitionAffineProducerFactory(Map<String, Object> config, Supplier<Serializer<V>> valueSerializerSupplier,
+                                          int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Producer pool size must be positive!");
+        }
+        if (config.containsKey(ProducerConfig.TRANSACTIONAL_ID_CONFIG)) {
+            throw new IllegalArgumentException("Producer pool members cannot be transactional!");
+        }
+        this.config = new HashMap<>(config);
+        this.keySerializer = new PoolKeySerializer<>(keySerializer());
+        this.partitioner = partitioner();
+        this.memberFactories = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            memberFactories.add(new DefaultKafkaProducerFactory<>(config, () -> keySerializer,
+                    valueSerializerSupplier));
+        }
+    }
+
+    @Override
+    public Producer<K, V> createProducer() {
+        PartitionAffineProducer<K, V> current = producer;
+        if (current == null) {
+            synchronized (this) {
+                current = producer;
+                if (current == null) {
+                    List<Producer<K, V>> members = new ArrayList<>(memberFactories.size());
+                    memberFactories.forEach(factory -> members.add(factory.createProducer()));
+                    current = new PartitionAffineProducer<>(members, keySerializer, partitioner);
+                    producer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public Map<String, Object> getConfigurationProperties() {
+        return config;
+    }
+
+    @Override
+    public synchronized void reset() {
+        producer = null;
+        memberFactories.forEach(DefaultKafkaProducerFactory::reset);
+    }
+
+    @Override
+    public void destroy() {
+        reset();
+        partitioner.close();
+        keySerializer.closeDelegate();
+    }
+
+    private Partitioner partitioner() {
+        Object partitionerClass = config.getOrDefault(ProducerConfig.PARTITIONER_CLASS_CONFIG,
+                DefaultPartitioner.class);
+        try {
+            Partitioner created = partitionerClass instanceof Class
+                    ? Partitioner.class.cast(Utils.newInstance((Class<?>) partitionerClass))
+                    : Utils.newInstance((String) partitionerClass, Partitioner.class);
+            created.configure(new HashMap<>(config));
+            return created;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Partitioner class not found: " + partitionerClass, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Serializer<K> keySerializer() {
+        Object keySerializerClass = config.get(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG);
+        try {
+            Serializer<K> serializer = keySerializerClass instanceof Class
+                    ? Utils.newInstance((Class<Serializer<K>>) keySerializerClass)
+                    : Utils.newInstance((String) keySerializerClass, Serializer.class);
+            serializer.configure(new HashMap<>(config), true);
+            return serializer;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Key serializer class not found: " + keySerializerClass, e);
+        }
+    }
+}
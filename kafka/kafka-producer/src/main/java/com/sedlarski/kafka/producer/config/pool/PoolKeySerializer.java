@@ -0,0 +1,63 @@
+package com.sedlarski.kafka.producer.config.pool;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Key serializer shared by the pool members. The pool serializes a key once to pick its partition and leaves the
+ * bytes here; the member sending the record on the same thread gets them back instead of serializing again.
+ */
+class PoolKeySerializer<K> implements Serializer<K> {
+
+    private final ThreadLocal<SerializedKey> serializedKey = ThreadLocal.withInitial(SerializedKey::new);
+
+    private final Serializer<K> delegate;
+
+    PoolKeySerializer(Serializer<K> delegate) {
+        this.delegate = delegate;
+    }
+
+    byte[] serializeForSend(String topic, Headers headers, K key) {
+        return serializedKey.get().remember(key, delegate.serialize(topic, headers, key));
+    }
+
+    void sent() {
+        serializedKey.get().remember(null, null);
+    }
+
+    @Override
+    public byte[] serialize(String topic, K data) {
+        SerializedKey last = serializedKey.get();
+        return last.key == data && data != null ? last.bytes : delegate.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, K data) {
+        SerializedKey last = serializedKey.get();
+        return last.key == data && data != null ? last.bytes : delegate.serialize(topic, headers, data);
+    }
+
+    /**
+     * Every member closes its key serializer, the delegate is closed once by the factory.
+     */
+    @Override
+    public void close() {
+    }
+
+    void closeDelegate() {
+        delegate.close();
+    }
+
+    private static final class SerializedKey {
+
+        private Object key;
+
+        private byte[] bytes;
+
+        private byte[] remember(Object key, byte[] bytes) {
+            this.key = key;
+            this.bytes = bytes;
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.sedlarski.kafka.producer.config.schema;
+
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import org.apache.avro.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schema registry client that resolves ids from a {@link SchemaIdCache} before going to the registry, so known
+ * schemas never cost a registry round trip, not even after a restart or during a registry outage. Ids fetched
+ * from the registry are written back to the cache.
+ */
+public class CachingSchemaRegistryClient extends CachedSchemaRegistryClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingSchemaRegistryClient.class);
+
+    private final SchemaIdCache schemaIdCache;
+
+    private final Map<String, Map<Schema, Integer>> resolvedIds = new ConcurrentHashMap<>();
+
+    public CachingSchemaRegistryClient(String baseUrl, int identityMapCapacity, Map<String, ?> originals,
+                                       SchemaIdCache schemaIdCache) {
+        super(baseUrl, identityMapCapacity, originals);
+        this.schemaIdCache = schemaIdCache;
+    }
+
+    @Override
+    public int register(String subject, Schema schema) throws IOException, RestClientException {
+        Integer id = resolve(subject, schema);
+        if (id != null) {
+            return id;
+        }
+        return remember(subject, schema, super.register(subject, schema));
+    }
+
+    @Override
+    public int getId(String subject, Schema schema) throws IOException, RestClientException {
+        Integer id = resolve(subject, schema);
+        if (id != null) {
+            return id;
+        }
+        return remember(subject, schema, super.getId(subject, schema));
+    }
+
+    @Override
+    public Schema getById(int id) throws IOException, RestClientException {
+        Schema schema = schemaIdCache.getSchema(id);
+        return schema != null ? schema : super.getById(id);
+    }
+
+    @Override
+    public Schema getBySubjectAndId(String subject, int id) throws IOException, RestClientException {
+        Schema schema = schemaIdCache.getSchema(id);
+        return schema != null ? schema : super.getBySubjectAndId(subject, id);
+    }
+
+    public boolean isCached(String subject, Schema schema) {
+        return resolve(subject, schema) != null;
+    }
+
+    /**
+     * Resolves the id ahead of the first send. Failures are only logged, the serializer retries on send.
+     */
+    public void warmUp(String subject, Schema schema) {
+        try {
+            LOG.info("Schema id for subject {} is {}", subject, register(subject, schema));
+        } catch (IOException | RestClientException e) {
+            LOG.warn("Could not resolve schema id for subject {} ahead of time", subject, e);
+        }
+    }
+
+    private Integer resolve(String subject, Schema schema) {
+        Map<Schema, Integer> ids = resolvedIds.get(subject);
+        Integer id = ids == null ? null : ids.get(schema);
+        if (id == null) {
+            id = schemaIdCache.getId(subject, schema);
+            if (id != null) {
+                resolvedIds.computeIfAbsent(subject, ignored -> new ConcurrentHashMap<>()).put(schema, id);
+            }
+        }
+        return id;
+    }
+
+    private int remember(String subject, Schema schema, int id) {
+        schemaIdCache.put(subject, schema, id);
+        resolvedIds.computeIfAbsent(subject, ignored -> new ConcurrentHashMap<>()).put(schema, id);
+        return id;
+    }
+}
@@ -0,0 +1,140 @@
+package com.sedlarski.kafka.producer.config.schema;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.SchemaParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File backed map of (subject, schema fingerprint) to schema registry id. One entry per line:
+ * {@code subject<TAB>parsing fingerprint<TAB>id<TAB>schema json}. The file is rewritten atomically on every new
+ * entry, which only happens when a schema is registered for the first time. Malformed lines, such as the last line
+ * of a file truncated by hand, are skipped and dropped on the next rewrite, and a schema that does not parse is
+ * left to the registry.
+ */
+public class SchemaIdCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaIdCache.class);
+
+    private final Path file;
+
+    private final Map<String, Integer> idsBySubjectAndFingerprint = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> schemaJsonById = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+
+    private final Map<String, String> lines = new ConcurrentHashMap<>();
+
+    private SchemaIdCache(Path file) {
+        this.file = file;
+    }
+
+    public static SchemaIdCache load(Path file) {
+        SchemaIdCache cache = new SchemaIdCache(file);
+        if (Files.exists(file)) {
+            try {
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    cache.addLine(line);
+                }
+                LOG.info("Loaded {} schema id(s) from {}", cache.lines.size(), file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read schema id cache " + file, e);
+            }
+        }
+        return cache;
+    }
+
+    public Integer getId(String subject, Schema schema) {
+        return idsBySubjectAndFingerprint.get(key(subject, SchemaNormalization.parsingFingerprint64(schema)));
+    }
+
+    public Schema getSchema(int id) {
+        Schema schema = schemasById.get(id);
+        if (schema == null) {
+            String json = schemaJsonById.get(id);
+            if (json == null) {
+                return null;
+            }
+            try {
+                schema = schemasById.computeIfAbsent(id, ignored -> new Schema.Parser().parse(json));
+            } catch (SchemaParseException e) {
+                LOG.warn("Ignoring unparsable schema {} in schema id cache {}", id, file, e);
+                return null;
+            }
+        }
+        return schema;
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    public synchronized void put(String subject, Schema schema, int id) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        String key = key(subject, fingerprint);
+        Integer existing = idsBySubjectAndFingerprint.get(key);
+        if (existing != null && existing == id) {
+            return;
+        }
+        addLine(subject + '\t' + Long.toHexString(fingerprint) + '\t' + id + '\t' + schema.toString());
+        persist();
+    }
+
+    private void addLine(String line) {
+        if (line.isBlank()) {
+            return;
+        }
+        String[] parts = line.split("\t", 4);
+        if (parts.length != 4) {
+            LOG.warn("Ignoring malformed schema id cache line in {}", file);
+            return;
+        }
+        String key;
+        int id;
+        try {
+            key = key(parts[0], Long.parseUnsignedLong(parts[1], 16));
+            id = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            LOG.warn("Ignoring malformed schema id cache line in {}", file);
+            return;
+        }
+        idsBySubjectAndFingerprint.put(key, id);
+        schemaJsonById.put(id, parts[3]);
+        lines.put(key, line);
+    }
+
+    private void persist() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (String line : lines.values()) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not write schema id cache {}, ids are kept in memory only", file, e);
+        }
+    }
+
+    private static String key(String subject, long fingerprint) {
+        return subject + '\t' + fingerprint;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sedlarski.kafka.producer.config.schema;
+
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Registers record schemas and writes their ids to the schema id cache, so the cache can be built as part of a
+ * build or deployment step, see the register-schemas profile of this module.
+ * <p>
+ * Usage: {@code SchemaRegistrationTool <schema-registry-url> <cache-file> <subject>=<record-class>...}
+ * <p>
+ * Only run from the command line; it reports through the logger like the rest of the module and is not used by
+ * any bean.
+ */
+public final class SchemaRegistrationTool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaRegistrationTool.class);
+
+    private SchemaRegistrationTool() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException(
+                    "Usage: SchemaRegistrationTool <schema-registry-url> <cache-file> <subject>=<record-class>...");
+        }
+        SchemaIdCache schemaIdCache = SchemaIdCache.load(Path.of(args[1]));
+        CachingSchemaRegistryClient client = new CachingSchemaRegistryClient(args[0], 100, Map.of(), schemaIdCache);
+        for (int i = 2; i < args.length; i++) {
+            String[] mapping = args[i].split("=", 2);
+            Schema schema = SpecificData.get().getSchema(Class.forName(mapping[1]));
+            LOG.info("Schema id for subject {} is {}", mapping[0], client.register(mapping[0], schema));
+        }
+    }
+}
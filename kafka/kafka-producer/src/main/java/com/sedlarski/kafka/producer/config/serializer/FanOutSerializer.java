@@ -0,0 +1,89 @@
+package com.sedlarski.kafka.producer.config.serializer;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Serializes a value once when it is sent to several topics. Between {@link #begin()} and {@link #end()} the bytes
+ * of the last value are handed out again as long as the same instance comes back. The producer serializes on the
+ * thread calling send, so the sends of one fan-out all see the same thread local entry.
+ * <p>
+ * The cached bytes carry the schema id resolved for the first topic. Schema ids are global in the registry, so
+ * deserializers on the other topics resolve them as well.
+ */
+public class FanOutSerializer<T> implements Serializer<T> {
+
+    private static final ThreadLocal<FanOut> FAN_OUT = ThreadLocal.withInitial(FanOut::new);
+
+    private final Serializer<T> delegate;
+
+    public FanOutSerializer(Serializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    public static void begin() {
+        FAN_OUT.get().active = true;
+    }
+
+    public static void end() {
+        FanOut fanOut = FAN_OUT.get();
+        fanOut.active = false;
+        fanOut.owner = null;
+        fanOut.value = null;
+        fanOut.bytes = null;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        FanOut fanOut = FAN_OUT.get();
+        if (!fanOut.active) {
+            return delegate.serialize(topic, data);
+        }
+        if (fanOut.owner == this && fanOut.value == data) {
+            return fanOut.bytes;
+        }
+        return fanOut.remember(this, data, delegate.serialize(topic, data));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        FanOut fanOut = FAN_OUT.get();
+        if (!fanOut.active) {
+            return delegate.serialize(topic, headers, data);
+        }
+        if (fanOut.owner == this && fanOut.value == data) {
+            return fanOut.bytes;
+        }
+        return fanOut.remember(this, data, delegate.serialize(topic, headers, data));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static final class FanOut {
+
+        private boolean active;
+
+        private Object owner;
+
+        private Object value;
+
+        private byte[] bytes;
+
+        private byte[] remember(Object owner, Object value, byte[] bytes) {
+            this.owner = owner;
+            this.value = value;
+            this.bytes = bytes;
+            return bytes;
+        }
+    }
+}
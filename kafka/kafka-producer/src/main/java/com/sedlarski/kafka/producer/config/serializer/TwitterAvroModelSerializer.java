@@ -0,0 +1,197 @@
+package com.sedlarski.kafka.producer.config.serializer;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaAvroSerDeConfig;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes {@link TwitterAvroModel} in Avro binary encoding by hand: zigzag varint longs, union branch indexes and
+ * a UTF-8 encoder that copies ASCII text straight into a thread-local buffer. The output is byte for byte what
+ * the generic datum writer produces for the schema, without its per-field schema walk.
+ * <p>
+ * By default only the Avro body is written, without the registry wire format, so consumers must know the
+ * schema. With {@link #REGISTRY_HEADER_CONFIG} set, the Confluent magic byte and the schema id of the
+ * {@code <topic>-value} subject are written first and any Confluent Avro deserializer can read the records.
+ * Consumers read both formats with the TwitterAvroModelDeserializer of kafka-consumer.
+ */
+public class TwitterAvroModelSerializer implements Serializer<TwitterAvroModel> {
+
+    public static final String REGISTRY_HEADER_CONFIG = "twitter.avro.registry.header";
+
+    public static final String SCHEMA_REGISTRY_CLIENT_CONFIG = "twitter.avro.schema.registry.client";
+
+    static final byte MAGIC_BYTE = 0;
+
+    static final int HEADER_BYTES = 1 + Integer.BYTES;
+
+    private static final int MAX_POOLED_BUFFER_BYTES = 64 * 1024;
+
+    private static final int FIXED_FIELDS_MAX_BYTES = 3 * 10 + 2 + 5;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    private final Map<String, Integer> schemaIds = new ConcurrentHashMap<>();
+
+    private boolean registryHeader;
+
+    private SchemaRegistryClient schemaRegistryClient;
+
+    public TwitterAvroModelSerializer() {
+    }
+
+    public TwitterAvroModelSerializer(SchemaRegistryClient schemaRegistryClient) {
+        this.registryHeader = schemaRegistryClient != null;
+        this.schemaRegistryClient = schemaRegistryClient;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        registryHeader = Boolean.parseBoolean(String.valueOf(configs.get(REGISTRY_HEADER_CONFIG)));
+        if (!registryHeader || schemaRegistryClient != null) {
+            return;
+        }
+        Object client = configs.get(SCHEMA_REGISTRY_CLIENT_CONFIG);
+        if (client instanceof SchemaRegistryClient) {
+            schemaRegistryClient = (SchemaRegistryClient) client;
+        } else {
+            Object url = configs.get(AbstractKafkaAvroSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG);
+            if (url == null) {
+                throw new IllegalArgumentException("Registry header needs " +
+                        AbstractKafkaAvroSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG + " or a schema registry client!");
+            }
+            schemaRegistryClient = new CachedSchemaRegistryClient(String.valueOf(url),
+                    AbstractKafkaAvroSerDeConfig.MAX_SCHEMAS_PER_SUBJECT_DEFAULT);
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, TwitterAvroModel data) {
+        if (data == null) {
+            return null;
+        }
+        String text = data.getText();
+        int maxBytes = HEADER_BYTES + FIXED_FIELDS_MAX_BYTES + (text == null ? 0 : text.length() * 3);
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < maxBytes) {
+            buffer = new byte[maxBytes];
+            if (maxBytes <= MAX_POOLED_BUFFER_BYTES) {
+                BUFFER.set(buffer);
+            }
+        }
+        int position = 0;
+        if (registryHeader) {
+            int schemaId = schemaId(topic);
+            buffer[position++] = MAGIC_BYTE;
+            buffer[position++] = (byte) (schemaId >>> 24);
+            buffer[position++] = (byte) (schemaId >>> 16);
+            buffer[position++] = (byte) (schemaId >>> 8);
+            buffer[position++] = (byte) schemaId;
+        }
+        position = writeLong(buffer, position, data.getUserId());
+        position = writeLong(buffer, position, data.getId());
+        if (text == null) {
+            buffer[position++] = 0;
+        } else {
+            buffer[position++] = 2;
+            position = writeString(buffer, position, text);
+        }
+        Long createdAt = data.getCreatedAt();
+        if (createdAt == null) {
+            buffer[position++] = 0;
+        } else {
+            buffer[position++] = 2;
+            position = writeLong(buffer, position, createdAt);
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private int schemaId(String topic) {
+        Integer id = schemaIds.get(topic);
+        if (id != null) {
+            return id;
+        }
+        try {
+            id = schemaRegistryClient.register(topic + "-value", TwitterAvroModel.getClassSchema());
+        } catch (IOException | RestClientException e) {
+            throw new SerializationException("Could not register schema for topic " + topic, e);
+        }
+        schemaIds.put(topic, id);
+        return id;
+    }
+
+    static int writeLong(byte[] buffer, int position, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+        return position;
+    }
+
+    /**
+     * Same output as {@code String.getBytes(UTF_8)}, including '?' for unpaired surrogates.
+     */
+    static int writeString(byte[] buffer, int position, String text) {
+        int length = text.length();
+        int asciiPrefix = 0;
+        while (asciiPrefix < length && text.charAt(asciiPrefix) < 0x80) {
+            asciiPrefix++;
+        }
+        position = writeLong(buffer, position, asciiPrefix == length ? length : utf8Length(text, asciiPrefix));
+        for (int i = 0; i < asciiPrefix; i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+        for (int i = asciiPrefix; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    private static int utf8Length(String text, int from) {
+        int length = text.length();
+        int utf8Length = length;
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    utf8Length += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    utf8Length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    utf8Length += 2;
+                }
+            }
+        }
+        return utf8Length;
+    }
+}
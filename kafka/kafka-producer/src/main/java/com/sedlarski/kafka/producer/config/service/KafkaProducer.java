@@ -1,9 +1,20 @@
 package com.sedlarski.kafka.producer.config.service;
 
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
 import org.apache.avro.specific.SpecificRecordBase;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface KafkaProducer<K extends Serializable, V extends SpecificRecordBase> {
     void send(String topicName, K key, V message);
+
+    CompletableFuture<BatchSendResult> sendBatch(String topicName, List<Pair<K, V>> messages);
+
+    /**
+     * Sends every message to each of the topics, serializing each value only once.
+     */
+    CompletableFuture<BatchSendResult> sendBatch(List<String> topicNames, List<Pair<K, V>> messages);
 }
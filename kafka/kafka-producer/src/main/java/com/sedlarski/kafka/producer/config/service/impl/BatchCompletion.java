@@ -0,0 +1,119 @@
+package com.sedlarski.kafka.producer.config.service.impl;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLogger;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks every record of a batch, completing one future when the last record is done. It is the callback of all
+ * of them, so sending a batch allocates no callback per record. A callback does not tell which record it belongs
+ * to, so the n-th ack is timed against the creation time of the n-th tweet of the batch; the acks of a batch come
+ * back within a few produce requests, which keeps the created-to-ack histogram close to the per-record one.
+ */
+class BatchCompletion implements Callback {
+
+    private final String topicName;
+
+    private final List<Pair<Long, TwitterAvroModel>> messages;
+
+    private final int recordCount;
+
+    private final ProducerMetrics producerMetrics;
+
+    private final HotPathLogger hotPathLogger;
+
+    private final long sendNanos;
+
+    private final AtomicInteger remaining;
+
+    private final AtomicInteger ackCount = new AtomicInteger();
+
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+    private final CompletableFuture<BatchSendResult> future = new CompletableFuture<>();
+
+    /** Only touched by the sending thread. */
+    private int handedOffCount;
+
+    BatchCompletion(String topicName, List<Pair<Long, TwitterAvroModel>> messages, ProducerMetrics producerMetrics,
+                    HotPathLogger hotPathLogger) {
+        this.topicName = topicName;
+        this.messages = messages;
+        this.recordCount = messages.size();
+        this.producerMetrics = producerMetrics;
+        this.hotPathLogger = hotPathLogger;
+        this.sendNanos = System.nanoTime();
+        this.remaining = new AtomicInteger(recordCount);
+    }
+
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception exception) {
+        if (exception != null) {
+            producerMetrics.recordFailure(topicName);
+            hotPathLogger.recordError();
+            failedCount.incrementAndGet();
+            firstError.compareAndSet(null, exception);
+        } else {
+            Long createdAt = messages.get(ackCount.getAndIncrement()).getValue().getCreatedAt();
+            producerMetrics.recordAck(metadata.topic(), metadata.partition(), sendNanos, createdAt);
+            hotPathLogger.recordMessage(metadata.serializedKeySize() + metadata.serializedValueSize());
+        }
+        if (remaining.decrementAndGet() == 0) {
+            future.complete(new BatchSendResult(topicName, recordCount, failedCount.get(), firstError.get()));
+        }
+    }
+
+    /**
+     * Called once the callback of a record is certain to run, i.e. after the producer accepted it or the callback
+     * was invoked with the send exception.
+     */
+    void handedOff() {
+        handedOffCount++;
+    }
+
+    /**
+     * @return the messages not handed off yet, in send order
+     */
+    List<Pair<Long, TwitterAvroModel>> notHandedOff() {
+        return messages.subList(handedOffCount, recordCount);
+    }
+
+    /**
+     * Fails the records that were never handed off; the others complete through their own callbacks.
+     */
+    void failRemaining(Throwable throwable) {
+        int notSent = recordCount - handedOffCount;
+        if (notSent <= 0) {
+            return;
+        }
+        handedOffCount = recordCount;
+        firstError.compareAndSet(null, throwable);
+        for (int i = 0; i < notSent; i++) {
+            producerMetrics.recordFailure(topicName);
+            hotPathLogger.recordError();
+        }
+        failedCount.addAndGet(notSent);
+        if (remaining.addAndGet(-notSent) == 0) {
+            future.complete(new BatchSendResult(topicName, recordCount, failedCount.get(), firstError.get()));
+        }
+    }
+
+    String topicName() {
+        return topicName;
+    }
+
+    CompletableFuture<BatchSendResult> future() {
+        return future;
+    }
+}
@@ -0,0 +1,300 @@
+package com.sedlarski.kafka.producer.config.service.impl;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLogger;
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
+import com.sedlarski.eventdriven.config.ExactlyOnceProducerConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.serializer.FanOutSerializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exactly-once send path. Batches from every caller are buffered and written by a single thread, one transaction
+ * per flush interval or per max-records-per-transaction, so begin and commit are paid once for many records.
+ * A batch future completes after its transaction committed or aborted; on abort every record of the transaction
+ * is reported as failed, read-committed consumers never see any of them. A fan-out batch is never split across
+ * transactions, so it reaches either all of its topics or none.
+ */
+@Component
+@ConditionalOnProperty(name = "exactly-once-producer-config.enabled", havingValue = "true")
+public class TransactionalBatchSender {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionalBatchSender.class);
+
+    private static final String TRANSACTIONS = "twitter.producer.transactions";
+
+    private final KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+
+    private final ExactlyOnceProducerConfigData exactlyOnceProducerConfigData;
+
+    private final ProducerMetrics producerMetrics;
+
+    private final HotPathLogger hotPathLogger;
+
+    private final Counter committedTransactions;
+
+    private final Counter abortedTransactions;
+
+    private final Object lock = new Object();
+
+    private final Deque<PendingBatch> pending = new ArrayDeque<>();
+
+    private int pendingRecords;
+
+    /** Pending records plus the records of the transaction in progress, bounded by max-buffered-records. */
+    private int bufferedRecords;
+
+    private boolean flushScheduled;
+
+    private boolean closed;
+
+    private ScheduledExecutorService scheduler;
+
+    public TransactionalBatchSender(KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate,
+                                    ExactlyOnceProducerConfigData exactlyOnceProducerConfigData,
+                                    ProducerMetrics producerMetrics,
+                                    HotPathLoggerFactory hotPathLoggerFactory,
+                                    MeterRegistry meterRegistry) {
+        if (!kafkaTemplate.isTransactional()) {
+            throw new IllegalStateException("exactly-once-producer-config needs the transactional default producer " +
+                    "factory, disable adaptive-producer-config and producer-pool-config");
+        }
+        this.kafkaTemplate = kafkaTemplate;
+        this.exactlyOnceProducerConfigData = exactlyOnceProducerConfigData;
+        this.producerMetrics = producerMetrics;
+        this.hotPathLogger = hotPathLoggerFactory.getLogger(TransactionalBatchSender.class);
+        this.committedTransactions = Counter.builder(TRANSACTIONS).tag("outcome", "committed")
+                .register(meterRegistry);
+        this.abortedTransactions = Counter.builder(TRANSACTIONS).tag("outcome", "aborted")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("transactional-sender-"));
+        long interval = exactlyOnceProducerConfigData.getFlushIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Commits what is still buffered before the producer goes away. The scheduler is not interrupted, a commit in
+     * progress is allowed to finish.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+            if (!scheduler.awaitTermination(exactlyOnceProducerConfigData.getTransactionTimeoutMs(),
+                    TimeUnit.MILLISECONDS)) {
+                scheduler.shutdownNow();
+            }
+        }
+        flushSafely();
+    }
+
+    /**
+     * Buffers a copy of the batch for the next transaction. Blocks while max-buffered-records are waiting for a
+     * commit.
+     */
+    public CompletableFuture<BatchSendResult> submit(String topicName, List<Pair<Long, TwitterAvroModel>> messages) {
+        return submit(List.of(topicName), messages).get(0);
+    }
+
+    /**
+     * Buffers a batch for every one of the topics, all of them go into the same transaction.
+     *
+     * @return one future per topic, in the order of topicNames
+     */
+    public List<CompletableFuture<BatchSendResult>> submit(List<String> topicNames,
+                                                           List<Pair<Long, TwitterAvroModel>> messages) {
+        PendingBatch batch = new PendingBatch(List.copyOf(topicNames), List.copyOf(messages));
+        synchronized (lock) {
+            while (!closed && bufferedRecords > 0 &&
+                    bufferedRecords + batch.size() > exactlyOnceProducerConfigData.getMaxBufferedRecords()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    batch.fail(e);
+                    return batch.futures;
+                }
+            }
+            if (closed) {
+                batch.fail(new IllegalStateException("Transactional sender is closed"));
+                return batch.futures;
+            }
+            pending.addLast(batch);
+            pendingRecords += batch.size();
+            bufferedRecords += batch.size();
+            if (pendingRecords >= exactlyOnceProducerConfigData.getMaxRecordsPerTransaction()) {
+                scheduleFlush();
+            }
+        }
+        return batch.futures;
+    }
+
+    /**
+     * Commits the buffered records now instead of at the end of the flush interval.
+     */
+    public void flush() {
+        synchronized (lock) {
+            if (!closed) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.execute(this::flushSafely);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            List<PendingBatch> transaction;
+            while (!(transaction = nextTransaction()).isEmpty()) {
+                commit(transaction);
+            }
+        } catch (Exception e) {
+            LOG.error("Could not flush transactional batches", e);
+        }
+    }
+
+    /**
+     * Takes whole batches up to max-records-per-transaction; a single larger batch gets a transaction of its own.
+     */
+    private List<PendingBatch> nextTransaction() {
+        synchronized (lock) {
+            flushScheduled = false;
+            List<PendingBatch> transaction = new ArrayList<>();
+            int records = 0;
+            int maxRecords = exactlyOnceProducerConfigData.getMaxRecordsPerTransaction();
+            while (!pending.isEmpty() && (records == 0 || records + pending.peekFirst().size() <= maxRecords)) {
+                PendingBatch batch = pending.pollFirst();
+                transaction.add(batch);
+                records += batch.size();
+            }
+            pendingRecords -= records;
+            return transaction;
+        }
+    }
+
+    /**
+     * The template aborts the transaction when a send or the commit fails, before anything is reported, so a batch
+     * is only ever reported failed for all of its topics at once.
+     */
+    private void commit(List<PendingBatch> transaction) {
+        List<List<BatchCompletion>> completions = new ArrayList<>(transaction.size());
+        try {
+            kafkaTemplate.executeInTransaction(operations -> operations.execute(producer -> {
+                for (PendingBatch batch : transaction) {
+                    List<BatchCompletion> batchCompletions = new ArrayList<>(batch.topicNames.size());
+                    for (String topicName : batch.topicNames) {
+                        producerMetrics.recordSent(topicName, batch.messages.size());
+                        batchCompletions.add(new BatchCompletion(topicName, batch.messages, producerMetrics,
+                                hotPathLogger));
+                    }
+                    completions.add(batchCompletions);
+                    for (Pair<Long, TwitterAvroModel> message : batch.messages) {
+                        FanOutSerializer.begin();
+                        try {
+                            for (int i = 0; i < batch.topicNames.size(); i++) {
+                                BatchCompletion completion = batchCompletions.get(i);
+                                producer.send(new ProducerRecord<>(batch.topicNames.get(i), message.getKey(),
+                                        message.getValue()), completion);
+                                completion.handedOff();
+                            }
+                        } finally {
+                            FanOutSerializer.end();
+                        }
+                    }
+                }
+                return null;
+            }));
+            committedTransactions.increment();
+            for (int i = 0; i < transaction.size(); i++) {
+                List<CompletableFuture<BatchSendResult>> futures = transaction.get(i).futures;
+                for (int j = 0; j < futures.size(); j++) {
+                    completions.get(i).get(j).future().thenAccept(futures.get(j)::complete);
+                }
+            }
+        } catch (Exception e) {
+            abortedTransactions.increment();
+            LOG.error("Transaction of {} batch(es) aborted", transaction.size(), e);
+            for (List<BatchCompletion> batchCompletions : completions) {
+                batchCompletions.forEach(completion -> completion.failRemaining(e));
+            }
+            for (PendingBatch batch : transaction) {
+                batch.fail(e);
+            }
+        } finally {
+            int recordCount = 0;
+            for (PendingBatch batch : transaction) {
+                recordCount += batch.size();
+            }
+            synchronized (lock) {
+                bufferedRecords -= recordCount;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static final class PendingBatch {
+
+        private final List<String> topicNames;
+
+        private final List<Pair<Long, TwitterAvroModel>> messages;
+
+        private final List<CompletableFuture<BatchSendResult>> futures;
+
+        private PendingBatch(List<String> topicNames, List<Pair<Long, TwitterAvroModel>> messages) {
+            this.topicNames = topicNames;
+            this.messages = messages;
+            this.futures = new ArrayList<>(topicNames.size());
+            for (int i = 0; i < topicNames.size(); i++) {
+                futures.add(new CompletableFuture<>());
+            }
+        }
+
+        /**
+         * Records across all topics, which is what counts against the transaction and buffer limits.
+         */
+        private int size() {
+            return messages.size() * topicNames.size();
+        }
+
+        private void fail(Throwable throwable) {
+            for (int i = 0; i < topicNames.size(); i++) {
+                futures.get(i).complete(new BatchSendResult(topicNames.get(i), messages.size(), messages.size(),
+                        throwable));
+            }
+        }
+    }
+}
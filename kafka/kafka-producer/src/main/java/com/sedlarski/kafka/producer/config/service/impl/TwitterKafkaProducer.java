@@ -1,12 +1,20 @@
 package com.sedlarski.kafka.producer.config.service.impl;
 
 
+import com.sedlarski.eventdriven.common.logging.HotPathLogger;
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
 import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.serializer.FanOutSerializer;
 import com.sedlarski.kafka.producer.config.service.KafkaProducer;
+import com.sedlarski.kafka.producer.config.spill.TweetSpillLog;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.annotation.Bean;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
@@ -14,6 +22,10 @@ import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class TwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroModel> {
@@ -22,16 +34,199 @@ public class TwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroMode
 
     private KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
 
-    public TwitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> template) {
+    private final ProducerMetrics producerMetrics;
+
+    private final HotPathLogger hotPathLogger;
+
+    private final TweetSpillLog tweetSpillLog;
+
+    private final TransactionalBatchSender transactionalBatchSender;
+
+    public TwitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> template, ProducerMetrics producerMetrics,
+                                HotPathLoggerFactory hotPathLoggerFactory,
+                                Optional<TweetSpillLog> tweetSpillLog,
+                                Optional<TransactionalBatchSender> transactionalBatchSender) {
         this.kafkaTemplate = template;
+        this.producerMetrics = producerMetrics;
+        this.hotPathLogger = hotPathLoggerFactory.getLogger(TwitterKafkaProducer.class);
+        this.tweetSpillLog = tweetSpillLog.orElse(null);
+        this.transactionalBatchSender = transactionalBatchSender.orElse(null);
     }
 
     @Override
     public void send(String topicName, Long key, TwitterAvroModel message) {
-        LOG.info("Sending message='{}' to topic='{}'", message, topicName);
-        ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture =
-                kafkaTemplate.send(topicName, key, message);
-        addCallback(topicName, message, kafkaResultFuture);
+        if (transactionalBatchSender != null) {
+            sendBatch(topicName, List.of(Pair.of(key, message)));
+            return;
+        }
+        hotPathLogger.debug("Sending message='{}' to topic='{}'", message, topicName);
+        producerMetrics.recordSent(topicName, 1);
+        long sendNanos = System.nanoTime();
+        ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture;
+        try {
+            kafkaResultFuture = kafkaTemplate.send(topicName, key, message);
+        } catch (Exception e) {
+            onSendFailure(topicName, key, message, e);
+            return;
+        }
+        addCallback(topicName, key, message, sendNanos, kafkaResultFuture);
+    }
+
+    @Override
+    public CompletableFuture<BatchSendResult> sendBatch(String topicName, List<Pair<Long, TwitterAvroModel>> messages) {
+        return sendBatch(topicName, messages, tweetSpillLog != null);
+    }
+
+    @Override
+    public CompletableFuture<BatchSendResult> sendBatch(List<String> topicNames,
+                                                        List<Pair<Long, TwitterAvroModel>> messages) {
+        if (topicNames.size() == 1) {
+            return sendBatch(topicNames.get(0), messages);
+        }
+        String routeName = String.join(",", topicNames);
+        if (messages.isEmpty()) {
+            return CompletableFuture.completedFuture(BatchSendResult.empty(routeName));
+        }
+        boolean spillFailures = tweetSpillLog != null;
+        if (transactionalBatchSender != null) {
+            hotPathLogger.debug("Buffering batch of {} message(s) for topics='{}'", messages.size(), routeName);
+            List<CompletableFuture<BatchSendResult>> submitted = transactionalBatchSender.submit(topicNames, messages);
+            List<CompletableFuture<BatchSendResult>> futures = new ArrayList<>(topicNames.size());
+            for (int i = 0; i < topicNames.size(); i++) {
+                futures.add(whenTransactionDone(submitted.get(i), topicNames.get(i), messages, spillFailures));
+            }
+            return combine(routeName, futures);
+        }
+        return sendDirect(topicNames, routeName, messages, spillFailures);
+    }
+
+    /**
+     * Sends a batch read back from the spill log. Failed records are only reported, they are still in the
+     * spill log and are not spilled a second time.
+     */
+    public CompletableFuture<BatchSendResult> resendBatch(String topicName,
+                                                          List<Pair<Long, TwitterAvroModel>> messages) {
+        return sendBatch(topicName, messages, false);
+    }
+
+    private CompletableFuture<BatchSendResult> sendBatch(String topicName, List<Pair<Long, TwitterAvroModel>> messages,
+                                                         boolean spillFailures) {
+        if (messages.isEmpty()) {
+            return CompletableFuture.completedFuture(BatchSendResult.empty(topicName));
+        }
+        if (transactionalBatchSender != null) {
+            return sendTransactional(topicName, messages, spillFailures);
+        }
+        return sendDirect(List.of(topicName), topicName, messages, spillFailures);
+    }
+
+    /**
+     * Sends every message to every topic in one producer call, a fan-out serializes each message once. Handoff is
+     * tracked per topic, so when the call fails midway only the records not handed off are failed and spilled.
+     */
+    private CompletableFuture<BatchSendResult> sendDirect(List<String> topicNames, String routeName,
+                                                          List<Pair<Long, TwitterAvroModel>> messages,
+                                                          boolean spillFailures) {
+        hotPathLogger.debug("Sending batch of {} message(s) to topics='{}'", messages.size(), routeName);
+        List<BatchCompletion> batchCompletions = new ArrayList<>(topicNames.size());
+        for (String topicName : topicNames) {
+            producerMetrics.recordSent(topicName, messages.size());
+            batchCompletions.add(new BatchCompletion(topicName, messages, producerMetrics, hotPathLogger));
+        }
+        boolean fanOut = topicNames.size() > 1;
+        try {
+            kafkaTemplate.execute(producer -> {
+                for (Pair<Long, TwitterAvroModel> message : messages) {
+                    if (fanOut) {
+                        FanOutSerializer.begin();
+                    }
+                    try {
+                        for (BatchCompletion batchCompletion : batchCompletions) {
+                            Callback callback = spillFailures ? new SpillingCallback(tweetSpillLog,
+                                    batchCompletion.topicName(), message, batchCompletion) : batchCompletion;
+                            try {
+                                producer.send(new ProducerRecord<>(batchCompletion.topicName(), message.getKey(),
+                                        message.getValue()), callback);
+                            } catch (Exception e) {
+                                callback.onCompletion(null, e);
+                            }
+                            batchCompletion.handedOff();
+                        }
+                    } finally {
+                        if (fanOut) {
+                            FanOutSerializer.end();
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // records never handed to the producer did not fail on their own, they are spilled whatever the cause
+            for (BatchCompletion batchCompletion : batchCompletions) {
+                if (spillFailures) {
+                    for (Pair<Long, TwitterAvroModel> message : batchCompletion.notHandedOff()) {
+                        tweetSpillLog.spill(batchCompletion.topicName(), message.getKey(), message.getValue());
+                    }
+                }
+                batchCompletion.failRemaining(e);
+            }
+        }
+        List<CompletableFuture<BatchSendResult>> futures = new ArrayList<>(batchCompletions.size());
+        for (BatchCompletion batchCompletion : batchCompletions) {
+            futures.add(batchCompletion.future());
+        }
+        return (fanOut ? combine(routeName, futures) : futures.get(0)).whenComplete((result, throwable) -> {
+            if (result != null && result.hasFailures()) {
+                hotPathLogger.error("Error while sending {} of {} message(s) to {}", result.getFailedCount(),
+                        result.getRecordCount(), routeName, result.getFirstError());
+            }
+        });
+    }
+
+    private CompletableFuture<BatchSendResult> sendTransactional(String topicName,
+                                                                 List<Pair<Long, TwitterAvroModel>> messages,
+                                                                 boolean spillFailures) {
+        hotPathLogger.debug("Buffering batch of {} message(s) for topic='{}'", messages.size(), topicName);
+        return whenTransactionDone(transactionalBatchSender.submit(topicName, messages), topicName, messages,
+                spillFailures);
+    }
+
+    /**
+     * A transaction is all or nothing, so after an abort the whole batch is spilled, whatever the cause; the replay
+     * drops the records that fail non-retriably on their own. A future that fails instead of reporting the abort
+     * is handled the same way.
+     */
+    private CompletableFuture<BatchSendResult> whenTransactionDone(CompletableFuture<BatchSendResult> future,
+                                                                   String topicName,
+                                                                   List<Pair<Long, TwitterAvroModel>> messages,
+                                                                   boolean spillFailures) {
+        return future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                hotPathLogger.error("Error while sending {} message(s) to topic {}", messages.size(), topicName,
+                        throwable);
+            } else if (result.hasFailures()) {
+                hotPathLogger.error("Error while sending {} of {} message(s) to topic {}", result.getFailedCount(),
+                        result.getRecordCount(), topicName, result.getFirstError());
+            } else {
+                return;
+            }
+            if (spillFailures) {
+                for (Pair<Long, TwitterAvroModel> message : messages) {
+                    tweetSpillLog.spill(topicName, message.getKey(), message.getValue());
+                }
+            }
+        });
+    }
+
+    private static CompletableFuture<BatchSendResult> combine(String routeName,
+                                                              List<CompletableFuture<BatchSendResult>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<BatchSendResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<BatchSendResult> future : futures) {
+                results.add(future.join());
+            }
+            return BatchSendResult.combine(routeName, results);
+        });
     }
 
     @PreDestroy
@@ -42,24 +237,65 @@ public class TwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroMode
         }
     }
 
-    private void addCallback(String topicName, TwitterAvroModel message,
+    private void addCallback(String topicName, Long key, TwitterAvroModel message, long sendNanos,
                              ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture) {
         kafkaResultFuture.addCallback(new ListenableFutureCallback<>() {
             @Override
             public void onFailure(Throwable throwable) {
-                LOG.error("Error while sending message {} to topic {}", message.toString(), topicName, throwable);
+                onSendFailure(topicName, key, message, throwable);
             }
 
             @Override
             public void onSuccess(SendResult<Long, TwitterAvroModel> result) {
                 RecordMetadata metadata = result.getRecordMetadata();
-                LOG.debug("Received new metadata. Topic: {}; Partition {}; Offset {}; Timestamp {}, at time {}",
+                producerMetrics.recordAck(metadata.topic(), metadata.partition(), sendNanos, message.getCreatedAt());
+                hotPathLogger.recordMessage(metadata.serializedKeySize() + metadata.serializedValueSize());
+                hotPathLogger.debug("Received new metadata. Topic: {}; Partition {}; Offset {}; Timestamp {}",
                         metadata.topic(),
                         metadata.partition(),
                         metadata.offset(),
-                        metadata.timestamp(),
-                        System.nanoTime());
+                        metadata.timestamp());
             }
         });
     }
+
+    private void onSendFailure(String topicName, Long key, TwitterAvroModel message, Throwable throwable) {
+        producerMetrics.recordFailure(topicName);
+        hotPathLogger.recordError();
+        hotPathLogger.error("Error while sending message {} to topic {}", message, topicName, throwable);
+        if (tweetSpillLog != null && TweetSpillLog.isRetriable(throwable)) {
+            tweetSpillLog.spill(topicName, key, message);
+        }
+    }
+
+    /**
+     * Spilling needs to know which tweet failed, so with a spill log every record gets this callback in front of
+     * the shared {@link BatchCompletion}.
+     */
+    private static final class SpillingCallback implements Callback {
+
+        private final TweetSpillLog tweetSpillLog;
+
+        private final String topicName;
+
+        private final Pair<Long, TwitterAvroModel> message;
+
+        private final Callback completion;
+
+        private SpillingCallback(TweetSpillLog tweetSpillLog, String topicName, Pair<Long, TwitterAvroModel> message,
+                                 Callback completion) {
+            this.tweetSpillLog = tweetSpillLog;
+            this.topicName = topicName;
+            this.message = message;
+            this.completion = completion;
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            if (exception != null && TweetSpillLog.isRetriable(exception)) {
+                tweetSpillLog.spill(topicName, message.getKey(), message.getValue());
+            }
+            completion.onCompletion(metadata, exception);
+        }
+    }
 }
@@ -0,0 +1,389 @@
+package com.sedlarski.kafka.producer.config.spill;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of opaque records in fixed size, memory-mapped segment files. Each record is framed as
+ * {@code [int length][int crc32][payload]}; a zero length marks the end of a segment's data. When the active
+ * segment is full a new one is started, and appends are rejected once {@code maxSegments} segments exist.
+ * <p>
+ * Any number of threads may append. Reading is meant for a single replay thread: {@link #read(int)} returns
+ * the next records in append order, {@link #commit()} makes them consumed and deletes fully consumed segments,
+ * {@link #rewind()} goes back to the last commit. The committed position is kept in a checkpoint file, so
+ * records that were not committed before a restart are read again. A frame that fails its checksum is skipped
+ * and counted, so one corrupt record cannot block the log.
+ * <p>
+ * Data is in the page cache as soon as it is appended, which survives a process crash; it is forced to disk
+ * when a segment is sealed and on close.
+ */
+public class SpillLog implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillLog.class);
+
+    private static final int HEADER_BYTES = 8;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final int maxSegments;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicLong corruptCount = new AtomicLong();
+
+    private Segment active;
+
+    private long readSegment;
+
+    private int readPosition;
+
+    private long checkpointSegment;
+
+    private int checkpointPosition;
+
+    private SpillLog(Path directory, int segmentBytes, int maxSegments) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+    }
+
+    public static SpillLog open(Path directory, int segmentBytes, int maxSegments) {
+        if (segmentBytes <= HEADER_BYTES || maxSegments < 1) {
+            throw new IllegalArgumentException("Spill log needs at least one segment larger than a frame header!");
+        }
+        SpillLog spillLog = new SpillLog(directory, segmentBytes, maxSegments);
+        try {
+            Files.createDirectories(directory);
+            spillLog.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open spill log in " + directory, e);
+        }
+        return spillLog;
+    }
+
+    /**
+     * @return false if the record does not fit, either because it is larger than a segment or the log is full
+     */
+    public synchronized boolean append(byte[] payload) {
+        int frameBytes = HEADER_BYTES + payload.length;
+        if (frameBytes > segmentBytes) {
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+        try {
+            if (!active.hasRoom(frameBytes)) {
+                if (segments.size() >= maxSegments) {
+                    rejectedCount.incrementAndGet();
+                    return false;
+                }
+                active.seal();
+                active = Segment.create(segmentPath(active.id + 1), active.id + 1, segmentBytes);
+                segments.put(active.id, active);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll spill log segment", e);
+        }
+        active.append(payload);
+        return true;
+    }
+
+    public List<byte[]> read(int maxRecords) {
+        List<byte[]> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        while (records.size() < maxRecords) {
+            Segment segment;
+            boolean isActive;
+            synchronized (this) {
+                segment = segments.get(readSegment);
+                if (segment == null) {
+                    Long next = segments.higherKey(readSegment);
+                    if (next == null) {
+                        break;
+                    }
+                    readSegment = next;
+                    readPosition = 0;
+                    continue;
+                }
+                isActive = segment == active;
+            }
+            byte[] payload;
+            try {
+                payload = segment.read(readPosition);
+            } catch (CorruptFrameException e) {
+                corruptCount.incrementAndGet();
+                LOG.error("Skipping {} byte(s) of corrupt data in spill log segment {} at {}",
+                        e.nextPosition - readPosition, segment.path, readPosition);
+                readPosition = e.nextPosition;
+                continue;
+            }
+            if (payload == null) {
+                Long next;
+                synchronized (this) {
+                    next = segments.higherKey(readSegment);
+                }
+                if (isActive || next == null) {
+                    break;
+                }
+                readSegment = next;
+                readPosition = 0;
+                continue;
+            }
+            records.add(payload);
+            readPosition += HEADER_BYTES + payload.length;
+        }
+        return records;
+    }
+
+    public void commit() {
+        checkpointSegment = readSegment;
+        checkpointPosition = readPosition;
+        synchronized (this) {
+            Map<Long, Segment> consumed = segments.headMap(checkpointSegment);
+            for (Segment segment : new ArrayList<>(consumed.values())) {
+                segments.remove(segment.id);
+                segment.delete();
+            }
+        }
+        writeCheckpoint();
+    }
+
+    public void rewind() {
+        readSegment = checkpointSegment;
+        readPosition = checkpointPosition;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getCorruptCount() {
+        return corruptCount.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.values().forEach(Segment::close);
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .forEach(path -> {
+                        Segment segment = Segment.open(path, segmentId(path), segmentBytes);
+                        segments.put(segment.id, segment);
+                    });
+        }
+        if (segments.isEmpty()) {
+            active = Segment.create(segmentPath(0), 0, segmentBytes);
+            segments.put(active.id, active);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpoint)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+            checkpointSegment = buffer.getLong();
+            checkpointPosition = buffer.getInt();
+        }
+        if (!segments.containsKey(checkpointSegment)) {
+            checkpointSegment = segments.firstKey();
+            checkpointPosition = 0;
+        }
+        // data after a torn frame was cut off, later appends must not be read from the middle of a frame
+        checkpointPosition = Math.min(checkpointPosition, segments.get(checkpointSegment).writePosition);
+        rewind();
+        LOG.info("Opened spill log in {} with {} segment(s)", directory, segments.size());
+    }
+
+    private void writeCheckpoint() {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        buffer.putLong(checkpointSegment).putInt(checkpointPosition);
+        try {
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.write(temp, buffer.array());
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not write spill log checkpoint, records may be replayed again after a restart", e);
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+
+        private final long id;
+
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private final CRC32 crc = new CRC32();
+
+        private volatile int writePosition;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long id, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        }
+
+        static Segment open(Path path, long id, int segmentBytes) {
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                long size = Math.max(channel.size(), segmentBytes);
+                Segment segment = new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+                segment.writePosition = segment.scanEnd();
+                return segment;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open spill log segment " + path, e);
+            }
+        }
+
+        boolean hasRoom(int frameBytes) {
+            return writePosition + frameBytes <= buffer.capacity();
+        }
+
+        /**
+         * The length is written last and the write position published after it, so readers never see a
+         * partial frame.
+         */
+        void append(byte[] payload) {
+            int position = writePosition;
+            crc.reset();
+            crc.update(payload, 0, payload.length);
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putInt(position, payload.length);
+            writePosition = position + HEADER_BYTES + payload.length;
+        }
+
+        /**
+         * @return the record at the position, or null at the end of the written data
+         * @throws CorruptFrameException if the frame fails its checksum; with a broken length the rest of the
+         * written data is skipped, as the next frame cannot be found
+         */
+        byte[] read(int position) {
+            int end = writePosition;
+            if (position + HEADER_BYTES > end) {
+                return null;
+            }
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > end) {
+                throw new CorruptFrameException(end);
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32 readCrc = new CRC32();
+            readCrc.update(payload, 0, length);
+            if ((int) readCrc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                throw new CorruptFrameException(position + HEADER_BYTES + length);
+            }
+            return payload;
+        }
+
+        void seal() {
+            buffer.force();
+        }
+
+        void close() {
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close spill log segment {}", path, e);
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOG.warn("Could not delete spill log segment {}", path, e);
+            }
+        }
+
+        /**
+         * Finds the end of the valid data after a restart; a torn or corrupt frame ends the segment.
+         */
+        private int scanEnd() {
+            int position = 0;
+            CRC32 scanCrc = new CRC32();
+            while (position + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+                scanCrc.reset();
+                scanCrc.update(payload, 0, length);
+                if ((int) scanCrc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                    break;
+                }
+                position += HEADER_BYTES + length;
+            }
+            return position;
+        }
+    }
+
+    private static final class CorruptFrameException extends RuntimeException {
+
+        private final int nextPosition;
+
+        private CorruptFrameException(int nextPosition) {
+            super(null, null, false, false);
+            this.nextPosition = nextPosition;
+        }
+    }
+}
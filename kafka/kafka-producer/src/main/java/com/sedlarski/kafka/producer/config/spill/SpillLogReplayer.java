@@ -0,0 +1,147 @@
+package com.sedlarski.kafka.producer.config.spill;
+
+import com.sedlarski.eventdriven.config.SpillLogConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the spill log back to Kafka in the order the records were spilled. A batch is committed only after
+ * every record in it was acknowledged or dropped; after a retriable failure the log is rewound and the same batch
+ * is tried again on the next run, so records are delivered at least once. Records that fail non-retriably, e.g.
+ * because they are too large, would block the log forever and are dropped with an error log instead.
+ */
+@Component
+@ConditionalOnProperty(name = "spill-log-config.enabled", havingValue = "true")
+public class SpillLogReplayer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillLogReplayer.class);
+
+    private final TweetSpillLog tweetSpillLog;
+
+    private final TwitterKafkaProducer twitterKafkaProducer;
+
+    private final SpillLogConfigData spillLogConfigData;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public SpillLogReplayer(TweetSpillLog tweetSpillLog, TwitterKafkaProducer twitterKafkaProducer,
+                            SpillLogConfigData spillLogConfigData) {
+        this.tweetSpillLog = tweetSpillLog;
+        this.twitterKafkaProducer = twitterKafkaProducer;
+        this.spillLogConfigData = spillLogConfigData;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("spill-log-replay-"));
+        long interval = spillLogConfigData.getReplayIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::replaySafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    void replaySafely() {
+        try {
+            replay();
+        } catch (InterruptedException e) {
+            tweetSpillLog.rewind();
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            tweetSpillLog.rewind();
+            LOG.warn("Could not replay spill log", e);
+        }
+    }
+
+    private void replay() throws Exception {
+        long replayed = 0;
+        List<SpilledRecord> batch;
+        while (!(batch = tweetSpillLog.readBatch(spillLogConfigData.getReplayBatchSize())).isEmpty()) {
+            if (!sendInOrder(batch)) {
+                tweetSpillLog.rewind();
+                LOG.warn("Replaying spill log failed after {} message(s), retrying in {} ms", replayed,
+                        spillLogConfigData.getReplayIntervalMs());
+                return;
+            }
+            tweetSpillLog.commit();
+            replayed += batch.size();
+        }
+        if (replayed > 0) {
+            LOG.info("Replayed {} message(s) from the spill log", replayed);
+        }
+    }
+
+    /**
+     * Consecutive records for the same topic go out as one batch; batches are sent one after the other.
+     */
+    private boolean sendInOrder(List<SpilledRecord> batch) throws Exception {
+        int start = 0;
+        while (start < batch.size()) {
+            String topicName = batch.get(start).getTopicName();
+            List<Pair<Long, TwitterAvroModel>> messages = new ArrayList<>();
+            int end = start;
+            while (end < batch.size() && batch.get(end).getTopicName().equals(topicName)) {
+                SpilledRecord record = batch.get(end++);
+                messages.add(Pair.of(record.getKey(), record.getValue()));
+            }
+            BatchSendResult result = send(topicName, messages);
+            if (result.hasFailures() &&
+                    (TweetSpillLog.isRetriable(result.getFirstError()) || !sendOneByOne(topicName, messages))) {
+                return false;
+            }
+            start = end;
+        }
+        return true;
+    }
+
+    /**
+     * After a non-retriable failure the batch is sent again record by record to find the records that cannot be
+     * delivered; the others of the batch may be delivered twice.
+     */
+    private boolean sendOneByOne(String topicName, List<Pair<Long, TwitterAvroModel>> messages) throws Exception {
+        for (Pair<Long, TwitterAvroModel> message : messages) {
+            BatchSendResult result = send(topicName, List.of(message));
+            if (result.hasFailures()) {
+                if (TweetSpillLog.isRetriable(result.getFirstError())) {
+                    return false;
+                }
+                LOG.error("Dropping spilled message {} for topic {} after a non-retriable failure, {} dropped so far",
+                        message.getValue().getId(), topicName, droppedCount.incrementAndGet(),
+                        result.getFirstError());
+            }
+        }
+        return true;
+    }
+
+    private BatchSendResult send(String topicName, List<Pair<Long, TwitterAvroModel>> messages) throws Exception {
+        CompletableFuture<BatchSendResult> future = twitterKafkaProducer.resendBatch(topicName, messages);
+        return future.get(spillLogConfigData.getReplayTimeoutMs(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sedlarski.kafka.producer.config.spill;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+
+public final class SpilledRecord {
+
+    private final String topicName;
+
+    private final Long key;
+
+    private final TwitterAvroModel value;
+
+    SpilledRecord(String topicName, Long key, TwitterAvroModel value) {
+        this.topicName = topicName;
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public Long getKey() {
+        return key;
+    }
+
+    public TwitterAvroModel getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,154 @@
+package com.sedlarski.kafka.producer.config.spill;
+
+import com.sedlarski.eventdriven.config.SpillLogConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spill log for tweets that could not be handed to Kafka. A record is stored as the topic name, the key and
+ * the tweet in Avro binary encoding, so it can be replayed without the schema registry. Only records that failed
+ * with a {@link RetriableException} belong here, anything else fails again on every replay.
+ */
+@Component
+@ConditionalOnProperty(name = "spill-log-config.enabled", havingValue = "true")
+public class TweetSpillLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TweetSpillLog.class);
+
+    private final SpillLog spillLog;
+
+    private final SpecificDatumWriter<TwitterAvroModel> datumWriter = new SpecificDatumWriter<>(TwitterAvroModel.class);
+
+    private final SpecificDatumReader<TwitterAvroModel> datumReader = new SpecificDatumReader<>(TwitterAvroModel.class);
+
+    private final AtomicLong undecodableCount = new AtomicLong();
+
+    private BinaryDecoder decoder;
+
+    public TweetSpillLog(SpillLogConfigData spillLogConfigData) {
+        this.spillLog = SpillLog.open(Paths.get(spillLogConfigData.getDirectory()),
+                spillLogConfigData.getSegmentSizeBytes(), spillLogConfigData.getMaxSegments());
+    }
+
+    /**
+     * Whether a send failure is worth spilling. Spring wraps the producer's exception, so the causes are checked
+     * too.
+     */
+    public static boolean isRetriable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if the spill log is full and the record was not stored
+     */
+    public boolean spill(String topicName, Long key, TwitterAvroModel message) {
+        boolean appended = spillLog.append(encode(topicName, key, message));
+        if (!appended) {
+            LOG.error("Spill log is full, dropping message {} for topic {}", message.getId(), topicName);
+        }
+        return appended;
+    }
+
+    /**
+     * Only to be called from the replay thread. Records that cannot be decoded are skipped and counted, they are
+     * committed past with the rest of the batch.
+     */
+    public List<SpilledRecord> readBatch(int maxRecords) {
+        List<byte[]> payloads = spillLog.read(maxRecords);
+        List<SpilledRecord> records = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            try {
+                records.add(decode(payload));
+            } catch (RuntimeException e) {
+                LOG.error("Skipping undecodable spill log record of {} byte(s), {} skipped so far", payload.length,
+                        undecodableCount.incrementAndGet(), e);
+            }
+        }
+        return records;
+    }
+
+    public void commit() {
+        spillLog.commit();
+    }
+
+    public void rewind() {
+        spillLog.rewind();
+    }
+
+    public int getSegmentCount() {
+        return spillLog.getSegmentCount();
+    }
+
+    /**
+     * Records lost to a failed checksum or a failed decode.
+     */
+    public long getCorruptCount() {
+        return spillLog.getCorruptCount() + undecodableCount.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        LOG.info("Closing spill log, {} message(s) were rejected while it was full, {} corrupt record(s) skipped",
+                spillLog.getRejectedCount(), getCorruptCount());
+        spillLog.close();
+    }
+
+    private byte[] encode(String topicName, Long key, TwitterAvroModel message) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256);
+        try {
+            DataOutputStream dataOutput = new DataOutputStream(outputStream);
+            dataOutput.writeUTF(topicName);
+            dataOutput.writeBoolean(key != null);
+            dataOutput.writeLong(key == null ? 0L : key);
+            dataOutput.flush();
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(outputStream, null);
+            datumWriter.write(message, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode message " + message.getId() + " for the spill log", e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private SpilledRecord decode(byte[] payload) {
+        try {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(payload);
+            DataInputStream dataInput = new DataInputStream(inputStream);
+            String topicName = dataInput.readUTF();
+            boolean hasKey = dataInput.readBoolean();
+            long key = dataInput.readLong();
+            int offset = payload.length - inputStream.available();
+            decoder = DecoderFactory.get().binaryDecoder(payload, offset, payload.length - offset, decoder);
+            return new SpilledRecord(topicName, hasKey ? key : null, datumReader.read(null, decoder));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode spill log record", e);
+        }
+    }
+}
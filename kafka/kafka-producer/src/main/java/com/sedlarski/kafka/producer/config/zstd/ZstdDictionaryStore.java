@@ -0,0 +1,79 @@
+package com.sedlarski.kafka.producer.config.zstd;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Directory of trained dictionaries. Every dictionary is kept as {@code dictionary-<id>.zdict} so records
+ * compressed with an older one stay readable, and {@code current.zdict} is the one new records are compressed
+ * with.
+ */
+public final class ZstdDictionaryStore {
+
+    private static final String CURRENT = "current.zdict";
+
+    private static final String PREFIX = "dictionary-";
+
+    private static final String SUFFIX = ".zdict";
+
+    private ZstdDictionaryStore() {
+    }
+
+    /**
+     * @return empty when no dictionary was trained into the directory yet
+     */
+    public static Optional<byte[]> findCurrent(Path directory) {
+        Path current = directory.resolve(CURRENT);
+        return Files.exists(current) ? Optional.of(read(current)) : Optional.empty();
+    }
+
+    public static Map<Long, ZstdDictDecompress> loadAll(Path directory) {
+        Map<Long, ZstdDictDecompress> dictionaries = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return dictionaries;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(path -> {
+                        byte[] dictionary = read(path);
+                        dictionaries.put(Zstd.getDictIdFromDict(dictionary), new ZstdDictDecompress(dictionary));
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list zstd dictionaries in " + directory, e);
+        }
+        return dictionaries;
+    }
+
+    /**
+     * Stores the dictionary under its id and makes it the current one.
+     */
+    public static Path save(Path directory, byte[] dictionary) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(PREFIX + Zstd.getDictIdFromDict(dictionary) + SUFFIX);
+        Files.write(path, dictionary);
+        Path temp = directory.resolve(CURRENT + ".tmp");
+        Files.write(temp, dictionary);
+        Files.move(temp, directory.resolve(CURRENT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        return path;
+    }
+
+    private static byte[] read(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read zstd dictionary " + path, e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.sedlarski.kafka.producer.config.zstd;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Trains a zstd dictionary from record values sampled off a topic and stores it as the current dictionary,
+ * see the train-zstd-dictionary profile of this module. Values that are already dictionary compressed are
+ * decompressed first, so the tool also refreshes a dictionary from live traffic.
+ * <p>
+ * Usage: {@code ZstdDictionaryTrainer <bootstrap-servers> <topic> <dictionary-directory> [samples] [dictionary-bytes]}
+ */
+public final class ZstdDictionaryTrainer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ZstdDictionaryTrainer.class);
+
+    private static final int DEFAULT_SAMPLES = 20_000;
+
+    private static final int DEFAULT_DICTIONARY_BYTES = 16 * 1024;
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final int ZSTD_MAGIC = 0xFD2FB528;
+
+    private ZstdDictionaryTrainer() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: ZstdDictionaryTrainer <bootstrap-servers> <topic> " +
+                    "<dictionary-directory> [samples] [dictionary-bytes]");
+        }
+        Path directory = Path.of(args[2]);
+        int samples = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_SAMPLES;
+        int dictionaryBytes = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_DICTIONARY_BYTES;
+        Map<Long, ZstdDictDecompress> existing = ZstdDictionaryStore.loadAll(directory);
+        List<byte[]> values = sample(args[0], args[1], samples, existing);
+        LOG.info("Sampled {} value(s) from {}", values.size(), args[1]);
+        byte[] dictionary = train(values, dictionaryBytes);
+        Path path = ZstdDictionaryStore.save(directory, dictionary);
+        LOG.info("Stored dictionary {} ({} bytes) as {}", Zstd.getDictIdFromDict(dictionary), dictionary.length,
+                path);
+    }
+
+    public static byte[] train(List<byte[]> samples, int dictionaryBytes) {
+        long sampleBytes = samples.stream().mapToLong(sample -> sample.length).sum();
+        ZstdDictTrainer trainer = new ZstdDictTrainer((int) Math.min(Integer.MAX_VALUE, sampleBytes), dictionaryBytes);
+        samples.forEach(trainer::addSample);
+        return trainer.trainSamples();
+    }
+
+    /**
+     * Reads the latest values of every partition, at most {@code samples} in total.
+     */
+    private static List<byte[]> sample(String bootstrapServers, String topic, int samples,
+                                       Map<Long, ZstdDictDecompress> existing) {
+        Map<String, Object> config = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        List<byte[]> values = new ArrayList<>(samples);
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(config, new ByteArrayDeserializer(),
+                new ByteArrayDeserializer())) {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .collect(Collectors.toList());
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            long perPartition = Math.max(1, samples / partitions.size());
+            partitions.forEach(partition -> consumer.seek(partition,
+                    Math.max(0, endOffsets.get(partition) - perPartition)));
+            while (values.size() < samples) {
+                int before = values.size();
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.value() != null && values.size() < samples) {
+                        values.add(decompress(record.value(), existing));
+                    }
+                }
+                if (values.size() == before) {
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return the value itself when it was sent without dictionary compression
+     */
+    private static byte[] decompress(byte[] value, Map<Long, ZstdDictDecompress> existing) {
+        if (value.length < 4 || ((value[0] & 0xFF) | (value[1] & 0xFF) << 8 | (value[2] & 0xFF) << 16
+                | (value[3] & 0xFF) << 24) != ZSTD_MAGIC) {
+            return value;
+        }
+        long dictionaryId = Zstd.getDictIdFromFrame(value);
+        ZstdDictDecompress dictionary = existing.get(dictionaryId);
+        long size = Zstd.decompressedSize(value);
+        if (dictionary == null || size <= 0 || size > Integer.MAX_VALUE) {
+            throw new SerializationException("Cannot decompress a sampled value of dictionary " + dictionaryId);
+        }
+        return Zstd.decompress(value, dictionary, (int) size);
+    }
+}
@@ -0,0 +1,109 @@
+package com.sedlarski.kafka.producer.config.adaptive;
+
+import com.sedlarski.eventdriven.config.AdaptiveProducerConfigData;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveProducerControllerTest {
+
+    @Test
+    public void stepsDownAtOnceAboveTheSlo() {
+        MeasuredProducerFactory factory = new MeasuredProducerFactory(2);
+        AdaptiveProducerController controller = controller(factory);
+
+        factory.measure(60, 50);
+        controller.evaluate();
+        assertEquals(1, factory.getActiveProfile());
+        controller.evaluate();
+        assertEquals(0, factory.getActiveProfile());
+        controller.evaluate();
+        assertEquals(0, factory.getActiveProfile());
+    }
+
+    @Test
+    public void stepsUpAfterStableIntervalsWithHeadroom() {
+        MeasuredProducerFactory factory = new MeasuredProducerFactory(1);
+        AdaptiveProducerController controller = controller(factory);
+
+        factory.measure(20, 10);
+        evaluate(controller, 3);
+        assertEquals(1, factory.getActiveProfile());
+        controller.evaluate();
+        assertEquals(2, factory.getActiveProfile());
+        evaluate(controller, 4);
+        assertEquals(2, factory.getActiveProfile());
+    }
+
+    @Test
+    public void startsCountingAgainWhenTheHeadroomIsGone() {
+        MeasuredProducerFactory factory = new MeasuredProducerFactory(0);
+        AdaptiveProducerController controller = controller(factory);
+
+        factory.measure(20, 10);
+        evaluate(controller, 3);
+        factory.measure(40, 30);
+        controller.evaluate();
+        factory.measure(20, 10);
+        evaluate(controller, 3);
+        assertEquals(0, factory.getActiveProfile());
+        controller.evaluate();
+        assertEquals(1, factory.getActiveProfile());
+    }
+
+    @Test
+    public void keepsTheProfileUntilTheProducerReportsLatency() {
+        MeasuredProducerFactory factory = new MeasuredProducerFactory(1);
+        AdaptiveProducerController controller = controller(factory);
+
+        factory.measure(Double.NaN, 500);
+        evaluate(controller, 5);
+
+        assertEquals(1, factory.getActiveProfile());
+    }
+
+    private static AdaptiveProducerController controller(MeasuredProducerFactory factory) {
+        AdaptiveProducerConfigData config = new AdaptiveProducerConfigData();
+        config.setLatencySloMs(100L);
+        config.setHeadroomRatio(0.5);
+        config.setStableIntervals(4);
+        return new AdaptiveProducerController(factory, config);
+    }
+
+    private static void evaluate(AdaptiveProducerController controller, int times) {
+        for (int i = 0; i < times; i++) {
+            controller.evaluate();
+        }
+    }
+
+    private static final class MeasuredProducerFactory extends AdaptiveProducerFactory<Long, String> {
+
+        private volatile Map<MetricName, Metric> metrics = Map.of();
+
+        private MeasuredProducerFactory(int initialProfile) {
+            super(AdaptiveProducerFactoryTest.profiles(), initialProfile,
+                    profile -> new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        private void measure(double queueTimeMs, double requestLatencyMs) {
+            metrics = Map.of(metricName("record-queue-time-avg"),
+                    AdaptiveProducerFactoryTest.metric(metricName("record-queue-time-avg"), queueTimeMs),
+                    metricName("request-latency-avg"),
+                    AdaptiveProducerFactoryTest.metric(metricName("request-latency-avg"), requestLatencyMs));
+        }
+
+        @Override
+        public Map<MetricName, ? extends Metric> activeMetrics() {
+            return metrics;
+        }
+
+        private static MetricName metricName(String name) {
+            return new MetricName(name, "producer-metrics", "", Map.of());
+        }
+    }
+}
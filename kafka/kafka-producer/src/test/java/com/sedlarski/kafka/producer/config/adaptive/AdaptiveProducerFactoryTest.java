@@ -0,0 +1,122 @@
+package com.sedlarski.kafka.producer.config.adaptive;
+
+import com.sedlarski.eventdriven.config.AdaptiveProducerConfigData.ProducerProfile;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveProducerFactoryTest {
+
+    private final List<MockProducer<Long, String>> created = new CopyOnWriteArrayList<>();
+
+    private final AdaptiveProducerFactory<Long, String> factory = new AdaptiveProducerFactory<>(profiles(), 0,
+            profile -> new DefaultKafkaProducerFactory<>(Map.of()) {
+                @Override
+                protected Producer<Long, String> createKafkaProducer() {
+                    MockProducer<Long, String> producer = new MockProducer<>(true, new LongSerializer(),
+                            new StringSerializer());
+                    created.add(producer);
+                    return producer;
+                }
+            });
+
+    @AfterEach
+    public void destroy() {
+        factory.destroy();
+    }
+
+    @Test
+    public void readsMetricsWithoutBorrowingAProducer() {
+        assertTrue(factory.activeMetrics().isEmpty());
+        assertTrue(created.isEmpty());
+
+        factory.createProducer().close();
+        MetricName metricName = new MetricName("record-queue-time-avg", "producer-metrics", "", Map.of());
+        created.get(0).setMockMetrics(metricName, metric(metricName, 1.0));
+
+        assertEquals(1, factory.activeMetrics().size());
+        assertEquals(1, created.size());
+    }
+
+    @Test
+    public void switchesAtOnceAndClosesTheOldProducerAfterItsLastBorrower() throws InterruptedException {
+        Producer<Long, String> borrowed = factory.createProducer();
+
+        factory.switchTo(1);
+        assertEquals(1, factory.getActiveProfile());
+        factory.createProducer().close();
+        assertEquals(2, created.size());
+        assertFalse(created.get(0).closed());
+
+        borrowed.close();
+        awaitClosed(created.get(0));
+        assertFalse(created.get(1).closed());
+    }
+
+    @Test
+    public void keepsTheProducerOfAProfileSwitchedBackToBeforeItDrained() throws InterruptedException {
+        Producer<Long, String> borrowed = factory.createProducer();
+
+        factory.switchTo(1);
+        factory.switchTo(0);
+        borrowed.close();
+        Thread.sleep(200);
+
+        factory.createProducer().close();
+        assertEquals(1, created.size());
+        assertFalse(created.get(0).closed());
+    }
+
+    private static void awaitClosed(MockProducer<Long, String> producer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!producer.closed() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(producer.closed());
+    }
+
+    static List<ProducerProfile> profiles() {
+        List<ProducerProfile> profiles = new ArrayList<>();
+        for (String name : List.of("low-latency", "balanced", "throughput")) {
+            ProducerProfile profile = new ProducerProfile();
+            profile.setName(name);
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    static Metric metric(MetricName metricName, double value) {
+        return new Metric() {
+            @Override
+            public MetricName metricName() {
+                return metricName;
+            }
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public double value() {
+                return value;
+            }
+
+            @Override
+            public Object metricValue() {
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.sedlarski.kafka.producer.config.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProducerMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ProducerMetrics producerMetrics = new ProducerMetrics(meterRegistry);
+
+    @Test
+    public void countsRecordsInFlightUntilTheyAreAckedOrFailed() {
+        producerMetrics.recordSent("twitter-topic", 3);
+        producerMetrics.recordSent("java-topic", 1);
+        assertEquals(4, producerMetrics.getInFlight());
+
+        producerMetrics.recordAck("twitter-topic", 0, System.nanoTime(), null);
+        producerMetrics.recordFailure("twitter-topic");
+        producerMetrics.recordFailure("java-topic");
+
+        assertEquals(1, producerMetrics.getInFlight());
+        assertEquals(1.0, meterRegistry.get("twitter.producer.in.flight").gauge().value(), 1e-9);
+        assertEquals(3.0, meterRegistry.get("twitter.producer.sent").tag("topic", "twitter-topic").counter().count(),
+                1e-9);
+        assertEquals(1.0, meterRegistry.get("twitter.producer.sent").tag("topic", "java-topic").counter().count(),
+                1e-9);
+        assertEquals(1.0, meterRegistry.get("twitter.producer.failed").tag("topic", "twitter-topic").counter()
+                .count(), 1e-9);
+        assertEquals(1.0, meterRegistry.get("twitter.producer.failed").tag("topic", "java-topic").counter()
+                .count(), 1e-9);
+    }
+
+    @Test
+    public void timesAcksPerPartition() {
+        producerMetrics.recordSent("twitter-topic", 3);
+
+        producerMetrics.recordAck("twitter-topic", 0, System.nanoTime(), System.currentTimeMillis() - 1000);
+        producerMetrics.recordAck("twitter-topic", 0, System.nanoTime(), null);
+        producerMetrics.recordAck("twitter-topic", 1, System.nanoTime(), System.currentTimeMillis());
+
+        assertEquals(2, ackTimerCount("twitter.producer.ack.latency", 0));
+        assertEquals(1, ackTimerCount("twitter.producer.ack.latency", 1));
+        assertEquals(1, ackTimerCount("twitter.producer.created.to.ack.latency", 0));
+        assertEquals(1, ackTimerCount("twitter.producer.created.to.ack.latency", 1));
+        assertEquals(0, producerMetrics.getInFlight());
+    }
+
+    @Test
+    public void completesFirstAckOnTheFirstAckOnly() {
+        producerMetrics.recordSent("twitter-topic", 2);
+        producerMetrics.recordFailure("twitter-topic");
+        assertFalse(producerMetrics.firstAck().isDone());
+
+        producerMetrics.recordAck("twitter-topic", 0, System.nanoTime(), null);
+        assertTrue(producerMetrics.firstAck().isDone());
+    }
+
+    private long ackTimerCount(String name, int partition) {
+        return meterRegistry.get(name).tag("topic", "twitter-topic").tag("partition", String.valueOf(partition))
+                .timer().count();
+    }
+}
@@ -0,0 +1,69 @@
+package com.sedlarski.kafka.producer.config.partitioner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void neverUndercountsAndRarelyOvercountsByMoreThanTheBound() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        Random random = new Random(42);
+        long[] hashes = new long[5000];
+        long[] counts = new long[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            counts[i] = 1 + random.nextInt(i % 100 == 0 ? 500 : 5);
+            for (int n = 0; n < counts[i]; n++) {
+                sketch.add(hashes[i]);
+            }
+        }
+
+        // with width w and depth d an estimate is off by more than e * total / w with probability e^-d, about 2%
+        double bound = Math.E * sketch.getTotal() / 1024;
+        int overBound = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            long estimate = sketch.estimate(hashes[i]);
+            assertTrue(estimate >= counts[i]);
+            if (estimate - counts[i] > bound) {
+                overBound++;
+            }
+        }
+        assertTrue(overBound <= hashes.length / 50, overBound + " estimates over the bound");
+    }
+
+    @Test
+    public void addReturnsTheEstimateIncludingTheNewOccurrence() {
+        CountMinSketch sketch = new CountMinSketch(64, 2);
+
+        assertEquals(1, sketch.add(7L));
+        assertEquals(2, sketch.add(7L));
+        assertEquals(2, sketch.estimate(7L));
+        assertEquals(2, sketch.getTotal());
+    }
+
+    @Test
+    public void decayHalvesEveryCount() {
+        CountMinSketch sketch = new CountMinSketch(1000, 3);
+        for (int i = 0; i < 9; i++) {
+            sketch.add(1L);
+        }
+        sketch.add(2L);
+
+        sketch.decay();
+        assertEquals(4, sketch.estimate(1L));
+        assertEquals(0, sketch.estimate(2L));
+        assertEquals(5, sketch.getTotal());
+    }
+
+    @Test
+    public void rejectsEmptySketches() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(16, 0));
+    }
+}
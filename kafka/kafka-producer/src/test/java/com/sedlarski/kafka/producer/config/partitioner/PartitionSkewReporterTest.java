@@ -0,0 +1,42 @@
+package com.sedlarski.kafka.producer.config.partitioner;
+
+import com.sedlarski.eventdriven.config.SkewPartitionerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PartitionSkewReporterTest {
+
+    private static final String SKEW = "twitter.producer.partition.skew";
+
+    @Test
+    public void reportsTheSkewOfTheLastWindowOnly() {
+        SkewPartitionerConfigData config = SkewAwarePartitionerTest.config(false);
+        PartitionSkewTracker tracker = new PartitionSkewTracker(config);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PartitionSkewReporter reporter = new PartitionSkewReporter(tracker, config, meterRegistry);
+
+        tracker.recordBytes("twitter-topic", 0, 4, 700);
+        tracker.recordBytes("twitter-topic", 1, 4, 100);
+        tracker.recordBytes("twitter-topic", 2, 4, 100);
+        tracker.recordBytes("twitter-topic", 3, 4, 100);
+        reporter.report();
+        assertEquals(2.8, meterRegistry.get(SKEW).tag("topic", "twitter-topic").gauge().value(), 1e-9);
+
+        tracker.recordBytes("twitter-topic", 2, 4, 100);
+        tracker.recordBytes("twitter-topic", 3, 4, 100);
+        reporter.report();
+        assertEquals(2.0, meterRegistry.get(SKEW).tag("topic", "twitter-topic").gauge().value(), 1e-9);
+
+        reporter.report();
+        assertEquals(1.0, meterRegistry.get(SKEW).tag("topic", "twitter-topic").gauge().value(), 1e-9);
+    }
+
+    @Test
+    public void skewIsTheBusiestPartitionOverTheMean() {
+        assertEquals(1.0, PartitionSkewTracker.skew(new long[]{5, 5, 5, 5}), 1e-9);
+        assertEquals(4.0, PartitionSkewTracker.skew(new long[]{8, 0, 0, 0}), 1e-9);
+        assertEquals(1.0, PartitionSkewTracker.skew(new long[]{0, 0}), 1e-9);
+    }
+}
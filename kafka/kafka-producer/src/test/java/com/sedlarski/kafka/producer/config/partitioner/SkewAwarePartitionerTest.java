@@ -0,0 +1,140 @@
+package com.sedlarski.kafka.producer.config.partitioner;
+
+import com.sedlarski.eventdriven.config.SkewPartitionerConfigData;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SkewAwarePartitionerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final int PARTITIONS = 12;
+
+    private static final long HOT_KEY = 42L;
+
+    private final LongSerializer keySerializer = new LongSerializer();
+
+    private final Cluster cluster = cluster();
+
+    @Test
+    public void keepsTheDefaultPartitionForNormalKeys() {
+        PartitionSkewTracker tracker = new PartitionSkewTracker(config(true));
+        SkewAwarePartitioner partitioner = partitioner(tracker);
+
+        for (long key = 0; key < 1000; key++) {
+            byte[] keyBytes = keySerializer.serialize(TOPIC, key);
+            assertEquals(Utils.toPositive(Utils.murmur2(keyBytes)) % PARTITIONS, partition(partitioner, key));
+        }
+        assertTrue(tracker.getHeavyHitters().isEmpty());
+    }
+
+    @Test
+    public void detectsHotKeysAndKeepsTheirPartitionWithoutSalting() {
+        PartitionSkewTracker tracker = new PartitionSkewTracker(config(false));
+        SkewAwarePartitioner partitioner = partitioner(tracker);
+        int home = Utils.toPositive(Utils.murmur2(keySerializer.serialize(TOPIC, HOT_KEY))) % PARTITIONS;
+
+        for (long key = 0; key < 1000; key++) {
+            partition(partitioner, key + 1000);
+            assertEquals(home, partition(partitioner, HOT_KEY));
+        }
+
+        Map<String, Long> heavyHitters = tracker.getHeavyHitters();
+        assertEquals(Set.of(Long.toString(HOT_KEY)), heavyHitters.keySet());
+        assertTrue(heavyHitters.get(Long.toString(HOT_KEY)) >= 1000);
+    }
+
+    @Test
+    public void spreadsHotKeysOverTheFollowingPartitionsWithSalting() {
+        PartitionSkewTracker tracker = new PartitionSkewTracker(config(true));
+        SkewAwarePartitioner partitioner = partitioner(tracker);
+        int home = Utils.toPositive(Utils.murmur2(keySerializer.serialize(TOPIC, HOT_KEY))) % PARTITIONS;
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            used.add(partition(partitioner, HOT_KEY));
+        }
+
+        Set<Integer> allowed = new HashSet<>();
+        for (int salt = 0; salt < 4; salt++) {
+            allowed.add((home + salt) % PARTITIONS);
+        }
+        assertTrue(allowed.containsAll(used), used + " outside of " + allowed);
+        assertTrue(used.size() > 1);
+    }
+
+    @Test
+    public void forgetsHeavyHittersAfterDecay() {
+        PartitionSkewTracker tracker = new PartitionSkewTracker(config(false));
+        SkewAwarePartitioner partitioner = partitioner(tracker);
+        for (int i = 0; i < 150; i++) {
+            partition(partitioner, HOT_KEY);
+        }
+        assertFalse(tracker.getHeavyHitters().isEmpty());
+
+        tracker.decay();
+        assertTrue(tracker.getHeavyHitters().isEmpty());
+        partition(partitioner, HOT_KEY);
+        assertTrue(tracker.getHeavyHitters().isEmpty());
+    }
+
+    @Test
+    public void countsKeyAndValueBytesPerPartition() {
+        PartitionSkewTracker tracker = new PartitionSkewTracker(config(false));
+        SkewAwarePartitioner partitioner = partitioner(tracker);
+        byte[] keyBytes = keySerializer.serialize(TOPIC, 7L);
+
+        int partition = partitioner.partition(TOPIC, 7L, keyBytes, "v", new byte[100], cluster);
+        int keyless = partitioner.partition(TOPIC, null, null, "v", new byte[10], cluster);
+
+        long[] bytes = tracker.drainPartitionBytes().get(TOPIC);
+        assertEquals(PARTITIONS, bytes.length);
+        assertEquals(partition == keyless ? 118 : 108, bytes[partition]);
+        assertEquals(partition == keyless ? 118 : 10, bytes[keyless]);
+        assertEquals(0, tracker.drainPartitionBytes().get(TOPIC)[partition]);
+    }
+
+    private int partition(SkewAwarePartitioner partitioner, long key) {
+        return partitioner.partition(TOPIC, key, keySerializer.serialize(TOPIC, key), "v", new byte[1], cluster);
+    }
+
+    private static SkewAwarePartitioner partitioner(PartitionSkewTracker tracker) {
+        SkewAwarePartitioner partitioner = new SkewAwarePartitioner();
+        partitioner.configure(Map.of(SkewAwarePartitioner.TRACKER_CONFIG, tracker));
+        return partitioner;
+    }
+
+    static SkewPartitionerConfigData config(boolean saltingEnabled) {
+        SkewPartitionerConfigData skewPartitionerConfigData = new SkewPartitionerConfigData();
+        skewPartitionerConfigData.setEnabled(true);
+        skewPartitionerConfigData.setSaltingEnabled(saltingEnabled);
+        skewPartitionerConfigData.setSaltPartitions(4);
+        skewPartitionerConfigData.setHeavyHitterRatio(0.1);
+        skewPartitionerConfigData.setMinHeavyHitterCount(100L);
+        skewPartitionerConfigData.setDecayIntervalSeconds(3600L);
+        return skewPartitionerConfigData;
+    }
+
+    private static Cluster cluster() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions.add(new PartitionInfo(TOPIC, i, node, new Node[]{node}, new Node[]{node}));
+        }
+        return new Cluster("cluster", List.of(node), partitions, Set.of(), Set.of());
+    }
+}
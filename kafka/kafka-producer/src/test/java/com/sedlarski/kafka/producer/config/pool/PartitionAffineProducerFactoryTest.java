@@ -0,0 +1,49 @@
+package com.sedlarski.kafka.producer.config.pool;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PartitionAffineProducerFactoryTest {
+
+    @Test
+    public void sharesOnePoolUntilReset() {
+        PartitionAffineProducerFactory<Long, String> factory = new PartitionAffineProducerFactory<>(config(), null, 2);
+        try {
+            Producer<Long, String> producer = factory.createProducer();
+            assertSame(producer, factory.createProducer());
+
+            factory.reset();
+            assertNotSame(producer, factory.createProducer());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    public void rejectsAnEmptyOrTransactionalPool() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionAffineProducerFactory<>(config(), null, 0));
+
+        Map<String, Object> transactional = config();
+        transactional.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "twitter-to-kafka-tx-0");
+        assertThrows(IllegalArgumentException.class,
+                () -> new PartitionAffineProducerFactory<>(transactional, null, 2));
+    }
+
+    private static Map<String, Object> config() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, LongSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return config;
+    }
+}
@@ -0,0 +1,138 @@
+package com.sedlarski.kafka.producer.config.pool;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PartitionAffineProducerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final int PARTITIONS = 6;
+
+    private static final int MEMBERS = 3;
+
+    private final AtomicInteger keySerializations = new AtomicInteger();
+
+    private final PoolKeySerializer<Long> keySerializer = new PoolKeySerializer<>(new LongSerializer() {
+        @Override
+        public byte[] serialize(String topic, Long data) {
+            keySerializations.incrementAndGet();
+            return super.serialize(topic, data);
+        }
+    });
+
+    private final List<MockProducer<Long, String>> members = members();
+
+    private final PartitionAffineProducer<Long, String> producer = new PartitionAffineProducer<>(
+            new ArrayList<>(members), keySerializer, partitioner());
+
+    @Test
+    public void keepsEveryKeyOnTheMemberOfItsPartition() {
+        for (int round = 0; round < 2; round++) {
+            for (long key = 0; key < 100; key++) {
+                producer.send(new ProducerRecord<>(TOPIC, key, "tweet " + key));
+            }
+        }
+
+        Map<Long, Integer> memberOfKey = new HashMap<>();
+        for (int member = 0; member < MEMBERS; member++) {
+            for (ProducerRecord<Long, String> record : members.get(member).history()) {
+                int partition = Utils.toPositive(Utils.murmur2(new LongSerializer().serialize(TOPIC, record.key())))
+                        % PARTITIONS;
+                assertEquals(partition, (int) record.partition());
+                assertEquals(member, partition % MEMBERS);
+                assertEquals(member, (int) memberOfKey.computeIfAbsent(record.key(), key -> partition % MEMBERS));
+            }
+        }
+        assertEquals(100, memberOfKey.size());
+        assertEquals(200, members.stream().mapToInt(member -> member.history().size()).sum());
+    }
+
+    @Test
+    public void serializesEveryKeyOnce() {
+        for (long key = 0; key < 50; key++) {
+            producer.send(new ProducerRecord<>(TOPIC, key, "tweet " + key));
+        }
+
+        assertEquals(50, keySerializations.get());
+    }
+
+    @Test
+    public void sendsAnExplicitPartitionThroughItsMember() {
+        producer.send(new ProducerRecord<>(TOPIC, 4, 7L, "tweet"));
+
+        assertEquals(1, members.get(4 % MEMBERS).history().size());
+        assertEquals(4, (int) members.get(4 % MEMBERS).history().get(0).partition());
+        assertEquals(0, keySerializations.get());
+    }
+
+    @Test
+    public void spreadsKeylessRecordsRoundRobin() {
+        for (int i = 0; i < 2 * MEMBERS; i++) {
+            producer.send(new ProducerRecord<>(TOPIC, null, "tweet " + i));
+        }
+
+        for (MockProducer<Long, String> member : members) {
+            assertEquals(2, member.history().size());
+        }
+    }
+
+    @Test
+    public void runsTransactionsOnEveryMember() {
+        producer.initTransactions();
+        producer.beginTransaction();
+        producer.send(new ProducerRecord<>(TOPIC, 1L, "tweet"));
+        producer.commitTransaction();
+
+        for (MockProducer<Long, String> member : members) {
+            assertTrue(member.transactionCommitted());
+        }
+    }
+
+    @Test
+    public void leavesTheMembersOpenOnClose() {
+        producer.close();
+
+        members.forEach(member -> assertFalse(member.closed()));
+    }
+
+    private List<MockProducer<Long, String>> members() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            partitions.add(new PartitionInfo(TOPIC, partition, node, new Node[]{node}, new Node[]{node}));
+        }
+        Cluster cluster = new Cluster("cluster", List.of(node), partitions, Collections.emptySet(),
+                Collections.emptySet());
+        List<MockProducer<Long, String>> members = new ArrayList<>();
+        for (int member = 0; member < MEMBERS; member++) {
+            members.add(new MockProducer<>(cluster, true, partitioner(), keySerializer, new StringSerializer()));
+        }
+        return members;
+    }
+
+    private static DefaultPartitioner partitioner() {
+        DefaultPartitioner partitioner = new DefaultPartitioner();
+        partitioner.configure(Map.of());
+        return partitioner;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sedlarski.kafka.producer.config.schema;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingSchemaRegistryClientTest {
+
+    private static final String SUBJECT = "twitter-topic-value";
+
+    private static final Schema SCHEMA = TwitterAvroModel.getClassSchema();
+
+    /**
+     * Nothing listens here, so every registry call fails.
+     */
+    private static final String UNREACHABLE_URL = "http://localhost:1";
+
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    @TempDir
+    Path directory;
+
+    private HttpServer registry;
+
+    @AfterEach
+    public void tearDown() {
+        if (registry != null) {
+            registry.stop(0);
+        }
+    }
+
+    @Test
+    public void resolvesCachedIdsWithoutTheRegistry() throws Exception {
+        Path file = directory.resolve("schema-ids.tsv");
+        SchemaIdCache.load(file).put(SUBJECT, SCHEMA, 17);
+
+        CachingSchemaRegistryClient client = client(UNREACHABLE_URL, file);
+
+        assertTrue(client.isCached(SUBJECT, SCHEMA));
+        assertEquals(17, client.register(SUBJECT, SCHEMA));
+        assertEquals(17, client.getId(SUBJECT, SCHEMA));
+        assertEquals(SCHEMA, client.getById(17));
+        assertEquals(SCHEMA, client.getBySubjectAndId(SUBJECT, 17));
+    }
+
+    @Test
+    public void warmUpOnlyLogsWhenTheRegistryIsDown() {
+        CachingSchemaRegistryClient client = client(UNREACHABLE_URL, directory.resolve("schema-ids.tsv"));
+
+        client.warmUp(SUBJECT, SCHEMA);
+
+        assertFalse(client.isCached(SUBJECT, SCHEMA));
+    }
+
+    @Test
+    public void writesRegisteredIdsBackToTheCache() throws Exception {
+        startRegistry(17);
+        Path file = directory.resolve("schema-ids.tsv");
+        String url = "http://localhost:" + registry.getAddress().getPort();
+        CachingSchemaRegistryClient client = client(url, file);
+        assertFalse(client.isCached(SUBJECT, SCHEMA));
+
+        assertEquals(17, client.register(SUBJECT, SCHEMA));
+        assertEquals(17, client.register(SUBJECT, SCHEMA));
+        assertEquals(1, registrations.get());
+
+        assertEquals(17, SchemaIdCache.load(file).getId(SUBJECT, SCHEMA).intValue());
+        CachingSchemaRegistryClient restarted = client(url, file);
+        assertTrue(restarted.isCached(SUBJECT, SCHEMA));
+        assertEquals(17, restarted.register(SUBJECT, SCHEMA));
+        assertEquals(1, registrations.get());
+    }
+
+    private void startRegistry(int id) throws IOException {
+        registry = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        registry.createContext("/subjects/", exchange -> {
+            byte[] body = ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+            String path = exchange.getRequestURI().getPath();
+            if ("POST".equals(exchange.getRequestMethod()) && path.endsWith("/versions")) {
+                registrations.incrementAndGet();
+                exchange.getResponseHeaders().add("Content-Type", "application/vnd.schemaregistry.v1+json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        registry.start();
+    }
+
+    private static CachingSchemaRegistryClient client(String url, Path file) {
+        return new CachingSchemaRegistryClient(url, 10, Map.of(), SchemaIdCache.load(file));
+    }
+}
@@ -0,0 +1,124 @@
+package com.sedlarski.kafka.producer.config.schema;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaIdCacheTest {
+
+    private static final String SUBJECT = "twitter-topic-value";
+
+    private static final Schema SCHEMA = TwitterAvroModel.getClassSchema();
+
+    private static final Schema OTHER_SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Other\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void reloadsWhatItWrote() {
+        Path file = directory.resolve("schema-ids.tsv");
+        SchemaIdCache cache = SchemaIdCache.load(file);
+        cache.put(SUBJECT, SCHEMA, 17);
+        cache.put("other-value", OTHER_SCHEMA, 18);
+
+        SchemaIdCache reloaded = SchemaIdCache.load(file);
+
+        assertEquals(2, reloaded.size());
+        assertEquals(17, reloaded.getId(SUBJECT, SCHEMA).intValue());
+        assertEquals(18, reloaded.getId("other-value", OTHER_SCHEMA).intValue());
+        assertNull(reloaded.getId(SUBJECT, OTHER_SCHEMA));
+        assertEquals(SCHEMA, reloaded.getSchema(17));
+        assertNull(reloaded.getSchema(19));
+    }
+
+    @Test
+    public void startsEmptyWithoutAFile() {
+        SchemaIdCache cache = SchemaIdCache.load(directory.resolve("missing.tsv"));
+
+        assertEquals(0, cache.size());
+        assertNull(cache.getId(SUBJECT, SCHEMA));
+    }
+
+    @Test
+    public void skipsMalformedAndTruncatedLines() throws IOException {
+        Path file = directory.resolve("schema-ids.tsv");
+        Files.write(file, List.of(
+                line(SUBJECT, SCHEMA, "17"),
+                "",
+                "not a cache line",
+                "other-value\tnot-hex\t18\t" + OTHER_SCHEMA,
+                "other-value\t" + fingerprint(OTHER_SCHEMA) + "\tnot-a-number\t" + OTHER_SCHEMA,
+                "other-value\t" + fingerprint(OTHER_SCHEMA) + "\t1"), StandardCharsets.UTF_8);
+
+        SchemaIdCache cache = SchemaIdCache.load(file);
+
+        assertEquals(1, cache.size());
+        assertEquals(17, cache.getId(SUBJECT, SCHEMA).intValue());
+        assertNull(cache.getId("other-value", OTHER_SCHEMA));
+    }
+
+    @Test
+    public void leavesUnparsableSchemasToTheRegistry() throws IOException {
+        Path file = directory.resolve("schema-ids.tsv");
+        Files.write(file, List.of(SUBJECT + '\t' + fingerprint(SCHEMA) + "\t17\t{\"type\":\"record\""),
+                StandardCharsets.UTF_8);
+
+        SchemaIdCache cache = SchemaIdCache.load(file);
+
+        assertEquals(17, cache.getId(SUBJECT, SCHEMA).intValue());
+        assertNull(cache.getSchema(17));
+    }
+
+    @Test
+    public void rewritesTheWholeFileWithoutLeftovers() throws IOException {
+        Path file = directory.resolve("schema-ids.tsv");
+        Files.write(file, List.of(line(SUBJECT, SCHEMA, "17"), "truncated\tline"), StandardCharsets.UTF_8);
+        SchemaIdCache cache = SchemaIdCache.load(file);
+
+        cache.put("other-value", OTHER_SCHEMA, 18);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.contains(line(SUBJECT, SCHEMA, "17")));
+        assertTrue(lines.contains(line("other-value", OTHER_SCHEMA, "18")));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void doesNotRewriteForAKnownId() throws IOException {
+        Path file = directory.resolve("schema-ids.tsv");
+        SchemaIdCache cache = SchemaIdCache.load(file);
+        cache.put(SUBJECT, SCHEMA, 17);
+        Files.write(file, List.of(line(SUBJECT, SCHEMA, "17"), "marker"), StandardCharsets.UTF_8);
+
+        cache.put(SUBJECT, SCHEMA, 17);
+
+        assertEquals("marker", Files.readAllLines(file, StandardCharsets.UTF_8).get(1));
+    }
+
+    private static String line(String subject, Schema schema, String id) {
+        return subject + '\t' + fingerprint(schema) + '\t' + id + '\t' + schema;
+    }
+
+    private static String fingerprint(Schema schema) {
+        return Long.toHexString(SchemaNormalization.parsingFingerprint64(schema));
+    }
+}
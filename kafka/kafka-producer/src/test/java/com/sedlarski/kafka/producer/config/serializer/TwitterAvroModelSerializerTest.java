@@ -0,0 +1,86 @@
+package com.sedlarski.kafka.producer.config.serializer;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TwitterAvroModelSerializerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private final TwitterAvroModelSerializer serializer = new TwitterAvroModelSerializer();
+
+    @Test
+    public void writesWhatTheDatumWriterWrites() throws IOException {
+        for (TwitterAvroModel tweet : List.of(
+                new TwitterAvroModel(42L, 1234567890123L, "Learning #Kafka streams", 1620000000000L),
+                new TwitterAvroModel(0L, -1L, "", 0L),
+                new TwitterAvroModel(Long.MIN_VALUE, Long.MAX_VALUE, "x", Long.MIN_VALUE),
+                new TwitterAvroModel(7L, 8L, null, 1620000000000L),
+                new TwitterAvroModel(7L, 8L, "no timestamp", null),
+                new TwitterAvroModel(7L, 8L, null, null))) {
+            assertArrayEquals(datumWriterBytes(tweet), serializer.serialize(TOPIC, tweet), tweet.toString());
+        }
+    }
+
+    @Test
+    public void writesNonAsciiTextLikeTheDatumWriter() throws IOException {
+        for (String text : List.of(
+                "caf\u00e9 cr\u00e8me",
+                "\u00fcber #Kafka",
+                "\u6771\u4eac\u306e\u5929\u6c17",
+                "emoji \ud83d\ude80 and \ud83c\udf89",
+                "\ud83d\ude80",
+                "unpaired \ud83d high and \ude80 low surrogates",
+                "\u007f\u0080\u07ff\u0800\uffff")) {
+            TwitterAvroModel tweet = new TwitterAvroModel(1L, 2L, text, 3L);
+            assertArrayEquals(datumWriterBytes(tweet), serializer.serialize(TOPIC, tweet), text);
+        }
+    }
+
+    @Test
+    public void growsPastThePooledBuffer() throws IOException {
+        char[] text = new char[100_000];
+        Arrays.fill(text, '\u00e9');
+        TwitterAvroModel tweet = new TwitterAvroModel(1L, 2L, new String(text), 3L);
+
+        assertArrayEquals(datumWriterBytes(tweet), serializer.serialize(TOPIC, tweet));
+        TwitterAvroModel small = new TwitterAvroModel(1L, 2L, "small", 3L);
+        assertArrayEquals(datumWriterBytes(small), serializer.serialize(TOPIC, small));
+    }
+
+    @Test
+    public void prependsTheRegistryHeader() throws Exception {
+        MockSchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
+        int schemaId = schemaRegistryClient.register(TOPIC + "-value", TwitterAvroModel.getClassSchema());
+        TwitterAvroModel tweet = new TwitterAvroModel(42L, 43L, "with header", 44L);
+
+        byte[] bytes = new TwitterAvroModelSerializer(schemaRegistryClient).serialize(TOPIC, tweet);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertEquals(TwitterAvroModelSerializer.MAGIC_BYTE, buffer.get());
+        assertEquals(schemaId, buffer.getInt());
+        assertArrayEquals(datumWriterBytes(tweet), Arrays.copyOfRange(bytes, TwitterAvroModelSerializer.HEADER_BYTES,
+                bytes.length));
+    }
+
+    private static byte[] datumWriterBytes(TwitterAvroModel tweet) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        new SpecificDatumWriter<>(TwitterAvroModel.class).write(tweet, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+}
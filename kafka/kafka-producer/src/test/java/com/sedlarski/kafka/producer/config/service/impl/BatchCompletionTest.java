@@ -0,0 +1,112 @@
+package com.sedlarski.kafka.producer.config.service.impl;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchCompletionTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final List<Pair<Long, TwitterAvroModel>> MESSAGES = List.of(
+            Pair.of(1L, new TwitterAvroModel(1L, 1L, "first", 1620000000000L)),
+            Pair.of(2L, new TwitterAvroModel(2L, 2L, "second", null)),
+            Pair.of(3L, new TwitterAvroModel(3L, 3L, "third", 1620000000000L)));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ProducerMetrics producerMetrics = new ProducerMetrics(meterRegistry);
+
+    @Test
+    public void completesOnceEveryRecordIsDone() {
+        BatchCompletion batchCompletion = start();
+
+        batchCompletion.onCompletion(metadata(0), null);
+        batchCompletion.onCompletion(metadata(1), null);
+        assertFalse(batchCompletion.future().isDone());
+        batchCompletion.onCompletion(metadata(0), null);
+
+        BatchSendResult result = batchCompletion.future().join();
+        assertEquals(3, result.getRecordCount());
+        assertFalse(result.hasFailures());
+        assertNull(result.getFirstError());
+        assertEquals(0, producerMetrics.getInFlight());
+        assertEquals(2, meterRegistry.get("twitter.producer.created.to.ack.latency").tag("topic", TOPIC)
+                .tag("partition", "0").timer().count());
+    }
+
+    @Test
+    public void reportsPartialFailures() {
+        BatchCompletion batchCompletion = start();
+        TimeoutException first = new TimeoutException("first");
+
+        batchCompletion.onCompletion(null, first);
+        batchCompletion.onCompletion(metadata(0), null);
+        batchCompletion.onCompletion(null, new TimeoutException("second"));
+
+        BatchSendResult result = batchCompletion.future().join();
+        assertEquals(2, result.getFailedCount());
+        assertEquals(1, result.getSucceededCount());
+        assertSame(first, result.getFirstError());
+        assertEquals(0, producerMetrics.getInFlight());
+        assertEquals(2.0, meterRegistry.get("twitter.producer.failed").tag("topic", TOPIC).counter().count(), 1e-9);
+    }
+
+    @Test
+    public void failsOnlyTheRecordsThatWereNeverHandedOff() {
+        BatchCompletion batchCompletion = start();
+        batchCompletion.handedOff();
+        IllegalStateException error = new IllegalStateException("producer closed");
+
+        batchCompletion.failRemaining(error);
+        assertFalse(batchCompletion.future().isDone());
+        assertEquals(1, producerMetrics.getInFlight());
+
+        batchCompletion.onCompletion(metadata(0), null);
+        BatchSendResult result = batchCompletion.future().join();
+        assertEquals(2, result.getFailedCount());
+        assertSame(error, result.getFirstError());
+        assertEquals(0, producerMetrics.getInFlight());
+    }
+
+    @Test
+    public void failRemainingKeepsABatchThatWasHandedOffWhole() {
+        BatchCompletion batchCompletion = start();
+        MESSAGES.forEach(message -> batchCompletion.handedOff());
+
+        batchCompletion.failRemaining(new IllegalStateException("too late"));
+        assertFalse(batchCompletion.future().isDone());
+        MESSAGES.forEach(message -> batchCompletion.onCompletion(metadata(0), null));
+
+        assertFalse(batchCompletion.future().join().hasFailures());
+        batchCompletion.failRemaining(new IllegalStateException("again"));
+        assertTrue(batchCompletion.future().isDone());
+        assertEquals(0, producerMetrics.getInFlight());
+    }
+
+    private BatchCompletion start() {
+        producerMetrics.recordSent(TOPIC, MESSAGES.size());
+        return new BatchCompletion(TOPIC, MESSAGES, producerMetrics,
+                new HotPathLoggerFactory(new HotPathLoggingConfigData()).getLogger(BatchCompletionTest.class));
+    }
+
+    private static RecordMetadata metadata(int partition) {
+        return new RecordMetadata(new TopicPartition(TOPIC, partition), 0L, 0L, 0L, 0L, 8, 16);
+    }
+}
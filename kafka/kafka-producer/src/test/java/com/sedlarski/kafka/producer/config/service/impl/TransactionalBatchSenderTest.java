@@ -0,0 +1,151 @@
+package com.sedlarski.kafka.producer.config.service.impl;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
+import com.sedlarski.eventdriven.config.ExactlyOnceProducerConfigData;
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionalBatchSenderTest {
+
+    private static final String BROKEN_TOPIC = "broken-topic";
+
+    private final List<MockProducer<Long, TwitterAvroModel>> producers = new CopyOnWriteArrayList<>();
+
+    private TransactionalBatchSender transactionalBatchSender;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        transactionalBatchSender.stop();
+    }
+
+    @Test
+    public void keepsAFanOutInOneTransaction() throws Exception {
+        start(4);
+
+        List<CompletableFuture<BatchSendResult>> futures = transactionalBatchSender.submit(
+                List.of("java-topic", "kafka-topic"), messages(3));
+        transactionalBatchSender.flush();
+
+        for (CompletableFuture<BatchSendResult> future : futures) {
+            BatchSendResult result = future.get(10, TimeUnit.SECONDS);
+            assertEquals(3, result.getRecordCount());
+            assertFalse(result.hasFailures());
+        }
+        assertEquals(1, producers.size());
+        assertTrue(producers.get(0).transactionCommitted());
+        assertEquals(List.of("java-topic", "java-topic", "java-topic", "kafka-topic", "kafka-topic", "kafka-topic"),
+                topics(producers.get(0).history()));
+    }
+
+    @Test
+    public void failsEveryTopicOfAnAbortedFanOut() throws Exception {
+        start(100);
+
+        List<CompletableFuture<BatchSendResult>> futures = transactionalBatchSender.submit(
+                List.of("java-topic", BROKEN_TOPIC), messages(2));
+        CompletableFuture<BatchSendResult> other = transactionalBatchSender.submit("java-topic", messages(1));
+        transactionalBatchSender.flush();
+
+        assertEquals(List.of("java-topic", BROKEN_TOPIC), futures.stream().map(this::failed)
+                .map(BatchSendResult::getTopicName).collect(Collectors.toList()));
+        assertEquals("java-topic", failed(other).getTopicName());
+        assertTrue(producers.get(0).transactionAborted());
+        assertTrue(producers.get(0).history().isEmpty());
+    }
+
+    private BatchSendResult failed(CompletableFuture<BatchSendResult> future) {
+        try {
+            BatchSendResult result = future.get(10, TimeUnit.SECONDS);
+            assertEquals(result.getRecordCount(), result.getFailedCount());
+            return result;
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void start(int maxRecordsPerTransaction) {
+        ExactlyOnceProducerConfigData config = new ExactlyOnceProducerConfigData();
+        config.setFlushIntervalMs(60_000L);
+        config.setMaxRecordsPerTransaction(maxRecordsPerTransaction);
+        KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = new KafkaTemplate<>(new MockProducerFactory());
+        transactionalBatchSender = new TransactionalBatchSender(kafkaTemplate, config,
+                new ProducerMetrics(new SimpleMeterRegistry()),
+                new HotPathLoggerFactory(new HotPathLoggingConfigData()), new SimpleMeterRegistry());
+        transactionalBatchSender.start();
+    }
+
+    private static List<Pair<Long, TwitterAvroModel>> messages(int count) {
+        List<Pair<Long, TwitterAvroModel>> messages = new ArrayList<>(count);
+        for (long i = 0; i < count; i++) {
+            messages.add(Pair.of(i, new TwitterAvroModel(i, i, "tweet " + i, 1620000000000L)));
+        }
+        return messages;
+    }
+
+    private static List<String> topics(List<ProducerRecord<Long, TwitterAvroModel>> records) {
+        return records.stream().map(ProducerRecord::topic).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * The template closes the producer after every transaction, so each transaction gets a new one. Sends to
+     * the broken topic fail like a value that cannot be serialized.
+     */
+    private final class MockProducerFactory implements ProducerFactory<Long, TwitterAvroModel> {
+
+        @Override
+        public Producer<Long, TwitterAvroModel> createProducer() {
+            MockProducer<Long, TwitterAvroModel> producer = new MockProducer<>(true, new LongSerializer(),
+                    (topic, tweet) -> tweet.getText().getBytes(StandardCharsets.UTF_8)) {
+                @Override
+                public synchronized Future<RecordMetadata> send(ProducerRecord<Long, TwitterAvroModel> record,
+                                                                Callback callback) {
+                    if (BROKEN_TOPIC.equals(record.topic())) {
+                        throw new SerializationException("cannot serialize for " + BROKEN_TOPIC);
+                    }
+                    return super.send(record, callback);
+                }
+            };
+            producer.initTransactions();
+            producers.add(producer);
+            return producer;
+        }
+
+        @Override
+        public Producer<Long, TwitterAvroModel> createProducer(String txIdPrefix) {
+            return createProducer();
+        }
+
+        @Override
+        public boolean transactionCapable() {
+            return true;
+        }
+    }
+}
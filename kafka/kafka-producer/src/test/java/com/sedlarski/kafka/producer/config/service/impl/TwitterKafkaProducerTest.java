@@ -0,0 +1,226 @@
+package com.sedlarski.kafka.producer.config.service.impl;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import com.sedlarski.eventdriven.config.SpillLogConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.spill.SpilledRecord;
+import com.sedlarski.kafka.producer.config.spill.TweetSpillLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TwitterKafkaProducerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final String TIMEOUT_TOPIC = "timeout-topic";
+
+    private static final String BROKEN_TOPIC = "broken-topic";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProducerMetrics producerMetrics = new ProducerMetrics(meterRegistry);
+
+    private TweetSpillLog tweetSpillLog;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void tearDown() {
+        if (tweetSpillLog != null) {
+            tweetSpillLog.close();
+        }
+    }
+
+    @Test
+    public void countsASynchronousSendFailureAsFailed() {
+        TwitterKafkaProducer twitterKafkaProducer = producer(() -> new FailingMockProducer(true), false);
+
+        twitterKafkaProducer.send(BROKEN_TOPIC, 1L, tweet(1L));
+        twitterKafkaProducer.send(TIMEOUT_TOPIC, 2L, tweet(2L));
+
+        assertEquals(0, producerMetrics.getInFlight());
+        assertEquals(1.0, meterRegistry.get("twitter.producer.failed").tag("topic", BROKEN_TOPIC).counter().count(),
+                1e-9);
+        assertEquals(1.0, meterRegistry.get("twitter.producer.failed").tag("topic", TIMEOUT_TOPIC).counter().count(),
+                1e-9);
+    }
+
+    @Test
+    public void spillsOnlyRetriableSynchronousSendFailures() {
+        TwitterKafkaProducer twitterKafkaProducer = producer(() -> new FailingMockProducer(true), true);
+
+        twitterKafkaProducer.send(BROKEN_TOPIC, 1L, tweet(1L));
+        twitterKafkaProducer.send(TIMEOUT_TOPIC, 2L, tweet(2L));
+        twitterKafkaProducer.send(TOPIC, 3L, tweet(3L));
+
+        assertEquals(List.of(TIMEOUT_TOPIC), spilledTopics());
+        assertEquals(List.of(tweet(2L)), spilledTweets());
+        assertEquals(0, producerMetrics.getInFlight());
+        assertTrue(producerMetrics.firstAck().isDone());
+    }
+
+    @Test
+    public void reportsTheRecordsOfABatchThatFailed() throws Exception {
+        FailingMockProducer mockProducer = new FailingMockProducer(false);
+        TwitterKafkaProducer twitterKafkaProducer = producer(() -> mockProducer, true);
+
+        CompletableFuture<BatchSendResult> future = twitterKafkaProducer.sendBatch(TOPIC, tweets(3));
+        assertEquals(3, producerMetrics.getInFlight());
+        mockProducer.completeNext();
+        mockProducer.errorNext(new TimeoutException("batch expired"));
+        assertFalse(future.isDone());
+        mockProducer.errorNext(new RecordTooLargeException("too large"));
+
+        BatchSendResult result = future.get(10, TimeUnit.SECONDS);
+        assertEquals(3, result.getRecordCount());
+        assertEquals(2, result.getFailedCount());
+        assertTrue(result.getFirstError() instanceof TimeoutException);
+        assertEquals(List.of(tweet(1L)), spilledTweets());
+        assertEquals(0, producerMetrics.getInFlight());
+    }
+
+    @Test
+    public void reportsEveryTopicOfAFanOut() throws Exception {
+        TwitterKafkaProducer twitterKafkaProducer = producer(() -> new FailingMockProducer(true), true);
+
+        BatchSendResult result = twitterKafkaProducer.sendBatch(List.of(TOPIC, TIMEOUT_TOPIC), tweets(2))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(TOPIC + "," + TIMEOUT_TOPIC, result.getTopicName());
+        assertEquals(4, result.getRecordCount());
+        assertEquals(2, result.getFailedCount());
+        assertEquals(List.of(TIMEOUT_TOPIC, TIMEOUT_TOPIC), spilledTopics());
+        assertEquals(tweets(2).stream().map(Pair::getValue).collect(Collectors.toList()), spilledTweets());
+        assertEquals(0, producerMetrics.getInFlight());
+    }
+
+    @Test
+    public void failsAndSpillsRecordsThatWereNeverHandedOff() throws Exception {
+        TwitterKafkaProducer twitterKafkaProducer = producer(() -> {
+            throw new KafkaException("no producer");
+        }, true);
+
+        BatchSendResult result = twitterKafkaProducer.sendBatch(List.of(TOPIC, "java-topic"), tweets(2))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, result.getRecordCount());
+        assertEquals(4, result.getFailedCount());
+        assertEquals(List.of(TOPIC, TOPIC, "java-topic", "java-topic"), spilledTopics());
+        assertEquals(0, producerMetrics.getInFlight());
+    }
+
+    @Test
+    public void spillsTheRemainingTopicsOfAMessageWhenTheFanOutBreaksOff() throws Exception {
+        AtomicBoolean broken = new AtomicBoolean();
+        producerMetrics = new ProducerMetrics(meterRegistry) {
+            @Override
+            public void recordFailure(String topicName) {
+                if (broken.compareAndSet(false, true)) {
+                    throw new IllegalStateException("failure callback broke");
+                }
+                super.recordFailure(topicName);
+            }
+        };
+        TwitterKafkaProducer twitterKafkaProducer = producer(() -> new FailingMockProducer(true), true);
+
+        BatchSendResult result = twitterKafkaProducer.sendBatch(List.of(TOPIC, BROKEN_TOPIC), tweets(2))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, result.getRecordCount());
+        assertEquals(3, result.getFailedCount());
+        assertEquals(List.of(TOPIC, BROKEN_TOPIC, BROKEN_TOPIC), spilledTopics());
+        assertEquals(List.of(tweet(1L), tweet(0L), tweet(1L)), spilledTweets());
+        assertEquals(0, producerMetrics.getInFlight());
+    }
+
+    private TwitterKafkaProducer producer(ProducerFactory<Long, TwitterAvroModel> producerFactory, boolean spill) {
+        if (spill) {
+            SpillLogConfigData spillLogConfigData = new SpillLogConfigData();
+            spillLogConfigData.setEnabled(true);
+            spillLogConfigData.setDirectory(directory.toString());
+            spillLogConfigData.setSegmentSizeBytes(64 * 1024);
+            spillLogConfigData.setMaxSegments(4);
+            tweetSpillLog = new TweetSpillLog(spillLogConfigData);
+        }
+        return new TwitterKafkaProducer(new KafkaTemplate<>(producerFactory), producerMetrics,
+                new HotPathLoggerFactory(new HotPathLoggingConfigData()), Optional.ofNullable(tweetSpillLog),
+                Optional.empty());
+    }
+
+    private List<String> spilledTopics() {
+        return tweetSpillLog.readBatch(100).stream().map(SpilledRecord::getTopicName).collect(Collectors.toList());
+    }
+
+    private List<TwitterAvroModel> spilledTweets() {
+        return tweetSpillLog.readBatch(100).stream().map(SpilledRecord::getValue).collect(Collectors.toList());
+    }
+
+    private static List<Pair<Long, TwitterAvroModel>> tweets(int count) {
+        List<Pair<Long, TwitterAvroModel>> tweets = new ArrayList<>(count);
+        for (long i = 0; i < count; i++) {
+            tweets.add(Pair.of(i, tweet(i)));
+        }
+        return tweets;
+    }
+
+    private static TwitterAvroModel tweet(long id) {
+        return new TwitterAvroModel(id, id, "tweet " + id, 1620000000000L);
+    }
+
+    /**
+     * Sends to the broken and timeout topics throw, like a value that cannot be serialized and like a producer that
+     * gets no metadata in time.
+     */
+    private static final class FailingMockProducer extends MockProducer<Long, TwitterAvroModel> {
+
+        private FailingMockProducer(boolean autoComplete) {
+            super(autoComplete, new LongSerializer(),
+                    (topic, tweet) -> tweet.getText().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<Long, TwitterAvroModel> record,
+                                                        Callback callback) {
+            if (BROKEN_TOPIC.equals(record.topic())) {
+                throw new SerializationException("cannot serialize for " + BROKEN_TOPIC);
+            }
+            if (TIMEOUT_TOPIC.equals(record.topic())) {
+                throw new TimeoutException("no metadata for " + TIMEOUT_TOPIC);
+            }
+            return super.send(record, callback);
+        }
+    }
+}
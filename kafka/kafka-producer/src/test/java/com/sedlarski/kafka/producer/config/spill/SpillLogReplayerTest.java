@@ -0,0 +1,107 @@
+package com.sedlarski.kafka.producer.config.spill;
+
+import com.sedlarski.eventdriven.config.SpillLogConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SpillLogReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    private final TwitterKafkaProducer twitterKafkaProducer = mock(TwitterKafkaProducer.class);
+
+    private final List<Long> delivered = new ArrayList<>();
+
+    private TweetSpillLog tweetSpillLog;
+
+    private SpillLogReplayer replayer;
+
+    @BeforeEach
+    public void setUp() {
+        SpillLogConfigData spillLogConfigData = TweetSpillLogTest.config(directory);
+        tweetSpillLog = new TweetSpillLog(spillLogConfigData);
+        replayer = new SpillLogReplayer(tweetSpillLog, twitterKafkaProducer, spillLogConfigData);
+        for (long id = 1; id <= 3; id++) {
+            tweetSpillLog.spill("twitter-topic", id, new TwitterAvroModel(id, id, "tweet " + id, id));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tweetSpillLog.close();
+    }
+
+    @Test
+    public void retriesTheBatchAfterARetriableFailure() {
+        AtomicInteger calls = new AtomicInteger();
+        when(twitterKafkaProducer.resendBatch(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Pair<Long, TwitterAvroModel>> messages = invocation.getArgument(1);
+            if (calls.getAndIncrement() == 0) {
+                return failed(messages, new TimeoutException("expired"));
+            }
+            return deliver(messages);
+        });
+
+        replayer.replaySafely();
+        assertTrue(delivered.isEmpty());
+
+        replayer.replaySafely();
+        assertEquals(List.of(1L, 2L, 3L), delivered);
+        assertEquals(0, replayer.getDroppedCount());
+        assertTrue(tweetSpillLog.readBatch(10).isEmpty());
+    }
+
+    @Test
+    public void dropsRecordsThatFailNonRetriablyAndCommitsPastThem() {
+        when(twitterKafkaProducer.resendBatch(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Pair<Long, TwitterAvroModel>> messages = invocation.getArgument(1);
+            for (Pair<Long, TwitterAvroModel> message : messages) {
+                if (message.getKey() == 2L) {
+                    return failed(messages, new RecordTooLargeException("too large"));
+                }
+            }
+            return deliver(messages);
+        });
+
+        replayer.replaySafely();
+
+        assertEquals(List.of(1L, 3L), delivered);
+        assertEquals(1, replayer.getDroppedCount());
+        tweetSpillLog.rewind();
+        assertTrue(tweetSpillLog.readBatch(10).isEmpty());
+    }
+
+    private CompletableFuture<BatchSendResult> deliver(List<Pair<Long, TwitterAvroModel>> messages) {
+        for (Pair<Long, TwitterAvroModel> message : messages) {
+            delivered.add(message.getKey());
+        }
+        return CompletableFuture.completedFuture(new BatchSendResult("twitter-topic", messages.size(), 0, null));
+    }
+
+    private static CompletableFuture<BatchSendResult> failed(List<Pair<Long, TwitterAvroModel>> messages,
+                                                             Exception exception) {
+        return CompletableFuture.completedFuture(new BatchSendResult("twitter-topic", messages.size(), 1, exception));
+    }
+}
@@ -0,0 +1,159 @@
+package com.sedlarski.kafka.producer.config.spill;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpillLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void readsCommitsAndRewinds() {
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            append(spillLog, "a", "b", "c");
+
+            assertEquals(List.of("a", "b"), strings(spillLog.read(2)));
+            spillLog.commit();
+            assertEquals(List.of("c"), strings(spillLog.read(10)));
+            spillLog.rewind();
+            assertEquals(List.of("c"), strings(spillLog.read(10)));
+            assertEquals(List.of(), strings(spillLog.read(10)));
+
+            append(spillLog, "d");
+            assertEquals(List.of("d"), strings(spillLog.read(10)));
+        }
+    }
+
+    @Test
+    public void restartsFromTheCheckpoint() {
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            append(spillLog, "a", "b", "c");
+            spillLog.read(1);
+            spillLog.commit();
+            spillLog.read(1);
+        }
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            assertEquals(List.of("b", "c"), strings(spillLog.read(10)));
+            append(spillLog, "d");
+            assertEquals(List.of("d"), strings(spillLog.read(10)));
+        }
+    }
+
+    @Test
+    public void rollsOverSegmentsAndDeletesConsumedOnes() throws IOException {
+        try (SpillLog spillLog = SpillLog.open(directory, 32, 3)) {
+            // every frame is 8 header bytes plus 10 payload bytes, so a 32 byte segment holds one
+            for (int i = 0; i < 3; i++) {
+                assertTrue(spillLog.append(payload(i)));
+            }
+            assertFalse(spillLog.append(payload(3)));
+            assertFalse(spillLog.append(new byte[32]));
+            assertEquals(2, spillLog.getRejectedCount());
+            assertEquals(3, spillLog.getSegmentCount());
+
+            assertEquals(List.of("record-000", "record-001"), strings(spillLog.read(2)));
+            spillLog.commit();
+            assertEquals(2, spillLog.getSegmentCount());
+            assertEquals(2, segmentFiles().size());
+            assertTrue(spillLog.append(payload(3)));
+            assertEquals(List.of("record-002", "record-003"), strings(spillLog.read(10)));
+        }
+    }
+
+    @Test
+    public void cutsOffACorruptTailOnRestart() throws IOException {
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            append(spillLog, "first", "second", "third");
+        }
+        // flip a payload byte of the last frame: 3 frames of 8 + 5 and 8 + 6 bytes come before it
+        corrupt(segmentFiles().get(0), 13 + 14 + 8);
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            assertEquals(List.of("first", "second"), strings(spillLog.read(10)));
+            append(spillLog, "fourth");
+            assertEquals(List.of("fourth"), strings(spillLog.read(10)));
+        }
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            assertEquals(List.of("first", "second", "fourth"), strings(spillLog.read(10)));
+        }
+    }
+
+    @Test
+    public void skipsACorruptFrameInsteadOfBlocking() throws IOException {
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            append(spillLog, "first", "second", "third");
+            corrupt(segmentFiles().get(0), 13 + 8);
+
+            assertEquals(List.of("first", "third"), strings(spillLog.read(10)));
+            assertEquals(1, spillLog.getCorruptCount());
+            spillLog.commit();
+            assertEquals(List.of(), strings(spillLog.read(10)));
+        }
+    }
+
+    @Test
+    public void skipsTheRestOfTheSegmentAfterABrokenLength() throws IOException {
+        try (SpillLog spillLog = SpillLog.open(directory, 1024, 4)) {
+            append(spillLog, "first", "second", "third");
+            try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 4096), 13);
+            }
+
+            assertEquals(List.of("first"), strings(spillLog.read(10)));
+            assertEquals(1, spillLog.getCorruptCount());
+            append(spillLog, "fourth");
+            assertEquals(List.of("fourth"), strings(spillLog.read(10)));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void corrupt(Path segment, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) (value.get(0) ^ 0xFF));
+            value.rewind();
+            channel.write(value, position);
+        }
+    }
+
+    private static void append(SpillLog spillLog, String... records) {
+        for (String record : records) {
+            assertTrue(spillLog.append(record.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return String.format("record-%03d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<byte[]> payloads) {
+        List<String> strings = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            strings.add(new String(payload, StandardCharsets.UTF_8));
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,88 @@
+package com.sedlarski.kafka.producer.config.spill;
+
+import com.sedlarski.eventdriven.config.SpillLogConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TweetSpillLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void readsBackSpilledTweets() {
+        TweetSpillLog tweetSpillLog = new TweetSpillLog(config(directory));
+        try {
+            TwitterAvroModel first = new TwitterAvroModel(10L, 1L, "caf\u00e9 \uD83D\uDE80", 1622535330123L);
+            TwitterAvroModel second = new TwitterAvroModel(11L, 2L, null, null);
+            assertTrue(tweetSpillLog.spill("twitter-topic", 10L, first));
+            assertTrue(tweetSpillLog.spill("java-topic", null, second));
+
+            List<SpilledRecord> records = tweetSpillLog.readBatch(10);
+            assertEquals(2, records.size());
+            assertEquals("twitter-topic", records.get(0).getTopicName());
+            assertEquals(10L, records.get(0).getKey());
+            assertEquals(first, records.get(0).getValue());
+            assertEquals("java-topic", records.get(1).getTopicName());
+            assertNull(records.get(1).getKey());
+            assertEquals(second, records.get(1).getValue());
+
+            tweetSpillLog.commit();
+            assertTrue(tweetSpillLog.readBatch(10).isEmpty());
+        } finally {
+            tweetSpillLog.close();
+        }
+    }
+
+    @Test
+    public void skipsUndecodableRecords() {
+        try (SpillLog spillLog = SpillLog.open(directory, 64 * 1024, 4)) {
+            spillLog.append(new byte[]{0, 3, 'a', 'b'});
+        }
+        TweetSpillLog tweetSpillLog = new TweetSpillLog(config(directory));
+        try {
+            TwitterAvroModel tweet = new TwitterAvroModel(10L, 1L, "kafka", 1L);
+            tweetSpillLog.spill("twitter-topic", 10L, tweet);
+
+            List<SpilledRecord> records = tweetSpillLog.readBatch(10);
+            assertEquals(1, records.size());
+            assertEquals(tweet, records.get(0).getValue());
+            assertEquals(1, tweetSpillLog.getCorruptCount());
+        } finally {
+            tweetSpillLog.close();
+        }
+    }
+
+    @Test
+    public void spillsOnlyRetriableFailures() {
+        assertTrue(TweetSpillLog.isRetriable(new TimeoutException("expired")));
+        assertTrue(TweetSpillLog.isRetriable(new KafkaException("send failed", new TimeoutException("expired"))));
+        assertFalse(TweetSpillLog.isRetriable(new RecordTooLargeException("too large")));
+        assertFalse(TweetSpillLog.isRetriable(new KafkaException("send failed", new SerializationException("bad"))));
+        assertFalse(TweetSpillLog.isRetriable(null));
+    }
+
+    static SpillLogConfigData config(Path directory) {
+        SpillLogConfigData spillLogConfigData = new SpillLogConfigData();
+        spillLogConfigData.setEnabled(true);
+        spillLogConfigData.setDirectory(directory.toString());
+        spillLogConfigData.setSegmentSizeBytes(64 * 1024);
+        spillLogConfigData.setMaxSegments(4);
+        spillLogConfigData.setReplayBatchSize(100);
+        spillLogConfigData.setReplayTimeoutMs(1000L);
+        return spillLogConfigData;
+    }
+}
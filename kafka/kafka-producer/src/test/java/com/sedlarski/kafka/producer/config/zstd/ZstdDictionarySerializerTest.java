@@ -0,0 +1,67 @@
+package com.sedlarski.kafka.producer.config.zstd;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZstdDictionarySerializerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final String TWEET = tweet(4242, "kafka", "Learning #Kafka streams with a trained dictionary");
+
+    private static final byte[] DICTIONARY = ZstdDictionaryTrainer.train(samples("kafka"), 4096);
+
+    private static final byte[] OTHER_DICTIONARY = ZstdDictionaryTrainer.train(samples("zstd"), 4096);
+
+    @Test
+    public void compressesWithTheTrainedDictionary() {
+        byte[] compressed = serializer(DICTIONARY).serialize(TOPIC, TWEET);
+
+        assertEquals(Zstd.getDictIdFromDict(DICTIONARY), Zstd.getDictIdFromFrame(compressed));
+        assertTrue(compressed.length < Zstd.compress(TWEET.getBytes(StandardCharsets.UTF_8), 3).length);
+        assertEquals(TWEET, new String(Zstd.decompress(compressed, new ZstdDictDecompress(DICTIONARY),
+                (int) Zstd.decompressedSize(compressed)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void recordsTheDictionaryOfEachFrame() {
+        byte[] compressed = serializer(OTHER_DICTIONARY).serialize(TOPIC, TWEET);
+
+        assertEquals(Zstd.getDictIdFromDict(OTHER_DICTIONARY), Zstd.getDictIdFromFrame(compressed));
+        assertNotEquals(Zstd.getDictIdFromDict(DICTIONARY), Zstd.getDictIdFromFrame(compressed));
+    }
+
+    @Test
+    public void passesNullThrough() {
+        assertNull(serializer(DICTIONARY).serialize(TOPIC, null));
+    }
+
+    private static ZstdDictionarySerializer<String> serializer(byte[] dictionary) {
+        return new ZstdDictionarySerializer<>(new StringSerializer(), new ZstdDictCompress(dictionary, 3));
+    }
+
+    static List<byte[]> samples(String keyword) {
+        return IntStream.range(0, 2000)
+                .mapToObj(i -> tweet(i, keyword, "tweet number " + i + " about #" + keyword + " and " + (i * 31 % 97)))
+                .map(tweet -> tweet.getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+
+    private static String tweet(int id, String keyword, String text) {
+        return "{\"userId\":" + (id % 50) + ",\"id\":" + (1_400_000_000_000L + id) + ",\"keyword\":\"" + keyword
+                + "\",\"text\":\"" + text + "\",\"createdAt\":" + (1_620_000_000_000L + id * 1000L) + "}";
+    }
+}
@@ -0,0 +1,43 @@
+package com.sedlarski.kafka.producer.config.zstd;
+
+import com.github.luben.zstd.Zstd;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZstdDictionaryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void keepsOlderDictionariesReadable() throws IOException {
+        byte[] first = ZstdDictionaryTrainer.train(ZstdDictionarySerializerTest.samples("kafka"), 4096);
+        byte[] second = ZstdDictionaryTrainer.train(ZstdDictionarySerializerTest.samples("zstd"), 4096);
+
+        ZstdDictionaryStore.save(directory, first);
+        Path path = ZstdDictionaryStore.save(directory, second);
+
+        assertTrue(Files.exists(path));
+        assertArrayEquals(second, ZstdDictionaryStore.findCurrent(directory).orElseThrow());
+        assertEquals(Set.of(Zstd.getDictIdFromDict(first), Zstd.getDictIdFromDict(second)),
+                ZstdDictionaryStore.loadAll(directory).keySet());
+    }
+
+    @Test
+    public void findsNothingBeforeTheFirstTraining() {
+        Path missing = directory.resolve("zstd-dictionaries");
+
+        assertTrue(ZstdDictionaryStore.findCurrent(missing).isEmpty());
+        assertTrue(ZstdDictionaryStore.findCurrent(directory).isEmpty());
+        assertTrue(ZstdDictionaryStore.loadAll(missing).isEmpty());
+    }
+}
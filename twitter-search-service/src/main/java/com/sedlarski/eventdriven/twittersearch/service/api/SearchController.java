@@ -0,0 +1,43 @@
+package com.sedlarski.eventdriven.twittersearch.service.api;
+
+import com.sedlarski.eventdriven.config.SearchIndexConfigData;
+import com.sedlarski.eventdriven.twittersearch.service.index.TimePartitionedIndex;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /search?q=kafka streams&from=...&to=...&userId=...&limit=... with epoch millisecond bounds. Lucene calls
+ * block, so they run off the event loop.
+ */
+@RestController
+public class SearchController {
+
+    private final TimePartitionedIndex timePartitionedIndex;
+
+    private final SearchIndexConfigData searchIndexConfigData;
+
+    public SearchController(TimePartitionedIndex timePartitionedIndex, SearchIndexConfigData searchIndexConfigData) {
+        this.timePartitionedIndex = timePartitionedIndex;
+        this.searchIndexConfigData = searchIndexConfigData;
+    }
+
+    @GetMapping("/search")
+    public Mono<SearchResponse> search(@RequestParam(name = "q", required = false) String keywords,
+                                       @RequestParam(required = false) Long from,
+                                       @RequestParam(required = false) Long to,
+                                       @RequestParam(required = false) Long userId,
+                                       @RequestParam(required = false) Integer limit) {
+        int maxResults = searchIndexConfigData.getMaxResults();
+        int boundedLimit = limit == null ? maxResults : Math.max(1, Math.min(limit, maxResults));
+        return Mono.fromCallable(() -> {
+            long startNanos = System.nanoTime();
+            return new SearchResponse(timePartitionedIndex.search(keywords, from, to, userId, boundedLimit),
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,25 @@
+package com.sedlarski.eventdriven.twittersearch.service.api;
+
+import com.sedlarski.eventdriven.twittersearch.service.index.TweetHit;
+
+import java.util.List;
+
+public final class SearchResponse {
+
+    private final List<TweetHit> hits;
+
+    private final long tookMicros;
+
+    public SearchResponse(List<TweetHit> hits, long tookMicros) {
+        this.hits = hits;
+        this.tookMicros = tookMicros;
+    }
+
+    public List<TweetHit> getHits() {
+        return hits;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+}
@@ -0,0 +1,15 @@
+package com.sedlarski.eventdriven.twittersearch.service.exception;
+
+public class SearchIndexException extends RuntimeException {
+
+    public SearchIndexException() {
+    }
+
+    public SearchIndexException(String message) {
+        super(message);
+    }
+
+    public SearchIndexException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
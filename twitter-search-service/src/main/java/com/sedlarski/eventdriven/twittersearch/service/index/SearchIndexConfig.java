@@ -0,0 +1,26 @@
+package com.sedlarski.eventdriven.twittersearch.service.index;
+
+import com.sedlarski.eventdriven.config.SearchIndexConfigData;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class SearchIndexConfig {
+
+    private final SearchIndexConfigData searchIndexConfigData;
+
+    public SearchIndexConfig(SearchIndexConfigData searchIndexConfigData) {
+        this.searchIndexConfigData = searchIndexConfigData;
+    }
+
+    @Bean(destroyMethod = "close")
+    public TimePartitionedIndex timePartitionedIndex() {
+        return new TimePartitionedIndex(Path.of(searchIndexConfigData.getIndexDirectory()),
+                TimeUnit.MINUTES.toMillis(searchIndexConfigData.getPartitionMinutes()),
+                TimeUnit.HOURS.toMillis(searchIndexConfigData.getRetentionHours()),
+                searchIndexConfigData.getRamBufferSizeMb());
+    }
+}
@@ -0,0 +1,69 @@
+package com.sedlarski.eventdriven.twittersearch.service.index;
+
+import com.sedlarski.eventdriven.config.SearchIndexConfigData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-real-time refresh and retention of the search index. Commits are left to the consumer, which commits the
+ * index together with its offsets.
+ */
+@Component
+public class SearchIndexMaintenance {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchIndexMaintenance.class);
+
+    private static final long RETENTION_CHECK_SECONDS = 60;
+
+    private final TimePartitionedIndex timePartitionedIndex;
+
+    private final SearchIndexConfigData searchIndexConfigData;
+
+    private ScheduledExecutorService scheduler;
+
+    public SearchIndexMaintenance(TimePartitionedIndex timePartitionedIndex,
+                                  SearchIndexConfigData searchIndexConfigData) {
+        this.timePartitionedIndex = timePartitionedIndex;
+        this.searchIndexConfigData = searchIndexConfigData;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("search-index-"));
+        long refreshInterval = searchIndexConfigData.getRefreshIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, refreshInterval, refreshInterval,
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::dropExpiredSafely, 0, RETENTION_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            timePartitionedIndex.refresh();
+        } catch (Exception e) {
+            LOG.warn("Could not refresh search index", e);
+        }
+    }
+
+    private void dropExpiredSafely() {
+        try {
+            timePartitionedIndex.dropExpired(System.currentTimeMillis());
+        } catch (Exception e) {
+            LOG.warn("Could not drop expired search index partitions", e);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.sedlarski.eventdriven.twittersearch.service.index;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittersearch.service.exception.SearchIndexException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Tweets indexed into one Lucene index per time partition of their creation time. Retention drops whole
+ * partitions, so no deletes are ever merged, and a time-range search only opens the partitions it overlaps,
+ * newest first, stopping as soon as the limit is reached. Writers are shared by all indexing threads; searches
+ * go through a SearcherManager per partition and see new documents after {@link #refresh()}. Every use of a
+ * partition holds a reference to it, a dropped partition is closed and deleted once the last one is released.
+ */
+public class TimePartitionedIndex implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimePartitionedIndex.class);
+
+    static final String ID = "id";
+    static final String USER_ID = "userId";
+    static final String CREATED_AT = "createdAt";
+    static final String TEXT = "text";
+
+    private static final String PARTITION_PREFIX = "partition-";
+
+    private static final Sort NEWEST_FIRST = new Sort(new SortField(CREATED_AT, SortField.Type.LONG, true));
+
+    private final Path indexDirectory;
+
+    private final long partitionMillis;
+
+    private final long retentionMillis;
+
+    private final double ramBufferSizeMb;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final ConcurrentNavigableMap<Long, Partition> partitions = new ConcurrentSkipListMap<>();
+
+    /**
+     * Partitions starting before this were dropped and are not opened again.
+     */
+    private volatile long droppedBefore = Long.MIN_VALUE;
+
+    public TimePartitionedIndex(Path indexDirectory, long partitionMillis, long retentionMillis,
+                                double ramBufferSizeMb) {
+        this.indexDirectory = indexDirectory;
+        this.partitionMillis = partitionMillis;
+        this.retentionMillis = retentionMillis;
+        this.ramBufferSizeMb = ramBufferSizeMb;
+        openExisting();
+    }
+
+    /**
+     * Indexes the tweets in one bulk add per partition. Returns how many were skipped as older than retention.
+     */
+    public int index(List<TwitterAvroModel> tweets, long nowMillis) {
+        long oldestPartition = partitionStart(nowMillis - retentionMillis);
+        Map<Long, List<Document>> documentsByPartition = new HashMap<>();
+        int skipped = 0;
+        for (TwitterAvroModel tweet : tweets) {
+            long createdAt = tweet.getCreatedAt() != null ? tweet.getCreatedAt() : nowMillis;
+            long partitionStart = partitionStart(createdAt);
+            if (partitionStart < oldestPartition) {
+                skipped++;
+                continue;
+            }
+            documentsByPartition.computeIfAbsent(partitionStart, start -> new ArrayList<>())
+                    .add(document(tweet, createdAt));
+        }
+        for (Map.Entry<Long, List<Document>> entry : documentsByPartition.entrySet()) {
+            Partition partition = acquire(entry.getKey());
+            if (partition == null) {
+                skipped += entry.getValue().size();
+                continue;
+            }
+            try {
+                partition.writer.addDocuments(entry.getValue());
+            } catch (IOException e) {
+                throw new SearchIndexException("Could not index into partition " + entry.getKey(), e);
+            } finally {
+                release(partition);
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Keyword and time-range search, newest first. Every query term must match; fromMillis, toMillis and userId
+     * are optional.
+     */
+    public List<TweetHit> search(String keywords, Long fromMillis, Long toMillis, Long userId, int limit) {
+        Query query = query(keywords, fromMillis, toMillis, userId);
+        long from = fromMillis != null ? fromMillis : Long.MIN_VALUE;
+        long to = toMillis != null ? toMillis : Long.MAX_VALUE;
+        List<TweetHit> hits = new ArrayList<>(Math.min(limit, 1024));
+        for (Map.Entry<Long, Partition> entry : partitions.descendingMap().entrySet()) {
+            long partitionStart = entry.getKey();
+            if (partitionStart > to || partitionStart + partitionMillis <= from) {
+                continue;
+            }
+            Partition partition = entry.getValue();
+            if (!partition.acquire()) {
+                continue;
+            }
+            try {
+                partition.search(query, limit - hits.size(), hits);
+            } catch (IOException e) {
+                throw new SearchIndexException("Could not search partition " + partitionStart, e);
+            } finally {
+                release(partition);
+            }
+            if (hits.size() >= limit) {
+                break;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Makes everything indexed so far visible to searches.
+     */
+    public void refresh() throws IOException {
+        for (Partition partition : partitions.values()) {
+            if (partition.acquire()) {
+                try {
+                    partition.searcherManager.maybeRefresh();
+                } finally {
+                    release(partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes everything indexed so far durable. A dropped partition is skipped, it is deleted anyway.
+     */
+    public void commit() throws IOException {
+        for (Partition partition : partitions.values()) {
+            if (partition.acquire()) {
+                try {
+                    if (partition.writer.hasUncommittedChanges()) {
+                        partition.writer.commit();
+                    }
+                } finally {
+                    release(partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every partition that ended before now minus the retention. Searches still running on one finish
+     * first, the last of them closes and deletes it.
+     */
+    public int dropExpired(long nowMillis) throws IOException {
+        long oldestPartition = partitionStart(nowMillis - retentionMillis);
+        droppedBefore = Math.max(droppedBefore, oldestPartition);
+        int dropped = 0;
+        for (Long partitionStart : new ArrayList<>(partitions.headMap(oldestPartition).keySet())) {
+            Partition partition = partitions.remove(partitionStart);
+            if (partition != null) {
+                partition.deleteOnClose = true;
+                release(partition);
+                dropped++;
+                LOG.info("Dropped search index partition {}", partitionStart);
+            }
+        }
+        return dropped;
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Closing a writer commits it.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Long partitionStart : new ArrayList<>(partitions.keySet())) {
+            Partition partition = partitions.remove(partitionStart);
+            if (partition != null) {
+                release(partition);
+            }
+        }
+    }
+
+    private long partitionStart(long millis) {
+        return millis - Math.floorMod(millis, partitionMillis);
+    }
+
+    /**
+     * The partition with a reference held, opened if needed. Null if it was dropped.
+     */
+    private Partition acquire(long partitionStart) {
+        Partition partition = partitions.get(partitionStart);
+        if (partition == null) {
+            if (partitionStart < droppedBefore) {
+                return null;
+            }
+            synchronized (partitions) {
+                partition = partitions.computeIfAbsent(partitionStart,
+                        start -> open(indexDirectory.resolve(PARTITION_PREFIX + start)));
+            }
+        }
+        return partition.acquire() ? partition : null;
+    }
+
+    private static void release(Partition partition) throws IOException {
+        if (partition.release()) {
+            partition.close();
+            if (partition.deleteOnClose) {
+                deleteRecursively(partition.directory);
+            }
+        }
+    }
+
+    private Query query(String keywords, Long fromMillis, Long toMillis, Long userId) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean hasTerms = false;
+        if (keywords != null) {
+            try (TokenStream stream = analyzer.tokenStream(TEXT, keywords)) {
+                CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+                stream.reset();
+                while (stream.incrementToken()) {
+                    builder.add(new TermQuery(new Term(TEXT, term.toString())), BooleanClause.Occur.MUST);
+                    hasTerms = true;
+                }
+                stream.end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (!hasTerms) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (fromMillis != null || toMillis != null) {
+            builder.add(LongPoint.newRangeQuery(CREATED_AT, fromMillis != null ? fromMillis : Long.MIN_VALUE,
+                    toMillis != null ? toMillis : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        if (userId != null) {
+            builder.add(LongPoint.newExactQuery(USER_ID, userId), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    private static Document document(TwitterAvroModel tweet, long createdAt) {
+        Document document = new Document();
+        document.add(new StoredField(ID, tweet.getId()));
+        document.add(new LongPoint(USER_ID, tweet.getUserId()));
+        document.add(new StoredField(USER_ID, tweet.getUserId()));
+        document.add(new LongPoint(CREATED_AT, createdAt));
+        document.add(new NumericDocValuesField(CREATED_AT, createdAt));
+        document.add(new StoredField(CREATED_AT, createdAt));
+        document.add(new TextField(TEXT, tweet.getText() != null ? tweet.getText() : "", Field.Store.YES));
+        return document;
+    }
+
+    private void openExisting() {
+        try {
+            Files.createDirectories(indexDirectory);
+            try (DirectoryStream<Path> directories = Files.newDirectoryStream(indexDirectory, PARTITION_PREFIX + "*")) {
+                for (Path directory : directories) {
+                    long partitionStart = Long.parseLong(directory.getFileName().toString()
+                            .substring(PARTITION_PREFIX.length()));
+                    partitions.put(partitionStart, open(directory));
+                }
+            }
+        } catch (IOException e) {
+            throw new SearchIndexException("Could not open search index at " + indexDirectory, e);
+        }
+    }
+
+    private Partition open(Path directory) {
+        try {
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                    .setRAMBufferSizeMB(ramBufferSizeMb);
+            IndexWriter writer = new IndexWriter(FSDirectory.open(directory), config);
+            return new Partition(directory, writer, new SearcherManager(writer, null));
+        } catch (IOException e) {
+            throw new SearchIndexException("Could not open search index partition " + directory, e);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static final class Partition {
+
+        private final Path directory;
+
+        private final IndexWriter writer;
+
+        private final SearcherManager searcherManager;
+
+        /**
+         * One reference for the partitions map plus one per use in progress.
+         */
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private volatile boolean deleteOnClose;
+
+        private Partition(Path directory, IndexWriter writer, SearcherManager searcherManager) {
+            this.directory = directory;
+            this.writer = writer;
+            this.searcherManager = searcherManager;
+        }
+
+        /**
+         * False once the partition is closed or about to be.
+         */
+        private boolean acquire() {
+            int current;
+            do {
+                current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * True for the last reference, the caller closes the partition.
+         */
+        private boolean release() {
+            return references.decrementAndGet() == 0;
+        }
+
+        private void search(Query query, int limit, List<TweetHit> hits) throws IOException {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopFieldDocs topDocs = searcher.search(query, limit, NEWEST_FIRST);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Document document = searcher.doc(scoreDoc.doc);
+                    hits.add(new TweetHit(
+                            document.getField(ID).numericValue().longValue(),
+                            document.getField(USER_ID).numericValue().longValue(),
+                            document.getField(CREATED_AT).numericValue().longValue(),
+                            document.get(TEXT)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        }
+
+        private void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+            writer.getDirectory().close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sedlarski.eventdriven.twittersearch.service.index;
+
+public final class TweetHit {
+
+    private final long id;
+
+    private final long userId;
+
+    private final long createdAt;
+
+    private final String text;
+
+    public TweetHit(long id, long userId, long createdAt, String text) {
+        this.id = id;
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.text = text;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,42 @@
+package com.sedlarski.eventdriven.twittersearch.service.listener;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittersearch.service.index.TimePartitionedIndex;
+import com.sedlarski.kafka.consumer.config.service.KafkaConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Each parallel consumer worker indexes its sub-batch in bulk. The index is committed in {@link #flush()}, right
+ * before the consumer commits offsets, so a crash only loses tweets whose offsets were not committed yet and
+ * that are consumed again.
+ */
+@Component
+public class SearchIndexKafkaConsumer implements KafkaConsumer<Long, TwitterAvroModel> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchIndexKafkaConsumer.class);
+
+    private final TimePartitionedIndex timePartitionedIndex;
+
+    public SearchIndexKafkaConsumer(TimePartitionedIndex timePartitionedIndex) {
+        this.timePartitionedIndex = timePartitionedIndex;
+    }
+
+    @Override
+    public void receive(List<TwitterAvroModel> messages, List<Long> keys, List<Integer> partitions,
+                        List<Long> offsets) {
+        int skipped = timePartitionedIndex.index(messages, System.currentTimeMillis());
+        if (skipped > 0) {
+            LOG.debug("Skipped {} tweet(s) older than the search index retention", skipped);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        timePartitionedIndex.commit();
+    }
+}
@@ -0,0 +1,125 @@
+package com.sedlarski.eventdriven.twittersearch.service.index;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TimePartitionedIndexTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private static final long NOW = 100 * HOUR;
+
+    @TempDir
+    Path directory;
+
+    private TimePartitionedIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TimePartitionedIndex(directory, HOUR, 24 * HOUR, 16);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    public void findsKeywordsNewestFirstAcrossPartitions() throws IOException {
+        index.index(List.of(
+                tweet(1, 10, NOW - 3 * HOUR, "Learning #Kafka streams"),
+                tweet(2, 11, NOW - 2 * HOUR, "Kafka and Java"),
+                tweet(3, 10, NOW - HOUR, "Only Java here"),
+                tweet(4, 12, NOW - 1, "kafka again")), NOW);
+        index.refresh();
+
+        assertEquals(List.of(4L, 2L, 1L), ids(index.search("kafka", null, null, null, 10)));
+        assertEquals(List.of(4L, 2L), ids(index.search("kafka", null, null, null, 2)));
+        assertEquals(List.of(2L), ids(index.search("kafka java", null, null, null, 10)));
+        assertEquals(List.of(3L, 1L), ids(index.search(null, null, null, 10L, 10)));
+        assertEquals(List.of(3L, 2L), ids(index.search("", NOW - 2 * HOUR, NOW - HOUR, null, 10)));
+    }
+
+    @Test
+    public void dropsPartitionsPastRetention() throws IOException {
+        assertEquals(1, index.index(List.of(
+                tweet(1, 10, NOW - 30 * HOUR, "too old"),
+                tweet(2, 10, NOW - 20 * HOUR, "kafka old"),
+                tweet(3, 10, NOW, "kafka new")), NOW));
+        assertEquals(2, index.getPartitionCount());
+
+        assertEquals(1, index.dropExpired(NOW + 5 * HOUR));
+        index.refresh();
+
+        assertEquals(List.of(3L), ids(index.search("kafka", null, null, null, 10)));
+    }
+
+    @Test
+    public void doesNotReopenDroppedPartitions() throws IOException {
+        index.index(List.of(tweet(1, 10, NOW - 20 * HOUR, "kafka old")), NOW);
+        assertEquals(1, index.dropExpired(NOW + 5 * HOUR));
+
+        assertEquals(1, index.index(List.of(tweet(2, 10, NOW - 20 * HOUR, "kafka late")), NOW));
+        assertEquals(0, index.getPartitionCount());
+    }
+
+    @Test
+    public void dropsPartitionsWhileSearching() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread searcher = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    index.search("kafka", null, null, null, 10);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        searcher.start();
+        try {
+            for (int round = 0; round < 50; round++) {
+                long now = NOW + round * HOUR;
+                index.index(List.of(tweet(round, 10, now - 23 * HOUR, "kafka " + round)), now);
+                index.refresh();
+                index.dropExpired(now + HOUR);
+            }
+        } finally {
+            running.set(false);
+            searcher.join();
+        }
+
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void reopensCommittedPartitions() throws IOException {
+        index.index(List.of(tweet(1, 10, NOW, "kafka")), NOW);
+        index.close();
+
+        index = new TimePartitionedIndex(directory, HOUR, 24 * HOUR, 16);
+
+        assertEquals(List.of(1L), ids(index.search("kafka", null, null, null, 10)));
+    }
+
+    private static TwitterAvroModel tweet(long id, long userId, long createdAt, String text) {
+        return new TwitterAvroModel(userId, id, text, createdAt);
+    }
+
+    private static List<Long> ids(List<TweetHit> hits) {
+        return hits.stream().map(TweetHit::getId).collect(Collectors.toList());
+    }
+}
@@ -1,35 +1,55 @@
 package com.sedlarski.eventdriven.twittertokafka.service;
 
+import com.sedlarski.eventdriven.common.startup.StartupPhaseTimings;
 import com.sedlarski.eventdriven.config.TwitterToKafkaServiceConfigData;
+import com.sedlarski.eventdriven.twittertokafka.service.init.StreamInitializer;
 import com.sedlarski.eventdriven.twittertokafka.service.runner.StreamRunner;
-import com.sedlarski.eventdriven.twittertokafka.service.runner.impl.TwitterStreamV2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.ComponentScan;
 
+/**
+ * Scans only the packages that hold beans of this service, not the generated Avro model classes next to them.
+ */
 @SpringBootApplication
-@ComponentScan(basePackages = {"com.sedlarski"})
+@ComponentScan(basePackages = {
+        "com.sedlarski.eventdriven.twittertokafka",
+        "com.sedlarski.eventdriven.config",
+        "com.sedlarski.eventdriven.common",
+        "com.sedlarski.eventdriven.kafka.admin",
+        "com.sedlarski.kafka.producer"
+})
 public class TwitterToKafkaApplication implements CommandLineRunner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TwitterToKafkaApplication.class);
 
+    private static final int STARTUP_STEP_CAPACITY = 4096;
+
     private final StreamRunner twitterKafkaStreamRunner;
 
     private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
 
-    private final TwitterStreamV2 twitterStreamV2;
+    private final StreamInitializer streamInitializer;
+
+    private final StartupPhaseTimings startupPhaseTimings;
 
-    public TwitterToKafkaApplication(StreamRunner twitterKafkaStreamRunner, TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData, TwitterStreamV2 twitterStreamV2) {
+    public TwitterToKafkaApplication(StreamRunner twitterKafkaStreamRunner, TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData, StreamInitializer streamInitializer,
+                                     StartupPhaseTimings startupPhaseTimings) {
         this.twitterKafkaStreamRunner = twitterKafkaStreamRunner;
         this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
-        this.twitterStreamV2 = twitterStreamV2;
+        this.streamInitializer = streamInitializer;
+        this.startupPhaseTimings = startupPhaseTimings;
     }
 
     public static void main(String[] args) {
-        SpringApplication.run(TwitterToKafkaApplication.class, args);
+        StartupPhaseTimings.markMain();
+        SpringApplication application = new SpringApplication(TwitterToKafkaApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 
     @Override
@@ -37,9 +57,10 @@ public class TwitterToKafkaApplication implements CommandLineRunner {
         LOGGER.info("App starts...");
         LOGGER.info("Twitter keywords: {}", twitterToKafkaServiceConfigData.getTwitterKeywords());
         LOGGER.info(twitterToKafkaServiceConfigData.getWelcomeMessage());
+        long initStartNanos = System.nanoTime();
+        streamInitializer.init();
+        startupPhaseTimings.record("stream-init", initStartNanos);
+        startupPhaseTimings.recordSinceJvmStart("jvm-start-to-stream-start");
         twitterKafkaStreamRunner.start();
-//        twitterStreamV2.start(twitterToKafkaServiceConfigData.getBearerToken());
-
-
     }
 }
@@ -0,0 +1,136 @@
+package com.sedlarski.eventdriven.twittertokafka.service.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Splits a newline delimited body into lines as the bytes arrive, requesting the next chunk only after the
+ * current one is consumed. Lines are handed over as raw bytes in a reused buffer; empty lines (stream
+ * keep-alives) are skipped.
+ */
+class NdjsonLineSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NdjsonLineSubscriber.class);
+
+    private static final int MAX_LINE_BYTES = 1 << 20;
+
+    private final LineHandler lineHandler;
+
+    private final Runnable onData;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private byte[] lineBuffer = new byte[8192];
+
+    private int lineLength;
+
+    private boolean discardingLine;
+
+    private volatile Flow.Subscription subscription;
+
+    NdjsonLineSubscriber(LineHandler lineHandler, Runnable onData) {
+        this.lineHandler = lineHandler;
+        this.onData = onData;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        onData.run();
+        for (ByteBuffer buffer : buffers) {
+            consume(buffer);
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        LOG.debug("Stream body failed", throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        LOG.debug("Stream body completed");
+    }
+
+    void cancel() {
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * @return true only for the first caller, so a connection is reported as closed once
+     */
+    boolean markClosed() {
+        return closed.compareAndSet(false, true);
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    private void consume(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                emitLine();
+            } else if (!discardingLine) {
+                append(b);
+            }
+        }
+    }
+
+    private void append(byte b) {
+        if (lineLength == lineBuffer.length) {
+            if (lineLength >= MAX_LINE_BYTES) {
+                LOG.warn("Discarding stream line longer than {} bytes", MAX_LINE_BYTES);
+                discardingLine = true;
+                lineLength = 0;
+                return;
+            }
+            lineBuffer = Arrays.copyOf(lineBuffer, lineBuffer.length * 2);
+        }
+        lineBuffer[lineLength++] = b;
+    }
+
+    private void emitLine() {
+        int length = lineLength;
+        if (length > 0 && lineBuffer[length - 1] == '\r') {
+            length--;
+        }
+        lineLength = 0;
+        if (discardingLine) {
+            discardingLine = false;
+            return;
+        }
+        if (length == 0) {
+            return;
+        }
+        try {
+            lineHandler.onLine(lineBuffer, length);
+        } catch (Exception e) {
+            LOG.warn("Could not process stream line", e);
+        }
+    }
+
+    @FunctionalInterface
+    interface LineHandler {
+        /**
+         * The buffer is only valid for the duration of the call.
+         */
+        void onLine(byte[] buffer, int length);
+    }
+}
@@ -0,0 +1,202 @@
+package com.sedlarski.eventdriven.twittertokafka.service.client;
+
+import com.sedlarski.eventdriven.config.RetryConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.exception.TwitterToKafkaServiceException;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterJsonToAvroTransformer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Client for the v2 filtered stream. The body is consumed asynchronously on the {@link HttpClient} executor and
+ * each tweet goes straight to the sink as a {@link TwitterAvroModel}. A closed, failed or stalled connection is
+ * reopened with exponential backoff, reset once data flows again.
+ */
+public class TwitterV2StreamClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwitterV2StreamClient.class);
+
+    /**
+     * The endpoint sends a keep-alive every 20 seconds.
+     */
+    private static final long STALL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final int HTTP_OK = 200;
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final HttpClient httpClient;
+
+    private final URI baseUri;
+
+    private final String bearerToken;
+
+    private final RetryConfigData retryConfigData;
+
+    private final TwitterJsonToAvroTransformer twitterJsonToAvroTransformer;
+
+    private final Consumer<TwitterAvroModel> sink;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+
+    private volatile NdjsonLineSubscriber currentConnection;
+
+    private volatile long lastDataNanos;
+
+    private long backoffMs;
+
+    public TwitterV2StreamClient(HttpClient httpClient, URI baseUri, String bearerToken,
+                                 RetryConfigData retryConfigData, TwitterJsonToAvroTransformer twitterJsonToAvroTransformer,
+                                 Consumer<TwitterAvroModel> sink) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri.toString().endsWith("/") ? baseUri : URI.create(baseUri + "/");
+        this.bearerToken = bearerToken;
+        this.retryConfigData = retryConfigData;
+        this.twitterJsonToAvroTransformer = twitterJsonToAvroTransformer;
+        this.sink = sink;
+        this.backoffMs = retryConfigData.getInitialIntervalMs();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("twitter-v2-stream-"));
+    }
+
+    /**
+     * Replaces all existing stream rules with one rule per keyword.
+     */
+    public void replaceRules(List<String> keywords) {
+        try {
+            JSONObject existing = new JSONObject(sendForBody(rulesRequest().GET().build()));
+            JSONArray existingRules = existing.optJSONArray("data");
+            if (existingRules != null && existingRules.length() > 0) {
+                JSONArray ids = new JSONArray();
+                for (int i = 0; i < existingRules.length(); i++) {
+                    ids.put(existingRules.getJSONObject(i).getString("id"));
+                }
+                JSONObject delete = new JSONObject().put("delete", new JSONObject().put("ids", ids));
+                sendForBody(rulesRequest().POST(HttpRequest.BodyPublishers.ofString(delete.toString())).build());
+            }
+            JSONArray rules = new JSONArray();
+            keywords.forEach(keyword -> rules.put(new JSONObject().put("value", keyword).put("tag", keyword)));
+            JSONObject add = new JSONObject().put("add", rules);
+            sendForBody(rulesRequest().POST(HttpRequest.BodyPublishers.ofString(add.toString())).build());
+            LOG.info("Twitter v2 stream rules set to {}", keywords);
+        } catch (IOException e) {
+            throw new TwitterToKafkaServiceException("Error while setting up twitter v2 stream rules", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TwitterToKafkaServiceException("Interrupted while setting up twitter v2 stream rules", e);
+        }
+    }
+
+    public void start() {
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::checkStall, 5, 5, TimeUnit.SECONDS);
+        connect();
+    }
+
+    public void stop() {
+        running = false;
+        NdjsonLineSubscriber connection = currentConnection;
+        if (connection != null) {
+            connection.cancel();
+        }
+        scheduler.shutdownNow();
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        NdjsonLineSubscriber connection = new NdjsonLineSubscriber(this::onLine, this::onData);
+        currentConnection = connection;
+        lastDataNanos = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("tweets/search/stream?tweet.fields=created_at,author_id"))
+                .header("Authorization", "Bearer " + bearerToken)
+                .GET()
+                .build();
+        httpClient.<Void>sendAsync(request, responseInfo -> responseInfo.statusCode() == HTTP_OK
+                        ? BodySubscribers.fromSubscriber(connection, subscriber -> null)
+                        : BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                            LOG.error("Twitter v2 stream returned status {}: {}", responseInfo.statusCode(), body);
+                            return null;
+                        }))
+                .whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        LOG.warn("Twitter v2 stream connection failed", throwable);
+                    } else if (response.statusCode() == HTTP_OK) {
+                        LOG.info("Twitter v2 stream closed by the server");
+                    }
+                    boolean rateLimited = response != null && response.statusCode() == HTTP_TOO_MANY_REQUESTS;
+                    onDisconnect(connection, rateLimited);
+                });
+    }
+
+    private void onLine(byte[] line, int length) {
+        TwitterAvroModel twitterAvroModel = new TwitterAvroModel();
+        if (twitterJsonToAvroTransformer.fill(line, length, twitterAvroModel)) {
+            sink.accept(twitterAvroModel);
+        } else {
+            LOG.warn("Skipping twitter v2 stream message without a tweet: {}", new String(line, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    private synchronized void onData() {
+        lastDataNanos = System.nanoTime();
+        backoffMs = retryConfigData.getInitialIntervalMs();
+    }
+
+    private void checkStall() {
+        NdjsonLineSubscriber connection = currentConnection;
+        if (connection != null && !connection.isClosed() && System.nanoTime() - lastDataNanos > STALL_TIMEOUT_NANOS) {
+            LOG.warn("No data from twitter v2 stream for {}s, reconnecting", TimeUnit.NANOSECONDS.toSeconds(STALL_TIMEOUT_NANOS));
+            connection.cancel();
+            onDisconnect(connection, false);
+        }
+    }
+
+    private void onDisconnect(NdjsonLineSubscriber connection, boolean rateLimited) {
+        if (!running || !connection.markClosed()) {
+            return;
+        }
+        long delayMs = nextBackoffMs(rateLimited);
+        LOG.info("Reconnecting to twitter v2 stream in {} ms", delayMs);
+        scheduler.schedule(this::connect, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized long nextBackoffMs(boolean rateLimited) {
+        long delayMs = rateLimited ? Math.max(backoffMs, retryConfigData.getMaxIntervalMs()) : backoffMs;
+        backoffMs = Math.min((long) (delayMs * retryConfigData.getMultiplier()), retryConfigData.getMaxIntervalMs());
+        return delayMs;
+    }
+
+    private HttpRequest.Builder rulesRequest() {
+        return HttpRequest.newBuilder(baseUri.resolve("tweets/search/stream/rules"))
+                .header("Authorization", "Bearer " + bearerToken)
+                .header("Content-Type", "application/json");
+    }
+
+    private String sendForBody(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() / 100 != 2) {
+            throw new TwitterToKafkaServiceException("Twitter v2 rules request failed with status " +
+                    response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
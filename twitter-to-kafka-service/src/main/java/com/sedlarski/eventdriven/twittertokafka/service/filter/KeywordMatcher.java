@@ -0,0 +1,202 @@
+package com.sedlarski.eventdriven.twittertokafka.service.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Case-insensitive Aho-Corasick matcher telling whether a text contains any of the keywords, in one pass over
+ * the text. The failure links are folded into a full transition table over the characters that occur in the
+ * keywords, every other character maps to class 0, so matching is one table lookup per character.
+ * <p>
+ * Keywords can be split into groups, {@link #matchGroups} then reports every group with a keyword in the text,
+ * still in one pass no matter how many groups there are.
+ */
+public class KeywordMatcher {
+
+    private final char[] classOf;
+
+    private final int classCount;
+
+    private final int[] transitions;
+
+    private final boolean[] accepting;
+
+    private final int groupWords;
+
+    /**
+     * Bits of the groups whose keywords end in a state, null for states where no keyword ends.
+     */
+    private final long[][] outputs;
+
+    public KeywordMatcher(Collection<String> keywords) {
+        this(List.of(keywords));
+    }
+
+    private KeywordMatcher(List<? extends Collection<String>> keywordGroups) {
+        List<String> folded = new ArrayList<>();
+        List<Integer> groupOf = new ArrayList<>();
+        char maxChar = 0;
+        for (int group = 0; group < keywordGroups.size(); group++) {
+            for (String keyword : keywordGroups.get(group)) {
+                if (keyword == null || keyword.isBlank()) {
+                    continue;
+                }
+                String foldedKeyword = fold(keyword.trim());
+                folded.add(foldedKeyword);
+                groupOf.add(group);
+                for (int i = 0; i < foldedKeyword.length(); i++) {
+                    maxChar = (char) Math.max(maxChar, foldedKeyword.charAt(i));
+                }
+            }
+        }
+        if (folded.isEmpty()) {
+            throw new IllegalArgumentException("Keyword matcher needs at least one keyword!");
+        }
+        classOf = new char[maxChar + 1];
+        int classes = 1;
+        for (String keyword : folded) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (classOf[c] == 0) {
+                    classOf[c] = (char) classes++;
+                }
+            }
+        }
+        classCount = classes;
+        groupWords = (keywordGroups.size() + 63) / 64;
+
+        List<int[]> trie = new ArrayList<>();
+        List<long[]> trieOutputs = new ArrayList<>();
+        trie.add(newState());
+        trieOutputs.add(null);
+        for (int k = 0; k < folded.size(); k++) {
+            String keyword = folded.get(k);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int c = classOf[keyword.charAt(i)];
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    trieOutputs.add(null);
+                }
+                state = trie.get(state)[c];
+            }
+            if (trieOutputs.get(state) == null) {
+                trieOutputs.set(state, new long[groupWords]);
+            }
+            int group = groupOf.get(k);
+            trieOutputs.get(state)[group >>> 6] |= 1L << group;
+        }
+
+        int stateCount = trie.size();
+        transitions = new int[stateCount * classCount];
+        accepting = new boolean[stateCount];
+        outputs = new long[stateCount][];
+        int[] failure = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < classCount; c++) {
+            int next = trie.get(0)[c];
+            transitions[c] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = union(trieOutputs.get(state), outputs[failure[state]]);
+            accepting[state] = outputs[state] != null;
+            for (int c = 0; c < classCount; c++) {
+                int next = trie.get(state)[c];
+                if (next >= 0) {
+                    failure[next] = transitions[failure[state] * classCount + c];
+                    transitions[state * classCount + c] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * classCount + c] = transitions[failure[state] * classCount + c];
+                }
+            }
+        }
+    }
+
+    public boolean matches(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int charClass = c < classOf.length ? classOf[c] : 0;
+            state = transitions[state * classCount + charClass];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a matcher over several keyword groups, group {@code i} being {@code keywordGroups.get(i)}. Groups
+     * may be empty as long as one keyword is left overall.
+     */
+    public static KeywordMatcher ofGroups(List<? extends Collection<String>> keywordGroups) {
+        return new KeywordMatcher(keywordGroups);
+    }
+
+    /**
+     * Sets the bit of every group with a keyword in the text, bit {@code i % 64} of {@code groups[i / 64]} for
+     * group {@code i}. Bits already set are kept.
+     */
+    public void matchGroups(CharSequence text, long[] groups) {
+        if (text == null) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int charClass = c < classOf.length ? classOf[c] : 0;
+            state = transitions[state * classCount + charClass];
+            long[] output = outputs[state];
+            if (output != null) {
+                for (int word = 0; word < groupWords; word++) {
+                    groups[word] |= output[word];
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of longs {@link #matchGroups} needs to hold a bit per group.
+     */
+    public int getGroupWords() {
+        return groupWords;
+    }
+
+    private static long[] union(long[] own, long[] inherited) {
+        if (own == null || inherited == null) {
+            return own != null ? own : inherited;
+        }
+        long[] union = own.clone();
+        for (int word = 0; word < union.length; word++) {
+            union[word] |= inherited[word];
+        }
+        return union;
+    }
+
+    private int[] newState() {
+        int[] state = new int[classCount];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    private static String fold(String keyword) {
+        StringBuilder builder = new StringBuilder(keyword.length());
+        for (int i = 0; i < keyword.length(); i++) {
+            builder.append(Character.toLowerCase(keyword.charAt(i)));
+        }
+        return builder.toString();
+    }
+}
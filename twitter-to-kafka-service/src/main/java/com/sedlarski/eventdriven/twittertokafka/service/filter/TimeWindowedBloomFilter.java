@@ -0,0 +1,138 @@
+package com.sedlarski.eventdriven.twittertokafka.service.filter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers ids for at least one window, and at most two, in two off-heap Bloom filter generations: ids are
+ * added to the current generation and looked up in both, and once a window has passed the older generation is
+ * cleared and becomes the current one. Bits are set with atomic ors on a direct buffer, so the filter is safe
+ * for concurrent use and its memory stays out of the Java heap.
+ * <p>
+ * Two threads offering the same id at the same moment may both see it as new; the filter is for cutting
+ * duplicate volume, not for exactly-once.
+ */
+public class TimeWindowedBloomFilter {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final byte[] ZEROS = new byte[8192];
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final long windowNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong nextRotationNanos;
+
+    private volatile Generations generations;
+
+    public TimeWindowedBloomFilter(long expectedInsertions, double falsePositiveRate, long windowSeconds) {
+        this(expectedInsertions, falsePositiveRate, windowSeconds, System::nanoTime);
+    }
+
+    TimeWindowedBloomFilter(long expectedInsertions, double falsePositiveRate, long windowSeconds,
+                            LongSupplier nanoClock) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || windowSeconds <= 0) {
+            throw new IllegalArgumentException("Bloom filter needs positive insertions and window, and 0 < fpp < 1!");
+        }
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long words = Math.max(1, (long) Math.ceil(bits / Long.SIZE));
+        if (words * Long.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter for " + expectedInsertions + " ids does not fit a buffer!");
+        }
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round(bitCount / (double) expectedInsertions * Math.log(2)));
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.nanoClock = nanoClock;
+        this.nextRotationNanos = new AtomicLong(nanoClock.getAsLong() + windowNanos);
+        this.generations = new Generations(allocate(words), allocate(words));
+    }
+
+    /**
+     * Adds the id and tells whether it was already there, i.e. seen in the last window or a false positive.
+     */
+    public boolean checkAndAdd(long id) {
+        rotateIfDue();
+        Generations current = generations;
+        long hash = mix(id);
+        long h1 = hash >>> 32;
+        long h2 = hash & 0xFFFFFFFFL | 1L;
+        boolean seenBefore = true;
+        boolean seenInPrevious = true;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int offset = (int) (bit >>> 6) * Long.BYTES;
+            long mask = 1L << bit;
+            long old = (long) LONGS.getAndBitwiseOr(current.current, offset, mask);
+            seenBefore &= (old & mask) != 0;
+            if (seenInPrevious) {
+                seenInPrevious = ((long) LONGS.getVolatile(current.previous, offset) & mask) != 0;
+            }
+        }
+        return seenBefore || seenInPrevious;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private void rotateIfDue() {
+        long now = nanoClock.getAsLong();
+        long due = nextRotationNanos.get();
+        if (now - due < 0 || !nextRotationNanos.compareAndSet(due, now + windowNanos)) {
+            return;
+        }
+        Generations current = generations;
+        clear(current.previous);
+        generations = new Generations(current.previous, current.current);
+    }
+
+    private static ByteBuffer allocate(long words) {
+        return ByteBuffer.allocateDirect((int) (words * Long.BYTES)).order(ByteOrder.nativeOrder());
+    }
+
+    private static void clear(ByteBuffer buffer) {
+        ByteBuffer target = buffer.duplicate();
+        target.clear();
+        while (target.hasRemaining()) {
+            target.put(ZEROS, 0, Math.min(ZEROS.length, target.remaining()));
+        }
+    }
+
+    /**
+     * Murmur3 fmix64, spreading sequential tweet ids over the whole hash.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static final class Generations {
+
+        private final ByteBuffer current;
+
+        private final ByteBuffer previous;
+
+        private Generations(ByteBuffer current, ByteBuffer previous) {
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.sedlarski.eventdriven.twittertokafka.service.filter;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.TweetFilterConfigData;
+import com.sedlarski.eventdriven.config.TwitterToKafkaServiceConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pipeline stage in front of the producer: drops tweets whose text matches none of the configured keywords
+ * and tweets whose id was already seen within the dedup window. Both checks are off by default.
+ */
+@Component
+public class TweetFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TweetFilter.class);
+
+    private final KeywordMatcher keywordMatcher;
+
+    private final TimeWindowedBloomFilter seenIds;
+
+    private final Counter keywordMismatchCounter;
+
+    private final Counter duplicateCounter;
+
+    public TweetFilter(TweetFilterConfigData tweetFilterConfigData,
+                       TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                       KafkaConfigData kafkaConfigData,
+                       MeterRegistry meterRegistry) {
+        if (Boolean.TRUE.equals(tweetFilterConfigData.getKeywordFilterEnabled())) {
+            keywordMatcher = new KeywordMatcher(twitterToKafkaServiceConfigData.getTwitterKeywords());
+            LOG.info("Keyword filter enabled for keywords {}", twitterToKafkaServiceConfigData.getTwitterKeywords());
+        } else {
+            keywordMatcher = null;
+        }
+        if (Boolean.TRUE.equals(tweetFilterConfigData.getDedupEnabled())) {
+            seenIds = new TimeWindowedBloomFilter(tweetFilterConfigData.getExpectedTweetsPerWindow(),
+                    tweetFilterConfigData.getFalsePositiveRate(), tweetFilterConfigData.getDedupWindowSeconds());
+            LOG.info("Dedup filter enabled with a {} second window, {} bits per generation and {} hashes",
+                    tweetFilterConfigData.getDedupWindowSeconds(), seenIds.getBitCount(), seenIds.getHashCount());
+        } else {
+            seenIds = null;
+        }
+        String topicName = kafkaConfigData.getTopicName();
+        keywordMismatchCounter = Counter.builder("twitter.filter.dropped")
+                .description("Tweets dropped before the producer")
+                .tag("topic", topicName)
+                .tag("reason", "keyword")
+                .register(meterRegistry);
+        duplicateCounter = Counter.builder("twitter.filter.dropped")
+                .description("Tweets dropped before the producer")
+                .tag("topic", topicName)
+                .tag("reason", "duplicate")
+                .register(meterRegistry);
+    }
+
+    public boolean accept(TwitterAvroModel twitterAvroModel) {
+        if (keywordMatcher != null && !keywordMatcher.matches(twitterAvroModel.getText())) {
+            keywordMismatchCounter.increment();
+            return false;
+        }
+        if (seenIds != null && seenIds.checkAndAdd(twitterAvroModel.getId())) {
+            duplicateCounter.increment();
+            return false;
+        }
+        return true;
+    }
+}
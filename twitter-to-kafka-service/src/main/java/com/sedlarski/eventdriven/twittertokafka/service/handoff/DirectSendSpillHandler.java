@@ -0,0 +1,26 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.publisher.TweetPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spills overflowing tweets straight to the producer on the caller thread, i.e. the queue degrades
+ * to the old synchronous path instead of losing data.
+ */
+@Component
+@ConditionalOnProperty(name = "spill-log-config.enabled", havingValue = "false", matchIfMissing = true)
+public class DirectSendSpillHandler implements SpillHandler<TwitterAvroModel> {
+
+    private final TweetPublisher tweetPublisher;
+
+    public DirectSendSpillHandler(TweetPublisher tweetPublisher) {
+        this.tweetPublisher = tweetPublisher;
+    }
+
+    @Override
+    public void spill(TwitterAvroModel element) {
+        tweetPublisher.publish(element);
+    }
+}
@@ -0,0 +1,102 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer/multi-consumer ring buffer.
+ * Every slot carries a sequence number that tells producers and consumers whether the slot
+ * is free for the current lap, so neither side ever takes a lock.
+ */
+public class MpmcRingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    public MpmcRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2, was " + requestedCapacity);
+        }
+        int capacity = roundToPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+        while (true) {
+            long index = producerIndex.get();
+            int slot = (int) (index & mask);
+            long difference = sequences.get(slot) - index;
+            if (difference == 0) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, index + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    public E poll() {
+        while (true) {
+            long index = consumerIndex.get();
+            int slot = (int) (index & mask);
+            long difference = sequences.get(slot) - (index + 1);
+            if (difference == 0) {
+                if (consumerIndex.compareAndSet(index, index + 1)) {
+                    E element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    sequences.set(slot, index + mask + 1);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+}
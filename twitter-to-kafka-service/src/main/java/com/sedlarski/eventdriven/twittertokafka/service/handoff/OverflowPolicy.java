@@ -0,0 +1,20 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+public enum OverflowPolicy {
+    /**
+     * Caller waits until a slot frees up.
+     */
+    BLOCK,
+    /**
+     * Oldest queued element is evicted to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * New element is discarded.
+     */
+    DROP_NEWEST,
+    /**
+     * New element is handed to the configured {@link SpillHandler}, it may overtake queued elements of the same key.
+     */
+    SPILL
+}
@@ -0,0 +1,5 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+public interface SpillHandler<E> {
+    void spill(E element);
+}
@@ -0,0 +1,39 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.publisher.TweetPublisher;
+import com.sedlarski.kafka.producer.config.spill.TweetSpillLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Spills overflowing tweets to the local spill log, which is replayed to Kafka in the background, so a full
+ * queue costs the caller a memory-mapped append instead of a send. A routed tweet is spilled once per topic.
+ * Falls back to a direct send to the topics left when the spill log is full.
+ */
+@Component
+@ConditionalOnProperty(name = "spill-log-config.enabled", havingValue = "true")
+public class SpillLogSpillHandler implements SpillHandler<TwitterAvroModel> {
+
+    private final TweetSpillLog tweetSpillLog;
+
+    private final TweetPublisher tweetPublisher;
+
+    public SpillLogSpillHandler(TweetSpillLog tweetSpillLog, TweetPublisher tweetPublisher) {
+        this.tweetSpillLog = tweetSpillLog;
+        this.tweetPublisher = tweetPublisher;
+    }
+
+    @Override
+    public void spill(TwitterAvroModel element) {
+        List<String> topicNames = tweetPublisher.topicsOf(element);
+        for (int i = 0; i < topicNames.size(); i++) {
+            if (!tweetSpillLog.spill(topicNames.get(i), element.getUserId(), element)) {
+                tweetPublisher.publish(element, topicNames.subList(i, topicNames.size()));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+import com.sedlarski.eventdriven.config.HandoffQueueConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.filter.TweetFilter;
+import com.sedlarski.eventdriven.twittertokafka.service.publisher.TweetPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands tweets from the stream threads to drain workers that publish them in batches. Every worker drains a ring
+ * buffer of its own and a user's tweets always go to the same one, so they reach the producer in the order they
+ * were published. An idle worker parks until a publisher wakes it up.
+ */
+@Component
+public class TweetHandoffQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TweetHandoffQueue.class);
+
+    private static final int SPIN_LIMIT = 100;
+    private static final int YIELD_LIMIT = 200;
+    /** Publishers unpark an idle worker, the timeout only bounds a wake-up that raced with shutdown. */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final HandoffQueueConfigData handoffQueueConfigData;
+
+    private final TweetPublisher tweetPublisher;
+
+    private final SpillHandler<TwitterAvroModel> spillHandler;
+
+    private final TweetFilter tweetFilter;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final AtomicLong spilledCount = new AtomicLong();
+
+    /** Publishers between their check of running and the offer, the workers wait for them before they stop. */
+    private final AtomicInteger activePublishers = new AtomicInteger();
+
+    private Shard[] shards;
+
+    private OverflowPolicy overflowPolicy;
+
+    private ExecutorService drainExecutor;
+
+    private volatile boolean running;
+
+    public TweetHandoffQueue(HandoffQueueConfigData handoffQueueConfigData,
+                             TweetPublisher tweetPublisher,
+                             SpillHandler<TwitterAvroModel> spillHandler,
+                             TweetFilter tweetFilter) {
+        this.handoffQueueConfigData = handoffQueueConfigData;
+        this.tweetPublisher = tweetPublisher;
+        this.spillHandler = spillHandler;
+        this.tweetFilter = tweetFilter;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!Boolean.TRUE.equals(handoffQueueConfigData.getEnabled())) {
+            LOG.info("Handoff queue disabled, tweets will be sent on the stream thread");
+            return;
+        }
+        int drainWorkers = handoffQueueConfigData.getDrainWorkers();
+        if (drainWorkers < 1) {
+            throw new IllegalStateException("handoff-queue-config.drain-workers must be at least 1, was " +
+                    drainWorkers);
+        }
+        shards = new Shard[drainWorkers];
+        for (int i = 0; i < drainWorkers; i++) {
+            shards[i] = new Shard(new MpmcRingBuffer<>(Math.max(2, handoffQueueConfigData.getCapacity() /
+                    drainWorkers)));
+        }
+        overflowPolicy = OverflowPolicy.valueOf(handoffQueueConfigData.getOverflowPolicy().trim()
+                .toUpperCase(Locale.ROOT));
+        drainExecutor = Executors.newFixedThreadPool(drainWorkers, new CustomizableThreadFactory("tweet-handoff-"));
+        running = true;
+        for (Shard shard : shards) {
+            drainExecutor.execute(() -> drain(shard));
+        }
+        LOG.info("Handoff queue started with capacity {}, overflow policy {} and {} drain worker(s)",
+                capacity(), overflowPolicy, drainWorkers);
+    }
+
+    public void publish(TwitterAvroModel twitterAvroModel) {
+        if (!tweetFilter.accept(twitterAvroModel)) {
+            return;
+        }
+        activePublishers.incrementAndGet();
+        try {
+            if (!running) {
+                tweetPublisher.publish(twitterAvroModel);
+                return;
+            }
+            Shard shard = shardOf(twitterAvroModel);
+            if (shard.ringBuffer.offer(twitterAvroModel)) {
+                shard.wakeUp();
+            } else {
+                handleOverflow(shard, twitterAvroModel);
+            }
+        } finally {
+            activePublishers.decrementAndGet();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        if (shards != null) {
+            for (Shard shard : shards) {
+                size += shard.ringBuffer.size();
+            }
+        }
+        return size;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (drainExecutor != null) {
+            LOG.info("Shutting down handoff queue, draining {} remaining tweet(s)...", size());
+            running = false;
+            for (Shard shard : shards) {
+                shard.wakeUp();
+            }
+            drainExecutor.shutdown();
+            try {
+                if (!drainExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOG.warn("Handoff queue did not drain in {} seconds, {} tweet(s) left behind",
+                            SHUTDOWN_TIMEOUT_SECONDS, size());
+                    drainExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drainExecutor.shutdownNow();
+            }
+            LOG.info("Handoff queue stopped, dropped: {}, spilled: {}", droppedCount.get(), spilledCount.get());
+        }
+    }
+
+    private int capacity() {
+        int capacity = 0;
+        for (Shard shard : shards) {
+            capacity += shard.ringBuffer.capacity();
+        }
+        return capacity;
+    }
+
+    private Shard shardOf(TwitterAvroModel twitterAvroModel) {
+        return shards[Math.floorMod(Long.hashCode(twitterAvroModel.getUserId()), shards.length)];
+    }
+
+    private void handleOverflow(Shard shard, TwitterAvroModel twitterAvroModel) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                blockUntilOffered(shard, twitterAvroModel);
+                break;
+            case DROP_OLDEST:
+                dropOldestAndOffer(shard, twitterAvroModel);
+                break;
+            case DROP_NEWEST:
+                droppedCount.incrementAndGet();
+                break;
+            case SPILL:
+                spilledCount.incrementAndGet();
+                spillHandler.spill(twitterAvroModel);
+                break;
+            default:
+                throw new IllegalStateException("Unknown overflow policy " + overflowPolicy);
+        }
+    }
+
+    private void blockUntilOffered(Shard shard, TwitterAvroModel twitterAvroModel) {
+        while (!shard.ringBuffer.offer(twitterAvroModel)) {
+            if (!running) {
+                tweetPublisher.publish(twitterAvroModel);
+                return;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        shard.wakeUp();
+    }
+
+    private void dropOldestAndOffer(Shard shard, TwitterAvroModel twitterAvroModel) {
+        while (!shard.ringBuffer.offer(twitterAvroModel)) {
+            if (shard.ringBuffer.poll() != null) {
+                droppedCount.incrementAndGet();
+            }
+        }
+        shard.wakeUp();
+    }
+
+    /**
+     * Stops once the queue is shut down, no publisher can still offer and the ring buffer is empty, in that order;
+     * a publisher that sees running after the check of activePublishers publishes directly.
+     */
+    private void drain(Shard shard) {
+        shard.worker = Thread.currentThread();
+        int drainBatchSize = handoffQueueConfigData.getDrainBatchSize();
+        List<TwitterAvroModel> batch = new ArrayList<>(drainBatchSize);
+        int idleCount = 0;
+        while (true) {
+            if (shard.ringBuffer.drainTo(batch, drainBatchSize) == 0) {
+                if (!running && activePublishers.get() == 0 && shard.ringBuffer.isEmpty()) {
+                    return;
+                }
+                idle(shard, idleCount++);
+                continue;
+            }
+            idleCount = 0;
+            try {
+                tweetPublisher.publishAll(batch);
+            } catch (Exception e) {
+                LOG.error("Error while publishing batch of {} tweet(s)", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Spins and yields for a short burst first, then parks. The parked flag is set before the ring buffer is
+     * checked again and publishers read it after their offer, so a tweet offered meanwhile is never left waiting.
+     */
+    private void idle(Shard shard, int idleCount) {
+        if (idleCount < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (idleCount < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            shard.parked = true;
+            if (shard.ringBuffer.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            shard.parked = false;
+        }
+    }
+
+    private static final class Shard {
+
+        private final MpmcRingBuffer<TwitterAvroModel> ringBuffer;
+
+        private volatile Thread worker;
+
+        private volatile boolean parked;
+
+        private Shard(MpmcRingBuffer<TwitterAvroModel> ringBuffer) {
+            this.ringBuffer = ringBuffer;
+        }
+
+        private void wakeUp() {
+            if (parked) {
+                LockSupport.unpark(worker);
+            }
+        }
+    }
+}
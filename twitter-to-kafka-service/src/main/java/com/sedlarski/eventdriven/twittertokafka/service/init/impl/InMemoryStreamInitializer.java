@@ -0,0 +1,27 @@
+package com.sedlarski.eventdriven.twittertokafka.service.init.impl;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.twittertokafka.service.init.StreamInitializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("in-memory-kafka")
+public class InMemoryStreamInitializer implements StreamInitializer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryStreamInitializer.class);
+
+    private final KafkaConfigData kafkaConfigData;
+
+    public InMemoryStreamInitializer(KafkaConfigData kafkaConfigData) {
+        this.kafkaConfigData = kafkaConfigData;
+    }
+
+    @Override
+    public void init() {
+        LOG.info("Using in-memory kafka, topics {} with {} partition(s) need no bootstrap",
+                kafkaConfigData.getTopicNamesToCreate(), kafkaConfigData.getNumOfPartitions());
+    }
+}
@@ -1,13 +1,20 @@
 package com.sedlarski.eventdriven.twittertokafka.service.init.impl;
 
+import com.sedlarski.eventdriven.common.startup.StartupPhaseTimings;
 import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.StartupConfigData;
 import com.sedlarski.eventdriven.kafka.admin.client.KafkaAdminClient;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
 import com.sedlarski.eventdriven.twittertokafka.service.init.StreamInitializer;
+import com.sedlarski.kafka.producer.config.schema.CachingSchemaRegistryClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!in-memory-kafka")
 public class KafkaStreamInitializer implements StreamInitializer {
 
     private static final Logger LOG = LoggerFactory.getLogger(KafkaStreamInitializer.class);
@@ -16,15 +23,54 @@ public class KafkaStreamInitializer implements StreamInitializer {
 
     private final KafkaAdminClient kafkaAdminClient;
 
-    public KafkaStreamInitializer(KafkaConfigData configData, KafkaAdminClient adminClient) {
+    private final ObjectProvider<CachingSchemaRegistryClient> schemaRegistryClient;
+
+    private final StartupPhaseTimings startupPhaseTimings;
+
+    private final StartupConfigData startupConfigData;
+
+    public KafkaStreamInitializer(KafkaConfigData configData, KafkaAdminClient adminClient,
+                                  ObjectProvider<CachingSchemaRegistryClient> schemaRegistryClient,
+                                  StartupPhaseTimings startupPhaseTimings,
+                                  StartupConfigData startupConfigData) {
         this.kafkaConfigData = configData;
         this.kafkaAdminClient = adminClient;
+        this.schemaRegistryClient = schemaRegistryClient;
+        this.startupPhaseTimings = startupPhaseTimings;
+        this.startupConfigData = startupConfigData;
     }
 
     @Override
     public void init() {
-        kafkaAdminClient.createTopics();
-        kafkaAdminClient.checkSchemaRegistry();
+        String subject = kafkaConfigData.getTopicName() + "-value";
+        CachingSchemaRegistryClient cachingClient = schemaRegistryClient.getIfAvailable();
+        boolean schemaCached = cachingClient != null && cachingClient.isCached(subject, TwitterAvroModel.getClassSchema());
+        if (schemaCached) {
+            LOG.info("Schema id for subject {} is cached, skipping schema registry check", subject);
+        }
+        if (Boolean.TRUE.equals(startupConfigData.getDeferInfrastructureChecks())) {
+            LOG.info("Deferring topic and schema registry checks, starting the stream right away");
+            kafkaAdminClient.bootstrapAsync(!schemaCached).whenCompleteAsync((ignored, throwable) -> {
+                if (throwable != null) {
+                    LOG.error("Deferred kafka bootstrap failed, sends to missing topics will fail", throwable);
+                } else {
+                    warmUpSchemaCache(cachingClient, subject);
+                    LOG.info("Topics with name {} is ready for operations!",
+                            kafkaConfigData.getTopicNamesToCreate().toArray());
+                }
+            });
+            return;
+        }
+        kafkaAdminClient.bootstrap(!schemaCached);
+        warmUpSchemaCache(cachingClient, subject);
         LOG.info("Topics with name {} is ready for operations!", kafkaConfigData.getTopicNamesToCreate().toArray());
     }
+
+    private void warmUpSchemaCache(CachingSchemaRegistryClient cachingClient, String subject) {
+        if (cachingClient != null) {
+            long warmUpStartNanos = System.nanoTime();
+            cachingClient.warmUp(subject, TwitterAvroModel.getClassSchema());
+            startupPhaseTimings.record("schema-cache-warm-up", warmUpStartNanos);
+        }
+    }
 }
\ No newline at end of file
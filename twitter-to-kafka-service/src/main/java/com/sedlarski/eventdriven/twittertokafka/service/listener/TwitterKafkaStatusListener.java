@@ -1,12 +1,12 @@
 package com.sedlarski.eventdriven.twittertokafka.service.listener;
 
-import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.common.logging.HotPathLogger;
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
 import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.handoff.TweetHandoffQueue;
+import com.sedlarski.eventdriven.twittertokafka.service.metrics.PipelineMetrics;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterJsonToAvroTransformer;
 import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterStatusToAvroTransformer;
-import com.sedlarski.kafka.producer.config.service.KafkaProducer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import twitter4j.Status;
 import twitter4j.StatusAdapter;
@@ -14,26 +14,87 @@ import twitter4j.StatusAdapter;
 @Component
 public class TwitterKafkaStatusListener extends StatusAdapter {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(TwitterKafkaStatusListener.class);
+    private final TweetHandoffQueue tweetHandoffQueue;
 
-    private final KafkaConfigData kafkaConfigData;
+    private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
 
-    @Autowired
-    private final KafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+    private final TwitterJsonToAvroTransformer twitterJsonToAvroTransformer;
 
-    private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
+    private final PipelineMetrics pipelineMetrics;
 
-    public TwitterKafkaStatusListener(KafkaConfigData kafkaConfigData, KafkaProducer<Long, TwitterAvroModel> kafkaProducer, TwitterStatusToAvroTransformer twitterStatusToAvroTransformer) {
-        this.kafkaConfigData = kafkaConfigData;
-        this.kafkaProducer = kafkaProducer;
+    private final HotPathLogger hotPathLogger;
+
+    public TwitterKafkaStatusListener(TweetHandoffQueue tweetHandoffQueue,
+                                      TwitterStatusToAvroTransformer twitterStatusToAvroTransformer,
+                                      TwitterJsonToAvroTransformer twitterJsonToAvroTransformer,
+                                      PipelineMetrics pipelineMetrics,
+                                      HotPathLoggerFactory hotPathLoggerFactory) {
+        this.tweetHandoffQueue = tweetHandoffQueue;
         this.twitterStatusToAvroTransformer = twitterStatusToAvroTransformer;
+        this.twitterJsonToAvroTransformer = twitterJsonToAvroTransformer;
+        this.pipelineMetrics = pipelineMetrics;
+        this.hotPathLogger = hotPathLoggerFactory.getLogger(TwitterKafkaStatusListener.class);
     }
 
 
     @Override
     public void onStatus(Status status) {
-        LOGGER.info("Received Twitter status with text: {}", status.getText());
+        tweetHandoffQueue.publish(toAvroModel(status));
+    }
+
+    /**
+     * Records and transforms a status without publishing it, for sources that publish on their own.
+     */
+    public TwitterAvroModel toAvroModel(Status status) {
+        pipelineMetrics.recordReceived();
+        hotPathLogger.recordMessage(status.getText().length());
+        hotPathLogger.info("Received Twitter status with text: {}", status.getText());
+        long transformStartNanos = System.nanoTime();
         TwitterAvroModel twitterAvroModel = twitterStatusToAvroTransformer.getTwitterAvroModelFromStatus(status);
-        kafkaProducer.send(kafkaConfigData.getTopicName(), twitterAvroModel.getUserId(), twitterAvroModel);
+        pipelineMetrics.recordTransform(transformStartNanos);
+        return twitterAvroModel;
+    }
+
+    /**
+     * Entry point for sources that build the avro model themselves, like the synthetic generator.
+     */
+    public void onAvroModel(TwitterAvroModel twitterAvroModel) {
+        tweetHandoffQueue.publish(record(twitterAvroModel));
+    }
+
+    /**
+     * Records a ready built tweet without publishing it, for sources that publish on their own.
+     */
+    public TwitterAvroModel record(TwitterAvroModel twitterAvroModel) {
+        pipelineMetrics.recordReceived();
+        hotPathLogger.recordMessage(twitterAvroModel.getText().length());
+        hotPathLogger.info("Received Twitter status with text: {}", twitterAvroModel.getText());
+        return twitterAvroModel;
+    }
+
+    public void onRawJson(byte[] json) {
+        TwitterAvroModel twitterAvroModel = toAvroModel(json);
+        if (twitterAvroModel != null) {
+            tweetHandoffQueue.publish(twitterAvroModel);
+        }
+    }
+
+    /**
+     * Fast path for sources that have the raw tweet json, skipping the twitter4j Status.
+     *
+     * @return null if the json holds no tweet
+     */
+    public TwitterAvroModel toAvroModel(byte[] json) {
+        pipelineMetrics.recordReceived();
+        hotPathLogger.recordMessage(json.length);
+        long transformStartNanos = System.nanoTime();
+        TwitterAvroModel twitterAvroModel = twitterJsonToAvroTransformer.getTwitterAvroModelFromJson(json);
+        pipelineMetrics.recordTransform(transformStartNanos);
+        if (twitterAvroModel == null) {
+            hotPathLogger.recordError();
+            return null;
+        }
+        hotPathLogger.info("Received Twitter status with text: {}", twitterAvroModel.getText());
+        return twitterAvroModel;
     }
 }
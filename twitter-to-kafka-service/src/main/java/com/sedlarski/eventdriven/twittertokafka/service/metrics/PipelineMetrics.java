@@ -0,0 +1,52 @@
+package com.sedlarski.eventdriven.twittertokafka.service.metrics;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.twittertokafka.service.handoff.TweetHandoffQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest side of the pipeline metrics. Send, ack and in-flight meters live in the producer's ProducerMetrics.
+ */
+@Component
+public class PipelineMetrics {
+
+    private final Counter receivedCounter;
+
+    private final Timer transformTimer;
+
+    public PipelineMetrics(MeterRegistry meterRegistry, KafkaConfigData kafkaConfigData, TweetHandoffQueue tweetHandoffQueue) {
+        String topicName = kafkaConfigData.getTopicName();
+        this.receivedCounter = Counter.builder("twitter.stream.received")
+                .description("Statuses received from the stream")
+                .tag("topic", topicName)
+                .register(meterRegistry);
+        this.transformTimer = Timer.builder("twitter.stream.transform")
+                .description("Time spent transforming a status into the avro model")
+                .tag("topic", topicName)
+                .register(meterRegistry);
+        Gauge.builder("twitter.handoff.queue.size", tweetHandoffQueue, TweetHandoffQueue::size)
+                .tag("topic", topicName)
+                .register(meterRegistry);
+        FunctionCounter.builder("twitter.handoff.dropped", tweetHandoffQueue, TweetHandoffQueue::getDroppedCount)
+                .tag("topic", topicName)
+                .register(meterRegistry);
+        FunctionCounter.builder("twitter.handoff.spilled", tweetHandoffQueue, TweetHandoffQueue::getSpilledCount)
+                .tag("topic", topicName)
+                .register(meterRegistry);
+    }
+
+    public void recordReceived() {
+        receivedCounter.increment();
+    }
+
+    public void recordTransform(long startNanos) {
+        transformTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
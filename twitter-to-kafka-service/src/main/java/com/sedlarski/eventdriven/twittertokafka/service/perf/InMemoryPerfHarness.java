@@ -0,0 +1,114 @@
+package com.sedlarski.eventdriven.twittertokafka.service.perf;
+
+import com.sedlarski.eventdriven.config.InMemoryKafkaConfigData;
+import com.sedlarski.eventdriven.twittertokafka.service.handoff.TweetHandoffQueue;
+import com.sedlarski.kafka.producer.config.inmemory.InMemoryKafkaProducer;
+import com.sedlarski.kafka.producer.config.inmemory.LatencyRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports sustained throughput and latency percentiles of the full runner -> handoff -> producer path while
+ * running against the in-memory kafka. Statistics are reset after the warmup; with a positive duration the
+ * harness prints a summary and closes the application once the measurement window is over.
+ */
+@Component
+@Profile("in-memory-kafka")
+public class InMemoryPerfHarness {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryPerfHarness.class);
+
+    private final InMemoryKafkaConfigData inMemoryKafkaConfigData;
+
+    private final InMemoryKafkaProducer<?, ?> inMemoryKafkaProducer;
+
+    private final TweetHandoffQueue tweetHandoffQueue;
+
+    private final ApplicationContext applicationContext;
+
+    private final ScheduledExecutorService scheduler;
+
+    private long lastAckedCount;
+
+    private long measurementStartAckedCount;
+
+    private long measurementStartNanos;
+
+    public InMemoryPerfHarness(InMemoryKafkaConfigData inMemoryKafkaConfigData,
+                               InMemoryKafkaProducer<?, ?> inMemoryKafkaProducer,
+                               TweetHandoffQueue tweetHandoffQueue,
+                               ApplicationContext applicationContext) {
+        this.inMemoryKafkaConfigData = inMemoryKafkaConfigData;
+        this.inMemoryKafkaProducer = inMemoryKafkaProducer;
+        this.tweetHandoffQueue = tweetHandoffQueue;
+        this.applicationContext = applicationContext;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("perf-harness-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long reportIntervalSeconds = inMemoryKafkaConfigData.getReportIntervalSeconds();
+        long warmupSeconds = inMemoryKafkaConfigData.getWarmupSeconds();
+        long durationSeconds = inMemoryKafkaConfigData.getDurationSeconds();
+        measurementStartNanos = System.nanoTime();
+        scheduler.scheduleAtFixedRate(this::report, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+        scheduler.schedule(this::startMeasurement, warmupSeconds, TimeUnit.SECONDS);
+        if (durationSeconds > 0) {
+            scheduler.schedule(this::finish, warmupSeconds + durationSeconds, TimeUnit.SECONDS);
+        }
+        LOG.info("In-memory perf harness started, warmup {}s, duration {}", warmupSeconds,
+                durationSeconds > 0 ? durationSeconds + "s" : "unbounded");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void startMeasurement() {
+        inMemoryKafkaProducer.resetStatistics();
+        measurementStartAckedCount = inMemoryKafkaProducer.getAckedCount();
+        measurementStartNanos = System.nanoTime();
+        LOG.info("In-memory perf harness warmup finished, measuring...");
+    }
+
+    private void report() {
+        long ackedCount = inMemoryKafkaProducer.getAckedCount();
+        long rate = (ackedCount - lastAckedCount) / inMemoryKafkaConfigData.getReportIntervalSeconds();
+        lastAckedCount = ackedCount;
+        LatencyRecorder ackLatency = inMemoryKafkaProducer.getAckLatencyMicros();
+        LatencyRecorder endToEndLatency = inMemoryKafkaProducer.getEndToEndLatencyMillis();
+        LOG.info("Acked {} msgs/sec, total {}, failed {}, queued {}, dropped {}, send-to-ack p99 {} us, " +
+                        "created-to-ack p99 {} ms",
+                rate, ackedCount, inMemoryKafkaProducer.getFailedCount(), tweetHandoffQueue.size(),
+                tweetHandoffQueue.getDroppedCount(), ackLatency.percentile(99), endToEndLatency.percentile(99));
+    }
+
+    private void finish() {
+        double elapsedSeconds = (System.nanoTime() - measurementStartNanos) / 1e9;
+        long measuredCount = inMemoryKafkaProducer.getAckedCount() - measurementStartAckedCount;
+        LatencyRecorder ackLatency = inMemoryKafkaProducer.getAckLatencyMicros();
+        LatencyRecorder endToEndLatency = inMemoryKafkaProducer.getEndToEndLatencyMillis();
+        LOG.info("In-memory perf harness summary: {} msgs in {}s, sustained {} msgs/sec", measuredCount,
+                String.format("%.1f", elapsedSeconds), (long) (measuredCount / elapsedSeconds));
+        LOG.info("Send-to-ack latency (us): p50 {}, p99 {}, p99.9 {}, max {}", ackLatency.percentile(50),
+                ackLatency.percentile(99), ackLatency.percentile(99.9), ackLatency.getMax());
+        LOG.info("Created-to-ack latency (ms): p50 {}, p99 {}, p99.9 {}, max {}", endToEndLatency.percentile(50),
+                endToEndLatency.percentile(99), endToEndLatency.percentile(99.9), endToEndLatency.getMax());
+        SpringApplication.exit(applicationContext, () -> 0);
+    }
+}
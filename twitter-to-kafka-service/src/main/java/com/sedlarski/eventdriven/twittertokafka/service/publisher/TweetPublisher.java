@@ -0,0 +1,111 @@
+package com.sedlarski.eventdriven.twittertokafka.service.publisher;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.router.TopicRouter;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.KafkaProducer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class TweetPublisher {
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final KafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private final TopicRouter topicRouter;
+
+    public TweetPublisher(KafkaConfigData kafkaConfigData, KafkaProducer<Long, TwitterAvroModel> kafkaProducer,
+                          Optional<TopicRouter> topicRouter) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.kafkaProducer = kafkaProducer;
+        this.topicRouter = topicRouter.orElse(null);
+    }
+
+    public void publish(TwitterAvroModel twitterAvroModel) {
+        if (topicRouter == null) {
+            kafkaProducer.send(kafkaConfigData.getTopicName(), twitterAvroModel.getUserId(), twitterAvroModel);
+            return;
+        }
+        publish(twitterAvroModel, topicRouter.route(twitterAvroModel));
+    }
+
+    public void publish(TwitterAvroModel twitterAvroModel, List<String> topicNames) {
+        if (topicNames.size() == 1) {
+            kafkaProducer.send(topicNames.get(0), twitterAvroModel.getUserId(), twitterAvroModel);
+        } else {
+            kafkaProducer.sendBatch(topicNames, List.of(Pair.of(twitterAvroModel.getUserId(), twitterAvroModel)));
+        }
+    }
+
+    /**
+     * Topics the tweet is published to, just the configured topic unless the topic router is enabled.
+     */
+    public List<String> topicsOf(TwitterAvroModel twitterAvroModel) {
+        return topicRouter != null ? topicRouter.route(twitterAvroModel) : List.of(kafkaConfigData.getTopicName());
+    }
+
+    public CompletableFuture<BatchSendResult> publishAll(List<TwitterAvroModel> twitterAvroModels) {
+        if (topicRouter == null) {
+            return kafkaProducer.sendBatch(kafkaConfigData.getTopicName(), toMessages(twitterAvroModels));
+        }
+        return publishRouted(twitterAvroModels);
+    }
+
+    /**
+     * Consecutive tweets with the same route go out as one fan-out batch, the batches one after the other, so the
+     * tweets of a user keep their order on every topic their routes share. The router hands out one shared list
+     * per rule combination, the equals check only matters once its route cache is full. The combined result is
+     * labelled with every routed topic, in the order the tweets first hit them.
+     */
+    private CompletableFuture<BatchSendResult> publishRouted(List<TwitterAvroModel> twitterAvroModels) {
+        if (twitterAvroModels.isEmpty()) {
+            return CompletableFuture.completedFuture(BatchSendResult.empty(kafkaConfigData.getTopicName()));
+        }
+        List<CompletableFuture<BatchSendResult>> futures = new ArrayList<>();
+        Set<String> routedTopics = new LinkedHashSet<>();
+        List<String> runRoute = null;
+        List<Pair<Long, TwitterAvroModel>> run = new ArrayList<>();
+        for (TwitterAvroModel twitterAvroModel : twitterAvroModels) {
+            List<String> route = topicRouter.route(twitterAvroModel);
+            if (route != runRoute && !route.equals(runRoute)) {
+                if (runRoute != null) {
+                    futures.add(kafkaProducer.sendBatch(runRoute, run));
+                    run = new ArrayList<>();
+                }
+                routedTopics.addAll(route);
+                runRoute = route;
+            }
+            run.add(Pair.of(twitterAvroModel.getUserId(), twitterAvroModel));
+        }
+        futures.add(kafkaProducer.sendBatch(runRoute, run));
+        if (futures.size() == 1) {
+            return futures.get(0);
+        }
+        String routeName = String.join(",", routedTopics);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<BatchSendResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<BatchSendResult> future : futures) {
+                results.add(future.join());
+            }
+            return BatchSendResult.combine(routeName, results);
+        });
+    }
+
+    private static List<Pair<Long, TwitterAvroModel>> toMessages(List<TwitterAvroModel> twitterAvroModels) {
+        List<Pair<Long, TwitterAvroModel>> messages = new ArrayList<>(twitterAvroModels.size());
+        for (TwitterAvroModel twitterAvroModel : twitterAvroModels) {
+            messages.add(Pair.of(twitterAvroModel.getUserId(), twitterAvroModel));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,75 @@
+package com.sedlarski.eventdriven.twittertokafka.service.reactive;
+
+import com.sedlarski.eventdriven.config.ReactiveStreamConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.filter.TweetFilter;
+import com.sedlarski.eventdriven.twittertokafka.service.publisher.TweetPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Drives a tweet source into Kafka with demand coming from the producer: at most {@code maxInFlightBatches}
+ * batches are unacknowledged at a time and the source is only pulled when one of them completes. Requests are
+ * moved off the Kafka I/O thread so the source never runs on it.
+ */
+@Component
+public class ReactiveTweetPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveTweetPipeline.class);
+
+    private final ReactiveStreamConfigData reactiveStreamConfigData;
+
+    private final TweetPublisher tweetPublisher;
+
+    private final TweetFilter tweetFilter;
+
+    private final Scheduler sourceScheduler = Schedulers.newSingle("reactive-tweet-source");
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    public ReactiveTweetPipeline(ReactiveStreamConfigData reactiveStreamConfigData, TweetPublisher tweetPublisher,
+                                 TweetFilter tweetFilter) {
+        this.reactiveStreamConfigData = reactiveStreamConfigData;
+        this.tweetPublisher = tweetPublisher;
+        this.tweetFilter = tweetFilter;
+    }
+
+    public Disposable start(Flux<TwitterAvroModel> source) {
+        return start(source, reactiveStreamConfigData.getBatchSize());
+    }
+
+    public Disposable start(Flux<TwitterAvroModel> source, int batchSize) {
+        int maxInFlightBatches = reactiveStreamConfigData.getMaxInFlightBatches();
+        LOG.info("Starting reactive tweet pipeline with batch size {} and {} batch(es) in flight", batchSize,
+                maxInFlightBatches);
+        Disposable subscription = source
+                .subscribeOn(sourceScheduler, true)
+                .filter(tweetFilter::accept)
+                .buffer(batchSize)
+                .flatMap(batch -> Mono.fromFuture(tweetPublisher.publishAll(batch)), maxInFlightBatches, 1)
+                .subscribe(result -> {
+                    if (result.hasFailures()) {
+                        LOG.warn("{} of {} tweet(s) failed in reactive pipeline", result.getFailedCount(),
+                                result.getRecordCount());
+                    }
+                }, error -> LOG.error("Reactive tweet pipeline terminated", error));
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        LOG.info("Shutting down reactive tweet pipeline...");
+        subscriptions.dispose();
+        sourceScheduler.dispose();
+    }
+}
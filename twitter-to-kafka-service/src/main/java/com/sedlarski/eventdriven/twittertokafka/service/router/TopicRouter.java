@@ -0,0 +1,167 @@
+package com.sedlarski.eventdriven.twittertokafka.service.router;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.TopicRouterConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.exception.TwitterToKafkaServiceException;
+import com.sedlarski.eventdriven.twittertokafka.service.filter.KeywordMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the topics of a tweet from the topic-router-config rules. The keywords of all rules are compiled into
+ * one matcher with a group per rule, so a tweet is scanned once however many rules there are. The topic list of
+ * every combination of matched rules is built once and shared, callers can group tweets by the returned list.
+ */
+@Component
+@ConditionalOnProperty(name = "topic-router-config.enabled", havingValue = "true")
+public class TopicRouter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopicRouter.class);
+
+    private static final int MAX_CACHED_ROUTES = 4096;
+
+    private final String[] ruleTopics;
+
+    private final KeywordMatcher keywordMatcher;
+
+    private final Map<Long, long[]> userRules = new HashMap<>();
+
+    private final int ruleWords;
+
+    private final List<String> defaultRoute;
+
+    private final boolean copyToDefaultTopic;
+
+    private final Map<RuleSet, List<String>> routes = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<RuleSet> matchedRules;
+
+    public TopicRouter(TopicRouterConfigData topicRouterConfigData, KafkaConfigData kafkaConfigData) {
+        List<TopicRouterConfigData.RouteRule> rules = topicRouterConfigData.getRules();
+        if (rules.isEmpty()) {
+            throw new TwitterToKafkaServiceException("Topic router needs at least one rule!");
+        }
+        ruleTopics = new String[rules.size()];
+        ruleWords = (rules.size() + 63) / 64;
+        List<List<String>> keywordGroups = new ArrayList<>(rules.size());
+        boolean hasKeywords = false;
+        for (int i = 0; i < rules.size(); i++) {
+            TopicRouterConfigData.RouteRule rule = rules.get(i);
+            if (rule.getTopic() == null || rule.getTopic().isBlank()) {
+                throw new TwitterToKafkaServiceException("Topic router rule " + i + " has no topic!");
+            }
+            if (rule.getKeywords().isEmpty() && rule.getUserIds().isEmpty()) {
+                throw new TwitterToKafkaServiceException("Topic router rule for topic " + rule.getTopic() +
+                        " has neither keywords nor user ids!");
+            }
+            ruleTopics[i] = rule.getTopic().trim();
+            keywordGroups.add(rule.getKeywords());
+            hasKeywords |= rule.getKeywords().stream().anyMatch(keyword -> keyword != null && !keyword.isBlank());
+            for (Long userId : rule.getUserIds()) {
+                userRules.computeIfAbsent(userId, id -> new long[ruleWords])[i >>> 6] |= 1L << i;
+            }
+        }
+        keywordMatcher = hasKeywords ? KeywordMatcher.ofGroups(keywordGroups) : null;
+        defaultRoute = List.of(kafkaConfigData.getTopicName());
+        copyToDefaultTopic = Boolean.TRUE.equals(topicRouterConfigData.getCopyToDefaultTopic());
+        matchedRules = ThreadLocal.withInitial(() -> new RuleSet(new long[ruleWords]));
+
+        List<String> topicNamesToCreate = kafkaConfigData.getTopicNamesToCreate();
+        for (String topic : new LinkedHashSet<>(Arrays.asList(ruleTopics))) {
+            if (topicNamesToCreate == null || topicNamesToCreate.stream().noneMatch(name -> name.trim().equals(topic))) {
+                LOG.warn("Routed topic {} is not in kafka-config.topic-names-to-create, it is not created on startup",
+                        topic);
+            }
+        }
+        LOG.info("Topic router enabled with {} rule(s) for topics {}", rules.size(), Arrays.toString(ruleTopics));
+    }
+
+    public List<String> route(TwitterAvroModel twitterAvroModel) {
+        return route(twitterAvroModel.getText(), twitterAvroModel.getUserId());
+    }
+
+    /**
+     * Returns the topics for a tweet, the default topic if no rule matches. Equal rule matches return the same
+     * list instance.
+     */
+    public List<String> route(CharSequence text, long userId) {
+        RuleSet matched = matchedRules.get();
+        Arrays.fill(matched.words, 0L);
+        if (keywordMatcher != null) {
+            keywordMatcher.matchGroups(text, matched.words);
+        }
+        if (!userRules.isEmpty()) {
+            long[] userMatches = userRules.get(userId);
+            if (userMatches != null) {
+                for (int word = 0; word < ruleWords; word++) {
+                    matched.words[word] |= userMatches[word];
+                }
+            }
+        }
+        if (matched.isEmpty()) {
+            return defaultRoute;
+        }
+        List<String> route = routes.get(matched);
+        if (route != null) {
+            return route;
+        }
+        RuleSet key = new RuleSet(matched.words.clone());
+        if (routes.size() >= MAX_CACHED_ROUTES) {
+            return toRoute(key);
+        }
+        return routes.computeIfAbsent(key, this::toRoute);
+    }
+
+    private List<String> toRoute(RuleSet rules) {
+        Set<String> topics = new LinkedHashSet<>();
+        if (copyToDefaultTopic) {
+            topics.add(defaultRoute.get(0));
+        }
+        for (int rule = 0; rule < ruleTopics.length; rule++) {
+            if ((rules.words[rule >>> 6] & 1L << rule) != 0) {
+                topics.add(ruleTopics[rule]);
+            }
+        }
+        return List.copyOf(topics);
+    }
+
+    private static final class RuleSet {
+
+        private final long[] words;
+
+        private RuleSet(long[] words) {
+            this.words = words;
+        }
+
+        private boolean isEmpty() {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RuleSet && Arrays.equals(words, ((RuleSet) o).words);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(words);
+        }
+    }
+}
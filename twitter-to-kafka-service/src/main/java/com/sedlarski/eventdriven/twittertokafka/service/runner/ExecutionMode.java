@@ -0,0 +1,5 @@
+package com.sedlarski.eventdriven.twittertokafka.service.runner;
+
+public enum ExecutionMode {
+    EXECUTOR, REACTIVE
+}
@@ -2,20 +2,27 @@ package com.sedlarski.eventdriven.twittertokafka.service.runner.impl;
 
 import com.sedlarski.eventdriven.config.TwitterToKafkaServiceConfigData;
 import com.sedlarski.eventdriven.twittertokafka.service.exception.TwitterToKafkaServiceException;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
 import com.sedlarski.eventdriven.twittertokafka.service.listener.TwitterKafkaStatusListener;
+import com.sedlarski.eventdriven.twittertokafka.service.reactive.ReactiveTweetPipeline;
+import com.sedlarski.eventdriven.twittertokafka.service.runner.ExecutionMode;
 import com.sedlarski.eventdriven.twittertokafka.service.runner.StreamRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import twitter4j.Status;
+import reactor.core.publisher.Flux;
 import twitter4j.TwitterException;
-import twitter4j.TwitterObjectFactory;
 
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -29,6 +36,12 @@ public class MockKafkaStreamRunner implements StreamRunner {
 
     private final TwitterKafkaStatusListener twitterKafkaStatusListener;
 
+    private final ReactiveTweetPipeline reactiveTweetPipeline;
+
+    private ExecutorService mockStreamExecutor;
+
+    private SyntheticTweetGenerator syntheticTweetGenerator;
+
     private static final Random RANDOM = new Random();
 
     private static final String[] WORDS = new String[] {
@@ -43,13 +56,17 @@ public class MockKafkaStreamRunner implements StreamRunner {
         "    \"id\": {3}\n }" +
             "}";
 
-    private static final String TWITTER_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+    private static final String TWITTER_DATE_FORMAT = "EEE MMM dd HH:mm:ss Z yyyy";
 
+    private static final DateTimeFormatter TWITTER_DATE_FORMATTER = DateTimeFormatter.ofPattern(TWITTER_DATE_FORMAT, Locale.ENGLISH);
 
 
-    public MockKafkaStreamRunner(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData, TwitterKafkaStatusListener twitterKafkaStatusListener) {
+    public MockKafkaStreamRunner(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                                 TwitterKafkaStatusListener twitterKafkaStatusListener,
+                                 ReactiveTweetPipeline reactiveTweetPipeline) {
         this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
         this.twitterKafkaStatusListener = twitterKafkaStatusListener;
+        this.reactiveTweetPipeline = reactiveTweetPipeline;
     }
 
 
@@ -58,22 +75,89 @@ public class MockKafkaStreamRunner implements StreamRunner {
         String[] keywords = twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]);
         int minTweetLength = twitterToKafkaServiceConfigData.getMockMinTweetLength();
         int maxTweetLength = twitterToKafkaServiceConfigData.getMockMaxTweetLength();
+        boolean reactive = ExecutionMode.valueOf(twitterToKafkaServiceConfigData.getExecutionMode().trim().toUpperCase(Locale.ROOT)) == ExecutionMode.REACTIVE;
+        if (Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getMockSynthetic())) {
+            if (reactive) {
+                startReactiveSyntheticStream(keywords, minTweetLength, maxTweetLength);
+            } else {
+                startSyntheticStream(keywords, minTweetLength, maxTweetLength);
+            }
+            return;
+        }
         long sleepTime = twitterToKafkaServiceConfigData.getMockSleepMs();
+        if (reactive) {
+            startReactiveStream(keywords, minTweetLength, maxTweetLength, sleepTime);
+            return;
+        }
         LOG.info("Starting mock stream runner with keywords: {}, minTweetLength: {}, maxTweetLength: {}, sleepTime: {}", keywords, minTweetLength, maxTweetLength, sleepTime);
         simulateTwitterStream(keywords, minTweetLength, maxTweetLength, sleepTime);
     }
 
+    @PreDestroy
+    public void shutdown() {
+        if (syntheticTweetGenerator != null) {
+            LOG.info("Shutting down synthetic tweet generator...");
+            syntheticTweetGenerator.stop();
+        }
+        if (mockStreamExecutor != null) {
+            LOG.info("Shutting down mock stream...");
+            mockStreamExecutor.shutdownNow();
+        }
+    }
+
+    private void startSyntheticStream(String[] keywords, int minTweetLength, int maxTweetLength) {
+        long targetTweetsPerSec = twitterToKafkaServiceConfigData.getMockTargetTweetsPerSec() == null ? 0 :
+                twitterToKafkaServiceConfigData.getMockTargetTweetsPerSec();
+        int generatorThreads = twitterToKafkaServiceConfigData.getMockGeneratorThreads() == null ? 1 :
+                twitterToKafkaServiceConfigData.getMockGeneratorThreads();
+        LOG.info("Starting synthetic mock stream with keywords: {}, targetTweetsPerSec: {}, generatorThreads: {}",
+                keywords, targetTweetsPerSec, generatorThreads);
+        syntheticTweetGenerator = new SyntheticTweetGenerator(WORDS, keywords, minTweetLength, maxTweetLength,
+                targetTweetsPerSec, generatorThreads, twitterKafkaStatusListener::onAvroModel);
+        syntheticTweetGenerator.start();
+    }
+
+    /**
+     * Closed loop: tweets are generated only as fast as the producer acknowledges batches, the target rate is
+     * not applied.
+     */
+    private void startReactiveSyntheticStream(String[] keywords, int minTweetLength, int maxTweetLength) {
+        LOG.info("Starting reactive synthetic mock stream with keywords: {}", (Object) keywords);
+        SyntheticTweetGenerator generator = new SyntheticTweetGenerator(WORDS, keywords, minTweetLength,
+                maxTweetLength, 0, 1, tweet -> { });
+        reactiveTweetPipeline.start(Flux.generate(sink -> sink.next(
+                twitterKafkaStatusListener.record(generator.next(ThreadLocalRandom.current())))));
+    }
+
+    /**
+     * A paced stream is sent one tweet at a time, waiting for a full batch would hold tweets back for
+     * batchSize * sleepTime.
+     */
+    private void startReactiveStream(String[] keywords, int minTweetLength, int maxTweetLength, long sleepTime) {
+        LOG.info("Starting reactive mock stream with keywords: {}, minTweetLength: {}, maxTweetLength: {}, sleepTime: {}",
+                keywords, minTweetLength, maxTweetLength, sleepTime);
+        Flux<TwitterAvroModel> tweets = Flux.<byte[]>generate(sink -> sink.next(
+                        getFormattedTweet(keywords, minTweetLength, maxTweetLength).getBytes(StandardCharsets.UTF_8)))
+                .handle((json, sink) -> {
+                    TwitterAvroModel twitterAvroModel = twitterKafkaStatusListener.toAvroModel(json);
+                    if (twitterAvroModel != null) {
+                        sink.next(twitterAvroModel);
+                    }
+                });
+        if (sleepTime > 0) {
+            reactiveTweetPipeline.start(tweets.delayElements(Duration.ofMillis(sleepTime)), 1);
+        } else {
+            reactiveTweetPipeline.start(tweets);
+        }
+    }
+
     private void simulateTwitterStream(String[] keywords, int minTweetLength, int maxTweetLength, long sleepTime) {
-        Executors.newSingleThreadExecutor().submit(() -> {
-            try {
-                while(true) {
-                    String formattedTweetAsRawJson = getFormattedTweet(keywords, minTweetLength, maxTweetLength);
-                    Status status = TwitterObjectFactory.createStatus(formattedTweetAsRawJson);
-                    twitterKafkaStatusListener.onStatus(status);
-                    sleep(sleepTime);
-                }
-            } catch (TwitterException e) {
-                LOG.error("Error while creating status from tweet", e);
+        mockStreamExecutor = Executors.newSingleThreadExecutor();
+        mockStreamExecutor.submit(() -> {
+            while(!Thread.currentThread().isInterrupted()) {
+                String formattedTweetAsRawJson = getFormattedTweet(keywords, minTweetLength, maxTweetLength);
+                twitterKafkaStatusListener.onRawJson(formattedTweetAsRawJson.getBytes(StandardCharsets.UTF_8));
+                sleep(sleepTime);
             }
         });
 
@@ -126,6 +210,6 @@ public class MockKafkaStreamRunner implements StreamRunner {
     }
 
     private String getFormattedDate() {
-        return ZonedDateTime.now().format(DateTimeFormatter.ofPattern(TWITTER_DATE_FORMAT, Locale.ENGLISH));
+        return ZonedDateTime.now(ZoneOffset.UTC).format(TWITTER_DATE_FORMATTER);
     }
 }
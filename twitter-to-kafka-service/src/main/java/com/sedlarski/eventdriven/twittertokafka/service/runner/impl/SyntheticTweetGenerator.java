@@ -0,0 +1,157 @@
+package com.sedlarski.eventdriven.twittertokafka.service.runner.impl;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Generates {@link TwitterAvroModel} records directly, without going through JSON or twitter4j.
+ * Tweet texts and user ids are pre-built into pools at construction so the hot loop only allocates the record
+ * itself. Each generator thread runs an open-loop schedule: tweets are emitted at their planned time regardless
+ * of how long the sink took for earlier ones, so a slow pipeline shows up as lag instead of a lower offered rate.
+ */
+public class SyntheticTweetGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticTweetGenerator.class);
+
+    private static final int TEXT_POOL_SIZE = 4096;
+    private static final int USER_POOL_SIZE = 100_000;
+    private static final long LATE_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final String[] textPool;
+
+    private final long[] userIdPool;
+
+    private final long targetTweetsPerSec;
+
+    private final int generatorThreads;
+
+    private final Consumer<TwitterAvroModel> sink;
+
+    private final LongAdder generatedCount = new LongAdder();
+
+    private final LongAdder lateCount = new LongAdder();
+
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    public SyntheticTweetGenerator(String[] words, String[] keywords, int minTweetLength, int maxTweetLength,
+                                   long targetTweetsPerSec, int generatorThreads, Consumer<TwitterAvroModel> sink) {
+        this.targetTweetsPerSec = targetTweetsPerSec;
+        this.generatorThreads = generatorThreads;
+        this.sink = sink;
+        Random random = new Random();
+        this.textPool = buildTextPool(random, words, keywords, minTweetLength, maxTweetLength);
+        this.userIdPool = random.longs(USER_POOL_SIZE, 1, Long.MAX_VALUE).toArray();
+    }
+
+    public void start() {
+        running = true;
+        executor = Executors.newFixedThreadPool(generatorThreads, new CustomizableThreadFactory("synthetic-tweets-"));
+        long perThreadRate = targetTweetsPerSec > 0 ? Math.max(1, targetTweetsPerSec / generatorThreads) : 0;
+        for (int i = 0; i < generatorThreads; i++) {
+            executor.submit(() -> generate(perThreadRate));
+        }
+        LOG.info("Synthetic tweet generator started with {} thread(s), target rate {} tweets/sec",
+                generatorThreads, targetTweetsPerSec > 0 ? targetTweetsPerSec : "unbounded");
+    }
+
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        LOG.info("Synthetic tweet generator stopped, generated: {}, emitted late: {}",
+                generatedCount.sum(), lateCount.sum());
+    }
+
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+
+    public long getLateCount() {
+        return lateCount.sum();
+    }
+
+    private void generate(long perThreadRate) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (perThreadRate <= 0) {
+            while (running) {
+                emit(random);
+            }
+            return;
+        }
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / perThreadRate;
+        long nextEmitNanos = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now - nextEmitNanos > LATE_THRESHOLD_NANOS) {
+                lateCount.increment();
+            }
+            while (running && nextEmitNanos <= now) {
+                emit(random);
+                nextEmitNanos += intervalNanos;
+            }
+            LockSupport.parkNanos(nextEmitNanos - System.nanoTime());
+        }
+    }
+
+    /**
+     * Builds one tweet from the pools without going through the generator threads, for pull based callers.
+     */
+    public TwitterAvroModel next(ThreadLocalRandom random) {
+        return new TwitterAvroModel(
+                userIdPool[random.nextInt(userIdPool.length)],
+                random.nextLong(1, Long.MAX_VALUE),
+                textPool[random.nextInt(textPool.length)],
+                System.currentTimeMillis());
+    }
+
+    private void emit(ThreadLocalRandom random) {
+        try {
+            sink.accept(next(random));
+            generatedCount.increment();
+        } catch (Exception e) {
+            LOG.error("Error while emitting synthetic tweet", e);
+        }
+    }
+
+    private static String[] buildTextPool(Random random, String[] words, String[] keywords,
+                                          int minTweetLength, int maxTweetLength) {
+        String[] pool = new String[TEXT_POOL_SIZE];
+        StringBuilder tweet = new StringBuilder();
+        for (int i = 0; i < pool.length; i++) {
+            tweet.setLength(0);
+            int tweetLength = random.nextInt(maxTweetLength - minTweetLength + 1) + minTweetLength;
+            for (int j = 0; j < tweetLength; j++) {
+                tweet.append(words[random.nextInt(words.length)]).append(' ');
+                if (j == tweetLength / 2) {
+                    tweet.append(keywords[random.nextInt(keywords.length)]).append(' ');
+                }
+            }
+            pool[i] = tweet.toString().trim();
+        }
+        return pool;
+    }
+}
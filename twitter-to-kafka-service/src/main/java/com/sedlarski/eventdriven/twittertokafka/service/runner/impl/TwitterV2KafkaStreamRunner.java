@@ -0,0 +1,88 @@
+package com.sedlarski.eventdriven.twittertokafka.service.runner.impl;
+
+import com.sedlarski.eventdriven.config.RetryConfigData;
+import com.sedlarski.eventdriven.config.TwitterToKafkaServiceConfigData;
+import com.sedlarski.eventdriven.twittertokafka.service.client.TwitterV2StreamClient;
+import com.sedlarski.eventdriven.twittertokafka.service.exception.TwitterToKafkaServiceException;
+import com.sedlarski.eventdriven.twittertokafka.service.handoff.TweetHandoffQueue;
+import com.sedlarski.eventdriven.twittertokafka.service.metrics.PipelineMetrics;
+import com.sedlarski.eventdriven.twittertokafka.service.runner.StreamRunner;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterJsonToAvroTransformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+@ConditionalOnExpression("${twitter-to-kafka-service.enable-v2-tweets:false} && !${twitter-to-kafka-service.enable-mock-tweets:false}")
+public class TwitterV2KafkaStreamRunner implements StreamRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwitterV2KafkaStreamRunner.class);
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final RetryConfigData retryConfigData;
+
+    private final TweetHandoffQueue tweetHandoffQueue;
+
+    private final PipelineMetrics pipelineMetrics;
+
+    private final TwitterJsonToAvroTransformer twitterJsonToAvroTransformer;
+
+    private ExecutorService httpExecutor;
+
+    private TwitterV2StreamClient twitterV2StreamClient;
+
+    public TwitterV2KafkaStreamRunner(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+                                      RetryConfigData retryConfigData,
+                                      TweetHandoffQueue tweetHandoffQueue,
+                                      PipelineMetrics pipelineMetrics,
+                                      TwitterJsonToAvroTransformer twitterJsonToAvroTransformer) {
+        this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
+        this.retryConfigData = retryConfigData;
+        this.tweetHandoffQueue = tweetHandoffQueue;
+        this.pipelineMetrics = pipelineMetrics;
+        this.twitterJsonToAvroTransformer = twitterJsonToAvroTransformer;
+    }
+
+    @Override
+    public void start() {
+        String bearerToken = twitterToKafkaServiceConfigData.getBearerToken();
+        if (bearerToken == null || bearerToken.isBlank()) {
+            throw new TwitterToKafkaServiceException("Bearer token is required for the twitter v2 stream!");
+        }
+        httpExecutor = Executors.newFixedThreadPool(2, new CustomizableThreadFactory("twitter-v2-http-"));
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+        twitterV2StreamClient = new TwitterV2StreamClient(httpClient,
+                URI.create(twitterToKafkaServiceConfigData.getTwitterV2BaseUrl()), bearerToken, retryConfigData,
+                twitterJsonToAvroTransformer, twitterAvroModel -> {
+                    pipelineMetrics.recordReceived();
+                    tweetHandoffQueue.publish(twitterAvroModel);
+                });
+        twitterV2StreamClient.replaceRules(twitterToKafkaServiceConfigData.getTwitterKeywords());
+        twitterV2StreamClient.start();
+        LOG.info("Twitter v2 stream started... keywords {}", twitterToKafkaServiceConfigData.getTwitterKeywords());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (twitterV2StreamClient != null) {
+            LOG.info("Shutting down twitter v2 stream...");
+            twitterV2StreamClient.stop();
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.sedlarski.eventdriven.twittertokafka.service.startup;
+
+import com.sedlarski.eventdriven.twittertokafka.service.handoff.TweetHandoffQueue;
+import com.sedlarski.eventdriven.twittertokafka.service.perf.InMemoryPerfHarness;
+import com.sedlarski.kafka.producer.config.adaptive.AdaptiveProducerController;
+import com.sedlarski.kafka.producer.config.partitioner.PartitionSkewReporter;
+import com.sedlarski.kafka.producer.config.spill.SpillLogReplayer;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FastStartupConfig {
+
+    /**
+     * With spring.main.lazy-initialization these beans would never be created, they start their background work
+     * on their own and nothing looks them up.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundBeansExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(StartupReporter.class, TweetHandoffQueue.class,
+                InMemoryPerfHarness.class, SpillLogReplayer.class, PartitionSkewReporter.class,
+                AdaptiveProducerController.class);
+    }
+}
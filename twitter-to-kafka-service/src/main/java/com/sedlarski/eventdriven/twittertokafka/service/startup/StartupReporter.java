@@ -0,0 +1,110 @@
+package com.sedlarski.eventdriven.twittertokafka.service.startup;
+
+import com.sedlarski.eventdriven.common.startup.StartupPhaseTimings;
+import com.sedlarski.eventdriven.config.StartupConfigData;
+import com.sedlarski.kafka.producer.config.metrics.ProducerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.StringJoiner;
+
+/**
+ * Logs the startup breakdown once the first record is acknowledged: the phases from {@link StartupPhaseTimings},
+ * the slowest bean instantiations and the time from JVM start to the first ack against the configured target.
+ */
+@Component
+public class StartupReporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StartupReporter.class);
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    private final StartupPhaseTimings startupPhaseTimings;
+
+    private final StartupConfigData startupConfigData;
+
+    private final ProducerMetrics producerMetrics;
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    public StartupReporter(StartupPhaseTimings startupPhaseTimings, StartupConfigData startupConfigData,
+                           ProducerMetrics producerMetrics, ConfigurableApplicationContext applicationContext) {
+        this.startupPhaseTimings = startupPhaseTimings;
+        this.startupConfigData = startupConfigData;
+        this.producerMetrics = producerMetrics;
+        this.applicationContext = applicationContext;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        startupPhaseTimings.recordSinceJvmStart("jvm-start-to-context");
+        producerMetrics.firstAck().thenRunAsync(this::reportSafely);
+    }
+
+    private void reportSafely() {
+        try {
+            report();
+        } catch (Exception e) {
+            LOG.error("Error while reporting startup phases", e);
+        }
+    }
+
+    private void report() {
+        long firstAckMillis = startupPhaseTimings.recordSinceJvmStart("jvm-start-to-first-ack");
+        StringJoiner phases = new StringJoiner(", ");
+        startupPhaseTimings.getPhaseMillis().forEach((phase, millis) -> phases.add(phase + "=" + millis + "ms"));
+        LOG.info("Startup breakdown: {}", phases);
+        reportSlowestBeans();
+        long targetMillis = startupConfigData.getFirstAckTargetMs();
+        boolean overTarget = firstAckMillis > targetMillis;
+        if (overTarget) {
+            LOG.warn("First record acknowledged {} ms after JVM start, over the target of {} ms", firstAckMillis,
+                    targetMillis);
+        } else {
+            LOG.info("First record acknowledged {} ms after JVM start, within the target of {} ms", firstAckMillis,
+                    targetMillis);
+        }
+        if (Boolean.TRUE.equals(startupConfigData.getExitAfterFirstAck())) {
+            boolean failed = overTarget && Boolean.TRUE.equals(startupConfigData.getFailOverTarget());
+            System.exit(SpringApplication.exit(applicationContext, () -> failed ? 1 : 0));
+        }
+    }
+
+    /**
+     * Bean durations include the beans created as their dependencies.
+     */
+    private void reportSlowestBeans() {
+        ApplicationStartup applicationStartup = applicationContext.getApplicationStartup();
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).drainBufferedTimeline();
+        StringJoiner beans = new StringJoiner(", ");
+        timeline.getEvents().stream()
+                .filter(event -> BEAN_INSTANTIATION_STEP.equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(startupConfigData.getSlowestBeansToReport())
+                .forEach(event -> beans.add(beanName(event.getStartupStep()) + "=" +
+                        event.getDuration().toMillis() + "ms"));
+        LOG.info("Slowest bean instantiations: {}", beans);
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
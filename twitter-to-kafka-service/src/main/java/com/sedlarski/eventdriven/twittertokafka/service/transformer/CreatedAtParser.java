@@ -0,0 +1,119 @@
+package com.sedlarski.eventdriven.twittertokafka.service.transformer;
+
+/**
+ * Parses {@code created_at} values straight from UTF-8 bytes into epoch millis. Supports the v1 format
+ * {@code Wed Oct 10 20:19:24 +0000 2018} and ISO-8601 instants as sent by v2 ({@code 2018-10-10T20:19:24.000Z}).
+ */
+final class CreatedAtParser {
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    private static final int TWITTER_FORMAT_LENGTH = 30;
+
+    private CreatedAtParser() {
+    }
+
+    static long parse(byte[] bytes, int start, int end) {
+        if (end - start >= 20 && bytes[start + 4] == '-') {
+            return parseIso(bytes, start, end);
+        }
+        if (end - start == TWITTER_FORMAT_LENGTH) {
+            return parseTwitter(bytes, start);
+        }
+        throw new IllegalArgumentException("Unsupported created_at format");
+    }
+
+    private static long parseTwitter(byte[] bytes, int start) {
+        int month = month(bytes, start + 4);
+        int day = digits(bytes, start + 8, 2);
+        int hour = digits(bytes, start + 11, 2);
+        int minute = digits(bytes, start + 14, 2);
+        int second = digits(bytes, start + 17, 2);
+        int offsetSeconds = offsetSeconds(bytes, start + 20, false);
+        int year = digits(bytes, start + 26, 4);
+        return toEpochMillis(year, month, day, hour, minute, second, 0) - offsetSeconds * 1000L;
+    }
+
+    private static long parseIso(byte[] bytes, int start, int end) {
+        int year = digits(bytes, start, 4);
+        int month = digits(bytes, start + 5, 2);
+        int day = digits(bytes, start + 8, 2);
+        int hour = digits(bytes, start + 11, 2);
+        int minute = digits(bytes, start + 14, 2);
+        int second = digits(bytes, start + 17, 2);
+        int position = start + 19;
+        int millis = 0;
+        if (position < end && bytes[position] == '.') {
+            position++;
+            int scale = 100;
+            while (position < end && isDigit(bytes[position])) {
+                millis += (bytes[position++] - '0') * scale;
+                scale /= 10;
+            }
+        }
+        int offsetSeconds;
+        if (position == end - 1 && bytes[position] == 'Z') {
+            offsetSeconds = 0;
+        } else if (position == end - 6 && bytes[position + 3] == ':') {
+            offsetSeconds = offsetSeconds(bytes, position, true);
+        } else if (position == end - 5) {
+            offsetSeconds = offsetSeconds(bytes, position, false);
+        } else {
+            throw new IllegalArgumentException("Unsupported created_at offset");
+        }
+        return toEpochMillis(year, month, day, hour, minute, second, millis) - offsetSeconds * 1000L;
+    }
+
+    private static int offsetSeconds(byte[] bytes, int position, boolean colon) {
+        byte sign = bytes[position];
+        if (sign != '+' && sign != '-') {
+            throw new IllegalArgumentException("Unsupported created_at offset");
+        }
+        int hours = digits(bytes, position + 1, 2);
+        int minutes = digits(bytes, position + (colon ? 4 : 3), 2);
+        int seconds = hours * 3600 + minutes * 60;
+        return sign == '-' ? -seconds : seconds;
+    }
+
+    private static int month(byte[] bytes, int position) {
+        for (int i = 0; i < 12; i++) {
+            if (bytes[position] == MONTHS.charAt(i * 3)
+                    && bytes[position + 1] == MONTHS.charAt(i * 3 + 1)
+                    && bytes[position + 2] == MONTHS.charAt(i * 3 + 2)) {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported created_at month");
+    }
+
+    private static int digits(byte[] bytes, int position, int count) {
+        int value = 0;
+        for (int i = position; i < position + count; i++) {
+            if (!isDigit(bytes[i])) {
+                throw new IllegalArgumentException("Expected digit in created_at");
+            }
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Days from civil date, see http://howardhinnant.github.io/date_algorithms.html
+     */
+    private static long toEpochMillis(int year, int month, int day, int hour, int minute, int second, int millis) {
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            throw new IllegalArgumentException("created_at out of range");
+        }
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long epochDay = era * 146097 + dayOfEra - 719468;
+        return ((epochDay * 24 + hour) * 60 + minute) * 60_000L + second * 1000L + millis;
+    }
+}
@@ -0,0 +1,396 @@
+package com.sedlarski.eventdriven.twittertokafka.service.transformer;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls {@code id}, {@code user.id}, {@code text} and {@code created_at} out of raw tweet JSON without building
+ * a twitter4j {@code Status} or any JSON tree. Both the v1 shape and the v2 stream shape
+ * ({@code {"data": {"id": "..", "author_id": "..", ..}}}) are understood; everything else is skipped unparsed.
+ */
+@Component
+public class TwitterJsonToAvroTransformer {
+
+    public TwitterAvroModel getTwitterAvroModelFromJson(byte[] json) {
+        TwitterAvroModel twitterAvroModel = new TwitterAvroModel();
+        return fill(json, json.length, twitterAvroModel) ? twitterAvroModel : null;
+    }
+
+    /**
+     * Fills {@code target} from the first {@code length} bytes of {@code json}. The target can be reused by
+     * synchronous callers; records handed to another thread need their own instance.
+     *
+     * @return false if the input is malformed or has no id, user id or text
+     */
+    public boolean fill(byte[] json, int length, TwitterAvroModel target) {
+        try {
+            return new Parser(json, length).parse(target);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    private static final class Parser {
+
+        private static final byte[] ID = ascii("id");
+
+        private static final byte[] TEXT = ascii("text");
+
+        private static final byte[] CREATED_AT = ascii("created_at");
+
+        private static final byte[] USER = ascii("user");
+
+        private static final byte[] DATA = ascii("data");
+
+        private static final byte[] AUTHOR_ID = ascii("author_id");
+
+        private static final int HAS_ID = 1;
+
+        private static final int HAS_USER_ID = 2;
+
+        private static final int HAS_TEXT = 4;
+
+        private static final int HAS_CREATED_AT = 8;
+
+        private static final int REQUIRED = HAS_ID | HAS_USER_ID | HAS_TEXT;
+
+        private final byte[] bytes;
+
+        private final int end;
+
+        private int position;
+
+        private int found;
+
+        private long id;
+
+        private long userId;
+
+        private String text;
+
+        private long createdAt;
+
+        Parser(byte[] bytes, int end) {
+            this.bytes = bytes;
+            this.end = end;
+        }
+
+        boolean parse(TwitterAvroModel target) {
+            skipWhitespace();
+            expect('{');
+            parseTweet(true);
+            if ((found & REQUIRED) != REQUIRED) {
+                return false;
+            }
+            target.setId(id);
+            target.setUserId(userId);
+            target.setText(text);
+            target.setCreatedAt((found & HAS_CREATED_AT) != 0 ? createdAt : System.currentTimeMillis());
+            return true;
+        }
+
+        /**
+         * Members of a tweet object, positioned after its opening brace. The v1 tweet is the top level object,
+         * the v2 tweet is the {@code data} member of the top level envelope.
+         */
+        private void parseTweet(boolean topLevel) {
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                expect('"');
+                int keyStart = position;
+                int keyEnd = skipStringBody();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (keyEquals(keyStart, keyEnd, ID)) {
+                    id = readLong();
+                    found |= HAS_ID;
+                } else if (keyEquals(keyStart, keyEnd, TEXT)) {
+                    text = readString();
+                    found |= HAS_TEXT;
+                } else if (keyEquals(keyStart, keyEnd, CREATED_AT)) {
+                    createdAt = readCreatedAt();
+                    found |= HAS_CREATED_AT;
+                } else if (topLevel && keyEquals(keyStart, keyEnd, USER) && peek() == '{') {
+                    position++;
+                    parseUser();
+                } else if (topLevel && keyEquals(keyStart, keyEnd, DATA) && peek() == '{') {
+                    position++;
+                    parseTweet(false);
+                } else if (!topLevel && keyEquals(keyStart, keyEnd, AUTHOR_ID)) {
+                    userId = readLong();
+                    found |= HAS_USER_ID;
+                } else {
+                    skipValue();
+                }
+                if (!nextMember()) {
+                    return;
+                }
+            }
+        }
+
+        private void parseUser() {
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                expect('"');
+                int keyStart = position;
+                int keyEnd = skipStringBody();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (keyEquals(keyStart, keyEnd, ID)) {
+                    userId = readLong();
+                    found |= HAS_USER_ID;
+                } else {
+                    skipValue();
+                }
+                if (!nextMember()) {
+                    return;
+                }
+            }
+        }
+
+        private boolean nextMember() {
+            skipWhitespace();
+            byte b = next();
+            if (b == ',') {
+                return true;
+            }
+            if (b == '}') {
+                return false;
+            }
+            throw new IllegalArgumentException("Expected ',' or '}'");
+        }
+
+        /**
+         * Ids come as numbers in v1 and as strings in v2.
+         */
+        private long readLong() {
+            boolean quoted = peek() == '"';
+            if (quoted) {
+                position++;
+            }
+            boolean negative = peek() == '-';
+            if (negative) {
+                position++;
+            }
+            int digitsStart = position;
+            long value = 0;
+            while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+                value = value * 10 + (bytes[position++] - '0');
+            }
+            if (position == digitsStart) {
+                throw new IllegalArgumentException("Expected digits");
+            }
+            if (quoted) {
+                expect('"');
+            }
+            return negative ? -value : value;
+        }
+
+        private String readString() {
+            expect('"');
+            int start = position;
+            boolean escaped = false;
+            while (true) {
+                byte b = next();
+                if (b == '"') {
+                    break;
+                }
+                if (b == '\\') {
+                    escaped = true;
+                    position++;
+                }
+            }
+            int stringEnd = position - 1;
+            return escaped ? unescape(start, stringEnd) : new String(bytes, start, stringEnd - start, StandardCharsets.UTF_8);
+        }
+
+        private long readCreatedAt() {
+            expect('"');
+            int start = position;
+            while (next() != '"') {
+                // dates never contain escapes
+            }
+            return CreatedAtParser.parse(bytes, start, position - 1);
+        }
+
+        /**
+         * The unescaped form is never longer than the escaped one, so one buffer of the raw length suffices.
+         */
+        private String unescape(int start, int stringEnd) {
+            byte[] out = new byte[stringEnd - start];
+            int length = 0;
+            int i = start;
+            while (i < stringEnd) {
+                byte b = bytes[i++];
+                if (b != '\\') {
+                    out[length++] = b;
+                    continue;
+                }
+                byte escape = bytes[i++];
+                switch (escape) {
+                    case 'b': out[length++] = '\b'; break;
+                    case 'f': out[length++] = '\f'; break;
+                    case 'n': out[length++] = '\n'; break;
+                    case 'r': out[length++] = '\r'; break;
+                    case 't': out[length++] = '\t'; break;
+                    case 'u':
+                        int codePoint = hex4(i);
+                        i += 4;
+                        if (Character.isHighSurrogate((char) codePoint) && i + 6 <= stringEnd
+                                && bytes[i] == '\\' && bytes[i + 1] == 'u') {
+                            int low = hex4(i + 2);
+                            if (Character.isLowSurrogate((char) low)) {
+                                codePoint = Character.toCodePoint((char) codePoint, (char) low);
+                                i += 6;
+                            }
+                        }
+                        length = writeUtf8(out, length, codePoint);
+                        break;
+                    default:
+                        out[length++] = escape;
+                }
+            }
+            return new String(out, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int hex4(int start) {
+            int value = 0;
+            for (int i = start; i < start + 4; i++) {
+                int digit = Character.digit(bytes[i], 16);
+                if (digit < 0) {
+                    throw new IllegalArgumentException("Invalid unicode escape");
+                }
+                value = (value << 4) | digit;
+            }
+            return value;
+        }
+
+        private static int writeUtf8(byte[] out, int length, int codePoint) {
+            if (Character.isSurrogate((char) codePoint) && codePoint <= 0xFFFF) {
+                codePoint = '?';
+            }
+            if (codePoint < 0x80) {
+                out[length++] = (byte) codePoint;
+            } else if (codePoint < 0x800) {
+                out[length++] = (byte) (0xC0 | (codePoint >> 6));
+                out[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                out[length++] = (byte) (0xE0 | (codePoint >> 12));
+                out[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                out[length++] = (byte) (0xF0 | (codePoint >> 18));
+                out[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            return length;
+        }
+
+        /**
+         * Positioned after an opening quote, leaves the position after the closing one.
+         *
+         * @return index of the closing quote
+         */
+        private int skipStringBody() {
+            while (true) {
+                byte b = next();
+                if (b == '"') {
+                    return position - 1;
+                }
+                if (b == '\\') {
+                    position++;
+                }
+            }
+        }
+
+        private void skipValue() {
+            byte b = peek();
+            if (b == '"') {
+                position++;
+                skipStringBody();
+                return;
+            }
+            if (b == '{' || b == '[') {
+                int depth = 0;
+                do {
+                    b = next();
+                    if (b == '"') {
+                        skipStringBody();
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        depth--;
+                    }
+                } while (depth > 0);
+                return;
+            }
+            while (position < end) {
+                b = bytes[position];
+                if (b == ',' || b == '}' || b == ']' || isWhitespace(b)) {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private boolean keyEquals(int keyStart, int keyEnd, byte[] key) {
+            if (keyEnd - keyStart != key.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (bytes[keyStart + i] != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (position < end && isWhitespace(bytes[position])) {
+                position++;
+            }
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw new IllegalArgumentException("Expected '" + c + "'");
+            }
+        }
+
+        private byte peek() {
+            if (position >= end) {
+                throw new IllegalArgumentException("Unexpected end of tweet json");
+            }
+            return bytes[position];
+        }
+
+        private byte next() {
+            byte b = peek();
+            position++;
+            return b;
+        }
+
+        private static byte[] ascii(String value) {
+            return value.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
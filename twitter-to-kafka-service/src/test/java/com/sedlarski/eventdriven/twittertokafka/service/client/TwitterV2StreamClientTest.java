@@ -0,0 +1,86 @@
+package com.sedlarski.eventdriven.twittertokafka.service.client;
+
+import com.sedlarski.eventdriven.config.RetryConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterJsonToAvroTransformer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TwitterV2StreamClientTest {
+
+    private static final String TWEET_LINE = "{\"data\":{\"id\":\"1001\",\"author_id\":\"42\"," +
+            "\"text\":\"Kafka \u00e9v\u00e9nements \uD83D\uDE80\",\"created_at\":\"2021-06-01T10:15:30.000Z\"}," +
+            "\"matching_rules\":[{\"id\":\"1\",\"tag\":\"Kafka\"}]}";
+
+    private HttpServer server;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private TwitterV2StreamClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/2/tweets/search/stream", exchange -> {
+            connections.incrementAndGet();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                byte[] bytes = ("\r\n" + TWEET_LINE + "\r\n").getBytes(StandardCharsets.UTF_8);
+                // split inside a multi-byte character to exercise incremental decoding
+                int split = ("\r\n" + TWEET_LINE.substring(0, TWEET_LINE.indexOf('\u00e9'))).getBytes(StandardCharsets.UTF_8).length + 1;
+                body.write(bytes, 0, split);
+                body.flush();
+                body.write(bytes, split, bytes.length - split);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (client != null) {
+            client.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void mapsStreamLinesAndReconnectsAfterServerClose() throws InterruptedException {
+        RetryConfigData retryConfigData = new RetryConfigData();
+        retryConfigData.setInitialIntervalMs(10L);
+        retryConfigData.setMaxIntervalMs(100L);
+        retryConfigData.setMultiplier(2.0);
+        BlockingQueue<TwitterAvroModel> received = new LinkedBlockingQueue<>();
+        client = new TwitterV2StreamClient(HttpClient.newHttpClient(),
+                URI.create("http://localhost:" + server.getAddress().getPort() + "/2"), "token", retryConfigData,
+                new TwitterJsonToAvroTransformer(), received::add);
+
+        client.start();
+
+        TwitterAvroModel first = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(42L, first.getUserId());
+        assertEquals(1001L, first.getId());
+        assertEquals("Kafka \u00e9v\u00e9nements \uD83D\uDE80", first.getText());
+        assertEquals(1622542530000L, first.getCreatedAt());
+        assertNotNull(received.poll(5, TimeUnit.SECONDS));
+        assertTrue(connections.get() >= 2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.sedlarski.eventdriven.twittertokafka.service.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeywordMatcherTest {
+
+    private final KeywordMatcher matcher = new KeywordMatcher(List.of("Java", "Kafka", "microservices", "elasticsearch"));
+
+    @Test
+    public void matchesKeywordsIgnoringCase() {
+        assertTrue(matcher.matches("Streaming with KAFKA"));
+        assertTrue(matcher.matches("java"));
+        assertTrue(matcher.matches("why ElasticSearch?"));
+        assertFalse(matcher.matches("Streaming with Kafk and jav"));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    public void followsFailureLinksAcrossOverlappingKeywords() {
+        KeywordMatcher overlapping = new KeywordMatcher(List.of("he", "she", "hers", "abcd", "bce"));
+
+        assertTrue(overlapping.matches("ushers"));
+        assertTrue(overlapping.matches("xabce"));
+        assertTrue(overlapping.matches("ahe"));
+        assertFalse(overlapping.matches("abc hr s"));
+    }
+
+    @Test
+    public void handlesCharactersOutsideTheKeywords() {
+        KeywordMatcher unicode = new KeywordMatcher(List.of("caf\u00e9"));
+
+        assertTrue(unicode.matches("\uD83D\uDE80 CAF\u00c9 time"));
+        assertFalse(unicode.matches("cafe \uD83D\uDE80"));
+    }
+
+    @Test
+    public void reportsEveryMatchingGroup() {
+        KeywordMatcher grouped = KeywordMatcher.ofGroups(List.of(List.of("kafka", "streams"), List.of(),
+                List.of("java", "jvm"), List.of("he", "hers")));
+
+        assertArrayEquals(new long[] {0b0101L}, matchGroups(grouped, "Kafka Streams on a JVM"));
+        assertArrayEquals(new long[] {0b1000L}, matchGroups(grouped, "ushers"));
+        assertArrayEquals(new long[] {0L}, matchGroups(grouped, "python"));
+        assertArrayEquals(new long[] {0L}, matchGroups(grouped, null));
+    }
+
+    @Test
+    public void spreadsGroupsOverSeveralWords() {
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            groups.add(List.of("k" + i + "#"));
+        }
+        KeywordMatcher grouped = KeywordMatcher.ofGroups(groups);
+
+        assertEquals(3, grouped.getGroupWords());
+        assertArrayEquals(new long[] {1L << 3, 1L << 1, 1L << 1}, matchGroups(grouped, "k3# k65# k129#"));
+    }
+
+    @Test
+    public void rejectsEmptyKeywords() {
+        assertThrows(IllegalArgumentException.class, () -> new KeywordMatcher(List.of(" ")));
+        assertThrows(IllegalArgumentException.class, () -> KeywordMatcher.ofGroups(List.of(List.of(), List.of())));
+    }
+
+    private static long[] matchGroups(KeywordMatcher matcher, String text) {
+        long[] groups = new long[matcher.getGroupWords()];
+        matcher.matchGroups(text, groups);
+        return groups;
+    }
+}
@@ -0,0 +1,59 @@
+package com.sedlarski.eventdriven.twittertokafka.service.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeWindowedBloomFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final TimeWindowedBloomFilter filter = new TimeWindowedBloomFilter(10_000, 0.001, 60, clock::get);
+
+    @Test
+    public void remembersIdsForAtLeastOneWindow() {
+        assertFalse(filter.checkAndAdd(42L));
+        assertTrue(filter.checkAndAdd(42L));
+
+        advanceSeconds(61);
+        assertTrue(filter.checkAndAdd(42L));
+
+        advanceSeconds(61);
+        assertTrue(filter.checkAndAdd(42L), "an id seen again is carried into the current generation");
+    }
+
+    @Test
+    public void forgetsIdsAfterTwoWindows() {
+        assertFalse(filter.checkAndAdd(42L));
+
+        advanceSeconds(61);
+        filter.checkAndAdd(1L);
+        advanceSeconds(61);
+        filter.checkAndAdd(2L);
+
+        assertFalse(filter.checkAndAdd(42L));
+    }
+
+    @Test
+    public void staysNearConfiguredFalsePositiveRate() {
+        TimeWindowedBloomFilter sized = new TimeWindowedBloomFilter(200_000, 0.001, 60, clock::get);
+        for (long id = 0; id < 100_000; id++) {
+            sized.checkAndAdd(1_000_000_000_000_000L + id);
+        }
+        int falsePositives = 0;
+        for (long id = 0; id < 100_000; id++) {
+            if (sized.checkAndAdd(2_000_000_000_000_000L + id * 31)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,72 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MpmcRingBufferTest {
+
+    @Test
+    public void rejectsOfferWhenFull() {
+        MpmcRingBuffer<Integer> ringBuffer = new MpmcRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ringBuffer.offer(i));
+        }
+        assertFalse(ringBuffer.offer(4));
+        assertEquals(0, ringBuffer.poll());
+        assertTrue(ringBuffer.offer(4));
+        assertEquals(4, ringBuffer.size());
+    }
+
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(1024, new MpmcRingBuffer<>(1000).capacity());
+        assertNull(new MpmcRingBuffer<>(8).poll());
+    }
+
+    @Test
+    public void deliversEveryElementExactlyOnceUnderContention() throws InterruptedException {
+        MpmcRingBuffer<Long> ringBuffer = new MpmcRingBuffer<>(128);
+        int producers = 4;
+        int consumers = 4;
+        long perProducer = 100_000;
+        long expectedCount = producers * perProducer;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            threads.add(new Thread(() -> {
+                for (long i = 1; i <= perProducer; i++) {
+                    while (!ringBuffer.offer(i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                while (count.get() < expectedCount) {
+                    Long value = ringBuffer.poll();
+                    if (value != null) {
+                        sum.addAndGet(value);
+                        count.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(expectedCount, count.get());
+        assertEquals(producers * perProducer * (perProducer + 1) / 2, sum.get());
+        assertTrue(ringBuffer.isEmpty());
+    }
+}
@@ -0,0 +1,233 @@
+package com.sedlarski.eventdriven.twittertokafka.service.handoff;
+
+import com.sedlarski.eventdriven.config.HandoffQueueConfigData;
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.TweetFilterConfigData;
+import com.sedlarski.eventdriven.config.TwitterToKafkaServiceConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.filter.TweetFilter;
+import com.sedlarski.eventdriven.twittertokafka.service.publisher.TweetPublisher;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.KafkaProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TweetHandoffQueueTest {
+
+    private final BlockingProducer producer = new BlockingProducer();
+
+    private final List<TwitterAvroModel> spilled = new CopyOnWriteArrayList<>();
+
+    private TweetHandoffQueue tweetHandoffQueue;
+
+    @AfterEach
+    public void tearDown() {
+        producer.release.countDown();
+        tweetHandoffQueue.shutdown();
+    }
+
+    @Test
+    public void blocksThePublisherUntilThereIsRoom() throws InterruptedException {
+        fillQueue("BLOCK");
+        Thread publisher = new Thread(() -> tweetHandoffQueue.publish(tweet(1L, 4L)));
+        publisher.start();
+
+        publisher.join(200);
+        assertTrue(publisher.isAlive());
+        producer.release.countDown();
+        publisher.join(10_000);
+
+        assertFalse(publisher.isAlive());
+        tweetHandoffQueue.shutdown();
+        assertEquals(List.of(1L, 2L, 3L, 4L), producer.ids(1L));
+        assertEquals(0, tweetHandoffQueue.getDroppedCount());
+    }
+
+    @Test
+    public void dropsTheOldestQueuedTweet() {
+        fillQueue("DROP_OLDEST");
+
+        tweetHandoffQueue.publish(tweet(1L, 4L));
+        producer.release.countDown();
+        tweetHandoffQueue.shutdown();
+
+        assertEquals(List.of(1L, 3L, 4L), producer.ids(1L));
+        assertEquals(1, tweetHandoffQueue.getDroppedCount());
+    }
+
+    @Test
+    public void dropsTheNewestTweet() {
+        fillQueue("DROP_NEWEST");
+
+        tweetHandoffQueue.publish(tweet(1L, 4L));
+        producer.release.countDown();
+        tweetHandoffQueue.shutdown();
+
+        assertEquals(List.of(1L, 2L, 3L), producer.ids(1L));
+        assertEquals(1, tweetHandoffQueue.getDroppedCount());
+    }
+
+    @Test
+    public void spillsTheNewestTweet() {
+        fillQueue("SPILL");
+
+        tweetHandoffQueue.publish(tweet(1L, 4L));
+        producer.release.countDown();
+        tweetHandoffQueue.shutdown();
+
+        assertEquals(List.of(1L, 2L, 3L), producer.ids(1L));
+        assertEquals(List.of(4L), spilled.stream().map(TwitterAvroModel::getId).collect(Collectors.toList()));
+        assertEquals(1, tweetHandoffQueue.getSpilledCount());
+    }
+
+    @Test
+    public void keepsTheOrderOfEveryUserAcrossWorkers() throws InterruptedException {
+        start("BLOCK", 1024, 4);
+        producer.release.countDown();
+        List<Thread> publishers = new ArrayList<>();
+        for (long thread = 0; thread < 4; thread++) {
+            long userId = thread;
+            publishers.add(new Thread(() -> LongStream.range(0, 20_000)
+                    .forEach(id -> tweetHandoffQueue.publish(tweet(userId, id)))));
+        }
+        publishers.forEach(Thread::start);
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        tweetHandoffQueue.shutdown();
+
+        for (long userId = 0; userId < 4; userId++) {
+            assertEquals(LongStream.range(0, 20_000).boxed().collect(Collectors.toList()), producer.ids(userId));
+        }
+    }
+
+    @Test
+    public void publishesTweetsThatRaceWithShutdown() throws InterruptedException {
+        start("BLOCK", 64, 2);
+        producer.release.countDown();
+        List<Thread> publishers = new ArrayList<>();
+        for (long thread = 0; thread < 4; thread++) {
+            long userId = thread;
+            publishers.add(new Thread(() -> LongStream.range(0, 50_000)
+                    .forEach(id -> tweetHandoffQueue.publish(tweet(userId, id)))));
+        }
+        publishers.forEach(Thread::start);
+        Thread.sleep(20);
+        tweetHandoffQueue.shutdown();
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        for (long userId = 0; userId < 4; userId++) {
+            assertEquals(50_000, producer.ids(userId).size());
+        }
+    }
+
+    /**
+     * One worker and room for two tweets: the worker is stuck publishing tweet 1 and tweets 2 and 3 fill the queue.
+     */
+    private void fillQueue(String overflowPolicy) {
+        start(overflowPolicy, 2, 1);
+        tweetHandoffQueue.publish(tweet(1L, 1L));
+        try {
+            assertTrue(producer.entered.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        tweetHandoffQueue.publish(tweet(1L, 2L));
+        tweetHandoffQueue.publish(tweet(1L, 3L));
+        assertEquals(2, tweetHandoffQueue.size());
+    }
+
+    private void start(String overflowPolicy, int capacity, int drainWorkers) {
+        HandoffQueueConfigData handoffQueueConfigData = new HandoffQueueConfigData();
+        handoffQueueConfigData.setEnabled(true);
+        handoffQueueConfigData.setCapacity(capacity);
+        handoffQueueConfigData.setDrainWorkers(drainWorkers);
+        handoffQueueConfigData.setOverflowPolicy(overflowPolicy);
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("twitter-topic");
+        TweetFilter tweetFilter = new TweetFilter(new TweetFilterConfigData(), new TwitterToKafkaServiceConfigData(),
+                kafkaConfigData, new SimpleMeterRegistry());
+        tweetHandoffQueue = new TweetHandoffQueue(handoffQueueConfigData,
+                new TweetPublisher(kafkaConfigData, producer, Optional.empty()), spilled::add, tweetFilter);
+        tweetHandoffQueue.start();
+    }
+
+    private static TwitterAvroModel tweet(long userId, long id) {
+        return new TwitterAvroModel(userId, id, "tweet " + id, 1620000000000L);
+    }
+
+    /**
+     * Records the tweet ids per user in send order. The first batch blocks until released.
+     */
+    private static final class BlockingProducer implements KafkaProducer<Long, TwitterAvroModel> {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final Map<Long, List<Long>> idsByUser = new ConcurrentHashMap<>();
+
+        private final AtomicLong batches = new AtomicLong();
+
+        @Override
+        public void send(String topicName, Long key, TwitterAvroModel message) {
+            record(message);
+        }
+
+        @Override
+        public CompletableFuture<BatchSendResult> sendBatch(String topicName,
+                                                            List<Pair<Long, TwitterAvroModel>> messages) {
+            if (batches.getAndIncrement() == 0) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.forEach(message -> record(message.getValue()));
+            return CompletableFuture.completedFuture(new BatchSendResult(topicName, messages.size(), 0, null));
+        }
+
+        @Override
+        public CompletableFuture<BatchSendResult> sendBatch(List<String> topicNames,
+                                                            List<Pair<Long, TwitterAvroModel>> messages) {
+            return sendBatch(String.join(",", topicNames), messages);
+        }
+
+        private void record(TwitterAvroModel message) {
+            List<Long> ids = idsByUser.computeIfAbsent(message.getUserId(), userId -> new ArrayList<>());
+            synchronized (ids) {
+                ids.add(message.getId());
+            }
+        }
+
+        private List<Long> ids(long userId) {
+            List<Long> ids = idsByUser.getOrDefault(userId, List.of());
+            synchronized (ids) {
+                return new ArrayList<>(ids);
+            }
+        }
+    }
+}
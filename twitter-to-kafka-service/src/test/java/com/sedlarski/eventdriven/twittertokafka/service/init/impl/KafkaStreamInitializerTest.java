@@ -0,0 +1,77 @@
+package com.sedlarski.eventdriven.twittertokafka.service.init.impl;
+
+import com.sedlarski.eventdriven.common.startup.StartupPhaseTimings;
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.StartupConfigData;
+import com.sedlarski.eventdriven.kafka.admin.client.KafkaAdminClient;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.kafka.producer.config.schema.CachingSchemaRegistryClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KafkaStreamInitializerTest {
+
+    private static final String SUBJECT = "twitter-topic-value";
+
+    private final KafkaAdminClient kafkaAdminClient = mock(KafkaAdminClient.class);
+
+    private final CachingSchemaRegistryClient schemaRegistryClient = mock(CachingSchemaRegistryClient.class);
+
+    private final StartupConfigData startupConfigData = new StartupConfigData();
+
+    @Test
+    public void skipsTheSchemaRegistryCheckForACachedSchema() {
+        when(schemaRegistryClient.isCached(SUBJECT, TwitterAvroModel.getClassSchema())).thenReturn(true);
+
+        initializer(schemaRegistryClient).init();
+
+        verify(kafkaAdminClient).bootstrap(false);
+        verify(schemaRegistryClient).warmUp(SUBJECT, TwitterAvroModel.getClassSchema());
+    }
+
+    @Test
+    public void checksTheSchemaRegistryForAnUncachedSchema() {
+        initializer(schemaRegistryClient).init();
+
+        verify(kafkaAdminClient).bootstrap(true);
+    }
+
+    @Test
+    public void checksTheSchemaRegistryWithoutACachingClient() {
+        initializer(null).init();
+
+        verify(kafkaAdminClient).bootstrap(true);
+    }
+
+    @Test
+    public void skipsTheSchemaRegistryCheckWhenDeferred() {
+        startupConfigData.setDeferInfrastructureChecks(true);
+        when(schemaRegistryClient.isCached(SUBJECT, TwitterAvroModel.getClassSchema())).thenReturn(true);
+        when(kafkaAdminClient.bootstrapAsync(anyBoolean())).thenReturn(CompletableFuture.completedFuture(null));
+
+        initializer(schemaRegistryClient).init();
+
+        verify(kafkaAdminClient).bootstrapAsync(false);
+        verify(schemaRegistryClient, timeout(10_000)).warmUp(SUBJECT, TwitterAvroModel.getClassSchema());
+    }
+
+    @SuppressWarnings("unchecked")
+    private KafkaStreamInitializer initializer(CachingSchemaRegistryClient cachingClient) {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("twitter-topic");
+        kafkaConfigData.setTopicNamesToCreate(List.of("twitter-topic"));
+        ObjectProvider<CachingSchemaRegistryClient> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(cachingClient);
+        return new KafkaStreamInitializer(kafkaConfigData, kafkaAdminClient, provider, new StartupPhaseTimings(),
+                startupConfigData);
+    }
+}
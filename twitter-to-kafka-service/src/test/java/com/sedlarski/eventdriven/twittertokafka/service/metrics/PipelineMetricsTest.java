@@ -0,0 +1,146 @@
+package com.sedlarski.eventdriven.twittertokafka.service.metrics;
+
+import com.sedlarski.eventdriven.common.logging.HotPathLoggerFactory;
+import com.sedlarski.eventdriven.config.HandoffQueueConfigData;
+import com.sedlarski.eventdriven.config.HotPathLoggingConfigData;
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.TweetFilterConfigData;
+import com.sedlarski.eventdriven.config.TwitterToKafkaServiceConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.filter.TweetFilter;
+import com.sedlarski.eventdriven.twittertokafka.service.handoff.TweetHandoffQueue;
+import com.sedlarski.eventdriven.twittertokafka.service.listener.TwitterKafkaStatusListener;
+import com.sedlarski.eventdriven.twittertokafka.service.publisher.TweetPublisher;
+import com.sedlarski.eventdriven.twittertokafka.service.runner.impl.SyntheticTweetGenerator;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterJsonToAvroTransformer;
+import com.sedlarski.eventdriven.twittertokafka.service.transformer.TwitterStatusToAvroTransformer;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.KafkaProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PipelineMetricsTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private TweetHandoffQueue tweetHandoffQueue;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        tweetHandoffQueue.shutdown();
+    }
+
+    @Test
+    public void countsReceivedAndTransformedStatuses() {
+        PipelineMetrics pipelineMetrics = start();
+
+        pipelineMetrics.recordReceived();
+        pipelineMetrics.recordReceived();
+        pipelineMetrics.recordTransform(System.nanoTime());
+
+        assertEquals(2.0, meterRegistry.get("twitter.stream.received").tag("topic", TOPIC).counter().count(), 1e-9);
+        assertEquals(1, meterRegistry.get("twitter.stream.transform").tag("topic", TOPIC).timer().count());
+    }
+
+    @Test
+    public void countsSyntheticTweetsAsReceived() throws InterruptedException {
+        PipelineMetrics pipelineMetrics = start();
+        TwitterKafkaStatusListener listener = new TwitterKafkaStatusListener(tweetHandoffQueue,
+                new TwitterStatusToAvroTransformer(), new TwitterJsonToAvroTransformer(), pipelineMetrics,
+                new HotPathLoggerFactory(new HotPathLoggingConfigData()));
+        SyntheticTweetGenerator generator = new SyntheticTweetGenerator(new String[]{"Lorem", "ipsum"},
+                new String[]{"#Kafka"}, 3, 5, 100, 1, listener::onAvroModel);
+
+        generator.start();
+        Thread.sleep(100);
+        generator.stop();
+
+        assertTrue(generator.getGeneratedCount() > 0);
+        assertEquals(generator.getGeneratedCount(),
+                meterRegistry.get("twitter.stream.received").tag("topic", TOPIC).counter().count(), 1e-9);
+    }
+
+    @Test
+    public void reportsTheHandoffQueue() throws InterruptedException {
+        start();
+
+        tweetHandoffQueue.publish(tweet(1L));
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        tweetHandoffQueue.publish(tweet(2L));
+        tweetHandoffQueue.publish(tweet(3L));
+        tweetHandoffQueue.publish(tweet(4L));
+
+        assertEquals(2.0, meterRegistry.get("twitter.handoff.queue.size").tag("topic", TOPIC).gauge().value(), 1e-9);
+        assertEquals(1.0, meterRegistry.get("twitter.handoff.dropped").tag("topic", TOPIC).functionCounter().count(),
+                1e-9);
+        assertEquals(0.0, meterRegistry.get("twitter.handoff.spilled").tag("topic", TOPIC).functionCounter().count(),
+                1e-9);
+    }
+
+    private PipelineMetrics start() {
+        HandoffQueueConfigData handoffQueueConfigData = new HandoffQueueConfigData();
+        handoffQueueConfigData.setEnabled(true);
+        handoffQueueConfigData.setCapacity(2);
+        handoffQueueConfigData.setDrainWorkers(1);
+        handoffQueueConfigData.setOverflowPolicy("DROP_NEWEST");
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName(TOPIC);
+        TweetFilter tweetFilter = new TweetFilter(new TweetFilterConfigData(), new TwitterToKafkaServiceConfigData(),
+                kafkaConfigData, new SimpleMeterRegistry());
+        tweetHandoffQueue = new TweetHandoffQueue(handoffQueueConfigData,
+                new TweetPublisher(kafkaConfigData, new BlockingProducer(), Optional.empty()), tweet -> { },
+                tweetFilter);
+        tweetHandoffQueue.start();
+        return new PipelineMetrics(meterRegistry, kafkaConfigData, tweetHandoffQueue);
+    }
+
+    private static TwitterAvroModel tweet(long id) {
+        return new TwitterAvroModel(1L, id, "tweet " + id, 1620000000000L);
+    }
+
+    /**
+     * Holds the first batch until released, so the queue behind it fills up.
+     */
+    private final class BlockingProducer implements KafkaProducer<Long, TwitterAvroModel> {
+
+        @Override
+        public void send(String topicName, Long key, TwitterAvroModel message) {
+        }
+
+        @Override
+        public CompletableFuture<BatchSendResult> sendBatch(String topicName,
+                                                            List<Pair<Long, TwitterAvroModel>> messages) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return CompletableFuture.completedFuture(BatchSendResult.empty(topicName));
+        }
+
+        @Override
+        public CompletableFuture<BatchSendResult> sendBatch(List<String> topicNames,
+                                                            List<Pair<Long, TwitterAvroModel>> messages) {
+            return sendBatch(String.join(",", topicNames), messages);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.sedlarski.eventdriven.twittertokafka.service.publisher;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.TopicRouterConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertokafka.service.router.TopicRouter;
+import com.sedlarski.kafka.producer.config.model.BatchSendResult;
+import com.sedlarski.kafka.producer.config.model.Pair;
+import com.sedlarski.kafka.producer.config.service.KafkaProducer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TweetPublisherTest {
+
+    private final RecordingProducer recordingProducer = new RecordingProducer();
+
+    @Test
+    public void keepsTheOrderOfAUserOnSharedTopics() {
+        publisher().publishAll(List.of(tweet("first"), tweet("second about java"), tweet("third"),
+                tweet("fourth about java and kafka"), tweet("fifth about kafka"), tweet("sixth"))).join();
+
+        assertEquals(List.of("first", "second about java", "third", "fourth about java and kafka",
+                "fifth about kafka", "sixth"), recordingProducer.texts("twitter-topic"));
+        assertEquals(List.of("second about java", "fourth about java and kafka"),
+                recordingProducer.texts("java-topic"));
+        assertEquals(List.of("fourth about java and kafka", "fifth about kafka"),
+                recordingProducer.texts("kafka-topic"));
+    }
+
+    @Test
+    public void sendsConsecutiveTweetsOfARouteAsOneBatch() {
+        publisher().publishAll(List.of(tweet("java"), tweet("java again"), tweet("plain"), tweet("plain again")))
+                .join();
+
+        assertEquals(List.of(List.of("twitter-topic", "java-topic"), List.of("twitter-topic")),
+                recordingProducer.batchRoutes);
+    }
+
+    @Test
+    public void labelsARoutedBatchWithItsTopics() {
+        TweetPublisher tweetPublisher = publisher();
+
+        BatchSendResult result = tweetPublisher.publishAll(List.of(
+                tweet("nothing to see"), tweet("learning java"), tweet("java and kafka"), tweet("more java"))).join();
+
+        assertEquals("twitter-topic,java-topic,kafka-topic", result.getTopicName());
+        assertEquals(8, result.getRecordCount());
+    }
+
+    @Test
+    public void labelsASingleRouteWithItsTopics() {
+        BatchSendResult result = publisher().publishAll(List.of(tweet("java"), tweet("jvm java"))).join();
+
+        assertEquals("twitter-topic,java-topic", result.getTopicName());
+        assertEquals(4, result.getRecordCount());
+    }
+
+    private TweetPublisher publisher() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("twitter-topic");
+        kafkaConfigData.setTopicNamesToCreate(List.of("twitter-topic", "java-topic", "kafka-topic"));
+        TopicRouterConfigData topicRouterConfigData = new TopicRouterConfigData();
+        topicRouterConfigData.setEnabled(true);
+        topicRouterConfigData.setCopyToDefaultTopic(true);
+        topicRouterConfigData.setRules(List.of(rule("java-topic", "java"), rule("kafka-topic", "kafka")));
+        return new TweetPublisher(kafkaConfigData, recordingProducer,
+                Optional.of(new TopicRouter(topicRouterConfigData, kafkaConfigData)));
+    }
+
+    private static TopicRouterConfigData.RouteRule rule(String topic, String keyword) {
+        TopicRouterConfigData.RouteRule rule = new TopicRouterConfigData.RouteRule();
+        rule.setTopic(topic);
+        rule.setKeywords(List.of(keyword));
+        rule.setUserIds(List.of());
+        return rule;
+    }
+
+    private static TwitterAvroModel tweet(String text) {
+        return new TwitterAvroModel(1L, 2L, text, 1620000000000L);
+    }
+
+    /**
+     * Acknowledges every record, one per topic it is sent to, and records what was sent in send order.
+     */
+    private static final class RecordingProducer implements KafkaProducer<Long, TwitterAvroModel> {
+
+        private final List<List<String>> batchRoutes = new ArrayList<>();
+
+        private final List<Pair<String, String>> sent = new ArrayList<>();
+
+        @Override
+        public void send(String topicName, Long key, TwitterAvroModel message) {
+        }
+
+        @Override
+        public CompletableFuture<BatchSendResult> sendBatch(String topicName,
+                                                            List<Pair<Long, TwitterAvroModel>> messages) {
+            return sendBatch(List.of(topicName), messages);
+        }
+
+        @Override
+        public CompletableFuture<BatchSendResult> sendBatch(List<String> topicNames,
+                                                            List<Pair<Long, TwitterAvroModel>> messages) {
+            batchRoutes.add(topicNames);
+            for (Pair<Long, TwitterAvroModel> message : messages) {
+                for (String topicName : topicNames) {
+                    sent.add(Pair.of(topicName, message.getValue().getText()));
+                }
+            }
+            int recordCount = topicNames.size() * messages.size();
+            return CompletableFuture.completedFuture(
+                    new BatchSendResult(String.join(",", topicNames), recordCount, 0, null));
+        }
+
+        private List<String> texts(String topicName) {
+            return sent.stream().filter(record -> record.getKey().equals(topicName)).map(Pair::getValue)
+                    .collect(Collectors.toList());
+        }
+    }
+}
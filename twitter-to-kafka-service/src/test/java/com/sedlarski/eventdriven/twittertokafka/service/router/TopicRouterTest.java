@@ -0,0 +1,84 @@
+package com.sedlarski.eventdriven.twittertokafka.service.router;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.TopicRouterConfigData;
+import com.sedlarski.eventdriven.twittertokafka.service.exception.TwitterToKafkaServiceException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TopicRouterTest {
+
+    @Test
+    public void routesByKeywordsAndUsers() {
+        TopicRouter router = router(true, rule("java-topic", List.of("java", "jvm"), List.of()),
+                rule("kafka-topic", List.of("kafka"), List.of(42L)),
+                rule("vip-topic", List.of(), List.of(42L, 7L)));
+
+        assertEquals(List.of("twitter-topic"), router.route("nothing to see", 1L));
+        assertEquals(List.of("twitter-topic", "java-topic"), router.route("JVM tuning", 1L));
+        assertEquals(List.of("twitter-topic", "java-topic", "kafka-topic"), router.route("java and kafka", 1L));
+        assertEquals(List.of("twitter-topic", "kafka-topic", "vip-topic"), router.route(null, 42L));
+        assertEquals(List.of("twitter-topic", "vip-topic"), router.route("hello", 7L));
+    }
+
+    @Test
+    public void sendsOnlyUnmatchedTweetsToTheDefaultTopicWithoutCopy() {
+        TopicRouter router = router(false, rule("java-topic", List.of("java"), List.of()),
+                rule("jvm-topic", List.of("java", "jvm"), List.of()));
+
+        assertEquals(List.of("twitter-topic"), router.route("python", 1L));
+        assertEquals(List.of("java-topic", "jvm-topic"), router.route("java", 1L));
+        assertEquals(List.of("jvm-topic"), router.route("jvm", 1L));
+    }
+
+    @Test
+    public void sharesTheTopicListOfEqualMatches() {
+        TopicRouter router = router(true, rule("java-topic", List.of("java"), List.of()),
+                rule("kafka-topic", List.of("kafka"), List.of()));
+
+        assertSame(router.route("java", 1L), router.route("more JAVA", 2L));
+        assertSame(router.route("kafka", 1L), router.route("kafka streams", 2L));
+        assertSame(router.route("", 1L), router.route("rust", 2L));
+    }
+
+    @Test
+    public void mergesRulesForTheSameTopic() {
+        TopicRouter router = router(false, rule("jvm-topic", List.of("java"), List.of()),
+                rule("jvm-topic", List.of("kotlin"), List.of()));
+
+        assertEquals(List.of("jvm-topic"), router.route("java or kotlin", 1L));
+    }
+
+    @Test
+    public void rejectsRulesWithoutMatchers() {
+        assertThrows(TwitterToKafkaServiceException.class,
+                () -> router(true, rule("java-topic", List.of(), List.of())));
+        assertThrows(TwitterToKafkaServiceException.class,
+                () -> router(true, rule(" ", List.of("java"), List.of())));
+        assertThrows(TwitterToKafkaServiceException.class, () -> router(true));
+    }
+
+    private static TopicRouter router(boolean copyToDefaultTopic, TopicRouterConfigData.RouteRule... rules) {
+        TopicRouterConfigData topicRouterConfigData = new TopicRouterConfigData();
+        topicRouterConfigData.setEnabled(true);
+        topicRouterConfigData.setCopyToDefaultTopic(copyToDefaultTopic);
+        topicRouterConfigData.setRules(List.of(rules));
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("twitter-topic");
+        kafkaConfigData.setTopicNamesToCreate(List.of("twitter-topic", "java-topic", "kafka-topic"));
+        return new TopicRouter(topicRouterConfigData, kafkaConfigData);
+    }
+
+    private static TopicRouterConfigData.RouteRule rule(String topic, List<String> keywords, List<Long> userIds) {
+        TopicRouterConfigData.RouteRule rule = new TopicRouterConfigData.RouteRule();
+        rule.setTopic(topic);
+        rule.setKeywords(keywords);
+        rule.setUserIds(userIds);
+        return rule;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sedlarski.eventdriven.twittertokafka.service.runner.impl;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SyntheticTweetGeneratorTest {
+
+    private static final String[] WORDS = {"Lorem", "ipsum", "dolor"};
+
+    private static final String[] KEYWORDS = {"#Kafka"};
+
+    @Test
+    public void buildsTweetsOfTheConfiguredLengthAroundAKeyword() {
+        SyntheticTweetGenerator generator = new SyntheticTweetGenerator(WORDS, KEYWORDS, 3, 5, 0, 1, tweet -> { });
+
+        for (int i = 0; i < 100; i++) {
+            TwitterAvroModel tweet = generator.next(ThreadLocalRandom.current());
+            List<String> words = Arrays.asList(tweet.getText().split(" "));
+            assertTrue(words.size() >= 4 && words.size() <= 6, tweet.getText());
+            assertEquals(1, words.stream().filter("#Kafka"::equals).count());
+            assertTrue(tweet.getUserId() > 0);
+            assertTrue(tweet.getCreatedAt() <= System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void emitsAtTheTargetRate() throws InterruptedException {
+        AtomicInteger accepted = new AtomicInteger();
+        SyntheticTweetGenerator generator = new SyntheticTweetGenerator(WORDS, KEYWORDS, 3, 5, 200, 2,
+                tweet -> accepted.incrementAndGet());
+
+        generator.start();
+        Thread.sleep(500);
+        generator.stop();
+
+        // 200 tweets/sec for half a second, with slack for a slow test machine
+        assertTrue(accepted.get() >= 50 && accepted.get() <= 150, accepted.get() + " tweets");
+        assertEquals(accepted.get(), generator.getGeneratedCount());
+    }
+
+    @Test
+    public void countsOnlyTheTweetsTheSinkAccepted() throws InterruptedException {
+        AtomicInteger offered = new AtomicInteger();
+        SyntheticTweetGenerator generator = new SyntheticTweetGenerator(WORDS, KEYWORDS, 3, 5, 100, 1, tweet -> {
+            offered.incrementAndGet();
+            throw new IllegalStateException("sink closed");
+        });
+
+        generator.start();
+        Thread.sleep(100);
+        generator.stop();
+
+        assertTrue(offered.get() > 1, offered.get() + " tweets offered");
+        assertEquals(0, generator.getGeneratedCount());
+    }
+}
@@ -0,0 +1,75 @@
+package com.sedlarski.eventdriven.twittertokafka.service.transformer;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TwitterJsonToAvroTransformerTest {
+
+    private final TwitterJsonToAvroTransformer transformer = new TwitterJsonToAvroTransformer();
+
+    @Test
+    public void parsesV1TweetAndSkipsNestedTweets() {
+        TwitterAvroModel model = transform("{\"retweeted_status\":{\"id\":5,\"user\":{\"id\":6},\"text\":\"nested\"}," +
+                "\"id\":1050118621198921728,\"user\":{\"name\":\"n\",\"id\":6253282,\"entities\":{\"a\":[1,{\"b\":\"}\"}]}}," +
+                "\"text\":\"Lorem ipsum\",\"truncated\":false,\"created_at\":\"Wed Oct 10 20:19:24 +0000 2018\"}");
+
+        assertNotNull(model);
+        assertEquals(1050118621198921728L, model.getId());
+        assertEquals(6253282L, model.getUserId());
+        assertEquals("Lorem ipsum", model.getText());
+        assertEquals(1539202764000L, model.getCreatedAt());
+    }
+
+    @Test
+    public void parsesV2TweetWithEscapes() {
+        TwitterAvroModel model = transform("{\"data\":{\"id\":\"1001\",\"author_id\":\"42\"," +
+                "\"text\":\"a \\\"q\\\" \\u00e9 \\ud83d\\ude80\\nend\",\"created_at\":\"2021-06-01T10:15:30.123+02:00\"}," +
+                "\"matching_rules\":[{\"id\":\"1\",\"tag\":\"Kafka\"}]}");
+
+        assertNotNull(model);
+        assertEquals(1001L, model.getId());
+        assertEquals(42L, model.getUserId());
+        assertEquals("a \"q\" \u00e9 \uD83D\uDE80\nend", model.getText());
+        assertEquals(1622535330123L, model.getCreatedAt());
+    }
+
+    @Test
+    public void rejectsMessagesWithoutTweet() {
+        assertNull(transform("{\"errors\":[{\"title\":\"operational-disconnect\"}]}"));
+        assertNull(transform("{\"id\":1,"));
+        assertNull(transform("not json"));
+    }
+
+    @Test
+    public void parsesTwitterDatesLikeDateTimeFormatter() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH);
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long epochSecond = Math.floorMod(random.nextLong(), 4_000_000_000L);
+            int hours = random.nextInt(25) - 12;
+            ZoneOffset offset = ZoneOffset.ofHoursMinutes(hours, random.nextBoolean() ? (hours < 0 ? -30 : 30) : 0);
+            String createdAt = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), offset).format(formatter);
+
+            TwitterAvroModel model = transform("{\"id\":1,\"user\":{\"id\":2},\"text\":\"t\",\"created_at\":\"" + createdAt + "\"}");
+
+            assertNotNull(model, createdAt);
+            assertEquals(epochSecond * 1000, model.getCreatedAt(), createdAt);
+        }
+    }
+
+    private TwitterAvroModel transform(String json) {
+        return transformer.getTwitterAvroModelFromJson(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
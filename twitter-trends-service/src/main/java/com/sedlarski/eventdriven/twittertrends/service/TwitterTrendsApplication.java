@@ -0,0 +1,14 @@
+package com.sedlarski.eventdriven.twittertrends.service;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ComponentScan;
+
+@SpringBootApplication
+@ComponentScan(basePackages = {"com.sedlarski"})
+public class TwitterTrendsApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(TwitterTrendsApplication.class, args);
+    }
+}
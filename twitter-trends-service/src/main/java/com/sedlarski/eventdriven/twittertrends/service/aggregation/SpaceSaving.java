@@ -0,0 +1,138 @@
+package com.sedlarski.eventdriven.twittertrends.service.aggregation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-K summary over a fixed number of counters. A term that is not tracked takes over the counter
+ * with the smallest count and inherits that count as its error, so every count is an upper bound that is off by
+ * at most its error. Counters sit in a min-heap indexed from the term map, an update is O(log capacity).
+ * Not thread safe.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+
+    private final Map<String, Counter> counters;
+
+    private final Counter[] heap;
+
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public void offer(String term) {
+        offer(term, 1, 0);
+    }
+
+    /**
+     * Adds weight to the term; error is the uncertainty the weight already carries, e.g. when merging summaries.
+     */
+    public void offer(String term, long weight, long error) {
+        Counter counter = counters.get(term);
+        if (counter != null) {
+            counter.count += weight;
+            counter.error += error;
+            siftDown(counter.position);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(term, weight, error);
+            counter.position = size;
+            heap[size++] = counter;
+            counters.put(term, counter);
+            siftUp(counter.position);
+            return;
+        }
+        Counter min = heap[0];
+        counters.remove(min.term);
+        min.term = term;
+        min.error = min.count + error;
+        min.count += weight;
+        counters.put(term, min);
+        siftDown(0);
+    }
+
+    public void merge(SpaceSaving other) {
+        for (int i = 0; i < other.size; i++) {
+            Counter counter = other.heap[i];
+            offer(counter.term, counter.count, counter.error);
+        }
+    }
+
+    /**
+     * Largest counts first.
+     */
+    public List<TermCount> top(int k) {
+        List<TermCount> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(new TermCount(heap[i].term, heap[i].count, heap[i].error));
+        }
+        top.sort(Comparator.comparingLong(TermCount::getCount).reversed());
+        return top.size() > k ? new ArrayList<>(top.subList(0, k)) : top;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftUp(int position) {
+        Counter counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        Counter counter = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+
+    private void place(Counter counter, int position) {
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    private static final class Counter {
+
+        private String term;
+
+        private long count;
+
+        private long error;
+
+        private int position;
+
+        private Counter(String term, long count, long error) {
+            this.term = term;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
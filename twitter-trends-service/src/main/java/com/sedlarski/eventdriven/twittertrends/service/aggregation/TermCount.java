@@ -0,0 +1,28 @@
+package com.sedlarski.eventdriven.twittertrends.service.aggregation;
+
+public final class TermCount {
+
+    private final String term;
+
+    private final long count;
+
+    private final long error;
+
+    public TermCount(String term, long count, long error) {
+        this.term = term;
+        this.count = count;
+        this.error = error;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getError() {
+        return error;
+    }
+}
@@ -0,0 +1,81 @@
+package com.sedlarski.eventdriven.twittertrends.service.aggregation;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds hashtags and configured keywords in a tweet in one pass, case insensitive. Hashtags are reported with
+ * their leading '#', keywords lower cased. Only single-word keywords can match. Only words within the keyword
+ * length range are lower cased and looked up, the rest of the text is skipped without allocating.
+ */
+public class TermExtractor {
+
+    private final Set<String> keywords = new HashSet<>();
+
+    private int minKeywordLength = Integer.MAX_VALUE;
+
+    private int maxKeywordLength;
+
+    public TermExtractor(Collection<String> keywords) {
+        for (String keyword : keywords) {
+            String normalized = keyword.trim().toLowerCase(Locale.ROOT);
+            if (!normalized.isEmpty()) {
+                this.keywords.add(normalized);
+                minKeywordLength = Math.min(minKeywordLength, normalized.length());
+                maxKeywordLength = Math.max(maxKeywordLength, normalized.length());
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of terms with the distinct terms of the text.
+     */
+    public void extract(String text, List<String> terms) {
+        terms.clear();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '#') {
+                int end = wordEnd(text, i + 1);
+                if (end > i + 1) {
+                    addDistinct(terms, "#" + text.substring(i + 1, end).toLowerCase(Locale.ROOT));
+                }
+                i = Math.max(end, i + 1);
+            } else if (isWordChar(c)) {
+                int end = wordEnd(text, i);
+                int wordLength = end - i;
+                if (wordLength >= minKeywordLength && wordLength <= maxKeywordLength) {
+                    String word = text.substring(i, end).toLowerCase(Locale.ROOT);
+                    if (keywords.contains(word)) {
+                        addDistinct(terms, word);
+                    }
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static int wordEnd(String text, int from) {
+        int end = from;
+        while (end < text.length() && isWordChar(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static void addDistinct(List<String> terms, String term) {
+        if (!terms.contains(term)) {
+            terms.add(term);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sedlarski.eventdriven.twittertrends.service.aggregation;
+
+import java.util.List;
+
+public final class TrendWindow {
+
+    private final String windowType;
+
+    private final long windowStart;
+
+    private final long windowEnd;
+
+    private final List<TermCount> terms;
+
+    public TrendWindow(String windowType, long windowStart, long windowEnd, List<TermCount> terms) {
+        this.windowType = windowType;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.terms = terms;
+    }
+
+    public String getWindowType() {
+        return windowType;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public long getWindowEnd() {
+        return windowEnd;
+    }
+
+    public List<TermCount> getTerms() {
+        return terms;
+    }
+}
@@ -0,0 +1,162 @@
+package com.sedlarski.eventdriven.twittertrends.service.aggregation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tumbling and hopping window top-K over tweet terms. Every consuming thread counts into its own shard of
+ * Space-Saving summaries, one per pane, so the ingest path takes only an uncontended lock. Panes are
+ * gcd(tumbling, hop, hopping size) long; on emit the panes of a window are merged across shards. Records for a
+ * pane that no open window covers any more are dropped as late.
+ */
+public class WindowedTrendAggregator {
+
+    public static final String TUMBLING = "tumbling";
+
+    public static final String HOPPING = "hopping";
+
+    private final TermExtractor termExtractor;
+
+    private final long tumblingMillis;
+
+    private final long hoppingMillis;
+
+    private final long hopMillis;
+
+    private final long paneMillis;
+
+    private final int countersPerPane;
+
+    private final int topK;
+
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<Shard> shard = ThreadLocal.withInitial(this::newShard);
+
+    private final LongAdder lateRecords = new LongAdder();
+
+    private volatile long lowWatermark;
+
+    private long nextTumblingEnd;
+
+    private long nextHoppingEnd;
+
+    public WindowedTrendAggregator(TermExtractor termExtractor, long tumblingMillis, long hoppingMillis,
+                                   long hopMillis, int countersPerPane, int topK, long nowMillis) {
+        this.termExtractor = termExtractor;
+        this.tumblingMillis = tumblingMillis;
+        this.hoppingMillis = hoppingMillis;
+        this.hopMillis = hopMillis;
+        this.paneMillis = gcd(gcd(tumblingMillis, hopMillis), hoppingMillis);
+        this.countersPerPane = countersPerPane;
+        this.topK = topK;
+        this.nextTumblingEnd = nowMillis - Math.floorMod(nowMillis, tumblingMillis) + tumblingMillis;
+        this.nextHoppingEnd = nowMillis - Math.floorMod(nowMillis, hopMillis) + hopMillis;
+        this.lowWatermark = Math.min(nextTumblingEnd - tumblingMillis, nextHoppingEnd - hoppingMillis);
+    }
+
+    public void add(long timestampMillis, String text) {
+        long paneStart = timestampMillis - Math.floorMod(timestampMillis, paneMillis);
+        if (paneStart < lowWatermark) {
+            lateRecords.increment();
+            return;
+        }
+        shard.get().add(paneStart, text);
+    }
+
+    /**
+     * Closes every window that ends at or before the watermark, in end order. Called from a single thread.
+     */
+    public List<TrendWindow> closeWindows(long watermarkMillis) {
+        List<TrendWindow> windows = new ArrayList<>();
+        while (nextTumblingEnd <= watermarkMillis || nextHoppingEnd <= watermarkMillis) {
+            if (nextTumblingEnd <= nextHoppingEnd) {
+                addWindow(windows, TUMBLING, nextTumblingEnd - tumblingMillis, nextTumblingEnd);
+                nextTumblingEnd += tumblingMillis;
+            } else {
+                addWindow(windows, HOPPING, nextHoppingEnd - hoppingMillis, nextHoppingEnd);
+                nextHoppingEnd += hopMillis;
+            }
+        }
+        long low = Math.min(nextTumblingEnd - tumblingMillis, nextHoppingEnd - hoppingMillis);
+        if (low > lowWatermark) {
+            lowWatermark = low;
+            for (Shard current : shards) {
+                current.dropBefore(low);
+            }
+        }
+        return windows;
+    }
+
+    public long getLateRecords() {
+        return lateRecords.sum();
+    }
+
+    private void addWindow(List<TrendWindow> windows, String windowType, long start, long end) {
+        SpaceSaving merged = new SpaceSaving(countersPerPane);
+        for (Shard current : shards) {
+            current.mergeInto(merged, start, end);
+        }
+        if (merged.size() > 0) {
+            windows.add(new TrendWindow(windowType, start, end, merged.top(topK)));
+        }
+    }
+
+    private Shard newShard() {
+        Shard created = new Shard();
+        shards.add(created);
+        return created;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private final class Shard {
+
+        private final List<String> terms = new ArrayList<>();
+
+        private final NavigableMap<Long, SpaceSaving> panes = new TreeMap<>();
+
+        private long lastPaneStart = Long.MIN_VALUE;
+
+        private SpaceSaving lastPane;
+
+        private void add(long paneStart, String text) {
+            termExtractor.extract(text, terms);
+            if (terms.isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                if (paneStart < lowWatermark) {
+                    lateRecords.increment();
+                    return;
+                }
+                if (paneStart != lastPaneStart || lastPane == null) {
+                    lastPane = panes.computeIfAbsent(paneStart, start -> new SpaceSaving(countersPerPane));
+                    lastPaneStart = paneStart;
+                }
+                for (String term : terms) {
+                    lastPane.offer(term);
+                }
+            }
+        }
+
+        private synchronized void mergeInto(SpaceSaving merged, long start, long end) {
+            for (SpaceSaving pane : panes.subMap(start, true, end, false).values()) {
+                merged.merge(pane);
+            }
+        }
+
+        private synchronized void dropBefore(long start) {
+            panes.headMap(start, false).clear();
+            if (lastPaneStart < start) {
+                lastPane = null;
+            }
+        }
+    }
+}
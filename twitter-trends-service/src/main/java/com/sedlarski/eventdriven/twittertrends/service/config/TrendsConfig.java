@@ -0,0 +1,70 @@
+package com.sedlarski.eventdriven.twittertrends.service.config;
+
+import com.sedlarski.eventdriven.config.KafkaConfigData;
+import com.sedlarski.eventdriven.config.TrendsConfigData;
+import com.sedlarski.eventdriven.config.TwitterToKafkaServiceConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TrendAvroModel;
+import com.sedlarski.eventdriven.twittertrends.service.aggregation.TermExtractor;
+import com.sedlarski.eventdriven.twittertrends.service.aggregation.WindowedTrendAggregator;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keywords are the twitter-keywords of the ingest service. One small result record goes out per window, so the
+ * trends producer uses plain defaults instead of the tuned tweet producer.
+ */
+@Configuration
+public class TrendsConfig {
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final TrendsConfigData trendsConfigData;
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    public TrendsConfig(KafkaConfigData kafkaConfigData, TrendsConfigData trendsConfigData,
+                        TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.trendsConfigData = trendsConfigData;
+        this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
+    }
+
+    @Bean
+    public WindowedTrendAggregator windowedTrendAggregator() {
+        List<String> keywords = twitterToKafkaServiceConfigData.getTwitterKeywords();
+        return new WindowedTrendAggregator(new TermExtractor(keywords != null ? keywords : List.of()),
+                TimeUnit.SECONDS.toMillis(trendsConfigData.getTumblingWindowSeconds()),
+                TimeUnit.SECONDS.toMillis(trendsConfigData.getHoppingWindowSeconds()),
+                TimeUnit.SECONDS.toMillis(trendsConfigData.getHopSeconds()),
+                trendsConfigData.getCountersPerPane(),
+                trendsConfigData.getTopK(),
+                System.currentTimeMillis());
+    }
+
+    @Bean
+    public ProducerFactory<Long, TrendAvroModel> trendsProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers());
+        props.put(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, LongSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<Long, TrendAvroModel> trendsKafkaTemplate() {
+        return new KafkaTemplate<>(trendsProducerFactory());
+    }
+}
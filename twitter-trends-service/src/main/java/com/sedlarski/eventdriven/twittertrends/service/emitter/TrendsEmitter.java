@@ -0,0 +1,95 @@
+package com.sedlarski.eventdriven.twittertrends.service.emitter;
+
+import com.sedlarski.eventdriven.config.TrendsConfigData;
+import com.sedlarski.eventdriven.kafka.avro.model.TrendAvroModel;
+import com.sedlarski.eventdriven.kafka.avro.model.TrendTermAvroModel;
+import com.sedlarski.eventdriven.twittertrends.service.aggregation.TermCount;
+import com.sedlarski.eventdriven.twittertrends.service.aggregation.TrendWindow;
+import com.sedlarski.eventdriven.twittertrends.service.aggregation.WindowedTrendAggregator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes windows once wall clock minus the allowed lateness passed their end and sends one record per window,
+ * keyed by window start, to the trends topic.
+ */
+@Component
+public class TrendsEmitter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrendsEmitter.class);
+
+    private static final String LATE_RECORDS = "twitter.trends.late.records";
+
+    private final WindowedTrendAggregator windowedTrendAggregator;
+
+    private final KafkaTemplate<Long, TrendAvroModel> trendsKafkaTemplate;
+
+    private final TrendsConfigData trendsConfigData;
+
+    private ScheduledExecutorService scheduler;
+
+    public TrendsEmitter(WindowedTrendAggregator windowedTrendAggregator,
+                         KafkaTemplate<Long, TrendAvroModel> trendsKafkaTemplate,
+                         TrendsConfigData trendsConfigData,
+                         MeterRegistry meterRegistry) {
+        this.windowedTrendAggregator = windowedTrendAggregator;
+        this.trendsKafkaTemplate = trendsKafkaTemplate;
+        this.trendsConfigData = trendsConfigData;
+        Gauge.builder(LATE_RECORDS, windowedTrendAggregator, WindowedTrendAggregator::getLateRecords)
+                .description("Tweets that arrived after every window covering them was emitted")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("trends-emitter-"));
+        long interval = trendsConfigData.getEmitIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::emitSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void emitSafely() {
+        try {
+            emit();
+        } catch (Exception e) {
+            LOG.warn("Could not emit trends", e);
+        }
+    }
+
+    private void emit() {
+        long watermark = System.currentTimeMillis() -
+                TimeUnit.SECONDS.toMillis(trendsConfigData.getAllowedLatenessSeconds());
+        for (TrendWindow window : windowedTrendAggregator.closeWindows(watermark)) {
+            trendsKafkaTemplate.send(trendsConfigData.getTrendsTopicName(), window.getWindowStart(), toAvro(window));
+            LOG.debug("Emitted {} window {} - {} with {} term(s)", window.getWindowType(), window.getWindowStart(),
+                    window.getWindowEnd(), window.getTerms().size());
+        }
+    }
+
+    private TrendAvroModel toAvro(TrendWindow window) {
+        List<TrendTermAvroModel> terms = new ArrayList<>(window.getTerms().size());
+        for (TermCount termCount : window.getTerms()) {
+            terms.add(new TrendTermAvroModel(termCount.getTerm(), termCount.getCount(), termCount.getError()));
+        }
+        return new TrendAvroModel(window.getWindowType(), window.getWindowStart(), window.getWindowEnd(), terms);
+    }
+}
@@ -0,0 +1,32 @@
+package com.sedlarski.eventdriven.twittertrends.service.listener;
+
+import com.sedlarski.eventdriven.kafka.avro.model.TwitterAvroModel;
+import com.sedlarski.eventdriven.twittertrends.service.aggregation.WindowedTrendAggregator;
+import com.sedlarski.kafka.consumer.config.service.KafkaConsumer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Called concurrently from the parallel consumer workers, each worker counts into its own aggregator shard.
+ */
+@Component
+public class TrendsKafkaConsumer implements KafkaConsumer<Long, TwitterAvroModel> {
+
+    private final WindowedTrendAggregator windowedTrendAggregator;
+
+    public TrendsKafkaConsumer(WindowedTrendAggregator windowedTrendAggregator) {
+        this.windowedTrendAggregator = windowedTrendAggregator;
+    }
+
+    @Override
+    public void receive(List<TwitterAvroModel> messages, List<Long> keys, List<Integer> partitions,
+                        List<Long> offsets) {
+        for (TwitterAvroModel message : messages) {
+            if (message.getText() != null) {
+                windowedTrendAggregator.add(message.getCreatedAt() != null ? message.getCreatedAt()
+                        : System.currentTimeMillis(), message.getText());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sedlarski.eventdriven.twittertrends.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpaceSavingTest {
+
+    @Test
+    public void countsExactlyWhileUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (int i = 0; i < 5; i++) {
+            summary.offer("#java");
+        }
+        summary.offer("kafka");
+        summary.offer("kafka");
+
+        List<TermCount> top = summary.top(10);
+        assertEquals(2, top.size());
+        assertEquals("#java", top.get(0).getTerm());
+        assertEquals(5, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+        assertEquals(2, top.get(1).getCount());
+    }
+
+    @Test
+    public void keepsHeavyHittersUnderNoise() {
+        SpaceSaving summary = new SpaceSaving(50);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 10 == 0) {
+                summary.offer("heavy-" + (i / 10) % 3);
+            } else {
+                summary.offer("noise-" + random.nextInt(100_000));
+            }
+        }
+        List<TermCount> top = summary.top(3);
+        for (TermCount termCount : top) {
+            assertTrue(termCount.getTerm().startsWith("heavy-"), termCount.getTerm());
+            assertTrue(termCount.getCount() - termCount.getError() <= 3334, "lower bound above true count");
+            assertTrue(termCount.getCount() >= 3333, "count below true count");
+        }
+    }
+
+    @Test
+    public void mergeAddsCounts() {
+        SpaceSaving left = new SpaceSaving(10);
+        SpaceSaving right = new SpaceSaving(10);
+        left.offer("#kafka");
+        left.offer("#kafka");
+        right.offer("#kafka");
+        right.offer("java");
+
+        SpaceSaving merged = new SpaceSaving(10);
+        merged.merge(left);
+        merged.merge(right);
+
+        List<TermCount> top = merged.top(1);
+        assertEquals("#kafka", top.get(0).getTerm());
+        assertEquals(3, top.get(0).getCount());
+    }
+}
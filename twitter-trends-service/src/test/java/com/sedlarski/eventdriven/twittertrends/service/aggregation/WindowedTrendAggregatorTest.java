@@ -0,0 +1,60 @@
+package com.sedlarski.eventdriven.twittertrends.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WindowedTrendAggregatorTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final WindowedTrendAggregator aggregator = new WindowedTrendAggregator(
+            new TermExtractor(List.of("Java", "Kafka")), MINUTE, 3 * MINUTE, MINUTE, 100, 10, 10 * MINUTE);
+
+    @Test
+    public void extractsDistinctHashtagsAndKeywords() {
+        TermExtractor extractor = new TermExtractor(List.of("Java", "Kafka"));
+        List<String> terms = new ArrayList<>();
+
+        extractor.extract("Learning JAVA and #Kafka, java again #kafka! #", terms);
+
+        assertEquals(List.of("java", "#kafka"), terms);
+    }
+
+    @Test
+    public void emitsTumblingAndHoppingWindows() {
+        aggregator.add(10 * MINUTE + 1, "java");
+        aggregator.add(11 * MINUTE + 1, "java #trend");
+        aggregator.add(12 * MINUTE + 1, "kafka");
+
+        List<TrendWindow> windows = aggregator.closeWindows(13 * MINUTE);
+
+        List<TrendWindow> tumbling = windows.stream()
+                .filter(window -> WindowedTrendAggregator.TUMBLING.equals(window.getWindowType())).toList();
+        assertEquals(3, tumbling.size());
+        assertEquals(11 * MINUTE, tumbling.get(1).getWindowStart());
+        assertEquals(2, tumbling.get(1).getTerms().size());
+
+        TrendWindow lastHopping = windows.stream()
+                .filter(window -> WindowedTrendAggregator.HOPPING.equals(window.getWindowType()))
+                .reduce((first, second) -> second).orElseThrow();
+        assertEquals(10 * MINUTE, lastHopping.getWindowStart());
+        assertEquals(13 * MINUTE, lastHopping.getWindowEnd());
+        assertEquals("java", lastHopping.getTerms().get(0).getTerm());
+        assertEquals(2, lastHopping.getTerms().get(0).getCount());
+    }
+
+    @Test
+    public void dropsRecordsNoOpenWindowCovers() {
+        aggregator.closeWindows(20 * MINUTE);
+
+        aggregator.add(15 * MINUTE, "java");
+
+        assertEquals(1, aggregator.getLateRecords());
+        assertTrue(aggregator.closeWindows(21 * MINUTE).isEmpty());
+    }
+}